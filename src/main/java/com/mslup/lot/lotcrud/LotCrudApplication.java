@@ -3,11 +3,15 @@ package com.mslup.lot.lotcrud;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Główna klasa aplikacji.
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 @RequiredArgsConstructor
 public class LotCrudApplication {
     public static void main(String[] args) {
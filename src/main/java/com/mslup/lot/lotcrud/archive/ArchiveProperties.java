@@ -0,0 +1,20 @@
+package com.mslup.lot.lotcrud.archive;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja archiwizacji lotów (prefiks {@code lotcrud.archive}).
+ *
+ * @param enabled   Czy loty, które odleciały, są przenoszone do archiwum.
+ * @param interval  Odstęp między przebiegami archiwizacji.
+ * @param retention Jak długo po odlocie lot pozostaje w tablicy bieżącej.
+ * @param batchSize Liczba lotów przenoszonych w jednej transakcji.
+ */
+@ConfigurationProperties(prefix = "lotcrud.archive")
+public record ArchiveProperties(@DefaultValue("true") boolean enabled,
+                                @DefaultValue("1h") Duration interval,
+                                @DefaultValue("7d") Duration retention,
+                                @DefaultValue("1000") int batchSize) {
+}
@@ -0,0 +1,85 @@
+package com.mslup.lot.lotcrud.archive;
+
+import com.mslup.lot.lotcrud.maintenance.ChunkedFlightDeleter;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.ScheduledFuture;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Cyklicznie przenosi loty, które odleciały ponad {@link ArchiveProperties#retention()} temu,
+ * razem z ich rezerwacjami do tablic archiwum podzielonych na partycje według roku odlotu.
+ * Dzięki temu rozmiar tablic bieżących zależy od horyzontu rezerwacji, a nie od całej
+ * historii lotów.
+ *
+ * <p>Loty przenoszone są porcjami po {@link ArchiveProperties#batchSize()}, każda jednym
+ * zapytaniem w osobnej transakcji. Przeniesione loty nie są już zwracane przez zwykłe
+ * wyszukiwanie; wyszukiwanie z historią obejmuje również archiwum.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FlightArchiver {
+    private final FlightRepository flightRepository;
+    private final ChunkedFlightDeleter chunkedFlightDeleter;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final ArchiveProperties properties;
+
+    private ScheduledFuture<?> archiveTask;
+
+    @PostConstruct
+    void start() {
+        if (properties.enabled()) {
+            archiveTask = taskScheduler.scheduleWithFixedDelay(this::archiveDepartedFlights,
+                properties.interval());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (archiveTask != null) {
+            archiveTask.cancel(false);
+        }
+    }
+
+    /**
+     * Przenosi do archiwum wszystkie loty, które odleciały ponad okres przechowywania temu.
+     * Błąd jest zapisywany w logu, a archiwizacja zostanie ponowiona w kolejnym przebiegu.
+     *
+     * @return Liczba przeniesionych lotów.
+     */
+    public int archiveDepartedFlights() {
+        OffsetDateTime departedBefore = OffsetDateTime.now(ZoneOffset.UTC)
+            .minus(properties.retention());
+        int archivedCount = 0;
+        try {
+            OffsetDateTime earliest = flightRepository.findEarliestDepartureDateTime()
+                .filter(departure -> departure.isBefore(departedBefore))
+                .orElse(null);
+            if (earliest == null) {
+                return 0;
+            }
+            int fromYear = earliest.withOffsetSameInstant(ZoneOffset.UTC).getYear();
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int year = fromYear; year <= departedBefore.getYear(); year++) {
+                    flightRepository.createArchivePartitions(year);
+                }
+            });
+
+            archivedCount = chunkedFlightDeleter.deleteInChunks(properties.batchSize(),
+                batchSize -> flightRepository.archiveDepartedFlights(departedBefore, batchSize))
+                .flightCount();
+        } catch (RuntimeException e) {
+            log.warn("Archiving departed flights failed, will retry", e);
+        }
+        return archivedCount;
+    }
+}
@@ -0,0 +1,45 @@
+package com.mslup.lot.lotcrud.board;
+
+import com.mslup.lot.lotcrud.dto.FlightView;
+import java.time.OffsetDateTime;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Rodzaj tablicy lotniska.
+ */
+@RequiredArgsConstructor
+public enum BoardKind {
+    /**
+     * Tablica odlotów: loty z lotniska według daty odlotu.
+     */
+    DEPARTURES(FlightView::originAirport, FlightView::departureDateTime),
+
+    /**
+     * Tablica przylotów: loty do lotniska według daty przylotu.
+     */
+    ARRIVALS(FlightView::destinationAirport, FlightView::arrivalDateTime);
+
+    private final Function<FlightView, String> airport;
+    private final Function<FlightView, OffsetDateTime> time;
+
+    /**
+     * Zwraca lotnisko, na którego tablicy pokazywany jest lot.
+     *
+     * @param flight Lot.
+     * @return Kod lotniska.
+     */
+    public String airport(FlightView flight) {
+        return airport.apply(flight);
+    }
+
+    /**
+     * Zwraca datę, według której lot jest pokazywany na tablicy.
+     *
+     * @param flight Lot.
+     * @return Data odlotu lub przylotu; {@code null}, jeśli nie jest znana.
+     */
+    public OffsetDateTime time(FlightView flight) {
+        return time.apply(flight);
+    }
+}
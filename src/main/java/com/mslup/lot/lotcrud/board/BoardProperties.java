@@ -0,0 +1,27 @@
+package com.mslup.lot.lotcrud.board;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja tablic odlotów i przylotów (prefiks {@code lotcrud.board}).
+ *
+ * @param enabled           Czy tablice są włączone.
+ * @param defaultSize       Domyślna liczba lotów na tablicy.
+ * @param maxSize           Maksymalna liczba lotów na tablicy.
+ * @param maxFlightDuration Najdłuższy czas lotu; przy starcie wczytywane są loty, które
+ *                          odleciały najwyżej tyle czasu temu, by pokazać ich przyloty.
+ * @param maxAge            Czas, przez jaki klienci mogą korzystać z pobranej tablicy
+ *                          bez ponownego sprawdzania, czy się zmieniła.
+ * @param pruneInterval     Odstęp między usuwaniem z tablic lotów, które już odleciały
+ *                          lub przyleciały.
+ */
+@ConfigurationProperties(prefix = "lotcrud.board")
+public record BoardProperties(@DefaultValue("false") boolean enabled,
+                              @DefaultValue("10") int defaultSize,
+                              @DefaultValue("50") int maxSize,
+                              @DefaultValue("24h") Duration maxFlightDuration,
+                              @DefaultValue("5s") Duration maxAge,
+                              @DefaultValue("1m") Duration pruneInterval) {
+}
@@ -0,0 +1,238 @@
+package com.mslup.lot.lotcrud.board;
+
+import com.mslup.lot.lotcrud.dto.FlightView;
+import com.mslup.lot.lotcrud.event.FlightChangedEvent;
+import com.mslup.lot.lotcrud.event.FlightViewHolder;
+import com.mslup.lot.lotcrud.event.FlightViewRefresher;
+import com.mslup.lot.lotcrud.exception.ResourceException;
+import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tablice odlotów i przylotów lotnisk w pamięci.
+ *
+ * <p>Dla każdego lotniska i rodzaju tablicy ({@link BoardKind}) loty przechowywane są
+ * w liście z przeskokami posortowanej według daty odlotu lub przylotu, więc pobranie
+ * najbliższych lotów to odczyt początku listy od bieżącej chwili, bez zapytań do bazy danych.
+ *
+ * <p>Tablice wczytywane są przy starcie i aktualizowane po zatwierdzeniu zmian lotów
+ * ({@link FlightChangedEvent}) i liczby miejsc ({@link FlightViewRefresher}). Loty, które
+ * już odleciały lub przyleciały, są okresowo usuwane.
+ */
+@Component
+@RequiredArgsConstructor
+public class FlightBoard implements FlightViewHolder {
+    private final FlightRepository flightRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final TaskScheduler taskScheduler;
+    private final BoardProperties properties;
+
+    /**
+     * Loty na tablicach: rodzaj tablicy → lotnisko → loty według daty i ID.
+     */
+    private final Map<BoardKind, Map<String, ConcurrentSkipListMap<BoardKey, FlightView>>>
+        boards = new EnumMap<>(Map.of(
+            BoardKind.DEPARTURES, new ConcurrentHashMap<>(),
+            BoardKind.ARRIVALS, new ConcurrentHashMap<>()));
+    private final Map<Long, FlightView> flights = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean loaded;
+    private ScheduledFuture<?> pruneTask;
+
+    /**
+     * Klucz lotu na tablicy.
+     *
+     * @param time Data odlotu lub przylotu w nanosekundach od początku epoki.
+     * @param id   ID lotu.
+     */
+    private record BoardKey(long time, long id) implements Comparable<BoardKey> {
+
+        @Override
+        public int compareTo(BoardKey other) {
+            int result = Long.compare(time, other.time);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        load();
+        pruneTask = taskScheduler.scheduleWithFixedDelay(this::prune,
+            properties.pruneInterval());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (pruneTask != null) {
+            pruneTask.cancel(false);
+        }
+    }
+
+    /**
+     * Pobiera najbliższe loty z tablicy lotniska, czyli loty odlatujące (lub przylatujące)
+     * nie wcześniej niż w bieżącej chwili.
+     *
+     * @param kind    Rodzaj tablicy.
+     * @param airport Znormalizowany kod lotniska.
+     * @param size    Maksymalna liczba lotów.
+     * @return Lista lotów posortowana według daty odlotu (lub przylotu) i ID.
+     * @throws ResourceException Jeśli tablice są wyłączone.
+     */
+    public List<FlightView> getBoard(BoardKind kind, String airport, int size) {
+        if (!loaded) {
+            throw new ResourceException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Flight boards are disabled");
+        }
+        ConcurrentSkipListMap<BoardKey, FlightView> board = boards.get(kind).get(airport);
+        if (board == null) {
+            return List.of();
+        }
+        return board.tailMap(new BoardKey(epochNanos(OffsetDateTime.now(ZoneOffset.UTC)),
+                Long.MIN_VALUE)).values().stream()
+            .limit(size)
+            .toList();
+    }
+
+    /**
+     * Aktualizuje lot na tablicach po zatwierdzeniu jego zmiany.
+     *
+     * @param event Zdarzenie zmiany lotu.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        if (loaded) {
+            apply(event.flightId(), event.current());
+        }
+    }
+
+    @Override
+    public boolean holds(long flightId) {
+        return loaded && flights.containsKey(flightId);
+    }
+
+    @Override
+    public void refresh(long flightId, FlightView current) {
+        apply(flightId, current);
+    }
+
+    private void load() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        writeLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<FlightView> loadedFlights = flightRepository.streamFlights(
+                    FlightFilterCriteria.builder()
+                        .dateFrom(now.minus(properties.maxFlightDuration()))
+                        .build())) {
+                    loadedFlights.forEach(flight -> add(flight, epochNanos(now)));
+                }
+            });
+            loaded = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Usuwa z tablic loty, które już odleciały lub przyleciały.
+     */
+    void prune() {
+        long now = epochNanos(OffsetDateTime.now(ZoneOffset.UTC));
+        BoardKey first = new BoardKey(now, Long.MIN_VALUE);
+        writeLock.lock();
+        try {
+            for (Map<String, ConcurrentSkipListMap<BoardKey, FlightView>> airports
+                : boards.values()) {
+                airports.values().forEach(board -> board.headMap(first).clear());
+            }
+            flights.values().removeIf(flight -> !isShown(flight, now));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void apply(long flightId, FlightView current) {
+        long now = epochNanos(OffsetDateTime.now(ZoneOffset.UTC));
+        writeLock.lock();
+        try {
+            FlightView old = flights.remove(flightId);
+            if (old != null) {
+                for (BoardKind kind : BoardKind.values()) {
+                    BoardKey key = key(kind, old);
+                    if (key != null) {
+                        boards.get(kind).get(kind.airport(old)).remove(key);
+                    }
+                }
+            }
+            if (current != null) {
+                add(current, now);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void add(FlightView flight, long now) {
+        if (!isShown(flight, now)) {
+            return;
+        }
+        for (BoardKind kind : BoardKind.values()) {
+            BoardKey key = key(kind, flight);
+            if (key != null) {
+                boards.get(kind)
+                    .computeIfAbsent(kind.airport(flight), airport -> new ConcurrentSkipListMap<>())
+                    .put(key, flight);
+            }
+        }
+        flights.put(flight.id(), flight);
+    }
+
+    /**
+     * Sprawdza, czy lot jest jeszcze na którejś z tablic, czyli czy jeszcze nie odleciał lub
+     * nie przyleciał.
+     */
+    private static boolean isShown(FlightView flight, long now) {
+        for (BoardKind kind : BoardKind.values()) {
+            BoardKey key = key(kind, flight);
+            if (key != null && key.time() >= now) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static BoardKey key(BoardKind kind, FlightView flight) {
+        OffsetDateTime time = kind.time(flight);
+        return time == null ? null : new BoardKey(epochNanos(time), flight.id());
+    }
+
+    private static long epochNanos(OffsetDateTime dateTime) {
+        return TimeUnit.SECONDS.toNanos(dateTime.toEpochSecond()) + dateTime.getNano();
+    }
+}
@@ -0,0 +1,70 @@
+package com.mslup.lot.lotcrud.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.util.List;
+import java.util.OptionalLong;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Konfiguracja pamięci podręcznej drugiego poziomu Hibernate (JCache z implementacją Caffeine).
+ *
+ * <p>Regiony encji tworzone są przy starcie z limitem rozmiaru i czasem przechowywania
+ * z {@link EntityCacheProperties}, a Hibernate nie może tworzyć własnych regionów
+ * z domyślnymi ustawieniami. Gdy pamięć podręczna jest wyłączona, adnotacje
+ * {@link org.hibernate.annotations.Cache} na encjach są ignorowane.
+ */
+@Configuration
+public class EntityCacheConfiguration {
+    /**
+     * Region encji {@link com.mslup.lot.lotcrud.model.Flight}.
+     */
+    public static final String FLIGHT_REGION = "flight";
+
+    /**
+     * Region encji {@link com.mslup.lot.lotcrud.model.Passenger}.
+     */
+    public static final String PASSENGER_REGION = "passenger";
+
+    static final List<String> REGIONS = List.of(FLIGHT_REGION, PASSENGER_REGION);
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "lotcrud.cache", name = "enabled", havingValue = "true")
+    CacheManager entityCacheManager(EntityCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(
+            CaffeineCachingProvider.class.getName()).getCacheManager();
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(properties.maxEntries()));
+            configuration.setExpireAfterWrite(OptionalLong.of(properties.ttl().toNanos()));
+            configuration.setNativeStatisticsEnabled(true);
+            if (cacheManager.getCache(region) == null) {
+                cacheManager.createCache(region, configuration);
+            }
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer entityCacheCustomizer(
+        EntityCacheProperties properties, ObjectProvider<CacheManager> entityCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE,
+                properties.enabled());
+            if (properties.enabled()) {
+                hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                hibernateProperties.put(ConfigSettings.CACHE_MANAGER,
+                    entityCacheManager.getObject());
+                hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            }
+        };
+    }
+}
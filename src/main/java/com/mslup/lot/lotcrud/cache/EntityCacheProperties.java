@@ -0,0 +1,18 @@
+package com.mslup.lot.lotcrud.cache;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja pamięci podręcznej drugiego poziomu encji (prefiks {@code lotcrud.cache}).
+ *
+ * @param enabled    Czy pamięć podręczna jest włączona.
+ * @param maxEntries Maksymalna liczba encji w każdym regionie.
+ * @param ttl        Czas przechowywania encji od jej zapisania w pamięci podręcznej.
+ */
+@ConfigurationProperties(prefix = "lotcrud.cache")
+public record EntityCacheProperties(@DefaultValue("false") boolean enabled,
+                                    @DefaultValue("10000") long maxEntries,
+                                    @DefaultValue("10m") Duration ttl) {
+}
@@ -0,0 +1,117 @@
+package com.mslup.lot.lotcrud.cache;
+
+import com.mslup.lot.lotcrud.dto.CacheStatsDto;
+import com.mslup.lot.lotcrud.event.SeatsChangedEvent;
+import com.mslup.lot.lotcrud.model.Flight;
+import com.mslup.lot.lotcrud.model.Passenger;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import javax.cache.CacheManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Serwis usuwający pojedyncze encje z pamięci podręcznej drugiego poziomu i udostępniający
+ * jej statystyki.
+ *
+ * <p>Zmiany wykonywane przez sesję Hibernate (zapis, usunięcie encji) aktualizują pamięć
+ * podręczną automatycznie. Zapytania UPDATE wykonywane bezpośrednio na bazie (np. zmiany liczby
+ * miejsc) nie są przez nią widoczne, dlatego zmienione loty usuwane są z pamięci podręcznej
+ * jawnie po otrzymaniu {@link SeatsChangedEvent}. Usunięcie wykonywane jest od razu oraz
+ * ponownie po zakończeniu transakcji, aby nie pozostała w niej wartość wczytana przez inną
+ * transakcję przed zatwierdzeniem zmiany.
+ */
+@Service
+@RequiredArgsConstructor
+public class EntityCacheService {
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<CacheManager> entityCacheManager;
+
+    /**
+     * Usuwa lot z pamięci podręcznej.
+     *
+     * @param flightId ID lotu.
+     */
+    public void evictFlight(long flightId) {
+        evictFlights(List.of(flightId));
+    }
+
+    /**
+     * Usuwa loty z pamięci podręcznej.
+     *
+     * @param flightIds ID lotów.
+     */
+    public void evictFlights(Collection<Long> flightIds) {
+        evict(Flight.class, flightIds);
+    }
+
+    /**
+     * Usuwa pasażera z pamięci podręcznej.
+     *
+     * @param passengerId ID pasażera.
+     */
+    public void evictPassenger(long passengerId) {
+        evictPassengers(List.of(passengerId));
+    }
+
+    /**
+     * Usuwa pasażerów z pamięci podręcznej.
+     *
+     * @param passengerIds ID pasażerów.
+     */
+    public void evictPassengers(Collection<Long> passengerIds) {
+        evict(Passenger.class, passengerIds);
+    }
+
+    /**
+     * Usuwa z pamięci podręcznej loty, w których zmieniła się liczba miejsc.
+     *
+     * @param event Zdarzenie zmiany liczby miejsc.
+     */
+    @EventListener
+    public void onSeatsChanged(SeatsChangedEvent event) {
+        evictFlights(event.flightIds());
+    }
+
+    /**
+     * Pobiera statystyki regionów pamięci podręcznej.
+     *
+     * @return Statystyki regionów lub pusta lista, jeśli pamięć podręczna jest wyłączona.
+     */
+    public List<CacheStatsDto> getStatistics() {
+        CacheManager cacheManager = entityCacheManager.getIfAvailable();
+        if (cacheManager == null) {
+            return List.of();
+        }
+        return EntityCacheConfiguration.REGIONS.stream()
+            .map(cacheManager::getCache)
+            .filter(Objects::nonNull)
+            .map(cache -> CacheStatsDto.of(cache.getName(),
+                cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class)))
+            .toList();
+    }
+
+    private void evict(Class<?> entityClass, Collection<Long> ids) {
+        if (ids.isEmpty() || entityCacheManager.getIfAvailable() == null) {
+            return;
+        }
+        List<Long> evicted = List.copyOf(ids);
+        jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+        evicted.forEach(id -> cache.evict(entityClass, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        evicted.forEach(id -> cache.evict(entityClass, id));
+                    }
+                });
+        }
+    }
+}
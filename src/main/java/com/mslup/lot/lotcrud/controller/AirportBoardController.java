@@ -0,0 +1,77 @@
+package com.mslup.lot.lotcrud.controller;
+
+import com.mslup.lot.lotcrud.board.BoardKind;
+import com.mslup.lot.lotcrud.board.BoardProperties;
+import com.mslup.lot.lotcrud.board.FlightBoard;
+import com.mslup.lot.lotcrud.dto.FlightView;
+import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Min;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Kontroler obsługujący tablice odlotów i przylotów lotnisk.
+ * Odpowiedzi zawierają nagłówek {@code ETag}, więc żądanie z nagłówkiem
+ * {@code If-None-Match} dla niezmienionej tablicy kończy się odpowiedzią 304 bez treści.
+ */
+@RequestMapping("/airports")
+@RequiredArgsConstructor
+@RestController
+@Tag(name = "Tablice lotnisk", description = "Najbliższe odloty i przyloty lotnisk")
+public class AirportBoardController {
+    private final FlightBoard flightBoard;
+    private final BoardProperties properties;
+
+    /**
+     * Pobiera najbliższe odloty z lotniska.
+     *
+     * @param code Kod lotniska.
+     * @param size Liczba lotów (domyślnie i maksymalnie według konfiguracji).
+     * @return {@code ResponseEntity} z listą lotów posortowaną według daty odlotu.
+     */
+    @GetMapping(path = "/{code}/departures")
+    @ApiResponse(responseCode = "304", description = "Tablica nie zmieniła się")
+    public ResponseEntity<List<FlightView>> getDepartures(
+        @PathVariable String code,
+        @RequestParam Optional<@Min(value = 1) Integer> size) {
+        return board(BoardKind.DEPARTURES, code, size);
+    }
+
+    /**
+     * Pobiera najbliższe przyloty do lotniska. Pomijane są loty bez daty przylotu.
+     *
+     * @param code Kod lotniska.
+     * @param size Liczba lotów (domyślnie i maksymalnie według konfiguracji).
+     * @return {@code ResponseEntity} z listą lotów posortowaną według daty przylotu.
+     */
+    @GetMapping(path = "/{code}/arrivals")
+    @ApiResponse(responseCode = "304", description = "Tablica nie zmieniła się")
+    public ResponseEntity<List<FlightView>> getArrivals(
+        @PathVariable String code,
+        @RequestParam Optional<@Min(value = 1) Integer> size) {
+        return board(BoardKind.ARRIVALS, code, size);
+    }
+
+    private ResponseEntity<List<FlightView>> board(BoardKind kind, String code,
+                                                   Optional<Integer> size) {
+        List<FlightView> board = flightBoard.getBoard(kind,
+            FlightFilterCriteria.normalizeAirportCode(code),
+            Math.min(size.orElse(properties.defaultSize()), properties.maxSize()));
+
+        // Przy zgodnym nagłówku If-None-Match Spring odpowiada 304 bez serializacji treści.
+        return ResponseEntity.ok()
+            .eTag(Integer.toHexString(board.hashCode()) + "-" + board.size())
+            .cacheControl(CacheControl.maxAge(properties.maxAge()).cachePublic())
+            .body(board);
+    }
+}
@@ -0,0 +1,39 @@
+package com.mslup.lot.lotcrud.controller;
+
+import com.mslup.lot.lotcrud.exception.ResourceException;
+import java.util.Optional;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Klasa pomocnicza odczytująca oczekiwaną wersję zasobu z nagłówka {@code If-Match}.
+ * Znacznikiem ETag zasobu jest jego wersja, np. {@code "3"}.
+ */
+class EntityVersions {
+
+    /**
+     * Odczytuje oczekiwaną wersję z nagłówka {@code If-Match}.
+     *
+     * @param ifMatch Wartość nagłówka.
+     * @return Oczekiwana wersja lub {@code null}, jeśli nagłówka nie podano lub ma wartość
+     *     {@code *}.
+     * @throws ResourceException Jeśli wartość nagłówka nie jest wersją.
+     */
+    static Long expectedVersion(Optional<String> ifMatch) {
+        String value = ifMatch.map(String::trim).orElse("*");
+        if (value.equals("*")) {
+            return null;
+        }
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ResourceException(HttpStatus.BAD_REQUEST,
+                String.format("Invalid If-Match header: %s", ifMatch.get()));
+        }
+    }
+}
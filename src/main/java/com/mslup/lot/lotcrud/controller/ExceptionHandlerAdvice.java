@@ -6,6 +6,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import java.util.HashMap;
 import java.util.Map;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -32,11 +34,40 @@ public class ExceptionHandlerAdvice extends ResponseEntityExceptionHandler {
     @ExceptionHandler(ResourceException.class)
     @ApiResponses(value = {
         @ApiResponse(responseCode = "404", description = "Zasób nieznaleziony", content = @Content),
-        @ApiResponse(responseCode = "409", description = "Konflikt zasobów", content = @Content)})
+        @ApiResponse(responseCode = "409", description = "Konflikt zasobów", content = @Content),
+        @ApiResponse(responseCode = "412", description = "Zasób został zmieniony",
+            content = @Content)})
     public ResponseEntity<?> handleException(ResourceException e) {
         return ResponseEntity.status(e.getHttpStatus()).body(e.getMessage());
     }
 
+    /**
+     * Obsługa wyjątków {@link OptimisticLockingFailureException}, rzucanych, gdy zapisywana
+     * encja została w międzyczasie zmieniona przez inną transakcję.
+     *
+     * @param e Wyjątek do obsłużenia
+     * @return Odpowiedź ze statusem 409 i wiadomością błędu
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleException(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body("Resource was modified concurrently, retry the request");
+    }
+
+    /**
+     * Obsługa wyjątków {@link DataIntegrityViolationException}, rzucanych, gdy zapis narusza
+     * ograniczenie bazy danych (np. unikalny numer telefonu pasażera przy równoczesnych
+     * zapisach).
+     *
+     * @param e Wyjątek do obsłużenia
+     * @return Odpowiedź ze statusem 409 i wiadomością błędu
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<?> handleException(DataIntegrityViolationException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body("Resource conflicts with an existing resource");
+    }
+
     /**
      * Obsługuje wyjątek {@link MethodArgumentNotValidException}.
      *
@@ -1,9 +1,27 @@
 package com.mslup.lot.lotcrud.controller;
 
+import com.mslup.lot.lotcrud.dto.CursorPageDto;
+import com.mslup.lot.lotcrud.dto.FlightBatchPatchDto;
+import com.mslup.lot.lotcrud.dto.FlightBatchPatchResultDto;
 import com.mslup.lot.lotcrud.dto.FlightDto;
+import com.mslup.lot.lotcrud.dto.FlightImportResultDto;
+import com.mslup.lot.lotcrud.dto.FlightScheduleChangeDto;
+import com.mslup.lot.lotcrud.dto.FlightView;
 import com.mslup.lot.lotcrud.exception.FlightNotFoundException;
+import com.mslup.lot.lotcrud.exception.InvalidCursorException;
+import com.mslup.lot.lotcrud.exception.ResourceException;
+import com.mslup.lot.lotcrud.exception.VersionMismatchException;
+import com.mslup.lot.lotcrud.export.ExportFormat;
+import com.mslup.lot.lotcrud.export.FlightExportService;
+import com.mslup.lot.lotcrud.filter.FlightCursor;
 import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.filter.FlightPageRequest;
+import com.mslup.lot.lotcrud.filter.PaginationProperties;
+import com.mslup.lot.lotcrud.idempotency.IdempotencyService;
+import com.mslup.lot.lotcrud.importer.FlightImportService;
 import com.mslup.lot.lotcrud.mapper.FlightDtoMapper;
+import com.mslup.lot.lotcrud.mapper.FlightPatchDtoMapper;
+import com.mslup.lot.lotcrud.mapper.FlightScheduleChangeDtoMapper;
 import com.mslup.lot.lotcrud.model.Flight;
 import com.mslup.lot.lotcrud.service.FlightService;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,10 +29,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.OffsetDateTime;
-import java.util.List;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,10 +44,13 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
  * Kontroler obsługujący zasoby lotów.
@@ -37,11 +62,19 @@ import org.springframework.web.bind.annotation.RestController;
 public class FlightController {
     private final FlightService flightService;
     private final FlightDtoMapper flightDtoMapper;
+    private final IdempotencyService idempotencyService;
+    private final PaginationProperties paginationProperties;
+    private final FlightExportService flightExportService;
+    private final FlightImportService flightImportService;
+    private final FlightPatchDtoMapper flightPatchDtoMapper;
+    private final FlightScheduleChangeDtoMapper flightScheduleChangeDtoMapper;
 
     /**
-     * Pobiera listę lotów na podstawie kryteriów filtrowania.
+     * Pobiera stronę lotów na podstawie kryteriów filtrowania.
      * Parametry mogą być puste.
-     * Jeśli kryteria są puste, zwraca wszystkie loty.
+     * Jeśli kryteria są puste, zwraca wszystkie loty (stronami).
+     * Loty sortowane są według daty odlotu (a przy równych datach według ID).
+     * Kolejną stronę pobiera się, przekazując kursor {@code nextCursor} z poprzedniej odpowiedzi.
      *
      * @param originAirport      Kod lotniska początkowego.
      * @param destinationAirport Kod lotniska docelowego.
@@ -49,36 +82,119 @@ public class FlightController {
      * @param dateTo             Data końcowa (w formacie ISO-8601: YYYY-MM-DDThh:mm:ss±hh:mm).
      * @param seatsCountFrom     Minimalna liczba miejsc.
      * @param seatsCountTo       Maksymalna liczba miejsc.
-     * @return {@code ResponseEntity} z listą lotów spełniających kryteria.
+     * @param cursor             Kursor następnej strony z poprzedniej odpowiedzi.
+     * @param limit              Rozmiar strony (przycinany do wartości maksymalnej).
+     * @param sort               Kierunek sortowania według daty odlotu: {@code asc} lub
+     *                           {@code desc}. Domyślnie {@code asc}.
+     * @param includeHistory     Czy uwzględnić loty przeniesione do archiwum.
+     *                           Domyślnie {@code false}.
+     * @return {@code ResponseEntity} ze stroną lotów spełniających kryteria.
+     * @throws InvalidCursorException Jeśli kursor jest nieprawidłowy.
      */
     @GetMapping
     @ResponseBody
-    public ResponseEntity<List<Flight>> getFlights(@RequestParam Optional<String> originAirport,
-                                                   @RequestParam
-                                                   Optional<String> destinationAirport,
-                                                   @RequestParam Optional<OffsetDateTime> dateFrom,
-                                                   @RequestParam Optional<OffsetDateTime> dateTo,
-                                                   @RequestParam Optional<Integer> seatsCountFrom,
-                                                   @RequestParam Optional<Integer> seatsCountTo) {
-        FlightFilterCriteria criteria =
-            FlightFilterCriteria.builder().originAirport(originAirport.orElse(null))
-                .destinationAirport(destinationAirport.orElse(null)).dateFrom(dateFrom.orElse(null))
-                .dateTo(dateTo.orElse(null)).seatsCountFrom(seatsCountFrom.orElse(null))
-                .seatsCountTo(seatsCountTo.orElse(null)).build();
-
-        return ResponseEntity.ok(flightService.getFlights(criteria));
+    public ResponseEntity<CursorPageDto<FlightView>> getFlights(
+        @RequestParam Optional<String> originAirport,
+        @RequestParam Optional<String> destinationAirport,
+        @RequestParam Optional<OffsetDateTime> dateFrom,
+        @RequestParam Optional<OffsetDateTime> dateTo,
+        @RequestParam Optional<Integer> seatsCountFrom,
+        @RequestParam Optional<Integer> seatsCountTo,
+        @RequestParam Optional<String> cursor,
+        @RequestParam Optional<@Min(value = 1) Integer> limit,
+        @RequestParam Optional<String> sort,
+        @RequestParam(defaultValue = "false") boolean includeHistory)
+        throws InvalidCursorException {
+        FlightFilterCriteria criteria = criteria(originAirport, destinationAirport, dateFrom,
+            dateTo, seatsCountFrom, seatsCountTo);
+
+        Sort.Direction direction = sort.map(value -> Sort.Direction.fromOptionalString(value)
+                .orElseThrow(() -> new ResourceException(HttpStatus.BAD_REQUEST,
+                    String.format("Invalid sort direction: %s", value))))
+            .orElse(Sort.Direction.ASC);
+        FlightPageRequest page = new FlightPageRequest(
+            cursor.map(FlightCursor::decode).orElse(null),
+            Math.min(limit.orElse(paginationProperties.defaultSize()),
+                paginationProperties.maxSize()),
+            direction);
+
+        return ResponseEntity.ok(flightService.getFlights(criteria, page, includeHistory));
+    }
+
+    /**
+     * Eksportuje wszystkie loty spełniające kryteria filtrowania.
+     * Parametry filtrowania mają takie samo znaczenie jak w {@link #getFlights}.
+     * Odpowiedź jest zapisywana strumieniowo, więc jej rozmiar nie jest ograniczony.
+     *
+     * @param originAirport      Kod lotniska początkowego.
+     * @param destinationAirport Kod lotniska docelowego.
+     * @param dateFrom           Data początkowa (w formacie ISO-8601: YYYY-MM-DDThh:mm:ss±hh:mm).
+     * @param dateTo             Data końcowa (w formacie ISO-8601: YYYY-MM-DDThh:mm:ss±hh:mm).
+     * @param seatsCountFrom     Minimalna liczba miejsc.
+     * @param seatsCountTo       Maksymalna liczba miejsc.
+     * @param format             Format eksportu: {@code ndjson} (domyślnie) lub {@code csv}.
+     * @return {@code ResponseEntity} ze strumieniem lotów.
+     */
+    @GetMapping(path = "/export")
+    public ResponseEntity<StreamingResponseBody> exportFlights(
+        @RequestParam Optional<String> originAirport,
+        @RequestParam Optional<String> destinationAirport,
+        @RequestParam Optional<OffsetDateTime> dateFrom,
+        @RequestParam Optional<OffsetDateTime> dateTo,
+        @RequestParam Optional<Integer> seatsCountFrom,
+        @RequestParam Optional<Integer> seatsCountTo,
+        @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        FlightFilterCriteria criteria = criteria(originAirport, destinationAirport, dateFrom,
+            dateTo, seatsCountFrom, seatsCountTo);
+
+        return exportFormat.response("flights",
+            flightExportService.exportFlights(criteria, exportFormat));
     }
 
     /**
      * Dodaje nowy lot.
+     * Ponowienie żądania z tym samym nagłówkiem {@code Idempotency-Key} zwraca zapamiętaną
+     * odpowiedź bez ponownego dodawania lotu.
      *
-     * @param flight Lot do dodania.
-     * @return {@code ResponseEntity} z dodanym lotem.
+     * @param idempotencyKey Opcjonalny klucz idempotencji.
+     * @param flight         Lot do dodania.
+     * @return {@code ResponseEntity} z dodanym lotem, jego adresem w nagłówku {@code Location}
+     *     i wersją w nagłówku {@code ETag}.
      */
     @PostMapping
     @ResponseBody
-    ResponseEntity<Flight> addFlight(@Valid @RequestBody FlightDto flight) {
-        return ResponseEntity.ok(flightService.saveFlight(flightDtoMapper.apply(flight)));
+    ResponseEntity<Flight> addFlight(
+        @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+        @Valid @RequestBody FlightDto flight) {
+        return idempotencyService.execute(idempotencyKey, "POST /flights " + flight, Flight.class,
+            () -> {
+                Flight savedFlight = flightService.saveFlight(flightDtoMapper.apply(flight));
+                return ResponseEntity.ok()
+                    .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                        .path("/{id}").buildAndExpand(savedFlight.getId()).toUri())
+                    .eTag(Long.toString(savedFlight.getVersion()))
+                    .body(savedFlight);
+            });
+    }
+
+    /**
+     * Importuje loty ze strumienia w formacie NDJSON lub CSV (z linią nagłówka), zawierającego
+     * rekordy takie jak w {@link #addFlight}. Błędne wiersze nie przerywają importu - są
+     * opisywane w wyniku.
+     *
+     * @param format Format treści żądania: {@code ndjson} (domyślnie) lub {@code csv}.
+     * @param body   Treść żądania.
+     * @return {@code ResponseEntity} z wynikiem importu.
+     * @throws IOException Jeśli odczyt treści żądania się nie powiedzie.
+     */
+    @PostMapping(path = "/import")
+    @ResponseBody
+    public ResponseEntity<FlightImportResultDto> importFlights(
+        @RequestParam(defaultValue = "ndjson") String format,
+        InputStream body) throws IOException {
+        return ResponseEntity.ok(
+            flightImportService.importFlights(body, ExportFormat.fromName(format)));
     }
 
     /**
@@ -90,8 +206,9 @@ public class FlightController {
      */
     @GetMapping(path = "/{id}")
     @ResponseBody
-    public ResponseEntity<Flight> getFlight(@PathVariable long id) throws FlightNotFoundException {
-        return ResponseEntity.ok(flightService.findFlight(id));
+    public ResponseEntity<FlightView> getFlight(@PathVariable long id)
+        throws FlightNotFoundException {
+        return ResponseEntity.ok(flightService.findFlightView(id));
     }
 
     /**
@@ -104,8 +221,14 @@ public class FlightController {
      * @param destinationAirport  Nowy kod lotniska docelowego.
      * @param departureDateTime   Nowa data i godzina odlotu
      *                            (w formacie ISO-8601: YYYY-MM-DDThh:mm:ss±hh:mm).
+     * @param arrivalDateTime     Nowa data i godzina przylotu
+     *                            (w formacie ISO-8601: YYYY-MM-DDThh:mm:ss±hh:mm).
      * @param availableSeatsCount Nowa liczba dostępnych miejsc (w przedziale od 10 do 500).
-     * @return {@code ResponseEntity} z zaktualizowanym lotem.
+     * @param ifMatch             Oczekiwana wersja lotu (pole {@code version}, opcjonalnie).
+     * @return {@code ResponseEntity} z zaktualizowanym lotem i jego wersją w nagłówku
+     *     {@code ETag}.
+     * @throws FlightNotFoundException  Jeśli lot o podanym ID nie został znaleziony.
+     * @throws VersionMismatchException Jeśli lot ma inną wersję niż podana w {@code If-Match}.
      */
     @PatchMapping(path = "/{id}")
     @ResponseBody
@@ -116,16 +239,74 @@ public class FlightController {
                                                @RequestParam
                                                Optional<OffsetDateTime> departureDateTime,
                                                @RequestParam
+                                               Optional<OffsetDateTime> arrivalDateTime,
+                                               @RequestParam
                                                Optional<@Min(value = 10) @Max(value = 500) Integer>
-                                                   availableSeatsCount) {
+                                                   availableSeatsCount,
+                                               @RequestHeader(HttpHeaders.IF_MATCH)
+                                               Optional<String> ifMatch)
+        throws FlightNotFoundException, VersionMismatchException {
         Flight patch = Flight.builder().flightNumber(flightNumber.orElse(null))
-            .originAirport(originAirport.orElse(null))
-            .destinationAirport(destinationAirport.orElse(null))
+            .originAirport(originAirport.map(FlightFilterCriteria::normalizeAirportCode)
+                .orElse(null))
+            .destinationAirport(destinationAirport.map(FlightFilterCriteria::normalizeAirportCode)
+                .orElse(null))
             .departureDateTime(departureDateTime.orElse(null))
+            .arrivalDateTime(arrivalDateTime.orElse(null))
             .availableSeatsCount(availableSeatsCount.orElse(-1)).build();
 
-        Flight patchedFlight = flightService.patchFlight(id, patch);
-        return ResponseEntity.ok(patchedFlight);
+        Flight patchedFlight = flightService.patchFlight(id, patch,
+            EntityVersions.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+            .eTag(Long.toString(patchedFlight.getVersion()))
+            .body(patchedFlight);
+    }
+
+    /**
+     * Aktualizuje grupę lotów w ramach jednej transakcji. Każda zmiana może zawierać
+     * oczekiwaną wersję lotu; loty, które nie istnieją albo mają inną wersję, nie są zmieniane
+     * i są zgłaszane w wynikach.
+     *
+     * @param batch Zmiany lotów.
+     * @return {@code ResponseEntity} z wynikami zmian poszczególnych lotów i czasem wykonania.
+     */
+    @PatchMapping(path = "/batch")
+    @ResponseBody
+    public ResponseEntity<FlightBatchPatchResultDto> updateFlights(
+        @Valid @RequestBody FlightBatchPatchDto batch) {
+        return ResponseEntity.ok(flightService.patchFlights(
+            batch.items().stream().map(flightPatchDtoMapper).toList()));
+    }
+
+    /**
+     * Aktualizuje wszystkie loty spełniające kryteria filtrowania, np. przesuwa odloty
+     * z lotniska w przedziale czasu o podany czas. Parametry filtrowania mają takie samo
+     * znaczenie jak w {@link #getFlights}; zakres dat odlotu jest wymagany.
+     *
+     * @param originAirport      Kod lotniska początkowego.
+     * @param destinationAirport Kod lotniska docelowego.
+     * @param dateFrom           Data początkowa (w formacie ISO-8601: YYYY-MM-DDThh:mm:ss±hh:mm).
+     * @param dateTo             Data końcowa (w formacie ISO-8601: YYYY-MM-DDThh:mm:ss±hh:mm).
+     * @param seatsCountFrom     Minimalna liczba miejsc.
+     * @param seatsCountTo       Maksymalna liczba miejsc.
+     * @param change             Zmiana lotów.
+     * @return {@code ResponseEntity} z wynikami zmian poszczególnych lotów i czasem wykonania.
+     */
+    @PatchMapping
+    @ResponseBody
+    public ResponseEntity<FlightBatchPatchResultDto> updateFlights(
+        @RequestParam Optional<String> originAirport,
+        @RequestParam Optional<String> destinationAirport,
+        @RequestParam Optional<OffsetDateTime> dateFrom,
+        @RequestParam Optional<OffsetDateTime> dateTo,
+        @RequestParam Optional<Integer> seatsCountFrom,
+        @RequestParam Optional<Integer> seatsCountTo,
+        @Valid @RequestBody FlightScheduleChangeDto change) {
+        FlightFilterCriteria criteria = criteria(originAirport, destinationAirport, dateFrom,
+            dateTo, seatsCountFrom, seatsCountTo);
+
+        return ResponseEntity.ok(flightService.patchFlights(criteria,
+            flightScheduleChangeDtoMapper.apply(change), change.shift()));
     }
 
     /**
@@ -142,4 +323,15 @@ public class FlightController {
         return ResponseEntity.noContent().build();
     }
 
+    private static FlightFilterCriteria criteria(Optional<String> originAirport,
+                                                 Optional<String> destinationAirport,
+                                                 Optional<OffsetDateTime> dateFrom,
+                                                 Optional<OffsetDateTime> dateTo,
+                                                 Optional<Integer> seatsCountFrom,
+                                                 Optional<Integer> seatsCountTo) {
+        return FlightFilterCriteria.builder().originAirport(originAirport.orElse(null))
+            .destinationAirport(destinationAirport.orElse(null)).dateFrom(dateFrom.orElse(null))
+            .dateTo(dateTo.orElse(null)).seatsCountFrom(seatsCountFrom.orElse(null))
+            .seatsCountTo(seatsCountTo.orElse(null)).build().normalized();
+    }
 }
@@ -1,23 +1,36 @@
 package com.mslup.lot.lotcrud.controller;
 
+import com.mslup.lot.lotcrud.dto.BookingBatchDto;
+import com.mslup.lot.lotcrud.dto.BookingBatchResultDto;
 import com.mslup.lot.lotcrud.exception.FlightNotFoundException;
 import com.mslup.lot.lotcrud.exception.NoAvailableSeatsException;
 import com.mslup.lot.lotcrud.exception.PassengerNotFoundException;
+import com.mslup.lot.lotcrud.exception.ResourceException;
+import com.mslup.lot.lotcrud.export.ExportFormat;
+import com.mslup.lot.lotcrud.export.FlightExportService;
+import com.mslup.lot.lotcrud.idempotency.IdempotencyService;
+import com.mslup.lot.lotcrud.mapper.PassengerDtoMapper;
 import com.mslup.lot.lotcrud.model.Passenger;
 import com.mslup.lot.lotcrud.service.FlightService;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import java.time.OffsetDateTime;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Kontroler obsługujący operacje związane z pasażerami przypisanymi do danego lotu.
@@ -29,6 +42,9 @@ import org.springframework.web.bind.annotation.RestController;
     description = "Operacje do zarządzania pasażerami przypisanymi do danego lotu")
 public class FlightPassengerController {
     private final FlightService flightService;
+    private final PassengerDtoMapper passengerDtoMapper;
+    private final IdempotencyService idempotencyService;
+    private final FlightExportService flightExportService;
 
     /**
      * Pobiera listę pasażerów na podstawie ID lotu.
@@ -45,11 +61,56 @@ public class FlightPassengerController {
         return ResponseEntity.ok(passengers);
     }
 
+    /**
+     * Eksportuje listę pasażerów lotu wraz z danymi lotu i rezerwacji.
+     * Odpowiedź jest zapisywana strumieniowo.
+     *
+     * @param id     ID lotu.
+     * @param format Format eksportu: {@code ndjson} (domyślnie) lub {@code csv}.
+     * @return {@code ResponseEntity} ze strumieniem wierszy listy pasażerów.
+     * @throws FlightNotFoundException Jeśli lot o podanym ID nie został znaleziony.
+     */
+    @GetMapping(path = "/{id}/manifest")
+    public ResponseEntity<StreamingResponseBody> exportManifest(
+        @PathVariable long id,
+        @RequestParam(defaultValue = "ndjson") String format) throws FlightNotFoundException {
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        return exportFormat.response("manifest-" + id,
+            flightExportService.exportManifest(id, exportFormat));
+    }
+
+    /**
+     * Eksportuje listy pasażerów wszystkich lotów odlatujących w podanym przedziale czasu.
+     * Wiersze są pogrupowane według lotów, w kolejności odlotów.
+     * Odpowiedź jest zapisywana strumieniowo.
+     *
+     * @param dateFrom Data początkowa (włącznie, w formacie ISO-8601: YYYY-MM-DDThh:mm:ss±hh:mm).
+     * @param dateTo   Data końcowa (włącznie, w formacie ISO-8601: YYYY-MM-DDThh:mm:ss±hh:mm).
+     * @param format   Format eksportu: {@code ndjson} (domyślnie) lub {@code csv}.
+     * @return {@code ResponseEntity} ze strumieniem wierszy list pasażerów.
+     */
+    @GetMapping(path = "/manifest")
+    public ResponseEntity<StreamingResponseBody> exportManifests(
+        @RequestParam OffsetDateTime dateFrom,
+        @RequestParam OffsetDateTime dateTo,
+        @RequestParam(defaultValue = "ndjson") String format) {
+        if (dateTo.isBefore(dateFrom)) {
+            throw new ResourceException(HttpStatus.BAD_REQUEST,
+                "dateTo cannot be earlier than dateFrom");
+        }
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        return exportFormat.response("manifest",
+            flightExportService.exportManifests(dateFrom, dateTo, exportFormat));
+    }
+
     /**
      * Dodaje nowego pasażera do lotu.
+     * Ponowienie żądania z tym samym nagłówkiem {@code Idempotency-Key} zwraca zapamiętaną
+     * odpowiedź bez ponownego wykonywania rezerwacji.
      *
-     * @param id          ID lotu.
-     * @param passengerId ID pasażera.
+     * @param idempotencyKey Opcjonalny klucz idempotencji.
+     * @param id             ID lotu.
+     * @param passengerId    ID pasażera.
      * @return {@code ResponseEntity} ze statusem 200, jeśli operacja się powiodła.
      * @throws PassengerNotFoundException Jeśli pasażer o podanym ID nie został znaleziony.
      * @throws FlightNotFoundException    Jeśli lot o podanym ID nie został znaleziony.
@@ -57,11 +118,46 @@ public class FlightPassengerController {
      */
     @PostMapping(path = "/{id}/passengers")
     @ResponseBody
-    public ResponseEntity<Void> addPassenger(@PathVariable Long id,
-                                             @RequestParam Long passengerId)
+    public ResponseEntity<Void> addPassenger(
+        @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+        @PathVariable Long id,
+        @RequestParam Long passengerId)
+        throws PassengerNotFoundException, FlightNotFoundException, NoAvailableSeatsException {
+        return idempotencyService.execute(idempotencyKey,
+            "POST /flights/" + id + "/passengers?passengerId=" + passengerId, Void.class, () -> {
+                flightService.addPassenger(id, passengerId);
+                return ResponseEntity.ok().build();
+            });
+    }
+
+    /**
+     * Dodaje grupę pasażerów do lotu w ramach jednej transakcji (wszystko albo nic).
+     * Grupa może zawierać ID istniejących pasażerów oraz dane nowych pasażerów.
+     * Ponowienie żądania z tym samym nagłówkiem {@code Idempotency-Key} zwraca zapamiętaną
+     * odpowiedź bez ponownego wykonywania rezerwacji.
+     *
+     * @param idempotencyKey Opcjonalny klucz idempotencji.
+     * @param id             ID lotu.
+     * @param batch          Pasażerowie do dodania.
+     * @return {@code ResponseEntity} z wynikiem grupowej rezerwacji.
+     * @throws PassengerNotFoundException Jeśli któryś z pasażerów nie został znaleziony.
+     * @throws FlightNotFoundException    Jeśli lot o podanym ID nie został znaleziony.
+     * @throws NoAvailableSeatsException  Jeśli lot nie ma wystarczającej liczby wolnych miejsc.
+     */
+    @PostMapping(path = "/{id}/passengers/batch")
+    @ResponseBody
+    public ResponseEntity<BookingBatchResultDto> addPassengers(
+        @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+        @PathVariable Long id,
+        @Valid @RequestBody BookingBatchDto batch)
         throws PassengerNotFoundException, FlightNotFoundException, NoAvailableSeatsException {
-        flightService.addPassenger(id, passengerId);
-        return ResponseEntity.ok().build();
+        List<Passenger> newPassengers = batch.newPassengers().stream()
+            .map(passengerDtoMapper)
+            .toList();
+        return idempotencyService.execute(idempotencyKey,
+            "POST /flights/" + id + "/passengers/batch " + batch, BookingBatchResultDto.class,
+            () -> ResponseEntity.ok(
+                flightService.addPassengers(id, batch.passengerIds(), newPassengers)));
     }
 
     /**
@@ -0,0 +1,116 @@
+package com.mslup.lot.lotcrud.controller;
+
+import com.mslup.lot.lotcrud.dto.FlightScheduleDto;
+import com.mslup.lot.lotcrud.exception.FlightScheduleNotFoundException;
+import com.mslup.lot.lotcrud.exception.VersionMismatchException;
+import com.mslup.lot.lotcrud.model.FlightSchedule;
+import com.mslup.lot.lotcrud.service.FlightScheduleService;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Kontroler obsługujący rozkłady cykliczne lotów. Loty z rozkładu tworzone są w tle,
+ * na {@link com.mslup.lot.lotcrud.schedule.ScheduleProperties#horizon()} naprzód.
+ */
+@RestController
+@RequestMapping("/schedules")
+@RequiredArgsConstructor
+@Tag(name = "Rozkłady", description = "Operacje do zarządzania rozkładami cyklicznymi lotów")
+public class FlightScheduleController {
+    private final FlightScheduleService flightScheduleService;
+
+    /**
+     * Pobiera listę wszystkich rozkładów.
+     *
+     * @return {@code ResponseEntity} z listą rozkładów.
+     */
+    @GetMapping
+    @ResponseBody
+    public ResponseEntity<List<FlightSchedule>> getSchedules() {
+        return ResponseEntity.ok(flightScheduleService.getSchedules());
+    }
+
+    /**
+     * Dodaje nowy rozkład.
+     *
+     * @param schedule Rozkład do dodania.
+     * @return {@code ResponseEntity} z dodanym rozkładem.
+     */
+    @PostMapping
+    @ResponseBody
+    public ResponseEntity<FlightSchedule> addSchedule(
+        @Valid @RequestBody FlightScheduleDto schedule) {
+        return ResponseEntity.ok(flightScheduleService.saveSchedule(schedule));
+    }
+
+    /**
+     * Pobiera rozkład o podanym ID.
+     *
+     * @param id ID rozkładu.
+     * @return {@code ResponseEntity} ze znalezionym rozkładem.
+     * @throws FlightScheduleNotFoundException Jeśli rozkład o podanym ID nie został znaleziony.
+     */
+    @GetMapping(path = "/{id}")
+    @ResponseBody
+    public ResponseEntity<FlightSchedule> getSchedule(@PathVariable long id)
+        throws FlightScheduleNotFoundException {
+        return ResponseEntity.ok(flightScheduleService.findSchedule(id));
+    }
+
+    /**
+     * Zmienia rozkład o podanym ID i loty z niego utworzone, które jeszcze nie odleciały.
+     *
+     * @param id       ID rozkładu.
+     * @param schedule Nowe dane rozkładu.
+     * @param ifMatch  Oczekiwana wersja rozkładu (pole {@code version}, opcjonalnie).
+     * @return {@code ResponseEntity} ze zmienionym rozkładem i jego wersją w nagłówku
+     *     {@code ETag}.
+     * @throws FlightScheduleNotFoundException Jeśli rozkład o podanym ID nie został znaleziony.
+     * @throws VersionMismatchException        Jeśli rozkład ma inną wersję niż podana
+     *                                         w {@code If-Match}.
+     */
+    @PutMapping(path = "/{id}")
+    @ResponseBody
+    public ResponseEntity<FlightSchedule> updateSchedule(
+        @PathVariable long id,
+        @Valid @RequestBody FlightScheduleDto schedule,
+        @RequestHeader(HttpHeaders.IF_MATCH) Optional<String> ifMatch)
+        throws FlightScheduleNotFoundException, VersionMismatchException {
+        FlightSchedule updatedSchedule = flightScheduleService.updateSchedule(id, schedule,
+            EntityVersions.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+            .eTag(Long.toString(updatedSchedule.getVersion()))
+            .body(updatedSchedule);
+    }
+
+    /**
+     * Usuwa rozkład o podanym ID razem z jego przyszłymi lotami bez rezerwacji.
+     * Jeśli rozkład nie istnieje, nic się nie dzieje.
+     *
+     * @param id ID rozkładu.
+     * @return {@code ResponseEntity} bez zawartości.
+     */
+    @DeleteMapping(path = "/{id}")
+    @ResponseBody
+    @ApiResponse(responseCode = "204", description = "Operacja usuwania powiodła się")
+    public ResponseEntity<Void> deleteSchedule(@PathVariable long id) {
+        flightScheduleService.deleteSchedule(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.mslup.lot.lotcrud.controller;
+
+import com.mslup.lot.lotcrud.exception.FlightNotFoundException;
+import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.subscription.FlightSubscriptions;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Kontroler obsługujący subskrypcje zmian lotów jako strumienie zdarzeń SSE.
+ * Zdarzenie {@code flight} zawiera aktualny stan lotu (w tym liczbę wolnych miejsc),
+ * a zdarzenie {@code deleted} - ID usuniętego lotu.
+ */
+@RequestMapping("/flights")
+@RequiredArgsConstructor
+@RestController
+@Tag(name = "Subskrypcje lotów",
+    description = "Powiadomienia o zmianach liczby wolnych miejsc i rozkładu lotów")
+public class FlightSubscriptionController {
+    private final FlightSubscriptions flightSubscriptions;
+
+    /**
+     * Subskrybuje zmiany lotu. Pierwsze zdarzenie zawiera aktualny stan lotu.
+     *
+     * @param id ID lotu.
+     * @return Strumień zdarzeń SSE.
+     * @throws FlightNotFoundException Jeśli lot o podanym ID nie został znaleziony.
+     */
+    @GetMapping(path = "/{id}/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeFlight(@PathVariable long id) throws FlightNotFoundException {
+        return flightSubscriptions.subscribeFlight(id);
+    }
+
+    /**
+     * Subskrybuje zmiany lotów na trasie.
+     *
+     * @param originAirport      Kod lotniska początkowego.
+     * @param destinationAirport Kod lotniska docelowego.
+     * @return Strumień zdarzeń SSE.
+     */
+    @GetMapping(path = "/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeRoute(@RequestParam String originAirport,
+                                     @RequestParam String destinationAirport) {
+        return flightSubscriptions.subscribeRoute(
+            FlightFilterCriteria.normalizeAirportCode(originAirport),
+            FlightFilterCriteria.normalizeAirportCode(destinationAirport));
+    }
+}
@@ -0,0 +1,79 @@
+package com.mslup.lot.lotcrud.controller;
+
+import com.mslup.lot.lotcrud.dto.ItineraryDto;
+import com.mslup.lot.lotcrud.exception.ResourceException;
+import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.itinerary.ItinerarySearch;
+import com.mslup.lot.lotcrud.itinerary.RouteGraph;
+import com.mslup.lot.lotcrud.itinerary.RouteGraphProperties;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Min;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Kontroler obsługujący wyszukiwanie połączeń, w tym połączeń z przesiadkami.
+ */
+@RequestMapping("/itineraries")
+@RequiredArgsConstructor
+@RestController
+@Tag(name = "Połączenia", description = "Wyszukiwanie połączeń z przesiadkami")
+public class ItineraryController {
+    private final RouteGraph routeGraph;
+    private final RouteGraphProperties properties;
+
+    /**
+     * Wyszukuje połączenia między lotniskami, w których każdy lot ma wystarczającą liczbę
+     * wolnych miejsc.
+     *
+     * @param originAirport      Kod lotniska początkowego.
+     * @param destinationAirport Kod lotniska docelowego.
+     * @param dateFrom           Najwcześniejsza data odlotu pierwszego lotu
+     *                           (w formacie ISO-8601: YYYY-MM-DDThh:mm:ss±hh:mm).
+     * @param dateTo             Najpóźniejsza data odlotu pierwszego lotu
+     *                           (w formacie ISO-8601: YYYY-MM-DDThh:mm:ss±hh:mm).
+     * @param maxStops           Maksymalna liczba przesiadek (domyślnie 1).
+     * @param minConnection      Minimalny czas na przesiadkę (domyślnie PT45M).
+     * @param seats              Liczba miejsc, które muszą być wolne w każdym locie
+     *                           (domyślnie 1).
+     * @param limit              Maksymalna liczba zwracanych połączeń (domyślnie 10).
+     * @return {@code ResponseEntity} z listą połączeń posortowaną według daty przylotu.
+     */
+    @GetMapping
+    public ResponseEntity<List<ItineraryDto>> searchItineraries(
+        @RequestParam String originAirport,
+        @RequestParam String destinationAirport,
+        @RequestParam OffsetDateTime dateFrom,
+        @RequestParam OffsetDateTime dateTo,
+        @RequestParam(defaultValue = "1") @Min(0) int maxStops,
+        @RequestParam(defaultValue = "PT45M") Duration minConnection,
+        @RequestParam(defaultValue = "1") @Min(1) int seats,
+        @RequestParam(defaultValue = "10") @Min(1) int limit) {
+        if (dateTo.isBefore(dateFrom)) {
+            throw new ResourceException(HttpStatus.BAD_REQUEST,
+                "dateTo must not be before dateFrom");
+        }
+        if (maxStops > properties.maxStops()) {
+            throw new ResourceException(HttpStatus.BAD_REQUEST,
+                String.format("maxStops must not exceed %d", properties.maxStops()));
+        }
+        if (minConnection.isNegative()) {
+            throw new ResourceException(HttpStatus.BAD_REQUEST,
+                "minConnection must not be negative");
+        }
+
+        return ResponseEntity.ok(routeGraph.search(new ItinerarySearch(
+            FlightFilterCriteria.normalizeAirportCode(originAirport),
+            FlightFilterCriteria.normalizeAirportCode(destinationAirport),
+            dateFrom, dateTo, maxStops, minConnection, seats,
+            Math.min(limit, properties.maxResults()))));
+    }
+}
@@ -0,0 +1,38 @@
+package com.mslup.lot.lotcrud.controller;
+
+import com.mslup.lot.lotcrud.dto.FlightPurgeResultDto;
+import com.mslup.lot.lotcrud.maintenance.FlightPurgeService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.OffsetDateTime;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Kontroler udostępniający operacje administracyjne na danych.
+ */
+@RestController
+@RequestMapping("/maintenance")
+@RequiredArgsConstructor
+@Tag(name = "Administracja", description = "Operacje administracyjne na danych")
+public class MaintenanceController {
+    private final FlightPurgeService flightPurgeService;
+
+    /**
+     * Usuwa wszystkie loty, które odleciały przed podaną datą, razem z ich rezerwacjami.
+     * Loty usuwane są porcjami w osobnych transakcjach.
+     *
+     * @param departedBefore Data, przed którą odleciały usuwane loty (nie później niż teraz).
+     * @return {@code ResponseEntity} z liczbą usuniętych lotów i czasem wykonania.
+     */
+    @DeleteMapping(path = "/flights")
+    @ResponseBody
+    public ResponseEntity<FlightPurgeResultDto> purgeDepartedFlights(
+        @RequestParam OffsetDateTime departedBefore) {
+        return ResponseEntity.ok(flightPurgeService.purgeDepartedFlights(departedBefore));
+    }
+}
@@ -1,17 +1,27 @@
 package com.mslup.lot.lotcrud.controller;
 
 import com.mslup.lot.lotcrud.dto.PassengerDto;
+import com.mslup.lot.lotcrud.dto.PassengerImportResultDto;
 import com.mslup.lot.lotcrud.exception.PassengerNotFoundException;
+import com.mslup.lot.lotcrud.exception.PhoneNumberTakenException;
+import com.mslup.lot.lotcrud.exception.VersionMismatchException;
+import com.mslup.lot.lotcrud.export.ExportFormat;
+import com.mslup.lot.lotcrud.idempotency.IdempotencyService;
+import com.mslup.lot.lotcrud.importer.PassengerImportService;
 import com.mslup.lot.lotcrud.mapper.PassengerDtoMapper;
+import com.mslup.lot.lotcrud.model.Flight;
 import com.mslup.lot.lotcrud.model.Passenger;
 import com.mslup.lot.lotcrud.service.PassengerService;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Size;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,10 +29,12 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
  * Kontroler obsługujący zasoby pasażerów.
@@ -34,6 +46,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class PassengerController {
     private final PassengerService passengerService;
     private final PassengerDtoMapper passengerDtoMapper;
+    private final IdempotencyService idempotencyService;
+    private final PassengerImportService passengerImportService;
 
     /**
      * Pobiera listę wszystkich pasażerów.
@@ -48,15 +62,50 @@ public class PassengerController {
 
     /**
      * Dodaje nowego pasażera.
+     * Ponowienie żądania z tym samym nagłówkiem {@code Idempotency-Key} zwraca zapamiętaną
+     * odpowiedź bez ponownego dodawania pasażera.
      *
-     * @param passenger Pasażer do dodania.
-     * @return {@code ResponseEntity} z dodanym pasażerem.
+     * @param idempotencyKey Opcjonalny klucz idempotencji.
+     * @param passenger      Pasażer do dodania.
+     * @return {@code ResponseEntity} z dodanym pasażerem, jego adresem w nagłówku
+     *     {@code Location} i wersją w nagłówku {@code ETag}.
+     * @throws PhoneNumberTakenException Jeśli istnieje już pasażer o tym numerze telefonu.
      */
     @PostMapping
     @ResponseBody
-    public ResponseEntity<Passenger> addPassenger(@Valid @RequestBody PassengerDto passenger) {
+    public ResponseEntity<Passenger> addPassenger(
+        @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+        @Valid @RequestBody PassengerDto passenger) {
+        return idempotencyService.execute(idempotencyKey, "POST /passengers " + passenger,
+            Passenger.class, () -> {
+                Passenger savedPassenger =
+                    passengerService.savePassenger(passengerDtoMapper.apply(passenger));
+                return ResponseEntity.ok()
+                    .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                        .path("/{id}").buildAndExpand(savedPassenger.getId()).toUri())
+                    .eTag(Long.toString(savedPassenger.getVersion()))
+                    .body(savedPassenger);
+            });
+    }
+
+    /**
+     * Importuje pasażerów ze strumienia w formacie NDJSON lub CSV (z linią nagłówka),
+     * zawierającego rekordy takie jak w {@link #addPassenger}. Pasażer o numerze telefonu,
+     * który już istnieje (po normalizacji), zmienia dane istniejącego pasażera.
+     * Błędne wiersze nie przerywają importu - są opisywane w wyniku.
+     *
+     * @param format Format treści żądania: {@code ndjson} (domyślnie) lub {@code csv}.
+     * @param body   Treść żądania.
+     * @return {@code ResponseEntity} z wynikiem importu.
+     * @throws IOException Jeśli odczyt treści żądania się nie powiedzie.
+     */
+    @PostMapping(path = "/import")
+    @ResponseBody
+    public ResponseEntity<PassengerImportResultDto> importPassengers(
+        @RequestParam(defaultValue = "ndjson") String format,
+        InputStream body) throws IOException {
         return ResponseEntity.ok(
-            passengerService.savePassenger(passengerDtoMapper.apply(passenger)));
+            passengerImportService.importPassengers(body, ExportFormat.fromName(format)));
     }
 
     /**
@@ -71,6 +120,20 @@ public class PassengerController {
         return ResponseEntity.ok(passengerService.findPassenger(id));
     }
 
+    /**
+     * Pobiera listę lotów, na które pasażer o podanym ID dokonał rezerwacji.
+     *
+     * @param id ID pasażera.
+     * @return {@code ResponseEntity} z listą lotów pasażera.
+     * @throws PassengerNotFoundException Jeśli pasażer o podanym ID nie został znaleziony.
+     */
+    @GetMapping(path = "/{id}/flights")
+    @ResponseBody
+    public ResponseEntity<List<Flight>> getFlights(@PathVariable long id)
+        throws PassengerNotFoundException {
+        return ResponseEntity.ok(passengerService.getFlights(id));
+    }
+
     /**
      * Aktualizuje szczegóły pasażera na podstawie ID. Parametry są opcjonalne.
      *
@@ -78,7 +141,12 @@ public class PassengerController {
      * @param firstName   Nowe imię pasażera (długość od 2 do 40).
      * @param lastName    Nowe nazwisko pasażera (długość od 2 do 40).
      * @param phoneNumber Nowy numer telefonu pasażera (długość od 5 do 20).
-     * @return {@code ResponseEntity} z zaktualizowanym pasażerem.
+     * @param ifMatch     Oczekiwana wersja pasażera (pole {@code version}, opcjonalnie).
+     * @return {@code ResponseEntity} z zaktualizowanym pasażerem i jego wersją w nagłówku
+     *     {@code ETag}.
+     * @throws PassengerNotFoundException Jeśli pasażer o podanym ID nie został znaleziony.
+     * @throws VersionMismatchException   Jeśli pasażer ma inną wersję niż podana
+     *                                    w {@code If-Match}.
      */
     @PatchMapping(path = "/{id}")
     @ResponseBody
@@ -86,16 +154,20 @@ public class PassengerController {
         @PathVariable long id,
         @RequestParam Optional<@Size(min = 2, max = 40) String> firstName,
         @RequestParam Optional<@Size(min = 2, max = 40) String> lastName,
-        @RequestParam Optional<@Size(min = 5, max = 20) String> phoneNumber)
-        throws PassengerNotFoundException {
+        @RequestParam Optional<@Size(min = 5, max = 20) String> phoneNumber,
+        @RequestHeader(HttpHeaders.IF_MATCH) Optional<String> ifMatch)
+        throws PassengerNotFoundException, VersionMismatchException {
         Passenger patch = Passenger.builder()
             .firstName(firstName.orElse(null))
             .lastName(lastName.orElse(null))
             .phoneNumber(phoneNumber.orElse(null))
             .build();
 
-        Passenger patchedPassenger = passengerService.patchPassenger(id, patch);
-        return ResponseEntity.ok(patchedPassenger);
+        Passenger patchedPassenger = passengerService.patchPassenger(id, patch,
+            EntityVersions.expectedVersion(ifMatch));
+        return ResponseEntity.ok()
+            .eTag(Long.toString(patchedPassenger.getVersion()))
+            .body(patchedPassenger);
     }
 
     /**
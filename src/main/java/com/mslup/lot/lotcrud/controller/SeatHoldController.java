@@ -0,0 +1,107 @@
+package com.mslup.lot.lotcrud.controller;
+
+import com.mslup.lot.lotcrud.dto.BookingBatchDto;
+import com.mslup.lot.lotcrud.dto.BookingBatchResultDto;
+import com.mslup.lot.lotcrud.dto.SeatHoldDto;
+import com.mslup.lot.lotcrud.exception.FlightNotFoundException;
+import com.mslup.lot.lotcrud.exception.NoAvailableSeatsException;
+import com.mslup.lot.lotcrud.exception.PassengerNotFoundException;
+import com.mslup.lot.lotcrud.exception.SeatHoldNotFoundException;
+import com.mslup.lot.lotcrud.hold.SeatHoldService;
+import com.mslup.lot.lotcrud.mapper.PassengerDtoMapper;
+import com.mslup.lot.lotcrud.model.Passenger;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Kontroler obsługujący czasowe blokady miejsc w lotach.
+ */
+@RequestMapping("/flights")
+@RequiredArgsConstructor
+@RestController
+@Tag(name = "Blokady miejsc",
+    description = "Operacje do czasowego blokowania miejsc w locie na czas płatności")
+public class SeatHoldController {
+    private final SeatHoldService seatHoldService;
+    private final PassengerDtoMapper passengerDtoMapper;
+
+    /**
+     * Blokuje miejsca w locie na określony czas.
+     *
+     * @param id    ID lotu.
+     * @param seats Liczba miejsc do zablokowania (w przedziale od 1 do 500).
+     * @param ttl   Czas trwania blokady (w formacie ISO-8601, np. PT10M).
+     *              Jeśli pusty, używany jest domyślny czas trwania.
+     * @return {@code ResponseEntity} z utworzoną blokadą.
+     * @throws FlightNotFoundException   Jeśli lot o podanym ID nie został znaleziony.
+     * @throws NoAvailableSeatsException Jeśli lot nie ma wystarczającej liczby wolnych miejsc.
+     */
+    @PostMapping(path = "/{id}/holds")
+    @ResponseBody
+    public ResponseEntity<SeatHoldDto> createHold(@PathVariable long id,
+                                                  @RequestParam @Min(1) @Max(500) int seats,
+                                                  @RequestParam Optional<Duration> ttl)
+        throws FlightNotFoundException, NoAvailableSeatsException {
+        return ResponseEntity.ok(seatHoldService.createHold(id, seats, ttl.orElse(null)));
+    }
+
+    /**
+     * Potwierdza blokadę, rezerwując zablokowane miejsca dla podanych pasażerów.
+     *
+     * @param id     ID lotu.
+     * @param holdId ID blokady.
+     * @param batch  Pasażerowie, dla których rezerwowane są miejsca.
+     * @return {@code ResponseEntity} z wynikiem rezerwacji.
+     * @throws SeatHoldNotFoundException  Jeśli blokada nie istnieje lub wygasła.
+     * @throws PassengerNotFoundException Jeśli któryś z pasażerów nie został znaleziony.
+     * @throws NoAvailableSeatsException  Jeśli pasażerów jest więcej niż zablokowanych miejsc
+     *                                    i brakuje wolnych miejsc.
+     */
+    @PostMapping(path = "/{id}/holds/{holdId}/confirm")
+    @ResponseBody
+    public ResponseEntity<BookingBatchResultDto> confirmHold(@PathVariable long id,
+                                                             @PathVariable UUID holdId,
+                                                             @Valid @RequestBody
+                                                             BookingBatchDto batch)
+        throws SeatHoldNotFoundException, PassengerNotFoundException, NoAvailableSeatsException {
+        List<Passenger> newPassengers = batch.newPassengers().stream()
+            .map(passengerDtoMapper)
+            .toList();
+        return ResponseEntity.ok(
+            seatHoldService.confirmHold(id, holdId, batch.passengerIds(), newPassengers));
+    }
+
+    /**
+     * Zwalnia blokadę, zwracając zablokowane miejsca do puli.
+     *
+     * @param id     ID lotu.
+     * @param holdId ID blokady.
+     * @return {@code ResponseEntity} bez zawartości.
+     * @throws SeatHoldNotFoundException Jeśli blokada nie istnieje lub wygasła.
+     */
+    @DeleteMapping(path = "/{id}/holds/{holdId}")
+    @ApiResponse(responseCode = "204", description = "Operacja zwolnienia powiodła się")
+    @ResponseBody
+    public ResponseEntity<Void> releaseHold(@PathVariable long id, @PathVariable UUID holdId)
+        throws SeatHoldNotFoundException {
+        seatHoldService.releaseHold(id, holdId);
+        return ResponseEntity.noContent().build();
+    }
+}
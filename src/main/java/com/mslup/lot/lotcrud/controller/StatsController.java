@@ -0,0 +1,55 @@
+package com.mslup.lot.lotcrud.controller;
+
+import com.mslup.lot.lotcrud.cache.EntityCacheService;
+import com.mslup.lot.lotcrud.dto.CacheStatsDto;
+import com.mslup.lot.lotcrud.dto.SearchIndexStatsDto;
+import com.mslup.lot.lotcrud.search.FlightSearchCache;
+import com.mslup.lot.lotcrud.search.FlightSearchIndex;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Kontroler udostępniający statystyki działania aplikacji.
+ */
+@RestController
+@RequestMapping("/stats")
+@RequiredArgsConstructor
+@Tag(name = "Statystyki", description = "Statystyki pamięci podręcznych i indeksów aplikacji")
+public class StatsController {
+    private final EntityCacheService entityCacheService;
+    private final FlightSearchCache flightSearchCache;
+    private final FlightSearchIndex flightSearchIndex;
+
+    /**
+     * Pobiera statystyki pamięci podręcznych: regionów drugiego poziomu encji oraz wyników
+     * wyszukiwania lotów. Wyłączone pamięci podręczne są pomijane.
+     *
+     * @return {@code ResponseEntity} ze statystykami pamięci podręcznych.
+     */
+    @GetMapping(path = "/cache")
+    @ResponseBody
+    public ResponseEntity<List<CacheStatsDto>> getCacheStatistics() {
+        List<CacheStatsDto> statistics = new ArrayList<>(entityCacheService.getStatistics());
+        flightSearchCache.getStatistics().ifPresent(statistics::add);
+        return ResponseEntity.ok(statistics);
+    }
+
+    /**
+     * Pobiera statystyki indeksu wyszukiwania lotów, w tym szacowane zużycie pamięci.
+     *
+     * @return {@code ResponseEntity} ze statystykami indeksu lub ze statusem 404, jeśli indeks
+     *     jest wyłączony.
+     */
+    @GetMapping(path = "/search-index")
+    @ResponseBody
+    public ResponseEntity<SearchIndexStatsDto> getSearchIndexStatistics() {
+        return ResponseEntity.of(flightSearchIndex.getStatistics());
+    }
+}
@@ -0,0 +1,24 @@
+package com.mslup.lot.lotcrud.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) dla grupowej rezerwacji lotu używany w zapytaniu POST.
+ * Pozwala zarezerwować miejsca dla istniejących pasażerów (po ID) oraz dla nowych pasażerów,
+ * którzy zostaną dodani do bazy w ramach tej samej transakcji.
+ * Dane są walidowane.
+ */
+public record BookingBatchDto(@Size(max = 500,
+                                  message = "Batch can contain at most 500 passenger ids")
+                              List<@NotNull Long> passengerIds,
+                              @Size(max = 500,
+                                  message = "Batch can contain at most 500 new passengers")
+                              List<@Valid @NotNull PassengerDto> newPassengers) {
+    public BookingBatchDto {
+        passengerIds = passengerIds == null ? List.of() : passengerIds;
+        newPassengers = newPassengers == null ? List.of() : newPassengers;
+    }
+}
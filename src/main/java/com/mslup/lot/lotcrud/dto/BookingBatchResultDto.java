@@ -0,0 +1,14 @@
+package com.mslup.lot.lotcrud.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) z wynikiem grupowej rezerwacji lotu.
+ *
+ * @param flightId     ID lotu.
+ * @param passengerIds ID wszystkich pasażerów grupy (w tym nowo dodanych).
+ * @param bookedCount  Liczba nowych rezerwacji (pasażerowie, którzy już mieli rezerwację,
+ *                     nie są liczeni).
+ */
+public record BookingBatchResultDto(long flightId, List<Long> passengerIds, int bookedCount) {
+}
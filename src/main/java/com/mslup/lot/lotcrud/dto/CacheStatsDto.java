@@ -0,0 +1,31 @@
+package com.mslup.lot.lotcrud.dto;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Data Transfer Object (DTO) ze statystykami jednego regionu pamięci podręcznej.
+ *
+ * @param region    Nazwa regionu.
+ * @param size      Przybliżona liczba elementów w regionie.
+ * @param hits      Liczba trafień.
+ * @param misses    Liczba chybień.
+ * @param hitRate   Odsetek trafień (od 0 do 1).
+ * @param evictions Liczba elementów usuniętych z powodu limitu rozmiaru lub czasu.
+ */
+public record CacheStatsDto(String region, long size, long hits, long misses, double hitRate,
+                            long evictions) {
+
+    /**
+     * Tworzy statystyki na podstawie pamięci podręcznej Caffeine.
+     *
+     * @param region Nazwa regionu.
+     * @param cache  Pamięć podręczna regionu.
+     * @return Statystyki regionu.
+     */
+    public static CacheStatsDto of(String region, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(region, cache.estimatedSize(), stats.hitCount(),
+            stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+}
@@ -0,0 +1,13 @@
+package com.mslup.lot.lotcrud.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) ze stroną wyników stronicowanych kursorem.
+ *
+ * @param items      Elementy strony.
+ * @param nextCursor Kursor następnej strony lub {@code null}, jeśli to ostatnia strona.
+ * @param <T>        Typ elementów.
+ */
+public record CursorPageDto<T>(List<T> items, String nextCursor) {
+}
@@ -0,0 +1,18 @@
+package com.mslup.lot.lotcrud.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) dla grupowej zmiany lotów używany w zapytaniu PATCH.
+ * Dane są walidowane.
+ *
+ * @param items Zmiany poszczególnych lotów.
+ */
+public record FlightBatchPatchDto(@NotNull(message = "Items cannot be null")
+                                  @Size(min = 1, max = 1000,
+                                      message = "Batch has to contain from 1 to 1000 items")
+                                  List<@Valid @NotNull FlightPatchDto> items) {
+}
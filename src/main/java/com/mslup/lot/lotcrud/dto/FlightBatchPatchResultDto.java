@@ -0,0 +1,15 @@
+package com.mslup.lot.lotcrud.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) z wynikiem grupowej zmiany lotów.
+ *
+ * @param results       Wyniki zmian poszczególnych lotów.
+ * @param updatedCount  Liczba zmienionych lotów.
+ * @param elapsedMillis Całkowity czas wykonania zmian w milisekundach.
+ */
+public record FlightBatchPatchResultDto(List<FlightPatchResultDto> results,
+                                        int updatedCount,
+                                        long elapsedMillis) {
+}
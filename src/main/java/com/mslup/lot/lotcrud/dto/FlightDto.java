@@ -17,6 +17,7 @@ public record FlightDto(@NotNull(message = "Flight number cannot be null")
                         String destinationAirport,
                         @NotNull(message = "Departure datetime cannot be null")
                         OffsetDateTime departureDateTime,
+                        OffsetDateTime arrivalDateTime,
                         @Min(value = 10, message = "Seats count has to be greater than or equal 10")
                         @Max(value = 500, message = "Seats count has to be less than or equal 500")
                         int availableSeatsCount) {
@@ -0,0 +1,17 @@
+package com.mslup.lot.lotcrud.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) z wynikiem importu lotów.
+ *
+ * @param importedCount Liczba zaimportowanych lotów.
+ * @param failedCount   Liczba wierszy, których nie udało się zaimportować.
+ * @param errors        Opisy błędnych wierszy (ich liczba jest ograniczona konfiguracją).
+ * @param elapsedMillis Całkowity czas importu w milisekundach.
+ */
+public record FlightImportResultDto(int importedCount,
+                                    int failedCount,
+                                    List<ImportErrorDto> errors,
+                                    long elapsedMillis) {
+}
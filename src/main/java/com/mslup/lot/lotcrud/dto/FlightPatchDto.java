@@ -0,0 +1,35 @@
+package com.mslup.lot.lotcrud.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.time.OffsetDateTime;
+
+/**
+ * Data Transfer Object (DTO) ze zmianą jednego lotu w grupowej zmianie lotów.
+ * Pola inne niż ID i wersja są opcjonalne; zmieniane są tylko podane pola.
+ * Dane są walidowane.
+ *
+ * @param id                  ID lotu.
+ * @param version             Oczekiwana wersja lotu (opcjonalnie).
+ * @param flightNumber        Nowy numer lotu.
+ * @param originAirport       Nowy kod lotniska początkowego.
+ * @param destinationAirport  Nowy kod lotniska docelowego.
+ * @param departureDateTime   Nowa data i godzina odlotu.
+ * @param arrivalDateTime     Nowa data i godzina przylotu.
+ * @param availableSeatsCount Nowa liczba dostępnych miejsc (w przedziale od 10 do 500).
+ */
+public record FlightPatchDto(@NotNull(message = "Flight id cannot be null")
+                             Long id,
+                             Long version,
+                             String flightNumber,
+                             String originAirport,
+                             String destinationAirport,
+                             OffsetDateTime departureDateTime,
+                             OffsetDateTime arrivalDateTime,
+                             @Min(value = 10,
+                                 message = "Seats count has to be greater than or equal 10")
+                             @Max(value = 500,
+                                 message = "Seats count has to be less than or equal 500")
+                             Integer availableSeatsCount) {
+}
@@ -0,0 +1,31 @@
+package com.mslup.lot.lotcrud.dto;
+
+/**
+ * Data Transfer Object (DTO) z wynikiem zmiany jednego lotu w grupowej zmianie lotów.
+ *
+ * @param id      ID lotu.
+ * @param status  Wynik zmiany.
+ * @param version Nowa wersja lotu, jeśli lot został zmieniony.
+ */
+public record FlightPatchResultDto(long id, Status status, Long version) {
+
+    /**
+     * Wynik zmiany lotu.
+     */
+    public enum Status {
+        /**
+         * Lot został zmieniony.
+         */
+        UPDATED,
+
+        /**
+         * Lot nie istnieje.
+         */
+        NOT_FOUND,
+
+        /**
+         * Lot ma inną wersję niż oczekiwana, więc nie został zmieniony.
+         */
+        VERSION_MISMATCH
+    }
+}
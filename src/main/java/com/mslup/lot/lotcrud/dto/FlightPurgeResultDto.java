@@ -0,0 +1,11 @@
+package com.mslup.lot.lotcrud.dto;
+
+/**
+ * Wynik usunięcia lotów, które odleciały przed podaną datą.
+ *
+ * @param deletedCount  Liczba usuniętych lotów.
+ * @param chunkCount    Liczba transakcji, w których usuwano loty.
+ * @param elapsedMillis Czas wykonania w milisekundach.
+ */
+public record FlightPurgeResultDto(int deletedCount, int chunkCount, long elapsedMillis) {
+}
@@ -0,0 +1,35 @@
+package com.mslup.lot.lotcrud.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Data Transfer Object (DTO) ze zmianą wszystkich lotów spełniających kryteria filtrowania.
+ * Wszystkie pola są opcjonalne; zmieniane są tylko podane pola.
+ * Dane są walidowane.
+ *
+ * @param shift               Przesunięcie dat odlotu i przylotu (np. PT90M lub -PT30M);
+ *                            nie może być podane razem z nową datą odlotu lub przylotu.
+ * @param flightNumber        Nowy numer lotu.
+ * @param originAirport       Nowy kod lotniska początkowego.
+ * @param destinationAirport  Nowy kod lotniska docelowego.
+ * @param departureDateTime   Nowa data i godzina odlotu.
+ * @param arrivalDateTime     Nowa data i godzina przylotu.
+ * @param availableSeatsCount Nowa liczba dostępnych miejsc (w przedziale od 10 do 500).
+ */
+public record FlightScheduleChangeDto(Duration shift,
+                                      String flightNumber,
+                                      String originAirport,
+                                      String destinationAirport,
+                                      OffsetDateTime departureDateTime,
+                                      OffsetDateTime arrivalDateTime,
+                                      @Min(value = 10,
+                                          message = "Seats count has to be greater than or "
+                                              + "equal 10")
+                                      @Max(value = 500,
+                                          message = "Seats count has to be less than or equal "
+                                              + "500")
+                                      Integer availableSeatsCount) {
+}
@@ -0,0 +1,40 @@
+package com.mslup.lot.lotcrud.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Data Transfer Object (DTO) dla danych rozkładu lotu używany w zapytaniach POST i PUT.
+ * Dane są walidowane.
+ */
+public record FlightScheduleDto(@NotNull(message = "Flight number cannot be null")
+                                String flightNumber,
+                                @NotNull(message = "Origin airport cannot be null")
+                                String originAirport,
+                                @NotNull(message = "Destination airport cannot be null")
+                                String destinationAirport,
+                                @NotNull(message = "Days of week cannot be null")
+                                @Pattern(regexp = "[1.][2.][3.][4.][5.][6.][7.]",
+                                    message = "Days of week have to be in format 1234567, "
+                                        + "with a dot for each day without flights")
+                                String daysOfWeek,
+                                @NotNull(message = "Departure time cannot be null")
+                                LocalTime departureTime,
+                                @Min(value = 1, message = "Block time has to be positive")
+                                Integer blockTimeMinutes,
+                                @NotNull(message = "Time zone cannot be null")
+                                String timeZone,
+                                @NotNull(message = "Valid from date cannot be null")
+                                LocalDate validFrom,
+                                @NotNull(message = "Valid to date cannot be null")
+                                LocalDate validTo,
+                                @Min(value = 10,
+                                    message = "Seats count has to be greater than or equal 10")
+                                @Max(value = 500,
+                                    message = "Seats count has to be less than or equal 500")
+                                int availableSeatsCount) {
+}
@@ -0,0 +1,37 @@
+package com.mslup.lot.lotcrud.dto;
+
+import com.mslup.lot.lotcrud.model.Flight;
+import java.time.OffsetDateTime;
+
+/**
+ * Projekcja lotu tylko do odczytu.
+ * Tworzona bezpośrednio w zapytaniu, więc nie jest zarządzana przez kontekst persystencji.
+ *
+ * @param id                  ID lotu.
+ * @param flightNumber        Numer lotu.
+ * @param originAirport       Kod lotniska początkowego.
+ * @param destinationAirport  Kod lotniska docelowego.
+ * @param departureDateTime   Data i godzina odlotu.
+ * @param arrivalDateTime     Data i godzina przylotu lub {@code null}, jeśli nieznana.
+ * @param availableSeatsCount Liczba dostępnych miejsc.
+ */
+public record FlightView(long id,
+                         String flightNumber,
+                         String originAirport,
+                         String destinationAirport,
+                         OffsetDateTime departureDateTime,
+                         OffsetDateTime arrivalDateTime,
+                         int availableSeatsCount) {
+
+    /**
+     * Tworzy projekcję na podstawie encji lotu.
+     *
+     * @param flight Lot.
+     * @return Projekcja lotu.
+     */
+    public static FlightView of(Flight flight) {
+        return new FlightView(flight.getId(), flight.getFlightNumber(), flight.getOriginAirport(),
+            flight.getDestinationAirport(), flight.getDepartureDateTime(),
+            flight.getArrivalDateTime(), flight.getAvailableSeatsCount());
+    }
+}
@@ -0,0 +1,10 @@
+package com.mslup.lot.lotcrud.dto;
+
+/**
+ * Data Transfer Object (DTO) z opisem wiersza, którego nie udało się zaimportować.
+ *
+ * @param line    Numer linii, w której zaczyna się wiersz (licząc od 1).
+ * @param message Opis błędu.
+ */
+public record ImportErrorDto(long line, String message) {
+}
@@ -0,0 +1,34 @@
+package com.mslup.lot.lotcrud.dto;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) z połączeniem składającym się z jednego lub kilku lotów.
+ *
+ * @param legs              Kolejne loty połączenia.
+ * @param departureDateTime Data i godzina odlotu pierwszego lotu.
+ * @param arrivalDateTime   Data i godzina przylotu ostatniego lotu.
+ * @param duration          Całkowity czas podróży.
+ * @param stops             Liczba przesiadek.
+ */
+public record ItineraryDto(List<FlightView> legs,
+                           OffsetDateTime departureDateTime,
+                           OffsetDateTime arrivalDateTime,
+                           Duration duration,
+                           int stops) {
+
+    /**
+     * Tworzy połączenie z kolejnych lotów.
+     *
+     * @param legs Kolejne loty połączenia.
+     * @return Połączenie.
+     */
+    public static ItineraryDto of(List<FlightView> legs) {
+        OffsetDateTime departure = legs.get(0).departureDateTime();
+        OffsetDateTime arrival = legs.get(legs.size() - 1).arrivalDateTime();
+        return new ItineraryDto(List.copyOf(legs), departure, arrival,
+            Duration.between(departure, arrival), legs.size() - 1);
+    }
+}
@@ -0,0 +1,32 @@
+package com.mslup.lot.lotcrud.dto;
+
+import com.mslup.lot.lotcrud.model.BookingStatus;
+import java.time.OffsetDateTime;
+
+/**
+ * Wiersz listy pasażerów (manifestu) lotu: lot wraz z jednym zarezerwowanym pasażerem.
+ *
+ * @param flightId           ID lotu.
+ * @param flightNumber       Numer lotu.
+ * @param originAirport      Kod lotniska początkowego.
+ * @param destinationAirport Kod lotniska docelowego.
+ * @param departureDateTime  Data i godzina odlotu.
+ * @param passengerId        ID pasażera.
+ * @param firstName          Imię pasażera.
+ * @param lastName           Nazwisko pasażera.
+ * @param phoneNumber        Numer telefonu pasażera.
+ * @param bookedAt           Data i godzina dokonania rezerwacji.
+ * @param status             Status rezerwacji.
+ */
+public record ManifestRow(long flightId,
+                          String flightNumber,
+                          String originAirport,
+                          String destinationAirport,
+                          OffsetDateTime departureDateTime,
+                          long passengerId,
+                          String firstName,
+                          String lastName,
+                          String phoneNumber,
+                          OffsetDateTime bookedAt,
+                          BookingStatus status) {
+}
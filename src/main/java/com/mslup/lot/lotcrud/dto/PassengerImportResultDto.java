@@ -0,0 +1,21 @@
+package com.mslup.lot.lotcrud.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) z wynikiem importu pasażerów.
+ *
+ * @param insertedCount  Liczba dodanych pasażerów.
+ * @param updatedCount   Liczba istniejących pasażerów, których dane zostały zmienione.
+ * @param unchangedCount Liczba istniejących pasażerów, których dane się nie zmieniły.
+ * @param rejectedCount  Liczba wierszy, których nie udało się zaimportować.
+ * @param errors         Opisy odrzuconych wierszy (ich liczba jest ograniczona konfiguracją).
+ * @param elapsedMillis  Całkowity czas importu w milisekundach.
+ */
+public record PassengerImportResultDto(int insertedCount,
+                                       int updatedCount,
+                                       int unchangedCount,
+                                       int rejectedCount,
+                                       List<ImportErrorDto> errors,
+                                       long elapsedMillis) {
+}
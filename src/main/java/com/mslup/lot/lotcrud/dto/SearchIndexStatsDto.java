@@ -0,0 +1,16 @@
+package com.mslup.lot.lotcrud.dto;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Data Transfer Object (DTO) ze statystykami indeksu wyszukiwania lotów.
+ *
+ * @param routes         Liczba tras w indeksie.
+ * @param flights        Liczba lotów w indeksie.
+ * @param coveredFrom    Data, od której indeks zawiera wszystkie loty.
+ * @param estimatedBytes Szacowany rozmiar indeksu w pamięci.
+ * @param bytesPerFlight Szacowany rozmiar indeksu w przeliczeniu na jeden lot.
+ */
+public record SearchIndexStatsDto(int routes, long flights, OffsetDateTime coveredFrom,
+                                  long estimatedBytes, double bytesPerFlight) {
+}
@@ -0,0 +1,15 @@
+package com.mslup.lot.lotcrud.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object (DTO) opisujący blokadę miejsc w locie.
+ *
+ * @param id        ID blokady.
+ * @param flightId  ID lotu.
+ * @param seats     Liczba zablokowanych miejsc.
+ * @param expiresAt Data i godzina wygaśnięcia blokady.
+ */
+public record SeatHoldDto(UUID id, long flightId, int seats, OffsetDateTime expiresAt) {
+}
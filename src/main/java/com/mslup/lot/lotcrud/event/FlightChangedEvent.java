@@ -0,0 +1,23 @@
+package com.mslup.lot.lotcrud.event;
+
+import com.mslup.lot.lotcrud.dto.FlightView;
+
+/**
+ * Zdarzenie publikowane po dodaniu, zmianie lub usunięciu lotu.
+ * Publikowane wewnątrz transakcji, w której nastąpiła zmiana (jeśli taka istnieje).
+ *
+ * @param flightId ID lotu.
+ * @param current  Aktualny stan lotu lub {@code null}, jeśli lot został usunięty.
+ */
+public record FlightChangedEvent(long flightId, FlightView current) {
+
+    /**
+     * Tworzy zdarzenie usunięcia lotu.
+     *
+     * @param flightId ID usuniętego lotu.
+     * @return Zdarzenie usunięcia lotu.
+     */
+    public static FlightChangedEvent deleted(long flightId) {
+        return new FlightChangedEvent(flightId, null);
+    }
+}
@@ -0,0 +1,11 @@
+package com.mslup.lot.lotcrud.event;
+
+/**
+ * Zdarzenie publikowane po dodaniu lub zmianie rozkładu lotu, po którym rozkład wymaga
+ * rozwinięcia w loty.
+ * Publikowane wewnątrz transakcji, w której nastąpiła zmiana.
+ *
+ * @param scheduleId ID rozkładu.
+ */
+public record FlightScheduleChangedEvent(long scheduleId) {
+}
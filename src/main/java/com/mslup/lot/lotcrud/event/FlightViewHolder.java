@@ -0,0 +1,26 @@
+package com.mslup.lot.lotcrud.event;
+
+import com.mslup.lot.lotcrud.dto.FlightView;
+
+/**
+ * Struktura w pamięci przechowująca projekcje lotów, której liczby miejsc odświeża
+ * {@link FlightViewRefresher}.
+ */
+public interface FlightViewHolder {
+    /**
+     * Sprawdza, czy struktura przechowuje lot.
+     *
+     * @param flightId ID lotu.
+     * @return {@code true}, jeśli struktura potrzebuje aktualnej projekcji lotu, zwykle gdy
+     *     jest wczytana i zawiera lot.
+     */
+    boolean holds(long flightId);
+
+    /**
+     * Zastępuje przechowywany lot jego aktualną projekcją.
+     *
+     * @param flightId ID lotu.
+     * @param current  Aktualna projekcja lotu lub {@code null}, jeśli lot został usunięty.
+     */
+    void refresh(long flightId, FlightView current);
+}
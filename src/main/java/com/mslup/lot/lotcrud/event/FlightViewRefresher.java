@@ -0,0 +1,51 @@
+package com.mslup.lot.lotcrud.event;
+
+import com.mslup.lot.lotcrud.dto.FlightView;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Odświeża liczbę miejsc lotów we wszystkich strukturach w pamięci
+ * ({@link FlightViewHolder}) po zatwierdzeniu jej zmiany.
+ *
+ * <p>{@link SeatsChangedEvent} zawiera tylko ID lotów, więc aktualne projekcje pobierane
+ * są jednym zapytaniem dla lotów przechowywanych przez którąkolwiek strukturę. Gdy żadna
+ * struktura nie jest włączona, zdarzenie nie wymaga zapytania do bazy danych.
+ */
+@Component
+@RequiredArgsConstructor
+public class FlightViewRefresher {
+    private final FlightRepository flightRepository;
+    private final List<FlightViewHolder> holders;
+
+    /**
+     * Przekazuje aktualne projekcje lotów strukturom, które je przechowują.
+     *
+     * @param event Zdarzenie zmiany liczby miejsc.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsChanged(SeatsChangedEvent event) {
+        List<Long> held = event.flightIds().stream()
+            .filter(flightId -> holders.stream().anyMatch(holder -> holder.holds(flightId)))
+            .toList();
+        if (held.isEmpty()) {
+            return;
+        }
+
+        Map<Long, FlightView> current = flightRepository.findViewsByIdIn(held).stream()
+            .collect(Collectors.toMap(FlightView::id, Function.identity()));
+        for (FlightViewHolder holder : holders) {
+            for (Long flightId : held) {
+                if (holder.holds(flightId)) {
+                    holder.refresh(flightId, current.get(flightId));
+                }
+            }
+        }
+    }
+}
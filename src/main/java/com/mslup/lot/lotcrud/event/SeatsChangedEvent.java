@@ -0,0 +1,13 @@
+package com.mslup.lot.lotcrud.event;
+
+import java.util.Set;
+
+/**
+ * Zdarzenie publikowane po zmianie liczby wolnych miejsc zapisanej w bazie danych
+ * (rezerwacja, zwolnienie miejsc lub zapis zmian z pamięci).
+ * Publikowane wewnątrz transakcji, w której nastąpiła zmiana.
+ *
+ * @param flightIds ID lotów, w których zmieniła się liczba miejsc.
+ */
+public record SeatsChangedEvent(Set<Long> flightIds) {
+}
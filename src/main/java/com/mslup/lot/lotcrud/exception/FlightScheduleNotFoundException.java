@@ -0,0 +1,12 @@
+package com.mslup.lot.lotcrud.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Wyjątek sygnalizujący brak znalezienia rozkładu lotu.
+ */
+public class FlightScheduleNotFoundException extends ResourceException {
+    public FlightScheduleNotFoundException(Long id) {
+        super(HttpStatus.NOT_FOUND, String.format("Flight schedule with id = %s not found", id));
+    }
+}
@@ -0,0 +1,13 @@
+package com.mslup.lot.lotcrud.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Wyjątek sygnalizujący ponowne użycie klucza idempotencji dla innego żądania.
+ */
+public class IdempotencyKeyReusedException extends ResourceException {
+    public IdempotencyKeyReusedException(String key) {
+        super(HttpStatus.UNPROCESSABLE_ENTITY,
+            String.format("Idempotency-Key %s was already used for a different request", key));
+    }
+}
@@ -0,0 +1,12 @@
+package com.mslup.lot.lotcrud.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Wyjątek sygnalizujący nieprawidłowy kursor stronicowania.
+ */
+public class InvalidCursorException extends ResourceException {
+    public InvalidCursorException(String cursor) {
+        super(HttpStatus.BAD_REQUEST, String.format("Invalid page cursor: %s", cursor));
+    }
+}
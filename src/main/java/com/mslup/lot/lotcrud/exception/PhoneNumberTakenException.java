@@ -0,0 +1,13 @@
+package com.mslup.lot.lotcrud.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Wyjątek sygnalizujący, że istnieje już pasażer o podanym numerze telefonu.
+ */
+public class PhoneNumberTakenException extends ResourceException {
+    public PhoneNumberTakenException(String phoneNumber) {
+        super(HttpStatus.CONFLICT,
+            String.format("Passenger with phone number %s already exists", phoneNumber));
+    }
+}
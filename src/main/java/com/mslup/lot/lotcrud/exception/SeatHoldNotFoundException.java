@@ -0,0 +1,13 @@
+package com.mslup.lot.lotcrud.exception;
+
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Wyjątek sygnalizujący brak znalezienia blokady miejsc (lub jej wygaśnięcie).
+ */
+public class SeatHoldNotFoundException extends ResourceException {
+    public SeatHoldNotFoundException(UUID id) {
+        super(HttpStatus.NOT_FOUND, String.format("Seat hold with id = %s not found", id));
+    }
+}
@@ -0,0 +1,14 @@
+package com.mslup.lot.lotcrud.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Wyjątek sygnalizujący, że zasób został zmieniony od odczytu wersji podanej
+ * w nagłówku {@code If-Match}.
+ */
+public class VersionMismatchException extends ResourceException {
+    public VersionMismatchException(String resource, Long id, Long expectedVersion) {
+        super(HttpStatus.PRECONDITION_FAILED,
+            String.format("%s with id = %s is not at version %s", resource, id, expectedVersion));
+    }
+}
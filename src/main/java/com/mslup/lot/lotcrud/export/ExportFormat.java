@@ -0,0 +1,63 @@
+package com.mslup.lot.lotcrud.export;
+
+import com.mslup.lot.lotcrud.exception.ResourceException;
+import java.util.Arrays;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Format eksportu i importu danych.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    /**
+     * Jeden obiekt JSON w każdej linii.
+     */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+
+    /**
+     * Wartości rozdzielone przecinkami, z nagłówkiem w pierwszej linii.
+     */
+    CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    /**
+     * Tworzy odpowiedź z plikiem eksportu w tym formacie.
+     *
+     * @param fileName Nazwa pliku (bez rozszerzenia).
+     * @param body     Treść odpowiedzi zapisywana strumieniowo.
+     * @return {@code ResponseEntity} z treścią eksportu.
+     */
+    public ResponseEntity<StreamingResponseBody> response(String fileName,
+                                                          StreamingResponseBody body) {
+        return ResponseEntity.ok()
+            .contentType(mediaType)
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName + "." + extension).build().toString())
+            .body(body);
+    }
+
+    /**
+     * Zwraca format o podanej nazwie (bez względu na wielkość liter).
+     *
+     * @param name Nazwa formatu.
+     * @return Format o podanej nazwie.
+     * @throws ResourceException Jeśli format nie jest obsługiwany.
+     */
+    public static ExportFormat fromName(String name) {
+        return Arrays.stream(values())
+            .filter(format -> format.name().equalsIgnoreCase(name))
+            .findFirst()
+            .orElseThrow(() -> new ResourceException(HttpStatus.BAD_REQUEST,
+                String.format("Unsupported export format: %s", name)));
+    }
+}
@@ -0,0 +1,104 @@
+package com.mslup.lot.lotcrud.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mslup.lot.lotcrud.dto.FlightView;
+import com.mslup.lot.lotcrud.dto.ManifestRow;
+import com.mslup.lot.lotcrud.exception.FlightNotFoundException;
+import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.repository.BookingRepository;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Serwis strumieniowego eksportu lotów i list pasażerów.
+ *
+ * <p>Wiersze są odczytywane kursorem bazy danych w porcjach i zapisywane do odpowiedzi jeden po
+ * drugim, bez gromadzenia wyników w pamięci ani w kontekście persystencji.
+ */
+@Service
+@RequiredArgsConstructor
+public class FlightExportService {
+    private final FlightRepository flightRepository;
+    private final BookingRepository bookingRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Tworzy treść odpowiedzi z lotami spełniającymi kryteria filtrowania.
+     * Zapytanie jest wykonywane dopiero podczas zapisywania odpowiedzi.
+     *
+     * @param criteria Kryteria filtrowania lotów.
+     * @param format   Format eksportu.
+     * @return Treść odpowiedzi zapisywana strumieniowo.
+     */
+    public StreamingResponseBody exportFlights(FlightFilterCriteria criteria,
+                                               ExportFormat format) {
+        return export(FlightView.class, format, () -> flightRepository.streamFlights(criteria));
+    }
+
+    /**
+     * Tworzy treść odpowiedzi z listą pasażerów lotu.
+     * Zapytanie jest wykonywane dopiero podczas zapisywania odpowiedzi.
+     *
+     * @param flightId ID lotu.
+     * @param format   Format eksportu.
+     * @return Treść odpowiedzi zapisywana strumieniowo.
+     * @throws FlightNotFoundException Jeśli lot o podanym ID nie istnieje.
+     */
+    public StreamingResponseBody exportManifest(long flightId, ExportFormat format)
+        throws FlightNotFoundException {
+        if (!flightRepository.existsById(flightId)) {
+            throw new FlightNotFoundException(flightId);
+        }
+        return export(ManifestRow.class, format,
+            () -> bookingRepository.streamManifest(flightId));
+    }
+
+    /**
+     * Tworzy treść odpowiedzi z listami pasażerów lotów odlatujących w podanym przedziale czasu.
+     * Zapytanie jest wykonywane dopiero podczas zapisywania odpowiedzi.
+     *
+     * @param dateFrom Data początkowa (włącznie).
+     * @param dateTo   Data końcowa (włącznie).
+     * @param format   Format eksportu.
+     * @return Treść odpowiedzi zapisywana strumieniowo.
+     */
+    public StreamingResponseBody exportManifests(OffsetDateTime dateFrom, OffsetDateTime dateTo,
+                                                 ExportFormat format) {
+        return export(ManifestRow.class, format,
+            () -> bookingRepository.streamManifests(dateFrom, dateTo));
+    }
+
+    private <T extends Record> StreamingResponseBody export(Class<T> type, ExportFormat format,
+                                                            Supplier<Stream<T>> rows) {
+        return outputStream -> {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            try (RecordStreamWriter<T> writer = new RecordStreamWriter<>(
+                type, format, outputStream, objectMapper)) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<T> stream = rows.get()) {
+                        stream.forEach(row -> {
+                            try {
+                                writer.write(row);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+}
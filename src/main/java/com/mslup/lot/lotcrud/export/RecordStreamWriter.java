@@ -0,0 +1,108 @@
+package com.mslup.lot.lotcrud.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Zapisuje kolejne rekordy do strumienia w formacie NDJSON lub CSV.
+ * Każdy rekord jest zapisywany od razu, więc zużycie pamięci nie zależy od liczby rekordów.
+ * Kolumny CSV odpowiadają składowym rekordu, w kolejności deklaracji.
+ *
+ * @param <T> Typ zapisywanych rekordów.
+ */
+public class RecordStreamWriter<T extends Record> implements Closeable {
+    private final ExportFormat format;
+    private final Writer writer;
+    private final ObjectWriter jsonWriter;
+    private final Method[] accessors;
+
+    /**
+     * Tworzy obiekt zapisujący i, dla formatu CSV, zapisuje linię nagłówka.
+     *
+     * @param type         Typ zapisywanych rekordów.
+     * @param format       Format wyjściowy.
+     * @param outputStream Strumień wyjściowy.
+     * @param objectMapper Obiekt mapujący używany do serializacji JSON.
+     * @throws IOException Jeśli zapis nagłówka się nie powiedzie.
+     */
+    public RecordStreamWriter(Class<T> type, ExportFormat format, OutputStream outputStream,
+                              ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+        this.writer = new BufferedWriter(
+            new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        this.jsonWriter = objectMapper.writerFor(type);
+        RecordComponent[] components = type.getRecordComponents();
+        this.accessors = Arrays.stream(components)
+            .map(RecordComponent::getAccessor)
+            .toArray(Method[]::new);
+
+        if (format == ExportFormat.CSV) {
+            writer.write(Arrays.stream(components)
+                .map(RecordComponent::getName)
+                .collect(Collectors.joining(",")));
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Zapisuje jeden rekord.
+     *
+     * @param record Rekord do zapisania.
+     * @throws IOException Jeśli zapis się nie powiedzie.
+     */
+    public void write(T record) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            writer.write(jsonWriter.writeValueAsString(record));
+        } else {
+            for (int i = 0; i < accessors.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvValue(component(record, i)));
+            }
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Opróżnia bufor i zamyka strumień wyjściowy.
+     *
+     * @throws IOException Jeśli zapis się nie powiedzie.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private Object component(T record, int index) {
+        try {
+            return accessors[index].invoke(record);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0
+            && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,54 @@
+package com.mslup.lot.lotcrud.filter;
+
+import com.mslup.lot.lotcrud.exception.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Kursor stronicowania lotów wskazujący ostatni lot zwróconej strony.
+ * Kolejna strona zaczyna się od pierwszego lotu następującego po kursorze
+ * w porządku (data odlotu, ID).
+ *
+ * @param departureDateTime Data i godzina odlotu ostatniego lotu strony.
+ * @param id                ID ostatniego lotu strony.
+ */
+public record FlightCursor(OffsetDateTime departureDateTime, long id) {
+
+    /**
+     * Koduje kursor do nieprzezroczystego tekstu przekazywanego klientowi.
+     *
+     * @return Zakodowany kursor.
+     */
+    public String encode() {
+        String value = departureDateTime.toInstant() + "," + id;
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Dekoduje kursor przekazany przez klienta.
+     *
+     * @param cursor Zakodowany kursor.
+     * @return Zdekodowany kursor.
+     * @throws InvalidCursorException Jeśli kursor jest nieprawidłowy.
+     */
+    public static FlightCursor decode(String cursor) throws InvalidCursorException {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor),
+                StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(',');
+            if (separator < 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            Instant departure = Instant.parse(value.substring(0, separator));
+            long id = Long.parseLong(value.substring(separator + 1));
+            return new FlightCursor(departure.atOffset(ZoneOffset.UTC), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
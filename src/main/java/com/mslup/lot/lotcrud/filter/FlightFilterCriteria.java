@@ -1,6 +1,11 @@
 package com.mslup.lot.lotcrud.filter;
 
+import com.mslup.lot.lotcrud.dto.FlightView;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
 import lombok.Builder;
 
 /**
@@ -37,4 +42,72 @@ public class FlightFilterCriteria {
      * Maksymalna liczba miejsc.
      */
     public Integer seatsCountTo;
+
+    /**
+     * Normalizuje kod lotniska: usuwa białe znaki z początku i końca oraz zamienia litery
+     * na wielkie.
+     *
+     * @param code Kod lotniska.
+     * @return Znormalizowany kod lub {@code null}, jeśli kod jest pusty.
+     */
+    public static String normalizeAirportCode(String code) {
+        if (code == null || code.isBlank()) {
+            return null;
+        }
+        return code.strip().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Zwraca kopię kryteriów ze znormalizowanymi kodami lotnisk.
+     *
+     * @return Znormalizowane kryteria.
+     */
+    public FlightFilterCriteria normalized() {
+        return new FlightFilterCriteria(normalizeAirportCode(originAirport),
+            normalizeAirportCode(destinationAirport), dateFrom, dateTo, seatsCountFrom,
+            seatsCountTo);
+    }
+
+    /**
+     * Tworzy kanoniczny klucz pamięci podręcznej wyników dla tych kryteriów.
+     * Klucz tworzony jest tylko dla wyszukiwań na trasie (z oboma lotniskami) w zamkniętym
+     * przedziale dat; daty są zaokrąglane w dół (początek) i w górę (koniec) do wielokrotności
+     * {@code dateBucket}, a filtry liczby miejsc pomijane, bo stosuje się je do wyniku w pamięci.
+     *
+     * @param dateBucket Szerokość przedziału, do którego zaokrąglane są daty.
+     * @return Klucz lub {@code null}, jeśli wyszukiwanie nie dotyczy trasy albo przedział dat
+     *     jest otwarty.
+     */
+    public FlightSearchKey cacheKey(Duration dateBucket) {
+        String origin = normalizeAirportCode(originAirport);
+        String destination = normalizeAirportCode(destinationAirport);
+        if (origin == null || destination == null || dateFrom == null || dateTo == null) {
+            return null;
+        }
+        long bucket = dateBucket.toMillis();
+        return new FlightSearchKey(origin, destination, bucketStart(dateFrom, bucket),
+            bucketStart(dateTo, bucket).plus(dateBucket));
+    }
+
+    /**
+     * Sprawdza, czy lot spełnia te kryteria.
+     *
+     * @param flight Lot.
+     * @return {@code true}, jeśli lot spełnia wszystkie kryteria.
+     */
+    public boolean matches(FlightView flight) {
+        return (originAirport == null || originAirport.equals(flight.originAirport()))
+            && (destinationAirport == null
+                || destinationAirport.equals(flight.destinationAirport()))
+            && (dateFrom == null || !flight.departureDateTime().isBefore(dateFrom))
+            && (dateTo == null || !flight.departureDateTime().isAfter(dateTo))
+            && (seatsCountFrom == null || flight.availableSeatsCount() >= seatsCountFrom)
+            && (seatsCountTo == null || flight.availableSeatsCount() <= seatsCountTo);
+    }
+
+    private static OffsetDateTime bucketStart(OffsetDateTime dateTime, long bucketMillis) {
+        long millis = dateTime.toInstant().toEpochMilli();
+        return Instant.ofEpochMilli(Math.floorDiv(millis, bucketMillis) * bucketMillis)
+            .atOffset(ZoneOffset.UTC);
+    }
 }
@@ -0,0 +1,15 @@
+package com.mslup.lot.lotcrud.filter;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Żądanie strony lotów przy stronicowaniu kursorem (keyset).
+ * Loty sortowane są według daty odlotu, a przy równych datach według ID,
+ * więc kolejność jest stabilna niezależnie od zmian w tablicy lotów.
+ *
+ * @param after     Kursor ostatniego lotu poprzedniej strony lub {@code null} dla pierwszej strony.
+ * @param size      Rozmiar strony.
+ * @param direction Kierunek sortowania.
+ */
+public record FlightPageRequest(FlightCursor after, int size, Sort.Direction direction) {
+}
@@ -0,0 +1,48 @@
+package com.mslup.lot.lotcrud.filter;
+
+import com.mslup.lot.lotcrud.dto.FlightView;
+import java.time.OffsetDateTime;
+
+/**
+ * Kanoniczny klucz wyszukiwania lotów na trasie, używany przez pamięć podręczną wyników.
+ * Kody lotnisk są znormalizowane, a granice przedziału dat zaokrąglone do pełnych przedziałów,
+ * dzięki czemu różne wyszukiwania na tej samej trasie w podobnym czasie mają ten sam klucz.
+ * Wynik dla klucza jest nadzbiorem wyników każdego z tych wyszukiwań.
+ *
+ * @param originAirport      Znormalizowany kod lotniska początkowego.
+ * @param destinationAirport Znormalizowany kod lotniska docelowego.
+ * @param dateFrom           Początek przedziału dat odlotu (włącznie).
+ * @param dateTo             Koniec przedziału dat odlotu (włącznie).
+ */
+public record FlightSearchKey(String originAirport,
+                              String destinationAirport,
+                              OffsetDateTime dateFrom,
+                              OffsetDateTime dateTo) {
+
+    /**
+     * Sprawdza, czy lot na tej samej trasie mógłby należeć do wyniku dla tego klucza.
+     *
+     * @param flight Lot.
+     * @return {@code true}, jeśli lot leży na trasie klucza, a jego data odlotu w przedziale.
+     */
+    public boolean covers(FlightView flight) {
+        return originAirport.equals(flight.originAirport())
+            && destinationAirport.equals(flight.destinationAirport())
+            && !flight.departureDateTime().isBefore(dateFrom)
+            && !flight.departureDateTime().isAfter(dateTo);
+    }
+
+    /**
+     * Tworzy kryteria filtrowania zwracające wszystkie loty dla tego klucza.
+     *
+     * @return Kryteria filtrowania.
+     */
+    public FlightFilterCriteria toCriteria() {
+        return FlightFilterCriteria.builder()
+            .originAirport(originAirport)
+            .destinationAirport(destinationAirport)
+            .dateFrom(dateFrom)
+            .dateTo(dateTo)
+            .build();
+    }
+}
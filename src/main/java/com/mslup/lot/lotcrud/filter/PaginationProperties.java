@@ -0,0 +1,15 @@
+package com.mslup.lot.lotcrud.filter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja stronicowania list (prefiks {@code lotcrud.pagination}).
+ *
+ * @param defaultSize Domyślny rozmiar strony.
+ * @param maxSize     Maksymalny rozmiar strony; większe żądania są do niego przycinane.
+ */
+@ConfigurationProperties(prefix = "lotcrud.pagination")
+public record PaginationProperties(@DefaultValue("20") int defaultSize,
+                                   @DefaultValue("100") int maxSize) {
+}
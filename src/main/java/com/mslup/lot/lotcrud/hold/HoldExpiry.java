@@ -0,0 +1,28 @@
+package com.mslup.lot.lotcrud.hold;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Element kolejki wygasania blokad miejsc, uporządkowany według czasu wygaśnięcia.
+ *
+ * @param holdId    ID blokady.
+ * @param flightId  ID lotu.
+ * @param seats     Liczba zablokowanych miejsc.
+ * @param expiresAt Moment wygaśnięcia blokady.
+ */
+record HoldExpiry(UUID holdId, long flightId, int seats, Instant expiresAt) implements Delayed {
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(expiresAt.toEpochMilli() - System.currentTimeMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        return expiresAt.compareTo(((HoldExpiry) other).expiresAt);
+    }
+}
@@ -0,0 +1,18 @@
+package com.mslup.lot.lotcrud.hold;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja blokad miejsc (prefiks {@code lotcrud.holds}).
+ *
+ * @param defaultTtl    Domyślny czas trwania blokady.
+ * @param maxTtl        Maksymalny czas trwania blokady.
+ * @param sweepInterval Odstęp między zwolnieniami wygasłych blokad.
+ */
+@ConfigurationProperties(prefix = "lotcrud.holds")
+public record SeatHoldProperties(@DefaultValue("10m") Duration defaultTtl,
+                                 @DefaultValue("30m") Duration maxTtl,
+                                 @DefaultValue("1s") Duration sweepInterval) {
+}
@@ -0,0 +1,201 @@
+package com.mslup.lot.lotcrud.hold;
+
+import com.mslup.lot.lotcrud.dto.BookingBatchResultDto;
+import com.mslup.lot.lotcrud.dto.SeatHoldDto;
+import com.mslup.lot.lotcrud.exception.FlightNotFoundException;
+import com.mslup.lot.lotcrud.exception.NoAvailableSeatsException;
+import com.mslup.lot.lotcrud.exception.PassengerNotFoundException;
+import com.mslup.lot.lotcrud.exception.SeatHoldNotFoundException;
+import com.mslup.lot.lotcrud.inventory.SeatInventory;
+import com.mslup.lot.lotcrud.model.Passenger;
+import com.mslup.lot.lotcrud.model.SeatHold;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import com.mslup.lot.lotcrud.repository.SeatHoldRepository;
+import com.mslup.lot.lotcrud.service.FlightService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.ScheduledFuture;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serwis obsługujący czasowe blokady miejsc w lotach.
+ *
+ * <p>Utworzenie blokady rezerwuje miejsca w {@link SeatInventory}, więc są one od razu
+ * odejmowane od liczby dostępnych miejsc lotu (także w filtrowaniu lotów). Blokady zapisywane
+ * są w bazie danych, a ich terminy wygaśnięcia trzymane w kolejce uporządkowanej według czasu,
+ * z której wygasłe blokady są pobierane zbiorczo i zwracane do puli jednym zapytaniem na lot,
+ * bez przeglądania wszystkich lotów ani blokad.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeatHoldService {
+    private final SeatHoldRepository seatHoldRepository;
+    private final FlightRepository flightRepository;
+    private final FlightService flightService;
+    private final SeatInventory seatInventory;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final SeatHoldProperties properties;
+
+    private final DelayQueue<HoldExpiry> expiries = new DelayQueue<>();
+    private ScheduledFuture<?> sweepTask;
+
+    /**
+     * Wczytuje blokady zapisane w bazie danych i uruchamia cykliczne zwalnianie wygasłych blokad.
+     * Blokady, które wygasły podczas przestoju aplikacji, zostaną zwolnione przy pierwszym
+     * przebiegu.
+     */
+    @PostConstruct
+    void start() {
+        seatHoldRepository.findAll().forEach(hold -> expiries.add(toExpiry(hold)));
+        sweepTask = taskScheduler.scheduleWithFixedDelay(this::releaseExpiredHolds,
+            properties.sweepInterval());
+    }
+
+    @PreDestroy
+    void stop() {
+        sweepTask.cancel(false);
+    }
+
+    /**
+     * Blokuje miejsca w locie na określony czas.
+     *
+     * @param flightId ID lotu.
+     * @param seats    Liczba miejsc do zablokowania.
+     * @param ttl      Czas trwania blokady; domyślny, jeśli pusty. Ograniczony do maksymalnego.
+     * @return Utworzona blokada.
+     * @throws FlightNotFoundException   Jeśli lot o podanym ID nie zostanie znaleziony.
+     * @throws NoAvailableSeatsException Jeśli lot nie ma wystarczającej liczby wolnych miejsc.
+     */
+    @Transactional
+    public SeatHoldDto createHold(long flightId, int seats, Duration ttl)
+        throws FlightNotFoundException, NoAvailableSeatsException {
+        if (!flightRepository.existsById(flightId)) {
+            throw new FlightNotFoundException(flightId);
+        }
+        if (!seatInventory.reserve(flightId, seats)) {
+            throw new NoAvailableSeatsException(flightId);
+        }
+
+        Duration holdTtl = ttl == null ? properties.defaultTtl() : ttl;
+        if (holdTtl.compareTo(properties.maxTtl()) > 0) {
+            holdTtl = properties.maxTtl();
+        }
+        SeatHold hold = seatHoldRepository.save(SeatHold.builder()
+            .id(UUID.randomUUID())
+            .flight(flightRepository.getReferenceById(flightId))
+            .seats(seats)
+            .expiresAt(OffsetDateTime.now().plus(holdTtl))
+            .build());
+
+        HoldExpiry expiry = toExpiry(hold);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                expiries.add(expiry);
+            }
+        });
+        return toDto(hold);
+    }
+
+    /**
+     * Potwierdza blokadę, rezerwując zablokowane miejsca dla podanych pasażerów.
+     *
+     * @param flightId      ID lotu.
+     * @param holdId        ID blokady.
+     * @param passengerIds  ID istniejących pasażerów.
+     * @param newPassengers Nowi pasażerowie do zapisania i dodania do lotu.
+     * @return Wynik grupowej rezerwacji.
+     * @throws SeatHoldNotFoundException  Jeśli blokada nie istnieje lub wygasła.
+     * @throws PassengerNotFoundException Jeśli któryś z pasażerów nie zostanie znaleziony.
+     * @throws NoAvailableSeatsException  Jeśli pasażerów jest więcej niż zablokowanych miejsc
+     *                                    i brakuje wolnych miejsc.
+     */
+    @Transactional
+    public BookingBatchResultDto confirmHold(long flightId, UUID holdId,
+                                             Collection<Long> passengerIds,
+                                             List<Passenger> newPassengers)
+        throws SeatHoldNotFoundException, PassengerNotFoundException, NoAvailableSeatsException {
+        SeatHold hold = removeHold(flightId, holdId);
+        return flightService.addHeldPassengers(flightId, hold.getSeats(), passengerIds,
+            newPassengers);
+    }
+
+    /**
+     * Zwalnia blokadę, zwracając zablokowane miejsca do puli.
+     *
+     * @param flightId ID lotu.
+     * @param holdId   ID blokady.
+     * @throws SeatHoldNotFoundException Jeśli blokada nie istnieje lub wygasła.
+     */
+    @Transactional
+    public void releaseHold(long flightId, UUID holdId) throws SeatHoldNotFoundException {
+        SeatHold hold = removeHold(flightId, holdId);
+        seatInventory.release(flightId, hold.getSeats());
+    }
+
+    /**
+     * Zwalnia wszystkie wygasłe blokady. Miejsca zwracane są do puli zbiorczo, jedną operacją
+     * na lot. Blokady potwierdzone lub zwolnione wcześniej są pomijane.
+     */
+    public void releaseExpiredHolds() {
+        List<HoldExpiry> expired = new ArrayList<>();
+        expiries.drainTo(expired);
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Integer> seatsByFlight = new HashMap<>();
+                for (HoldExpiry expiry : expired) {
+                    if (seatHoldRepository.deleteHold(expiry.holdId()) == 1) {
+                        seatsByFlight.merge(expiry.flightId(), expiry.seats(), Integer::sum);
+                    }
+                }
+                seatsByFlight.forEach(seatInventory::release);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Releasing {} expired seat holds failed, retrying", expired.size(), e);
+            expiries.addAll(expired);
+        }
+    }
+
+    private SeatHold removeHold(long flightId, UUID holdId) {
+        SeatHold hold = seatHoldRepository.findById(holdId)
+            .filter(found -> found.getFlight().getId() == flightId)
+            .filter(found -> found.getExpiresAt().isAfter(OffsetDateTime.now()))
+            .orElseThrow(() -> new SeatHoldNotFoundException(holdId));
+        if (seatHoldRepository.deleteHold(holdId) == 0) {
+            throw new SeatHoldNotFoundException(holdId);
+        }
+        return hold;
+    }
+
+    private static HoldExpiry toExpiry(SeatHold hold) {
+        return new HoldExpiry(hold.getId(), hold.getFlight().getId(), hold.getSeats(),
+            hold.getExpiresAt().toInstant());
+    }
+
+    private static SeatHoldDto toDto(SeatHold hold) {
+        return new SeatHoldDto(hold.getId(), hold.getFlight().getId(), hold.getSeats(),
+            hold.getExpiresAt());
+    }
+}
@@ -0,0 +1,19 @@
+package com.mslup.lot.lotcrud.idempotency;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja obsługi nagłówka {@code Idempotency-Key} (prefiks {@code lotcrud.idempotency}).
+ *
+ * @param maxEntries Maksymalna liczba odpowiedzi przechowywanych w pamięci.
+ * @param ttl        Czas przechowywania odpowiedzi.
+ * @param persistent Czy odpowiedzi mają być dodatkowo zapisywane w bazie danych,
+ *                   aby przetrwały restart aplikacji i były wspólne dla jej instancji.
+ */
+@ConfigurationProperties(prefix = "lotcrud.idempotency")
+public record IdempotencyProperties(@DefaultValue("10000") long maxEntries,
+                                    @DefaultValue("24h") Duration ttl,
+                                    @DefaultValue("false") boolean persistent) {
+}
@@ -0,0 +1,293 @@
+package com.mslup.lot.lotcrud.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mslup.lot.lotcrud.exception.IdempotencyKeyReusedException;
+import com.mslup.lot.lotcrud.exception.ResourceException;
+import com.mslup.lot.lotcrud.repository.IdempotencyRecordRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serwis obsługujący nagłówek {@code Idempotency-Key}.
+ *
+ * <p>Odpowiedź na pierwsze żądanie z danym kluczem jest zapamiętywana w ograniczonej pamięci
+ * podręcznej (usuwanie po czasie {@link IdempotencyProperties#ttl()} i po przekroczeniu
+ * {@link IdempotencyProperties#maxEntries()}) oraz opcjonalnie w bazie danych. Ponowione żądanie
+ * z tym samym kluczem otrzymuje zapamiętaną odpowiedź bez ponownego wykonania operacji;
+ * jeśli pierwsze żądanie jest jeszcze w toku, ponowione czeka na jego wynik.
+ * Zapamiętywane są status, treść i nagłówki {@code Location} oraz {@code ETag} odpowiedzi.
+ * Odpowiedzi zakończone wyjątkiem nie są zapamiętywane.
+ *
+ * <p>W trybie z bazą danych klucz jest zajmowany w transakcji operacji, przed jej wykonaniem,
+ * a odpowiedź zapisywana na końcu tej samej transakcji. Żądanie z tym samym kluczem
+ * w innej instancji aplikacji czeka więc na zakończenie pierwszego, a operacja i zapisana
+ * odpowiedź są zatwierdzane albo wycofywane razem.
+ */
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+    /**
+     * Nazwa nagłówka z kluczem idempotencji.
+     */
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+    private static final List<String> REPLAYED_HEADERS =
+        List.of(HttpHeaders.LOCATION, HttpHeaders.ETAG);
+    private static final TypeReference<Map<String, String>> HEADERS_TYPE =
+        new TypeReference<>() {
+        };
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final IdempotencyProperties properties;
+
+    private Cache<String, CompletableFuture<StoredResponse>> responses;
+    private ScheduledFuture<?> purgeTask;
+
+    /**
+     * Zapamiętana odpowiedź.
+     *
+     * @param fingerprint Skrót żądania, dla którego użyto klucza.
+     * @param status      Status HTTP odpowiedzi.
+     * @param headers     Odtwarzane nagłówki odpowiedzi.
+     * @param body        Treść odpowiedzi.
+     */
+    private record StoredResponse(String fingerprint, int status, HttpHeaders headers,
+                                  Object body) {
+    }
+
+    @PostConstruct
+    public void start() {
+        responses = Caffeine.newBuilder()
+            .maximumSize(properties.maxEntries())
+            .expireAfterWrite(properties.ttl())
+            .build();
+        if (properties.persistent()) {
+            purgeTask = taskScheduler.scheduleWithFixedDelay(() ->
+                idempotencyRecordRepository.deleteCreatedBefore(
+                    OffsetDateTime.now().minus(properties.ttl())), PURGE_INTERVAL);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (purgeTask != null) {
+            purgeTask.cancel(false);
+        }
+    }
+
+    /**
+     * Wykonuje operację co najwyżej raz dla danego klucza idempotencji.
+     * Jeśli klucz jest pusty, operacja wykonywana jest zawsze.
+     *
+     * @param key         Klucz idempotencji z nagłówka żądania (może być {@code null}).
+     * @param request     Opis żądania (metoda, ścieżka, parametry i treść), z którym
+     *                    porównywane są ponowne użycia klucza.
+     * @param bodyType    Typ treści odpowiedzi.
+     * @param action      Operacja do wykonania.
+     * @param <T>         Typ treści odpowiedzi.
+     * @return Odpowiedź operacji lub zapamiętana odpowiedź na wcześniejsze żądanie.
+     * @throws IdempotencyKeyReusedException Jeśli klucz był użyty dla innego żądania.
+     */
+    public <T> ResponseEntity<T> execute(String key, String request, Class<T> bodyType,
+                                         Supplier<ResponseEntity<T>> action)
+        throws IdempotencyKeyReusedException {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ResourceException(HttpStatus.BAD_REQUEST,
+                String.format("%s cannot be longer than %d characters", HEADER, MAX_KEY_LENGTH));
+        }
+
+        String fingerprint = fingerprint(request);
+        CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = responses.asMap().putIfAbsent(key, pending);
+        if (existing != null) {
+            return replay(key, fingerprint, await(existing));
+        }
+
+        ResponseEntity<T> response;
+        try {
+            if (properties.persistent()) {
+                Claim<T> claim = executeClaimed(key, fingerprint, bodyType, action);
+                if (claim.replayed() != null) {
+                    pending.complete(claim.replayed());
+                    return replay(key, fingerprint, claim.replayed());
+                }
+                response = claim.response();
+            } else {
+                response = action.get();
+            }
+        } catch (RuntimeException e) {
+            responses.asMap().remove(key, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+
+        pending.complete(toStored(fingerprint, response));
+        return response;
+    }
+
+    /**
+     * Wynik operacji wykonanej z kluczem zapisanym w bazie danych.
+     *
+     * @param response Odpowiedź operacji albo {@code null}, jeśli klucz był już zajęty.
+     * @param replayed Odpowiedź zapisana dla klucza wcześniej albo {@code null}.
+     * @param <T>      Typ treści odpowiedzi.
+     */
+    private record Claim<T>(ResponseEntity<T> response, StoredResponse replayed) {
+    }
+
+    private <T> Claim<T> executeClaimed(String key, String fingerprint, Class<T> bodyType,
+                                        Supplier<ResponseEntity<T>> action) {
+        while (true) {
+            Claim<T> claim = transactionTemplate.execute(status -> {
+                OffsetDateTime now = OffsetDateTime.now();
+                if (idempotencyRecordRepository.claim(key, fingerprint, now,
+                    now.minus(properties.ttl())) == 0) {
+                    return null;
+                }
+                ResponseEntity<T> response = action.get();
+                StoredResponse stored = toStored(fingerprint, response);
+                idempotencyRecordRepository.complete(key, stored.status(),
+                    writeHeaders(stored.headers()), writeBody(stored));
+                return new Claim<>(response, null);
+            });
+            if (claim != null) {
+                return claim;
+            }
+            // Klucz zajęła zatwierdzona transakcja - jej odpowiedź jest już zapisana.
+            // Jeśli w międzyczasie została usunięta, klucz zajmowany jest ponownie.
+            Optional<StoredResponse> persisted = findPersisted(key, bodyType);
+            if (persisted.isPresent()) {
+                return new Claim<>(null, persisted.get());
+            }
+        }
+    }
+
+    private static <T> StoredResponse toStored(String fingerprint, ResponseEntity<T> response) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : REPLAYED_HEADERS) {
+            List<String> values = response.getHeaders().get(name);
+            if (values != null) {
+                headers.addAll(name, values);
+            }
+        }
+        return new StoredResponse(fingerprint, response.getStatusCode().value(), headers,
+            response.getBody());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(String key, String fingerprint, StoredResponse stored) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        return ResponseEntity.status(stored.status())
+            .headers(stored.headers())
+            .body((T) stored.body());
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> response) {
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private <T> Optional<StoredResponse> findPersisted(String key, Class<T> bodyType) {
+        return idempotencyRecordRepository.findById(key)
+            .filter(found -> found.getCreatedAt()
+                .isAfter(OffsetDateTime.now().minus(properties.ttl())))
+            .map(found -> new StoredResponse(found.getFingerprint(), found.getStatus(),
+                readHeaders(found.getHeaders()), readBody(found.getBody(), bodyType)));
+    }
+
+    private String writeHeaders(HttpHeaders headers) {
+        if (headers.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(headers.toSingleValueMap());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize headers for " + HEADER, e);
+        }
+    }
+
+    private HttpHeaders readHeaders(String headers) {
+        HttpHeaders result = new HttpHeaders();
+        if (headers == null) {
+            return result;
+        }
+        try {
+            result.setAll(objectMapper.readValue(headers, HEADERS_TYPE));
+            return result;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize headers for " + HEADER, e);
+        }
+    }
+
+    private String writeBody(StoredResponse stored) {
+        if (stored.body() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(stored.body());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize response for " + HEADER, e);
+        }
+    }
+
+    private <T> T readBody(String body, Class<T> bodyType) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(body, bodyType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot deserialize response for " + HEADER, e);
+        }
+    }
+
+    private static String fingerprint(String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of()
+                .formatHex(digest.digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.mslup.lot.lotcrud.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mslup.lot.lotcrud.dto.FlightDto;
+import com.mslup.lot.lotcrud.dto.FlightImportResultDto;
+import com.mslup.lot.lotcrud.dto.FlightView;
+import com.mslup.lot.lotcrud.event.FlightChangedEvent;
+import com.mslup.lot.lotcrud.export.ExportFormat;
+import com.mslup.lot.lotcrud.mapper.FlightDtoMapper;
+import com.mslup.lot.lotcrud.model.Flight;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serwis importu lotów (np. rozkładu na cały sezon) ze strumienia NDJSON lub CSV.
+ *
+ * <p>Wiersze są odczytywane i walidowane pojedynczo, a poprawne loty zapisywane porcjami
+ * po {@link ImportProperties#chunkSize()} w osobnych transakcjach, poleceniami wsadowymi JDBC.
+ * Kontekst persystencji jest zapisywany i czyszczony co {@link ImportProperties#jdbcBatchSize()}
+ * lotów, więc zużycie pamięci nie zależy od wielkości importu.
+ *
+ * <p>Błędny wiersz nie przerywa importu - jest opisywany w wyniku. Jeśli zapis porcji się nie
+ * powiedzie, jej loty zapisywane są pojedynczo, aby wskazać wiersze, których nie da się zapisać.
+ */
+@Service
+@RequiredArgsConstructor
+public class FlightImportService {
+    private final EntityManager em;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FlightDtoMapper flightDtoMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ImportProperties properties;
+
+    /**
+     * Poprawny wiersz oczekujący na zapis.
+     *
+     * @param line   Numer linii wiersza.
+     * @param flight Lot do zapisania.
+     */
+    private record PendingFlight(long line, FlightDto flight) {
+    }
+
+    /**
+     * Postęp importu.
+     */
+    private static final class Report {
+        private final ImportErrors errors;
+        private int importedCount;
+
+        Report(int maxReportedErrors) {
+            this.errors = new ImportErrors(maxReportedErrors);
+        }
+    }
+
+    /**
+     * Importuje loty ze strumienia.
+     *
+     * @param inputStream Strumień z lotami w formacie {@link FlightDto}.
+     * @param format      Format strumienia.
+     * @return Wynik importu z opisem błędnych wierszy.
+     * @throws IOException Jeśli odczyt strumienia się nie powiedzie.
+     */
+    public FlightImportResultDto importFlights(InputStream inputStream, ExportFormat format)
+        throws IOException {
+        long start = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Report report = new Report(properties.maxReportedErrors());
+        List<PendingFlight> chunk = new ArrayList<>(properties.chunkSize());
+
+        try (RecordStreamReader<FlightDto> reader = new RecordStreamReader<>(
+            FlightDto.class, format, inputStream, objectMapper)) {
+            for (RecordStreamReader.Row<FlightDto> row = reader.next(); row != null;
+                 row = reader.next()) {
+                String error = row.error() != null
+                    ? row.error() : ImportErrors.validate(validator, row.record());
+                if (error != null) {
+                    report.errors.add(row.line(), error);
+                    continue;
+                }
+                chunk.add(new PendingFlight(row.line(), row.record()));
+                if (chunk.size() == properties.chunkSize()) {
+                    insert(transactionTemplate, chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        insert(transactionTemplate, chunk, report);
+
+        return new FlightImportResultDto(report.importedCount, report.errors.count(),
+            report.errors.reported(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void insert(TransactionTemplate transactionTemplate, List<PendingFlight> chunk,
+                        Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(chunk));
+            report.importedCount += chunk.size();
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            for (PendingFlight flight : chunk) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(List.of(flight)));
+                    report.importedCount++;
+                } catch (DataAccessException | PersistenceException | TransactionException ex) {
+                    report.errors.add(flight.line(),
+                        NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                }
+            }
+        }
+    }
+
+    private void persist(List<PendingFlight> flights) {
+        Session session = em.unwrap(Session.class);
+        Integer jdbcBatchSize = session.getJdbcBatchSize();
+        CacheMode cacheMode = session.getCacheMode();
+        session.setJdbcBatchSize(properties.jdbcBatchSize());
+        // Importowane loty nie są wstawiane do pamięci podręcznej drugiego poziomu.
+        session.setCacheMode(CacheMode.IGNORE);
+        try {
+            for (int i = 0; i < flights.size(); i++) {
+                Flight flight = flightDtoMapper.apply(flights.get(i).flight());
+                em.persist(flight);
+                eventPublisher.publishEvent(
+                    new FlightChangedEvent(flight.getId(), FlightView.of(flight)));
+                if ((i + 1) % properties.jdbcBatchSize() == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.flush();
+        } finally {
+            em.clear();
+            session.setJdbcBatchSize(jdbcBatchSize);
+            session.setCacheMode(cacheMode);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.mslup.lot.lotcrud.importer;
+
+import com.mslup.lot.lotcrud.dto.ImportErrorDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Błędne wiersze importu. Wszystkie są liczone, ale opisywanych jest co najwyżej
+ * {@link ImportProperties#maxReportedErrors()}, więc wynik importu ma ograniczony rozmiar.
+ */
+final class ImportErrors {
+    private final int maxReported;
+    private final List<ImportErrorDto> reported = new ArrayList<>();
+    private int count;
+
+    ImportErrors(int maxReported) {
+        this.maxReported = maxReported;
+    }
+
+    void add(long line, String message) {
+        count++;
+        if (reported.size() < maxReported) {
+            reported.add(new ImportErrorDto(line, message));
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    List<ImportErrorDto> reported() {
+        return List.copyOf(reported);
+    }
+
+    /**
+     * Waliduje rekord.
+     *
+     * @param validator Obiekt walidujący.
+     * @param record    Rekord do walidacji.
+     * @return Opis naruszonych ograniczeń lub {@code null}, jeśli rekord jest poprawny.
+     */
+    static <T> String validate(Validator validator, T record) {
+        Set<ConstraintViolation<T>> violations = validator.validate(record);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+}
@@ -0,0 +1,19 @@
+package com.mslup.lot.lotcrud.importer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja importu lotów (prefiks {@code lotcrud.import}).
+ *
+ * @param chunkSize         Liczba lotów zapisywanych w jednej transakcji.
+ * @param jdbcBatchSize     Liczba wierszy w jednym poleceniu wsadowym JDBC; co tyle lotów
+ *                          kontekst persystencji jest zapisywany i czyszczony.
+ * @param maxReportedErrors Maksymalna liczba błędnych wierszy opisanych w wyniku importu
+ *                          (pozostałe są tylko liczone).
+ */
+@ConfigurationProperties(prefix = "lotcrud.import")
+public record ImportProperties(@DefaultValue("1000") int chunkSize,
+                               @DefaultValue("500") int jdbcBatchSize,
+                               @DefaultValue("1000") int maxReportedErrors) {
+}
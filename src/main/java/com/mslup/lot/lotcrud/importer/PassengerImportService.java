@@ -0,0 +1,164 @@
+package com.mslup.lot.lotcrud.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mslup.lot.lotcrud.cache.EntityCacheService;
+import com.mslup.lot.lotcrud.dto.PassengerDto;
+import com.mslup.lot.lotcrud.dto.PassengerImportResultDto;
+import com.mslup.lot.lotcrud.export.ExportFormat;
+import com.mslup.lot.lotcrud.mapper.PassengerDtoMapper;
+import com.mslup.lot.lotcrud.model.Passenger;
+import com.mslup.lot.lotcrud.repository.PassengerRepository;
+import com.mslup.lot.lotcrud.repository.custom.PassengerRepositoryCustom.UpsertedPassenger;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serwis importu list pasażerów (np. od partnerów) ze strumienia NDJSON lub CSV.
+ *
+ * <p>Pasażerowie identyfikowani są znormalizowanym numerem telefonu
+ * ({@link Passenger#normalizePhoneNumber(String)}): pasażer o numerze, który już istnieje,
+ * zmienia dane istniejącego pasażera zamiast tworzyć nowego. Wiersze są odczytywane
+ * i walidowane pojedynczo, a poprawne zapisywane porcjami po
+ * {@link ImportProperties#chunkSize()} w osobnych transakcjach, jednym zapytaniem
+ * {@code INSERT ... ON CONFLICT DO UPDATE} na porcję, bez wyszukiwania pasażerów po jednym.
+ * Jeśli w porcji kilka wierszy ma ten sam numer telefonu, obowiązuje ostatni z nich.
+ *
+ * <p>Błędny wiersz nie przerywa importu - jest opisywany w wyniku. Jeśli zapis porcji się nie
+ * powiedzie, jej wiersze zapisywane są pojedynczo, aby wskazać wiersze, których nie da się
+ * zapisać.
+ */
+@Service
+@RequiredArgsConstructor
+public class PassengerImportService {
+    private final PassengerRepository passengerRepository;
+    private final EntityCacheService entityCacheService;
+    private final PlatformTransactionManager transactionManager;
+    private final PassengerDtoMapper passengerDtoMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ImportProperties properties;
+
+    /**
+     * Poprawny wiersz oczekujący na zapis.
+     *
+     * @param line      Numer linii wiersza.
+     * @param passenger Pasażer do zapisania (ze znormalizowanym numerem telefonu).
+     */
+    private record PendingPassenger(long line, Passenger passenger) {
+    }
+
+    /**
+     * Postęp importu.
+     */
+    private static final class Report {
+        private final ImportErrors errors;
+        private int insertedCount;
+        private int updatedCount;
+        private int unchangedCount;
+
+        Report(int maxReportedErrors) {
+            this.errors = new ImportErrors(maxReportedErrors);
+        }
+    }
+
+    /**
+     * Importuje pasażerów ze strumienia.
+     *
+     * @param inputStream Strumień z pasażerami w formacie {@link PassengerDto}.
+     * @param format      Format strumienia.
+     * @return Wynik importu z opisem odrzuconych wierszy.
+     * @throws IOException Jeśli odczyt strumienia się nie powiedzie.
+     */
+    public PassengerImportResultDto importPassengers(InputStream inputStream,
+                                                     ExportFormat format) throws IOException {
+        long start = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Report report = new Report(properties.maxReportedErrors());
+        Map<String, PendingPassenger> chunk = new LinkedHashMap<>();
+
+        try (RecordStreamReader<PassengerDto> reader = new RecordStreamReader<>(
+            PassengerDto.class, format, inputStream, objectMapper)) {
+            for (RecordStreamReader.Row<PassengerDto> row = reader.next(); row != null;
+                 row = reader.next()) {
+                String error = row.error() != null
+                    ? row.error() : ImportErrors.validate(validator, row.record());
+                if (error == null
+                    && Passenger.normalizePhoneNumber(row.record().phoneNumber()) == null) {
+                    error = "phoneNumber: Phone number has to contain digits";
+                }
+                if (error != null) {
+                    report.errors.add(row.line(), error);
+                    continue;
+                }
+
+                Passenger passenger = passengerDtoMapper.apply(row.record());
+                // Wcześniejszy wiersz z tym samym numerem jest zastępowany, jak przy zapisie
+                // w kolejnych porcjach.
+                if (chunk.remove(passenger.getPhoneNumberKey()) != null) {
+                    report.updatedCount++;
+                }
+                chunk.put(passenger.getPhoneNumberKey(),
+                    new PendingPassenger(row.line(), passenger));
+                if (chunk.size() == properties.chunkSize()) {
+                    upsert(transactionTemplate, List.copyOf(chunk.values()), report);
+                    chunk.clear();
+                }
+            }
+        }
+        upsert(transactionTemplate, List.copyOf(chunk.values()), report);
+
+        return new PassengerImportResultDto(report.insertedCount, report.updatedCount,
+            report.unchangedCount, report.errors.count(), report.errors.reported(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void upsert(TransactionTemplate transactionTemplate, List<PendingPassenger> chunk,
+                        Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            count(transactionTemplate.execute(status -> upsert(chunk)), chunk.size(), report);
+        } catch (DataAccessException | PersistenceException | TransactionException e) {
+            for (PendingPassenger passenger : chunk) {
+                try {
+                    count(transactionTemplate.execute(status -> upsert(List.of(passenger))), 1,
+                        report);
+                } catch (DataAccessException | PersistenceException | TransactionException ex) {
+                    report.errors.add(passenger.line(),
+                        NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                }
+            }
+        }
+    }
+
+    private List<UpsertedPassenger> upsert(List<PendingPassenger> passengers) {
+        List<UpsertedPassenger> upserted = passengerRepository.upsertPassengers(
+            passengers.stream().map(PendingPassenger::passenger).toList());
+        entityCacheService.evictPassengers(upserted.stream()
+            .filter(passenger -> !passenger.inserted())
+            .map(UpsertedPassenger::id)
+            .toList());
+        return upserted;
+    }
+
+    private static void count(List<UpsertedPassenger> upserted, int rows, Report report) {
+        int inserted = (int) upserted.stream().filter(UpsertedPassenger::inserted).count();
+        report.insertedCount += inserted;
+        report.updatedCount += upserted.size() - inserted;
+        report.unchangedCount += rows - upserted.size();
+    }
+}
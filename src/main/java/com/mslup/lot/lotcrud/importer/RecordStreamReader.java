@@ -0,0 +1,192 @@
+package com.mslup.lot.lotcrud.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mslup.lot.lotcrud.exception.ResourceException;
+import com.mslup.lot.lotcrud.export.ExportFormat;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Odczytuje kolejne rekordy ze strumienia w formacie NDJSON lub CSV, odwrotnie do
+ * {@link com.mslup.lot.lotcrud.export.RecordStreamWriter}.
+ * Każdy rekord jest odczytywany dopiero na żądanie, więc zużycie pamięci nie zależy od liczby
+ * rekordów. Kolumny CSV określa linia nagłówka; puste wartości oznaczają brak wartości.
+ * Błędny wiersz nie przerywa odczytu - jest zwracany z opisem błędu.
+ *
+ * @param <T> Typ odczytywanych rekordów.
+ */
+public class RecordStreamReader<T extends Record> implements Closeable {
+    private final ExportFormat format;
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader jsonReader;
+    private final List<String> header;
+
+    /**
+     * Numer linii, w której zaczyna się następny wiersz.
+     */
+    private long nextLine = 1;
+
+    /**
+     * Odczytany wiersz.
+     *
+     * @param line   Numer linii, w której zaczyna się wiersz (licząc od 1).
+     * @param record Odczytany rekord lub {@code null}, jeśli wiersz jest błędny.
+     * @param error  Opis błędu lub {@code null}, jeśli wiersz jest poprawny.
+     * @param <T>    Typ rekordu.
+     */
+    public record Row<T>(long line, T record, String error) {
+    }
+
+    /**
+     * Tworzy obiekt odczytujący i, dla formatu CSV, odczytuje linię nagłówka.
+     *
+     * @param type         Typ odczytywanych rekordów.
+     * @param format       Format wejściowy.
+     * @param inputStream  Strumień wejściowy.
+     * @param objectMapper Obiekt mapujący używany do deserializacji JSON.
+     * @throws IOException       Jeśli odczyt nagłówka się nie powiedzie.
+     * @throws ResourceException Jeśli w formacie CSV brakuje linii nagłówka.
+     */
+    public RecordStreamReader(Class<T> type, ExportFormat format, InputStream inputStream,
+                              ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+        this.reader = new BufferedReader(
+            new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+        this.jsonReader = objectMapper.readerFor(type);
+
+        if (format == ExportFormat.CSV) {
+            List<String> values = readCsvValues();
+            if (values == null || values.stream().allMatch(String::isBlank)) {
+                throw new ResourceException(HttpStatus.BAD_REQUEST, "Missing CSV header line");
+            }
+            this.header = values.stream().map(String::strip).toList();
+        } else {
+            this.header = null;
+        }
+    }
+
+    /**
+     * Odczytuje następny wiersz, pomijając puste linie.
+     *
+     * @return Odczytany wiersz lub {@code null}, jeśli strumień się skończył.
+     * @throws IOException Jeśli odczyt się nie powiedzie.
+     */
+    public Row<T> next() throws IOException {
+        while (true) {
+            long line = nextLine;
+            if (format == ExportFormat.NDJSON) {
+                String text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                nextLine++;
+                if (!text.isBlank()) {
+                    return parseJson(line, text);
+                }
+            } else {
+                List<String> values = readCsvValues();
+                if (values == null) {
+                    return null;
+                }
+                if (values.size() > 1 || !values.get(0).isBlank()) {
+                    return parseCsv(line, values);
+                }
+            }
+        }
+    }
+
+    /**
+     * Zamyka strumień wejściowy.
+     *
+     * @throws IOException Jeśli zamknięcie się nie powiedzie.
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Row<T> parseJson(long line, String text) {
+        try {
+            return new Row<>(line, jsonReader.readValue(text), null);
+        } catch (JsonProcessingException e) {
+            return new Row<>(line, null, e.getOriginalMessage());
+        }
+    }
+
+    private Row<T> parseCsv(long line, List<String> values) {
+        if (values.size() != header.size()) {
+            return new Row<>(line, null, String.format("Expected %d values, found %d",
+                header.size(), values.size()));
+        }
+        ObjectNode node = objectMapper.createObjectNode();
+        for (int i = 0; i < values.size(); i++) {
+            if (!values.get(i).isEmpty()) {
+                node.put(header.get(i), values.get(i));
+            }
+        }
+        try {
+            return new Row<>(line, jsonReader.readValue(node), null);
+        } catch (IOException e) {
+            return new Row<>(line, null, e instanceof JsonProcessingException jsonException
+                ? jsonException.getOriginalMessage() : e.getMessage());
+        }
+    }
+
+    /**
+     * Odczytuje wartości jednego wiersza CSV. Wartości w cudzysłowach mogą zawierać
+     * przecinki, podwojone cudzysłowy i znaki nowej linii.
+     *
+     * @return Wartości wiersza lub {@code null}, jeśli strumień się skończył.
+     */
+    private List<String> readCsvValues() throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (; c >= 0; c = reader.read()) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        value.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        nextLine++;
+                    }
+                    value.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                value.append((char) c);
+            }
+        }
+        nextLine++;
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mslup.lot.lotcrud.inventory;
+
+import com.mslup.lot.lotcrud.event.SeatsChangedEvent;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import java.util.Collection;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Liczniki miejsc przechowywane bezpośrednio w tablicy lotów.
+ * Każda rezerwacja to pojedyncze warunkowe zapytanie UPDATE. Tryb domyślny.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "lotcrud.inventory", name = "mode", havingValue = "database",
+    matchIfMissing = true)
+public class DatabaseSeatInventory implements SeatInventory {
+    private final FlightRepository flightRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public boolean reserve(long flightId, int seats) {
+        if (flightRepository.reserveSeats(flightId, seats) != 1) {
+            return false;
+        }
+        eventPublisher.publishEvent(new SeatsChangedEvent(Set.of(flightId)));
+        return true;
+    }
+
+    @Override
+    public void release(long flightId, int seats) {
+        flightRepository.releaseSeats(flightId, seats);
+        eventPublisher.publishEvent(new SeatsChangedEvent(Set.of(flightId)));
+    }
+
+    @Override
+    public void release(Collection<Long> flightIds) {
+        if (!flightIds.isEmpty()) {
+            flightRepository.releaseSeatInFlights(flightIds);
+            eventPublisher.publishEvent(new SeatsChangedEvent(Set.copyOf(flightIds)));
+        }
+    }
+
+    @Override
+    public void evict(long flightId) {
+    }
+}
@@ -0,0 +1,383 @@
+package com.mslup.lot.lotcrud.inventory;
+
+import com.mslup.lot.lotcrud.event.SeatsChangedEvent;
+import com.mslup.lot.lotcrud.model.SeatInventoryCheckpoint;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import com.mslup.lot.lotcrud.repository.SeatInventoryCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Liczniki miejsc przechowywane w pamięci, z zapisem do bazy danych w tle.
+ *
+ * <p>Każdy lot ma własny licznik, więc rezerwacje na różne loty nie konkurują ze sobą,
+ * a rezerwacje na ten sam lot nie blokują wiersza w tablicy lotów. Licznik lotu to jedna
+ * zmienna atomowa zmieniana operacją CAS, której koszt jest pomijalny wobec transakcji
+ * rezerwacji, dlatego nie jest dzielony na części.
+ *
+ * <p>Rezerwacja zmniejsza licznik od razu, ale trafia do dziennika na dysku dopiero po
+ * zatwierdzeniu transakcji, a zwolnienie miejsc (także zmiana licznika) wykonywane jest
+ * dopiero po zatwierdzeniu transakcji. Dziennik zawiera więc wyłącznie zatwierdzone zmiany.
+ * Zmiany są agregowane per lot i zapisywane do bazy danych co
+ * {@link InventoryProperties#flushInterval()} jednym zapytaniem UPDATE na lot, razem
+ * z numerem ostatniego zapisanego wpisu dziennika. Po awarii wpisy dziennika nowsze niż
+ * punkt kontrolny są odtwarzane przy starcie. Wpis trafia na dysk tylko przy
+ * {@link InventoryProperties#fsync()}; zmiana zatwierdzona w transakcji, ale jeszcze
+ * niedopisana do dziennika w chwili awarii, jest tracona.
+ *
+ * <p>Baza danych pozostaje źródłem prawdy, ale liczba miejsc odczytana z niej może być
+ * nieaktualna o co najwyżej jeden interwał zapisu. Tryb przeznaczony dla wdrożeń
+ * z jedną instancją aplikacji.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "lotcrud.inventory", name = "mode", havingValue = "memory")
+public class InMemorySeatInventory implements SeatInventory {
+    private static final int CHECKPOINT_ID = 1;
+
+    private final FlightRepository flightRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SeatInventoryCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final InventoryProperties properties;
+
+    /**
+     * Aktualna liczba dostępnych miejsc per lot, pomniejszona o rezerwacje w trakcie
+     * niezatwierdzonych transakcji.
+     */
+    private final Map<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+
+    /**
+     * Zatwierdzone zmiany liczby miejsc per lot, które nie zostały jeszcze zapisane w bazie
+     * danych.
+     */
+    private final Map<Long, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Liczba miejsc per lot zarezerwowanych w niezatwierdzonych transakcjach.
+     */
+    private final Map<Long, AtomicInteger> uncommitted = new ConcurrentHashMap<>();
+
+    /**
+     * Zmiany liczników (odczyt) są wykluczone z pobieraniem migawki zmian do zapisu
+     * oraz z wczytywaniem i usuwaniem liczników (zapis).
+     */
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    /**
+     * Wczytywanie licznika z bazy danych jest wykluczone z zapisem zmian do bazy danych,
+     * dzięki czemu wczytana wartość uwzględnia każdą zmianę dokładnie raz.
+     */
+    private final Lock flushLock = new ReentrantLock();
+
+    private SeatInventoryJournal journal;
+    private ScheduledFuture<?> flushTask;
+
+    /**
+     * Odtwarza niezapisane wpisy dziennika i uruchamia cykliczny zapis zmian do bazy danych.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        Path directory = properties.journalDirectory();
+        Files.createDirectories(directory);
+
+        long checkpoint = checkpointRepository.findById(CHECKPOINT_ID)
+            .map(SeatInventoryCheckpoint::getLastSequence)
+            .orElse(0L);
+        Map<Long, Integer> deltas = new HashMap<>();
+        long lastSequence = checkpoint;
+        for (SeatInventoryJournal.Entry entry : SeatInventoryJournal.read(directory)) {
+            if (entry.sequence() > checkpoint) {
+                deltas.merge(entry.flightId(), entry.delta(), Integer::sum);
+                lastSequence = Math.max(lastSequence, entry.sequence());
+            }
+        }
+        if (lastSequence > checkpoint) {
+            log.info("Replaying {} seat inventory journal entries for {} flights",
+                lastSequence - checkpoint, deltas.size());
+            long replayedSequence = lastSequence;
+            transactionTemplate.executeWithoutResult(
+                status -> writeToDatabase(deltas, replayedSequence));
+        }
+
+        // Po poprawnym zamknięciu nowy dziennik otwiera pusty segment utworzony przy zamykaniu,
+        // dlatego usuwane są tylko segmenty zamknięte, a nie bieżący.
+        journal = new SeatInventoryJournal(directory, properties.fsync(), lastSequence);
+        for (Path segment : journal.sealedSegments()) {
+            Files.deleteIfExists(segment);
+        }
+
+        flushTask = taskScheduler.scheduleWithFixedDelay(this::flush,
+            Instant.now().plus(properties.flushInterval()), properties.flushInterval());
+    }
+
+    /**
+     * Zapisuje oczekujące zmiany i zamyka dziennik.
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        flushTask.cancel(false);
+        flush();
+        journal.close();
+    }
+
+    @Override
+    public boolean reserve(long flightId, int seats) {
+        while (true) {
+            AtomicInteger counter = counter(flightId);
+            if (counter == null) {
+                return false;
+            }
+
+            snapshotLock.readLock().lock();
+            try {
+                if (available.get(flightId) != counter) {
+                    // Licznik został w międzyczasie usunięty - wczytanie nowego.
+                    continue;
+                }
+                int current;
+                do {
+                    current = counter.get();
+                    if (current < seats) {
+                        return false;
+                    }
+                } while (!counter.compareAndSet(current, current - seats));
+
+                if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                    try {
+                        record(flightId, -seats);
+                    } catch (RuntimeException e) {
+                        counter.addAndGet(seats);
+                        throw e;
+                    }
+                    return true;
+                }
+                uncommittedCounter(flightId).addAndGet(seats);
+            } finally {
+                snapshotLock.readLock().unlock();
+            }
+
+            completeOnCommit(flightId, seats);
+            return true;
+        }
+    }
+
+    @Override
+    public void release(long flightId, int seats) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyRelease(flightId, seats);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    applyRelease(flightId, seats);
+                } catch (RuntimeException e) {
+                    log.error("Failed to release {} seats in flight {} after commit",
+                        seats, flightId, e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void release(Collection<Long> flightIds) {
+        flightIds.forEach(flightId -> release(flightId, 1));
+    }
+
+    /**
+     * Usuwa licznik lotu od razu oraz ponownie po zakończeniu transakcji, aby nie pozostał
+     * licznik wczytany przez inną transakcję przed zatwierdzeniem zmiany.
+     *
+     * @param flightId ID lotu.
+     */
+    @Override
+    public void evict(long flightId) {
+        removeCounter(flightId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        removeCounter(flightId);
+                    }
+                });
+        }
+    }
+
+    /**
+     * Zapisuje zagregowane zmiany liczników do bazy danych razem z punktem kontrolnym
+     * dziennika, a następnie usuwa zapisane segmenty dziennika.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Integer> deltas = new HashMap<>();
+            long lastSequence;
+            snapshotLock.writeLock().lock();
+            try {
+                pending.forEach((flightId, delta) -> {
+                    int value = delta.getAndSet(0);
+                    if (value != 0) {
+                        deltas.put(flightId, value);
+                    }
+                });
+                lastSequence = journal.roll();
+            } finally {
+                snapshotLock.writeLock().unlock();
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(
+                    status -> writeToDatabase(deltas, lastSequence));
+            } catch (RuntimeException e) {
+                log.warn("Seat inventory flush failed, retrying in the next cycle", e);
+                deltas.forEach((flightId, delta) -> pendingCounter(flightId).addAndGet(delta));
+                return;
+            }
+
+            for (Path segment : journal.sealedSegments()) {
+                Files.deleteIfExists(segment);
+            }
+        } catch (IOException e) {
+            log.warn("Seat inventory journal maintenance failed", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeToDatabase(Map<Long, Integer> deltas, long lastSequence) {
+        deltas.forEach(flightRepository::adjustSeats);
+        eventPublisher.publishEvent(new SeatsChangedEvent(Set.copyOf(deltas.keySet())));
+        checkpointRepository.save(new SeatInventoryCheckpoint(CHECKPOINT_ID, lastSequence));
+    }
+
+    private AtomicInteger counter(long flightId) {
+        AtomicInteger counter = available.get(flightId);
+        if (counter != null) {
+            return counter;
+        }
+        // Licznik wczytywany jest poza computeIfAbsent, które blokowałoby fragment mapy
+        // (i wątek nośny wątku wirtualnego) na czas zapytania do bazy danych.
+        flushLock.lock();
+        try {
+            Optional<Integer> seats = flightRepository.findAvailableSeatsCount(flightId);
+            if (seats.isEmpty()) {
+                return null;
+            }
+            snapshotLock.writeLock().lock();
+            try {
+                return available.computeIfAbsent(flightId, id -> new AtomicInteger(seats.get()
+                    + pendingCounter(id).get() - uncommittedCounter(id).get()));
+            } finally {
+                snapshotLock.writeLock().unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void removeCounter(long flightId) {
+        snapshotLock.writeLock().lock();
+        try {
+            available.remove(flightId);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    private AtomicInteger pendingCounter(long flightId) {
+        return pending.computeIfAbsent(flightId, id -> new AtomicInteger());
+    }
+
+    private AtomicInteger uncommittedCounter(long flightId) {
+        return uncommitted.computeIfAbsent(flightId, id -> new AtomicInteger());
+    }
+
+    private void record(long flightId, int delta) {
+        journal.append(flightId, delta);
+        pendingCounter(flightId).addAndGet(delta);
+    }
+
+    private void applyRelease(long flightId, int seats) {
+        snapshotLock.readLock().lock();
+        try {
+            record(flightId, seats);
+            AtomicInteger counter = available.get(flightId);
+            if (counter != null) {
+                counter.addAndGet(seats);
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Po zatwierdzeniu transakcji zapisuje rezerwację w dzienniku, a po jej wycofaniu zwraca
+     * miejsca do aktualnego licznika lotu.
+     */
+    private void completeOnCommit(long flightId, int seats) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                snapshotLock.readLock().lock();
+                try {
+                    uncommittedCounter(flightId).addAndGet(-seats);
+                    if (status == STATUS_COMMITTED) {
+                        recordCommitted(flightId, -seats);
+                        return;
+                    }
+                    AtomicInteger counter = available.get(flightId);
+                    if (counter != null) {
+                        counter.addAndGet(seats);
+                    }
+                } finally {
+                    snapshotLock.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Zapisuje zatwierdzoną zmianę. Zmiana trafia do bazy danych przy najbliższym zapisie
+     * nawet wtedy, gdy nie udało się jej dopisać do dziennika.
+     */
+    private void recordCommitted(long flightId, int delta) {
+        pendingCounter(flightId).addAndGet(delta);
+        try {
+            journal.append(flightId, delta);
+        } catch (RuntimeException e) {
+            log.error("Failed to journal committed change of {} seats in flight {}",
+                delta, flightId, e);
+        }
+    }
+}
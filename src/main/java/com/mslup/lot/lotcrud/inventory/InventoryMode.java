@@ -0,0 +1,17 @@
+package com.mslup.lot.lotcrud.inventory;
+
+/**
+ * Tryb przechowywania liczników wolnych miejsc.
+ */
+public enum InventoryMode {
+    /**
+     * Każda rezerwacja zmienia licznik miejsc bezpośrednio w bazie danych.
+     */
+    DATABASE,
+
+    /**
+     * Liczniki miejsc przechowywane są w pamięci, a zmiany zapisywane do bazy danych partiami.
+     * Tryb przeznaczony dla wdrożeń z jedną instancją aplikacji.
+     */
+    MEMORY
+}
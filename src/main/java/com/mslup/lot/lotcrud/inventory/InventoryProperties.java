@@ -0,0 +1,22 @@
+package com.mslup.lot.lotcrud.inventory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja liczników wolnych miejsc (prefiks {@code lotcrud.inventory}).
+ *
+ * @param mode             Tryb przechowywania liczników.
+ * @param flushInterval    Odstęp między zapisami zmian z pamięci do bazy danych (tryb MEMORY).
+ * @param journalDirectory Katalog dziennika zmian (tryb MEMORY).
+ * @param fsync            Czy każdy wpis dziennika ma być synchronizowany z dyskiem (tryb MEMORY);
+ *                         bez tego wpisy mogą zostać utracone przy awarii systemu.
+ */
+@ConfigurationProperties(prefix = "lotcrud.inventory")
+public record InventoryProperties(@DefaultValue("database") InventoryMode mode,
+                                  @DefaultValue("1s") Duration flushInterval,
+                                  @DefaultValue("inventory-journal") Path journalDirectory,
+                                  @DefaultValue("true") boolean fsync) {
+}
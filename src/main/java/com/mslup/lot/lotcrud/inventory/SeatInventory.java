@@ -0,0 +1,47 @@
+package com.mslup.lot.lotcrud.inventory;
+
+import java.util.Collection;
+
+/**
+ * Liczniki wolnych miejsc w lotach.
+ * Wszystkie zmiany liczby dostępnych miejsc wynikające z rezerwacji przechodzą przez ten interfejs,
+ * dzięki czemu sposób ich przechowywania zależy od konfiguracji wdrożenia
+ * ({@link InventoryProperties#mode()}).
+ */
+public interface SeatInventory {
+
+    /**
+     * Rezerwuje miejsca w locie, jeśli pozostało ich wystarczająco dużo.
+     * Wywoływana w transakcji; jeśli transakcja zostanie wycofana, miejsca wracają do puli.
+     *
+     * @param flightId ID lotu.
+     * @param seats    Liczba miejsc do zarezerwowania.
+     * @return {@code true}, jeśli miejsca zostały zarezerwowane.
+     */
+    boolean reserve(long flightId, int seats);
+
+    /**
+     * Zwalnia miejsca w locie. Wywoływana w transakcji; miejsca wracają do puli dopiero
+     * po jej zatwierdzeniu.
+     *
+     * @param flightId ID lotu.
+     * @param seats    Liczba miejsc do zwolnienia.
+     */
+    void release(long flightId, int seats);
+
+    /**
+     * Zwalnia po jednym miejscu w każdym z podanych lotów.
+     *
+     * @param flightIds ID lotów.
+     */
+    void release(Collection<Long> flightIds);
+
+    /**
+     * Informuje, że liczba miejsc lotu została zmieniona lub lot usunięty poza tym interfejsem
+     * (np. przez aktualizację lotu), więc stan przechowywany poza bazą danych jest nieaktualny.
+     * Wywoływana w transakcji zmieniającej lot; stan jest usuwany także po jej zakończeniu.
+     *
+     * @param flightId ID lotu.
+     */
+    void evict(long flightId);
+}
@@ -0,0 +1,187 @@
+package com.mslup.lot.lotcrud.inventory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Dziennik zmian liczników miejsc (tylko do dopisywania), podzielony na segmenty.
+ * Każdy wpis to linia {@code <numer> <ID lotu> <zmiana>}. Segmenty, których zawartość
+ * została zapisana w bazie danych, są usuwane po zapisie punktu kontrolnego.
+ */
+class SeatInventoryJournal implements Closeable {
+    private static final String SEGMENT_PREFIX = "seats-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final boolean fsync;
+
+    /**
+     * Blokada zapisu do dziennika. {@code ReentrantLock} zamiast {@code synchronized}, aby
+     * wątek wirtualny czekający na zapis na dysk nie blokował wątku nośnego.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+    private long lastSequence;
+
+    /**
+     * Wpis dziennika.
+     *
+     * @param sequence Numer wpisu.
+     * @param flightId ID lotu.
+     * @param delta    Zmiana liczby dostępnych miejsc.
+     */
+    record Entry(long sequence, long flightId, int delta) {
+    }
+
+    SeatInventoryJournal(Path directory, boolean fsync, long lastSequence) throws IOException {
+        this.directory = directory;
+        this.fsync = fsync;
+        this.lastSequence = lastSequence;
+        openSegment();
+    }
+
+    /**
+     * Dopisuje wpis do bieżącego segmentu.
+     *
+     * @param flightId ID lotu.
+     * @param delta    Zmiana liczby dostępnych miejsc.
+     * @return Numer wpisu.
+     */
+    long append(long flightId, int delta) {
+        lock.lock();
+        try {
+            long sequence = lastSequence + 1;
+            byte[] line = (sequence + " " + flightId + " " + delta + "\n")
+                .getBytes(StandardCharsets.US_ASCII);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+            lastSequence = sequence;
+            return sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Zamyka bieżący segment i rozpoczyna nowy.
+     *
+     * @return Numer ostatniego wpisu w zamkniętych segmentach.
+     */
+    long roll() throws IOException {
+        lock.lock();
+        try {
+            channel.force(false);
+            channel.close();
+            openSegment();
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Zwraca zamknięte segmenty, tzn. wszystkie poza bieżącym.
+     *
+     * @return Ścieżki zamkniętych segmentów.
+     */
+    List<Path> sealedSegments() throws IOException {
+        lock.lock();
+        try {
+            List<Path> segments = segments(directory);
+            segments.remove(segmentPath(lastSequence + 1));
+            return segments;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(segmentPath(lastSequence + 1),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence,
+            SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Zwraca wszystkie segmenty dziennika w katalogu, w kolejności numerów wpisów.
+     *
+     * @param directory Katalog dziennika.
+     * @return Ścieżki segmentów.
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                })
+                .sorted(Comparator.comparing(Path::getFileName))
+                .toList());
+        }
+    }
+
+    /**
+     * Odczytuje wszystkie wpisy dziennika w katalogu. Niepełne linie (zapisane w trakcie awarii)
+     * oraz uszkodzone wpisy są pomijane.
+     *
+     * @param directory Katalog dziennika.
+     * @return Wpisy dziennika w kolejności numerów.
+     */
+    static List<Entry> read(Path directory) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : segments(directory)) {
+            String content = Files.readString(segment, StandardCharsets.US_ASCII);
+            // Tylko linie zakończone znakiem nowej linii są kompletne.
+            int end = content.lastIndexOf('\n');
+            if (end < 0) {
+                continue;
+            }
+            for (String line : content.substring(0, end).split("\n")) {
+                String[] parts = line.split(" ");
+                if (parts.length != 3) {
+                    continue;
+                }
+                try {
+                    entries.add(new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                        Integer.parseInt(parts[2])));
+                } catch (NumberFormatException e) {
+                    // Uszkodzony wpis - pomijany.
+                }
+            }
+        }
+        entries.sort(Comparator.comparingLong(Entry::sequence));
+        return entries;
+    }
+}
@@ -0,0 +1,26 @@
+package com.mslup.lot.lotcrud.itinerary;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Parametry wyszukiwania połączeń.
+ *
+ * @param originAirport      Znormalizowany kod lotniska początkowego.
+ * @param destinationAirport Znormalizowany kod lotniska docelowego.
+ * @param dateFrom           Najwcześniejsza data odlotu pierwszego lotu.
+ * @param dateTo             Najpóźniejsza data odlotu pierwszego lotu.
+ * @param maxStops           Maksymalna liczba przesiadek.
+ * @param minConnection      Minimalny czas na przesiadkę.
+ * @param seats              Liczba miejsc, które muszą być wolne w każdym locie.
+ * @param limit              Maksymalna liczba zwracanych połączeń.
+ */
+public record ItinerarySearch(String originAirport,
+                              String destinationAirport,
+                              OffsetDateTime dateFrom,
+                              OffsetDateTime dateTo,
+                              int maxStops,
+                              Duration minConnection,
+                              int seats,
+                              int limit) {
+}
@@ -0,0 +1,388 @@
+package com.mslup.lot.lotcrud.itinerary;
+
+import com.mslup.lot.lotcrud.dto.FlightView;
+import com.mslup.lot.lotcrud.dto.ItineraryDto;
+import com.mslup.lot.lotcrud.event.FlightChangedEvent;
+import com.mslup.lot.lotcrud.event.FlightViewHolder;
+import com.mslup.lot.lotcrud.event.FlightViewRefresher;
+import com.mslup.lot.lotcrud.exception.ResourceException;
+import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Graf połączeń w pamięci, obejmujący przyszłe loty ze znaną datą przylotu.
+ *
+ * <p>Graf jest rozwinięty w czasie: z każdego lotniska wychodzą loty posortowane według daty
+ * odlotu, więc loty, na które można się przesiąść po przylocie, to spójny fragment tej
+ * listy. Dodatkowo dla każdego lotniska przechowywana jest liczba lotów z innych lotnisk,
+ * co pozwala przed wyszukiwaniem wyznaczyć lotniska, z których w ogóle da się dolecieć
+ * do celu w dozwolonej liczbie lotów.
+ *
+ * <p>Graf wczytywany jest przy starcie i aktualizowany po zatwierdzeniu zmian lotów
+ * ({@link FlightChangedEvent}) i liczby miejsc ({@link FlightViewRefresher}). Loty, które
+ * odleciały, są okresowo usuwane.
+ */
+@Component
+@RequiredArgsConstructor
+public class RouteGraph implements FlightViewHolder {
+    /**
+     * Kolejność połączeń: najwcześniejszy przylot, najmniej przesiadek, najpóźniejszy
+     * odlot.
+     */
+    private static final Comparator<List<FlightView>> ITINERARY_ORDER =
+        Comparator.<List<FlightView>>comparingLong(legs -> arrival(legs.get(legs.size() - 1)))
+            .thenComparingInt(List::size)
+            .thenComparing(legs -> departure(legs.get(0)), Comparator.reverseOrder())
+            .thenComparing(legs -> legs.stream().map(FlightView::id).toList(),
+                RouteGraph::compareIds);
+
+    private final FlightRepository flightRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final TaskScheduler taskScheduler;
+    private final RouteGraphProperties properties;
+
+    /**
+     * Loty wychodzące z każdego lotniska posortowane według daty odlotu i ID.
+     */
+    private final Map<String, ConcurrentSkipListMap<LegKey, FlightView>> departures =
+        new ConcurrentHashMap<>();
+    private final Map<Long, FlightView> legs = new ConcurrentHashMap<>();
+
+    /**
+     * Liczba lotów na trasach: lotnisko docelowe → lotnisko początkowe → liczba lotów.
+     */
+    private final Map<String, Map<String, Integer>> inbound = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Data, od której graf zawiera wszystkie loty; {@code null}, dopóki graf nie jest
+     * wczytany.
+     */
+    private volatile OffsetDateTime coveredFrom;
+    private ScheduledFuture<?> pruneTask;
+
+    /**
+     * Klucz lotu w liście odlotów z lotniska.
+     *
+     * @param departure Data odlotu w nanosekundach od początku epoki.
+     * @param id        ID lotu.
+     */
+    private record LegKey(long departure, long id) implements Comparable<LegKey> {
+
+        static LegKey of(FlightView flight) {
+            return new LegKey(RouteGraph.departure(flight), flight.id());
+        }
+
+        @Override
+        public int compareTo(LegKey other) {
+            int result = Long.compare(departure, other.departure);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        load();
+        pruneTask = taskScheduler.scheduleWithFixedDelay(this::prune,
+            properties.pruneInterval());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (pruneTask != null) {
+            pruneTask.cancel(false);
+        }
+    }
+
+    /**
+     * Wyszukuje połączenia między lotniskami, w tym połączenia z przesiadkami.
+     * Pierwszy lot połączenia odlatuje w podanym przedziale dat, a każda przesiadka trwa
+     * co najmniej {@code minConnection} i co najwyżej {@code maxConnection} z konfiguracji.
+     * Połączenia nie odwiedzają żadnego lotniska dwukrotnie.
+     *
+     * @param search Parametry wyszukiwania.
+     * @return Lista co najwyżej {@code search.limit()} połączeń posortowana według daty
+     *     przylotu, liczby przesiadek i (malejąco) daty odlotu.
+     * @throws ResourceException Jeśli graf połączeń jest wyłączony.
+     */
+    public List<ItineraryDto> search(ItinerarySearch search) {
+        if (coveredFrom == null) {
+            throw new ResourceException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Itinerary search is disabled");
+        }
+        Map<String, Integer> legsToDestination =
+            legsTo(search.destinationAirport(), search.maxStops() + 1);
+        if (!legsToDestination.containsKey(search.originAirport())
+            || search.originAirport().equals(search.destinationAirport())) {
+            return List.of();
+        }
+
+        Search state = new Search(search, legsToDestination);
+        state.visited.add(search.originAirport());
+        state.expand(search.originAirport(), epochNanos(search.dateFrom()),
+            epochNanos(search.dateTo()), search.maxStops() + 1);
+
+        return state.best.stream()
+            .sorted(ITINERARY_ORDER)
+            .map(ItineraryDto::of)
+            .toList();
+    }
+
+    /**
+     * Aktualizuje lot w grafie po zatwierdzeniu jego zmiany.
+     *
+     * @param event Zdarzenie zmiany lotu.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        if (coveredFrom != null) {
+            apply(event.flightId(), event.current());
+        }
+    }
+
+    @Override
+    public boolean holds(long flightId) {
+        return coveredFrom != null && legs.containsKey(flightId);
+    }
+
+    @Override
+    public void refresh(long flightId, FlightView current) {
+        apply(flightId, current);
+    }
+
+    /**
+     * Wyznacza najmniejszą liczbę lotów potrzebną, by z danego lotniska dolecieć
+     * do lotniska docelowego, przechodząc po trasach wstecz od celu.
+     *
+     * @param destination Lotnisko docelowe.
+     * @param maxLegs     Maksymalna liczba lotów.
+     * @return Mapa lotnisko → liczba lotów dla lotnisk, z których da się dolecieć do celu.
+     */
+    private Map<String, Integer> legsTo(String destination, int maxLegs) {
+        Map<String, Integer> result = new HashMap<>();
+        result.put(destination, 0);
+        List<String> frontier = List.of(destination);
+        for (int legCount = 1; legCount <= maxLegs && !frontier.isEmpty(); legCount++) {
+            List<String> next = new ArrayList<>();
+            for (String airport : frontier) {
+                for (String origin : inbound.getOrDefault(airport, Map.of()).keySet()) {
+                    if (result.putIfAbsent(origin, legCount) == null) {
+                        next.add(origin);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return result;
+    }
+
+    /**
+     * Stan jednego wyszukiwania: bieżąca ścieżka i najlepsze znalezione połączenia.
+     */
+    private final class Search {
+        private final ItinerarySearch search;
+        private final Map<String, Integer> legsToDestination;
+        private final long minConnection;
+        private final long maxConnection;
+        private final Deque<FlightView> path = new ArrayDeque<>();
+        private final Set<String> visited = new HashSet<>();
+
+        /**
+         * Najlepsze połączenia; na szczycie kolejki jest najgorsze z nich.
+         */
+        private final PriorityQueue<List<FlightView>> best;
+
+        Search(ItinerarySearch search, Map<String, Integer> legsToDestination) {
+            this.search = search;
+            this.legsToDestination = legsToDestination;
+            this.minConnection = search.minConnection().toNanos();
+            this.maxConnection = properties.maxConnection().toNanos();
+            this.best = new PriorityQueue<>(search.limit() + 1, ITINERARY_ORDER.reversed());
+        }
+
+        void expand(String airport, long from, long to, int legsLeft) {
+            ConcurrentSkipListMap<LegKey, FlightView> outgoing = departures.get(airport);
+            if (outgoing == null || from > to) {
+                return;
+            }
+            for (FlightView leg : outgoing.subMap(new LegKey(from, Long.MIN_VALUE), true,
+                new LegKey(to, Long.MAX_VALUE), true).values()) {
+                String next = leg.destinationAirport();
+                Integer remaining = legsToDestination.get(next);
+                if (leg.availableSeatsCount() < search.seats() || visited.contains(next)
+                    || remaining == null || remaining > legsLeft - 1 || cannotImprove(leg)) {
+                    continue;
+                }
+
+                path.addLast(leg);
+                if (next.equals(search.destinationAirport())) {
+                    best.add(List.copyOf(path));
+                    if (best.size() > search.limit()) {
+                        best.poll();
+                    }
+                } else {
+                    long arrival = arrival(leg);
+                    visited.add(next);
+                    expand(next, arrival + minConnection, arrival + maxConnection,
+                        legsLeft - 1);
+                    visited.remove(next);
+                }
+                path.removeLast();
+            }
+        }
+
+        /**
+         * Sprawdza, czy żadne połączenie zawierające lot nie trafi do najlepszych, bo
+         * przylatuje później niż najgorsze z nich.
+         */
+        private boolean cannotImprove(FlightView leg) {
+            if (best.size() < search.limit()) {
+                return false;
+            }
+            List<FlightView> worst = best.peek();
+            return arrival(leg) > arrival(worst.get(worst.size() - 1));
+        }
+    }
+
+    private void load() {
+        OffsetDateTime from = OffsetDateTime.now(ZoneOffset.UTC);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        writeLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<FlightView> flights = flightRepository.streamFlights(
+                    FlightFilterCriteria.builder().dateFrom(from).build())) {
+                    flights.filter(RouteGraph::isUsable).forEach(this::add);
+                }
+            });
+            coveredFrom = from;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Usuwa z grafu loty, które już odleciały.
+     */
+    void prune() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        LegKey first = new LegKey(epochNanos(now), Long.MIN_VALUE);
+        writeLock.lock();
+        try {
+            for (ConcurrentSkipListMap<LegKey, FlightView> outgoing : departures.values()) {
+                for (FlightView flight : List.copyOf(outgoing.headMap(first).values())) {
+                    remove(flight);
+                }
+            }
+            coveredFrom = now;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void apply(long flightId, FlightView current) {
+        writeLock.lock();
+        try {
+            FlightView old = legs.get(flightId);
+            boolean usable = current != null && isUsable(current)
+                && !current.departureDateTime().isBefore(coveredFrom);
+
+            if (old != null && usable && old.originAirport().equals(current.originAirport())
+                && old.destinationAirport().equals(current.destinationAirport())
+                && LegKey.of(old).equals(LegKey.of(current))) {
+                departures.get(current.originAirport()).put(LegKey.of(current), current);
+                legs.put(flightId, current);
+                return;
+            }
+            if (old != null) {
+                remove(old);
+            }
+            if (usable) {
+                add(current);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void add(FlightView flight) {
+        departures
+            .computeIfAbsent(flight.originAirport(), airport -> new ConcurrentSkipListMap<>())
+            .put(LegKey.of(flight), flight);
+        legs.put(flight.id(), flight);
+        inbound
+            .computeIfAbsent(flight.destinationAirport(), airport -> new ConcurrentHashMap<>())
+            .merge(flight.originAirport(), 1, Integer::sum);
+    }
+
+    private void remove(FlightView flight) {
+        departures.get(flight.originAirport()).remove(LegKey.of(flight));
+        legs.remove(flight.id());
+        inbound.get(flight.destinationAirport())
+            .computeIfPresent(flight.originAirport(), (origin, count) -> count > 1
+                ? count - 1 : null);
+    }
+
+    /**
+     * Sprawdza, czy lot może być częścią połączenia, czyli czy zna datę przylotu późniejszą
+     * niż data odlotu.
+     */
+    private static boolean isUsable(FlightView flight) {
+        return flight.arrivalDateTime() != null
+            && flight.arrivalDateTime().isAfter(flight.departureDateTime());
+    }
+
+    private static long departure(FlightView flight) {
+        return epochNanos(flight.departureDateTime());
+    }
+
+    private static long arrival(FlightView flight) {
+        return epochNanos(flight.arrivalDateTime());
+    }
+
+    private static long epochNanos(OffsetDateTime dateTime) {
+        return TimeUnit.SECONDS.toNanos(dateTime.toEpochSecond()) + dateTime.getNano();
+    }
+
+    private static int compareIds(List<Long> first, List<Long> second) {
+        for (int i = 0; i < Math.min(first.size(), second.size()); i++) {
+            int result = Long.compare(first.get(i), second.get(i));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(first.size(), second.size());
+    }
+}
@@ -0,0 +1,22 @@
+package com.mslup.lot.lotcrud.itinerary;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja grafu połączeń (prefiks {@code lotcrud.route-graph}).
+ *
+ * @param enabled       Czy graf połączeń jest włączony.
+ * @param maxConnection Maksymalny czas oczekiwania na przesiadkę.
+ * @param maxStops      Maksymalna liczba przesiadek, o którą można zapytać.
+ * @param maxResults    Maksymalna liczba zwracanych połączeń.
+ * @param pruneInterval Odstęp między usuwaniem z grafu lotów, które już odleciały.
+ */
+@ConfigurationProperties(prefix = "lotcrud.route-graph")
+public record RouteGraphProperties(@DefaultValue("false") boolean enabled,
+                                   @DefaultValue("24h") Duration maxConnection,
+                                   @DefaultValue("3") int maxStops,
+                                   @DefaultValue("50") int maxResults,
+                                   @DefaultValue("1h") Duration pruneInterval) {
+}
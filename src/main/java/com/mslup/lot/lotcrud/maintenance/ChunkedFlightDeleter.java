@@ -0,0 +1,67 @@
+package com.mslup.lot.lotcrud.maintenance;
+
+import com.mslup.lot.lotcrud.cache.EntityCacheService;
+import com.mslup.lot.lotcrud.event.FlightChangedEvent;
+import com.mslup.lot.lotcrud.inventory.SeatInventory;
+import java.util.List;
+import java.util.function.IntFunction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Usuwa loty z tablicy {@code flights} porcjami, każdą w osobnej transakcji, i powiadamia
+ * o usunięciu pamięć podręczną, liczniki miejsc i słuchaczy {@link FlightChangedEvent}.
+ * Wspólny dla usuwania i archiwizacji lotów, które odleciały.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChunkedFlightDeleter {
+    private final EntityCacheService entityCacheService;
+    private final SeatInventory seatInventory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Wynik usuwania lotów porcjami.
+     *
+     * @param flightCount Liczba usuniętych lotów.
+     * @param chunkCount  Liczba niepustych porcji.
+     */
+    public record Result(int flightCount, int chunkCount) {
+    }
+
+    /**
+     * Usuwa loty porcjami, dopóki porcja nie jest mniejsza niż {@code chunkSize}.
+     *
+     * @param chunkSize   Maksymalna liczba lotów w porcji.
+     * @param deleteChunk Zapytanie usuwające co najwyżej podaną liczbę lotów i zwracające
+     *                    ich ID; wywoływane w transakcji porcji.
+     * @return Liczba usuniętych lotów i porcji.
+     */
+    public Result deleteInChunks(int chunkSize, IntFunction<List<Long>> deleteChunk) {
+        int flightCount = 0;
+        int chunkCount = 0;
+        while (true) {
+            List<Long> deletedIds = transactionTemplate.execute(status -> {
+                List<Long> ids = deleteChunk.apply(chunkSize);
+                entityCacheService.evictFlights(ids);
+                ids.forEach(id -> {
+                    seatInventory.evict(id);
+                    eventPublisher.publishEvent(FlightChangedEvent.deleted(id));
+                });
+                return ids;
+            });
+            if (deletedIds == null || deletedIds.isEmpty()) {
+                break;
+            }
+            flightCount += deletedIds.size();
+            chunkCount++;
+            if (deletedIds.size() < chunkSize) {
+                break;
+            }
+        }
+        return new Result(flightCount, chunkCount);
+    }
+}
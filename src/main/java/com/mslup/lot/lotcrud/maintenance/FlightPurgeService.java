@@ -0,0 +1,47 @@
+package com.mslup.lot.lotcrud.maintenance;
+
+import com.mslup.lot.lotcrud.dto.FlightPurgeResultDto;
+import com.mslup.lot.lotcrud.exception.ResourceException;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+/**
+ * Serwis usuwający loty, które już odleciały, razem z ich rezerwacjami.
+ *
+ * <p>Loty usuwane są porcjami po {@link MaintenanceProperties#purgeChunkSize()}, każda jednym
+ * zapytaniem DELETE w osobnej transakcji, więc wiersze są zablokowane tylko na czas usuwania
+ * jednej porcji. Loty zablokowane przez inne transakcje są pomijane i zostaną usunięte przy
+ * następnym wywołaniu.
+ */
+@Service
+@RequiredArgsConstructor
+public class FlightPurgeService {
+    private final FlightRepository flightRepository;
+    private final ChunkedFlightDeleter chunkedFlightDeleter;
+    private final MaintenanceProperties properties;
+
+    /**
+     * Usuwa wszystkie loty, które odleciały przed podaną datą.
+     *
+     * @param departedBefore Data, przed którą odleciały usuwane loty.
+     * @return Liczba usuniętych lotów, liczba porcji i czas wykonania.
+     * @throws ResourceException Jeśli podana data jest w przyszłości.
+     */
+    public FlightPurgeResultDto purgeDepartedFlights(OffsetDateTime departedBefore) {
+        if (departedBefore.isAfter(OffsetDateTime.now())) {
+            throw new ResourceException(HttpStatus.BAD_REQUEST,
+                "Only flights that have already departed can be purged");
+        }
+
+        long start = System.nanoTime();
+        ChunkedFlightDeleter.Result result = chunkedFlightDeleter.deleteInChunks(
+            properties.purgeChunkSize(),
+            chunkSize -> flightRepository.deleteDepartedFlights(departedBefore, chunkSize));
+        return new FlightPurgeResultDto(result.flightCount(), result.chunkCount(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
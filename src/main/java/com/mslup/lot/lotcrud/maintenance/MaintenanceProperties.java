@@ -0,0 +1,14 @@
+package com.mslup.lot.lotcrud.maintenance;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja operacji administracyjnych (prefiks {@code lotcrud.maintenance}).
+ *
+ * @param purgeChunkSize Liczba lotów usuwanych w jednej transakcji; ogranicza czas trwania
+ *                       blokad wierszy lotów i ich rezerwacji.
+ */
+@ConfigurationProperties(prefix = "lotcrud.maintenance")
+public record MaintenanceProperties(@DefaultValue("500") int purgeChunkSize) {
+}
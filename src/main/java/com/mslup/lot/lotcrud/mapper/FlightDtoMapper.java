@@ -1,8 +1,8 @@
 package com.mslup.lot.lotcrud.mapper;
 
 import com.mslup.lot.lotcrud.dto.FlightDto;
+import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
 import com.mslup.lot.lotcrud.model.Flight;
-import java.util.HashSet;
 import java.util.function.Function;
 import org.springframework.stereotype.Service;
 
@@ -15,11 +15,12 @@ public class FlightDtoMapper implements Function<FlightDto, Flight> {
     public Flight apply(FlightDto flight) {
         return Flight.builder()
             .flightNumber(flight.flightNumber())
-            .originAirport(flight.originAirport())
+            .originAirport(FlightFilterCriteria.normalizeAirportCode(flight.originAirport()))
             .availableSeatsCount(flight.availableSeatsCount())
-            .destinationAirport(flight.destinationAirport())
+            .destinationAirport(
+                FlightFilterCriteria.normalizeAirportCode(flight.destinationAirport()))
             .departureDateTime(flight.departureDateTime())
-            .passengers(new HashSet<>())
+            .arrivalDateTime(flight.arrivalDateTime())
             .build();
     }
 }
@@ -0,0 +1,28 @@
+package com.mslup.lot.lotcrud.mapper;
+
+import com.mslup.lot.lotcrud.dto.FlightPatchDto;
+import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.model.Flight;
+import com.mslup.lot.lotcrud.patcher.FlightPatch;
+import java.util.function.Function;
+import org.springframework.stereotype.Service;
+
+/**
+ * Klasa mapująca obiekt typu {@link FlightPatchDto} na zmianę lotu {@link FlightPatch}.
+ */
+@Service
+public class FlightPatchDtoMapper implements Function<FlightPatchDto, FlightPatch> {
+    @Override
+    public FlightPatch apply(FlightPatchDto patch) {
+        return new FlightPatch(patch.id(), patch.version(), Flight.builder()
+            .flightNumber(patch.flightNumber())
+            .originAirport(FlightFilterCriteria.normalizeAirportCode(patch.originAirport()))
+            .destinationAirport(
+                FlightFilterCriteria.normalizeAirportCode(patch.destinationAirport()))
+            .departureDateTime(patch.departureDateTime())
+            .arrivalDateTime(patch.arrivalDateTime())
+            .availableSeatsCount(
+                patch.availableSeatsCount() != null ? patch.availableSeatsCount() : -1)
+            .build());
+    }
+}
@@ -0,0 +1,28 @@
+package com.mslup.lot.lotcrud.mapper;
+
+import com.mslup.lot.lotcrud.dto.FlightScheduleChangeDto;
+import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.model.Flight;
+import java.util.function.Function;
+import org.springframework.stereotype.Service;
+
+/**
+ * Klasa mapująca obiekt typu {@link FlightScheduleChangeDto} na wartości do zaktualizowania
+ * w lotach (bez przesunięcia dat, które przekazywane jest osobno).
+ */
+@Service
+public class FlightScheduleChangeDtoMapper implements Function<FlightScheduleChangeDto, Flight> {
+    @Override
+    public Flight apply(FlightScheduleChangeDto change) {
+        return Flight.builder()
+            .flightNumber(change.flightNumber())
+            .originAirport(FlightFilterCriteria.normalizeAirportCode(change.originAirport()))
+            .destinationAirport(
+                FlightFilterCriteria.normalizeAirportCode(change.destinationAirport()))
+            .departureDateTime(change.departureDateTime())
+            .arrivalDateTime(change.arrivalDateTime())
+            .availableSeatsCount(
+                change.availableSeatsCount() != null ? change.availableSeatsCount() : -1)
+            .build();
+    }
+}
@@ -16,6 +16,7 @@ public class PassengerDtoMapper implements Function<PassengerDto, Passenger> {
             .firstName(passengerDto.firstName())
             .lastName(passengerDto.lastName())
             .phoneNumber(passengerDto.phoneNumber())
+            .phoneNumberKey(Passenger.normalizePhoneNumber(passengerDto.phoneNumber()))
             .build();
     }
 }
@@ -0,0 +1,67 @@
+package com.mslup.lot.lotcrud.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Klasa reprezentująca lot przeniesiony do archiwum
+ * ({@link com.mslup.lot.lotcrud.archive.FlightArchiver}). Tylko do odczytu - używana
+ * w wyszukiwaniu lotów z historią.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor
+@Table(name = "flights_archive")
+public class ArchivedFlight {
+    @Id
+    private long id;
+
+    /**
+     * Numer lotu.
+     */
+    @Column(nullable = false)
+    private String flightNumber;
+
+    /**
+     * Kod lotniska początkowego.
+     */
+    @Column(nullable = false)
+    private String originAirport;
+
+    /**
+     * Kod lotniska docelowego.
+     */
+    @Column(nullable = false)
+    private String destinationAirport;
+
+    /**
+     * Data i godzina odlotu.
+     */
+    @Column(columnDefinition = "TIMESTAMP WITH TIME ZONE", nullable = false)
+    private OffsetDateTime departureDateTime;
+
+    /**
+     * Data i godzina przylotu (opcjonalna).
+     */
+    @Column(columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    private OffsetDateTime arrivalDateTime;
+
+    /**
+     * Liczba dostępnych miejsc w chwili archiwizacji.
+     */
+    @Column(nullable = false)
+    private int availableSeatsCount;
+
+    /**
+     * Data i godzina przeniesienia lotu do archiwum.
+     */
+    @Column(columnDefinition = "TIMESTAMP WITH TIME ZONE", nullable = false)
+    private OffsetDateTime archivedAt;
+}
@@ -0,0 +1,74 @@
+package com.mslup.lot.lotcrud.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Klasa reprezentująca rezerwację miejsca w locie przez pasażera.
+ * Rezerwacje przechowywane są w tablicy łączącej z kluczem głównym (flight_id, passenger_id)
+ * oraz indeksem na passenger_id, dzięki czemu dodawanie, usuwanie i liczenie rezerwacji
+ * odbywa się na pojedynczych wierszach, bez wczytywania lotu ani pasażera.
+ */
+@Entity
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "flight_passenger",
+    indexes = {
+        @Index(name = "idx_flight_passenger_passenger_id", columnList = "passenger_id"),
+        @Index(name = "idx_flight_passenger_flight_created",
+            columnList = "flight_id, created_at")})
+public class Booking {
+    @EmbeddedId
+    private BookingId id;
+
+    /**
+     * Zarezerwowany lot.
+     */
+    @MapsId("flightId")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "flight_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Flight flight;
+
+    /**
+     * Pasażer, który dokonał rezerwacji.
+     */
+    @MapsId("passengerId")
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "passenger_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Passenger passenger;
+
+    /**
+     * Data i godzina utworzenia rezerwacji.
+     */
+    @Column(columnDefinition = "TIMESTAMP WITH TIME ZONE", nullable = false)
+    private OffsetDateTime createdAt;
+
+    /**
+     * Status rezerwacji.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookingStatus status;
+}
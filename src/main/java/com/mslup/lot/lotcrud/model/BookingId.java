@@ -0,0 +1,31 @@
+package com.mslup.lot.lotcrud.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Złożony klucz główny rezerwacji (ID lotu, ID pasażera).
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class BookingId implements Serializable {
+    /**
+     * ID lotu.
+     */
+    @Column(name = "flight_id")
+    private long flightId;
+
+    /**
+     * ID pasażera.
+     */
+    @Column(name = "passenger_id")
+    private long passengerId;
+}
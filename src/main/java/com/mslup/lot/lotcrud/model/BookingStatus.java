@@ -0,0 +1,11 @@
+package com.mslup.lot.lotcrud.model;
+
+/**
+ * Status rezerwacji.
+ */
+public enum BookingStatus {
+    /**
+     * Rezerwacja potwierdzona - pasażer zajmuje miejsce w locie.
+     */
+    CONFIRMED
+}
@@ -1,39 +1,51 @@
 package com.mslup.lot.lotcrud.model;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.mslup.lot.lotcrud.exception.NoAvailableSeatsException;
-import jakarta.persistence.CascadeType;
+import com.mslup.lot.lotcrud.cache.EntityCacheConfiguration;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.JoinColumn;
-import jakarta.persistence.JoinTable;
-import jakarta.persistence.ManyToMany;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
-import java.util.Set;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.springframework.transaction.annotation.Transactional;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Klasa reprezentująca lot.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE,
+    region = EntityCacheConfiguration.FLIGHT_REGION)
 @Builder
 @Getter
 @Setter
-@Table(name = "flights")
+@Table(name = "flights", indexes = {
+    @Index(name = "idx_flights_route_departure",
+        columnList = "origin_airport, destination_airport, departure_date_time"),
+    @Index(name = "idx_flights_available_seats_count", columnList = "available_seats_count"),
+    @Index(name = "idx_flights_departure_id", columnList = "departure_date_time, id")})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Flight {
+    /**
+     * ID lotu. Identyfikatory pobierane są z sekwencji pulami po {@code allocationSize},
+     * więc przy imporcie wielu lotów sekwencja odpytywana jest rzadko.
+     */
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flight_seq")
+    @SequenceGenerator(name = "flight_seq", sequenceName = "flight_seq", allocationSize = 500)
     private long id;
 
     /**
@@ -61,6 +73,12 @@ public class Flight {
     @Column(columnDefinition = "TIMESTAMP WITH TIME ZONE", nullable = false)
     private OffsetDateTime departureDateTime;
 
+    /**
+     * Data i godzina przylotu (opcjonalna).
+     */
+    @Column(columnDefinition = "TIMESTAMP WITH TIME ZONE")
+    private OffsetDateTime arrivalDateTime;
+
     /**
      * Liczba dostępnych miejsc.
      */
@@ -68,45 +86,20 @@ public class Flight {
     private int availableSeatsCount;
 
     /**
-     * Pasażerowie przypisani do lotu.
+     * ID rozkładu cyklicznego, z którego utworzono lot, lub {@code null} dla lotu
+     * dodanego pojedynczo.
      */
-    @ManyToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    @JoinTable(
-        name = "flight_passenger",
-        joinColumns = @JoinColumn(name = "flight_id"),
-        inverseJoinColumns = @JoinColumn(name = "passenger_id")
-    )
-    @JsonIgnore
-    private Set<Passenger> passengers;
+    private Long scheduleId;
 
     /**
-     * Dodaje pasażera do lotu.
-     *
-     * @param passenger Pasażer do dodania.
+     * Dzień rozkładu (lokalna data odlotu), dla którego utworzono lot.
      */
-    public void addPassenger(Passenger passenger) throws NoAvailableSeatsException {
-        if (passengers.contains(passenger)) {
-            return;
-        }
-
-        if (availableSeatsCount == 0) {
-            throw new NoAvailableSeatsException(id);
-        }
-
-        passengers.add(passenger);
-        availableSeatsCount--;
-    }
+    private LocalDate scheduleDate;
 
     /**
-     * Usuwa pasażera z lotu.
-     *
-     * @param passenger Pasażer do usunięcia.
+     * Wersja lotu, zwiększana przy każdej zmianie danych lotu.
      */
-    @Transactional
-    public void deletePassenger(Passenger passenger) {
-        if (!passengers.remove(passenger)) {
-            return;
-        }
-        availableSeatsCount++;
-    }
+    @Version
+    @Column(nullable = false)
+    private long version;
 }
@@ -0,0 +1,166 @@
+package com.mslup.lot.lotcrud.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Klasa reprezentująca rozkład cykliczny lotu, np. "LO281 WAW-JFK codziennie o 10:05
+ * przez cały sezon". Rozkład jest rozwijany w pojedyncze loty ({@link Flight}) w tle.
+ */
+@Entity
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "flight_schedules")
+public class FlightSchedule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flight_schedule_seq")
+    @SequenceGenerator(name = "flight_schedule_seq", sequenceName = "flight_schedule_seq",
+        allocationSize = 50)
+    private long id;
+
+    /**
+     * Numer lotu.
+     */
+    @Column(nullable = false)
+    private String flightNumber;
+
+    /**
+     * Kod lotniska początkowego.
+     */
+    @Column(nullable = false)
+    private String originAirport;
+
+    /**
+     * Kod lotniska docelowego.
+     */
+    @Column(nullable = false)
+    private String destinationAirport;
+
+    /**
+     * Dni tygodnia, w które odbywa się lot, w formacie SSIM: siedem znaków, na pozycji
+     * {@code n} cyfra {@code n} (1 - poniedziałek, 7 - niedziela) lub kropka, np.
+     * {@code 1.3.5..} dla poniedziałków, śród i piątków.
+     */
+    @Column(nullable = false, length = 7)
+    private String daysOfWeek;
+
+    /**
+     * Lokalna godzina odlotu w strefie {@link #timeZone}.
+     */
+    @Column(nullable = false)
+    private LocalTime departureTime;
+
+    /**
+     * Czas lotu w minutach lub {@code null}, jeśli data przylotu nie jest znana.
+     */
+    private Integer blockTimeMinutes;
+
+    /**
+     * Strefa czasowa godziny odlotu (np. {@code Europe/Warsaw}).
+     */
+    @Column(nullable = false)
+    private String timeZone;
+
+    /**
+     * Pierwszy dzień obowiązywania rozkładu.
+     */
+    @Column(nullable = false)
+    private LocalDate validFrom;
+
+    /**
+     * Ostatni dzień obowiązywania rozkładu.
+     */
+    @Column(nullable = false)
+    private LocalDate validTo;
+
+    /**
+     * Liczba dostępnych miejsc w każdym locie.
+     */
+    @Column(nullable = false)
+    private int availableSeatsCount;
+
+    /**
+     * Ostatni dzień, dla którego utworzono już loty.
+     */
+    @Column(nullable = false)
+    private LocalDate expandedThrough;
+
+    /**
+     * Wersja rozkładu, zwiększana przy każdej zmianie rozkładu.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * Sprawdza, czy lot odbywa się w podanym dniu.
+     *
+     * @param date Lokalna data odlotu.
+     * @return {@code true}, jeśli dzień mieści się w okresie obowiązywania rozkładu i jest
+     *     jednym z jego dni tygodnia.
+     */
+    public boolean operatesOn(LocalDate date) {
+        return !date.isBefore(validFrom) && !date.isAfter(validTo)
+            && daysOfWeek.charAt(date.getDayOfWeek().getValue() - 1) != '.';
+    }
+
+    /**
+     * Wyznacza datę i godzinę odlotu w podanym dniu, z uwzględnieniem zmian czasu w strefie
+     * rozkładu.
+     *
+     * @param date Lokalna data odlotu.
+     * @return Data i godzina odlotu.
+     */
+    public OffsetDateTime departureOn(LocalDate date) {
+        return ZonedDateTime.of(date, departureTime, ZoneId.of(timeZone)).toOffsetDateTime();
+    }
+
+    /**
+     * Wyznacza datę i godzinę przylotu lotu odlatującego w podanym dniu.
+     *
+     * @param date Lokalna data odlotu.
+     * @return Data i godzina przylotu lub {@code null}, jeśli czas lotu nie jest znany.
+     */
+    public OffsetDateTime arrivalOn(LocalDate date) {
+        return blockTimeMinutes == null ? null
+            : departureOn(date).plusMinutes(blockTimeMinutes);
+    }
+
+    /**
+     * Tworzy lot odlatujący w podanym dniu.
+     *
+     * @param date Lokalna data odlotu.
+     * @return Nowy lot (niezapisany).
+     */
+    public Flight flightOn(LocalDate date) {
+        return Flight.builder()
+            .flightNumber(flightNumber)
+            .originAirport(originAirport)
+            .destinationAirport(destinationAirport)
+            .departureDateTime(departureOn(date))
+            .arrivalDateTime(arrivalOn(date))
+            .availableSeatsCount(availableSeatsCount)
+            .scheduleId(id)
+            .scheduleDate(date)
+            .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.mslup.lot.lotcrud.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Klasa reprezentująca zapisaną odpowiedź na żądanie z nagłówkiem {@code Idempotency-Key}.
+ */
+@Entity
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "idempotency_keys",
+    indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at"))
+public class IdempotencyRecord {
+    /**
+     * Klucz idempotencji przesłany przez klienta.
+     */
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    /**
+     * Skrót metody, ścieżki i parametrów żądania, dla którego użyto klucza.
+     */
+    @Column(nullable = false)
+    private String fingerprint;
+
+    /**
+     * Status HTTP odpowiedzi.
+     */
+    @Column(nullable = false)
+    private int status;
+
+    /**
+     * Odtwarzane nagłówki odpowiedzi w formacie JSON.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String headers;
+
+    /**
+     * Treść odpowiedzi w formacie JSON.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    /**
+     * Data i godzina zapisania odpowiedzi.
+     */
+    @Column(columnDefinition = "TIMESTAMP WITH TIME ZONE", nullable = false)
+    private OffsetDateTime createdAt;
+}
@@ -1,35 +1,51 @@
 package com.mslup.lot.lotcrud.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import jakarta.persistence.CascadeType;
+import com.mslup.lot.lotcrud.cache.EntityCacheConfiguration;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.ManyToMany;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
-import java.util.HashSet;
-import java.util.Set;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Klasa reprezentująca pasażera.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE,
+    region = EntityCacheConfiguration.PASSENGER_REGION)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
 @Setter
-@Table(name = "passengers")
+@Table(name = "passengers", indexes = @Index(name = "uq_passengers_phone_number_key",
+    columnList = "phone_number_key", unique = true))
 public class Passenger {
+    /**
+     * Liczba identyfikatorów pasażerów pobieranych z sekwencji naraz.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "passenger_seq")
+    @SequenceGenerator(name = "passenger_seq", sequenceName = "passenger_seq",
+        allocationSize = ID_ALLOCATION_SIZE)
     private long id;
 
     /**
@@ -51,14 +67,39 @@ public class Passenger {
     private String phoneNumber;
 
     /**
-     * Loty, na które pasażer dokonał rezerwacji.
+     * Znormalizowany numer telefonu ({@link #normalizePhoneNumber(String)}), jednoznacznie
+     * identyfikujący pasażera.
      */
-    @ManyToMany(
-        mappedBy = "passengers",
-        cascade = CascadeType.ALL,
-        fetch = FetchType.LAZY
-    )
     @JsonIgnore
-    @Builder.Default
-    private Set<Flight> bookings = new HashSet<>();
+    private String phoneNumberKey;
+
+    /**
+     * Wersja pasażera, zwiększana przy każdej zmianie danych pasażera.
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * Normalizuje numer telefonu: pozostawia tylko cyfry i początkowy znak {@code +}.
+     *
+     * @param phoneNumber Numer telefonu.
+     * @return Znormalizowany numer telefonu lub {@code null}, jeśli numer nie zawiera cyfr.
+     */
+    public static String normalizePhoneNumber(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        String digits = phoneNumber.replaceAll("[^0-9]", "");
+        if (digits.isEmpty()) {
+            return null;
+        }
+        return phoneNumber.strip().startsWith("+") ? "+" + digits : digits;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updatePhoneNumberKey() {
+        phoneNumberKey = normalizePhoneNumber(phoneNumber);
+    }
 }
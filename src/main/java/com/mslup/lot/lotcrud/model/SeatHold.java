@@ -0,0 +1,57 @@
+package com.mslup.lot.lotcrud.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Klasa reprezentująca czasową blokadę miejsc w locie (np. na czas płatności).
+ * Zablokowane miejsca są odejmowane od liczby dostępnych miejsc lotu do momentu
+ * potwierdzenia, zwolnienia lub wygaśnięcia blokady.
+ */
+@Entity
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "seat_holds",
+    indexes = @Index(name = "idx_seat_holds_flight_id", columnList = "flight_id"))
+public class SeatHold {
+    @Id
+    private UUID id;
+
+    /**
+     * Lot, w którym zablokowano miejsca.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "flight_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Flight flight;
+
+    /**
+     * Liczba zablokowanych miejsc.
+     */
+    @Column(nullable = false)
+    private int seats;
+
+    /**
+     * Data i godzina wygaśnięcia blokady.
+     */
+    @Column(columnDefinition = "TIMESTAMP WITH TIME ZONE", nullable = false)
+    private OffsetDateTime expiresAt;
+}
@@ -0,0 +1,32 @@
+package com.mslup.lot.lotcrud.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Punkt kontrolny dziennika zmian liczników miejsc przechowywanych w pamięci.
+ * Zapisywany w tej samej transakcji co zmiany liczników, dzięki czemu po awarii
+ * odtwarzane są tylko te wpisy dziennika, które nie trafiły jeszcze do bazy danych.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "seat_inventory_checkpoint")
+public class SeatInventoryCheckpoint {
+    @Id
+    private int id;
+
+    /**
+     * Numer ostatniego wpisu dziennika zapisanego w bazie danych.
+     */
+    @Column(nullable = false)
+    private long lastSequence;
+}
@@ -0,0 +1,14 @@
+package com.mslup.lot.lotcrud.patcher;
+
+import com.mslup.lot.lotcrud.model.Flight;
+
+/**
+ * Zmiana jednego lotu w grupowej zmianie lotów.
+ *
+ * @param id              ID lotu.
+ * @param expectedVersion Oczekiwana wersja lotu lub {@code null}, jeśli wersja nie jest
+ *                        sprawdzana.
+ * @param valuesToPatch   Wartości do zaktualizowania (jak w {@link FlightPatcher}).
+ */
+public record FlightPatch(long id, Long expectedVersion, Flight valuesToPatch) {
+}
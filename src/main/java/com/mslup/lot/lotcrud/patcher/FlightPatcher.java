@@ -1,27 +1,41 @@
 package com.mslup.lot.lotcrud.patcher;
 
 import com.mslup.lot.lotcrud.model.Flight;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Klasa pomocnicza zmieniająca dane lotu.
  */
 public class FlightPatcher {
-    public static Flight applyPatchToFlight(Flight flight, Flight valuesToPatch) {
+
+    /**
+     * Wyznacza kolumny tablicy lotów zmieniane przez łatkę, czyli te, których wartości
+     * zostały podane.
+     *
+     * @param valuesToPatch Wartości do zaktualizowania.
+     * @return Mapa nazwa kolumny → nowa wartość (w stałej kolejności kolumn).
+     */
+    public static Map<String, Object> patchedColumns(Flight valuesToPatch) {
+        Map<String, Object> columns = new LinkedHashMap<>();
         if (valuesToPatch.getFlightNumber() != null) {
-            flight.setFlightNumber(valuesToPatch.getFlightNumber());
+            columns.put("flight_number", valuesToPatch.getFlightNumber());
         }
         if (valuesToPatch.getOriginAirport() != null) {
-            flight.setOriginAirport(valuesToPatch.getOriginAirport());
+            columns.put("origin_airport", valuesToPatch.getOriginAirport());
         }
         if (valuesToPatch.getDestinationAirport() != null) {
-            flight.setDestinationAirport(valuesToPatch.getDestinationAirport());
+            columns.put("destination_airport", valuesToPatch.getDestinationAirport());
         }
         if (valuesToPatch.getDepartureDateTime() != null) {
-            flight.setDepartureDateTime(valuesToPatch.getDepartureDateTime());
+            columns.put("departure_date_time", valuesToPatch.getDepartureDateTime());
+        }
+        if (valuesToPatch.getArrivalDateTime() != null) {
+            columns.put("arrival_date_time", valuesToPatch.getArrivalDateTime());
         }
         if (valuesToPatch.getAvailableSeatsCount() != -1) {
-            flight.setAvailableSeatsCount(valuesToPatch.getAvailableSeatsCount());
+            columns.put("available_seats_count", valuesToPatch.getAvailableSeatsCount());
         }
-        return flight;
+        return columns;
     }
 }
@@ -1,21 +1,34 @@
 package com.mslup.lot.lotcrud.patcher;
 
 import com.mslup.lot.lotcrud.model.Passenger;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Klasa pomocnicza zmieniająca dane pasażera.
  */
 public class PassengerPatcher {
-    public static Passenger applyPatchToPassenger(Passenger passenger, Passenger valuesToPatch) {
+
+    /**
+     * Wyznacza kolumny tablicy pasażerów zmieniane przez łatkę, czyli te, których wartości
+     * zostały podane.
+     *
+     * @param valuesToPatch Wartości do zaktualizowania.
+     * @return Mapa nazwa kolumny → nowa wartość (w stałej kolejności kolumn).
+     */
+    public static Map<String, Object> patchedColumns(Passenger valuesToPatch) {
+        Map<String, Object> columns = new LinkedHashMap<>();
         if (valuesToPatch.getFirstName() != null) {
-            passenger.setFirstName(valuesToPatch.getFirstName());
+            columns.put("first_name", valuesToPatch.getFirstName());
         }
         if (valuesToPatch.getLastName() != null) {
-            passenger.setLastName(valuesToPatch.getLastName());
+            columns.put("last_name", valuesToPatch.getLastName());
         }
         if (valuesToPatch.getPhoneNumber() != null) {
-            passenger.setPhoneNumber(valuesToPatch.getPhoneNumber());
+            columns.put("phone_number", valuesToPatch.getPhoneNumber());
+            columns.put("phone_number_key",
+                Passenger.normalizePhoneNumber(valuesToPatch.getPhoneNumber()));
         }
-        return passenger;
+        return columns;
     }
 }
@@ -0,0 +1,149 @@
+package com.mslup.lot.lotcrud.repository;
+
+import com.mslup.lot.lotcrud.dto.ManifestRow;
+import com.mslup.lot.lotcrud.model.Booking;
+import com.mslup.lot.lotcrud.model.BookingId;
+import com.mslup.lot.lotcrud.model.Flight;
+import com.mslup.lot.lotcrud.model.Passenger;
+import jakarta.persistence.QueryHint;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repozytorium dla klasy Booking.
+ */
+public interface BookingRepository extends JpaRepository<Booking, BookingId> {
+    /**
+     * Przestrzeń zapytań (query space) natywnych zapytań na tablicy rezerwacji.
+     * Bez niej Hibernate czyściłby po każdym takim zapytaniu całą pamięć podręczną
+     * drugiego poziomu.
+     */
+    String BOOKING_SPACE = "flight_passenger";
+    String MANIFEST_FETCH_SIZE = "1000";
+    String MANIFEST_SELECT = "select new com.mslup.lot.lotcrud.dto.ManifestRow("
+        + "f.id, f.flightNumber, f.originAirport, f.destinationAirport, f.departureDateTime, "
+        + "p.id, p.firstName, p.lastName, p.phoneNumber, b.createdAt, b.status) "
+        + "from Booking b join b.flight f join b.passenger p ";
+
+    /**
+     * Dodaje potwierdzoną rezerwację, jeśli jeszcze nie istnieje.
+     * Unikalność pary (lot, pasażer) gwarantuje klucz główny tablicy rezerwacji.
+     *
+     * @param flightId    ID lotu.
+     * @param passengerId ID pasażera.
+     * @return 1, jeśli rezerwacja została dodana, 0, jeśli już istniała.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = BOOKING_SPACE))
+    @Query(value = "insert into flight_passenger (flight_id, passenger_id, created_at, status) "
+        + "values (:flightId, :passengerId, now(), 'CONFIRMED') on conflict do nothing",
+        nativeQuery = true)
+    int insertBooking(@Param("flightId") long flightId, @Param("passengerId") long passengerId);
+
+    /**
+     * Dodaje potwierdzone rezerwacje lotu dla wielu pasażerów jednym zapytaniem.
+     * Pomijani są pasażerowie, którzy nie istnieją lub mają już rezerwację na ten lot.
+     *
+     * @param flightId     ID lotu.
+     * @param passengerIds ID pasażerów.
+     * @return Liczba dodanych rezerwacji.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = BOOKING_SPACE))
+    @Query(value = "insert into flight_passenger (flight_id, passenger_id, created_at, status) "
+        + "select :flightId, p.id, now(), 'CONFIRMED' from passengers p "
+        + "where p.id in (:passengerIds) on conflict do nothing", nativeQuery = true)
+    int insertBookings(@Param("flightId") long flightId,
+                       @Param("passengerIds") Collection<Long> passengerIds);
+
+    /**
+     * Usuwa rezerwację.
+     *
+     * @param flightId    ID lotu.
+     * @param passengerId ID pasażera.
+     * @return 1, jeśli rezerwacja została usunięta, 0, jeśli nie istniała.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Booking b "
+        + "where b.id.flightId = :flightId and b.id.passengerId = :passengerId")
+    int deleteBooking(@Param("flightId") long flightId, @Param("passengerId") long passengerId);
+
+    /**
+     * Zlicza rezerwacje w locie.
+     *
+     * @param flightId ID lotu.
+     * @return Liczba rezerwacji.
+     */
+    @Query("select count(b) from Booking b where b.id.flightId = :flightId")
+    long countByFlightId(@Param("flightId") long flightId);
+
+    /**
+     * Zwraca te spośród podanych ID lotów, na które istnieje co najmniej jedna rezerwacja.
+     *
+     * @param flightIds ID lotów do sprawdzenia.
+     * @return Lista ID lotów z rezerwacjami.
+     */
+    @Query("select distinct b.id.flightId from Booking b where b.id.flightId in :flightIds")
+    List<Long> findBookedFlightIds(@Param("flightIds") Collection<Long> flightIds);
+
+    /**
+     * Pobiera pasażerów przypisanych do lotu.
+     *
+     * @param flightId ID lotu.
+     * @return Lista pasażerów w kolejności dokonania rezerwacji.
+     */
+    @Query("select b.passenger from Booking b "
+        + "where b.id.flightId = :flightId order by b.createdAt")
+    List<Passenger> findPassengersByFlightId(@Param("flightId") long flightId);
+
+    /**
+     * Pobiera loty, na które pasażer dokonał rezerwacji.
+     *
+     * @param passengerId ID pasażera.
+     * @return Lista lotów w kolejności dokonania rezerwacji.
+     */
+    @Query("select b.flight from Booking b "
+        + "where b.id.passengerId = :passengerId order by b.createdAt")
+    List<Flight> findFlightsByPassengerId(@Param("passengerId") long passengerId);
+
+    /**
+     * Strumieniuje listę pasażerów lotu jednym zapytaniem łączącym lot, rezerwacje i pasażerów.
+     * Wiersze są pobierane z bazy w porcjach.
+     * Strumień musi zostać zamknięty i odczytany wewnątrz transakcji.
+     *
+     * @param flightId ID lotu.
+     * @return Strumień wierszy w kolejności dokonania rezerwacji.
+     */
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = MANIFEST_FETCH_SIZE),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")})
+    @Query(MANIFEST_SELECT + "where f.id = :flightId order by b.createdAt, p.id")
+    Stream<ManifestRow> streamManifest(@Param("flightId") long flightId);
+
+    /**
+     * Strumieniuje listy pasażerów wszystkich lotów odlatujących w podanym przedziale czasu
+     * jednym zapytaniem łączącym loty, rezerwacje i pasażerów.
+     * Wiersze są pobierane z bazy w porcjach.
+     * Strumień musi zostać zamknięty i odczytany wewnątrz transakcji.
+     *
+     * @param dateFrom Data początkowa (włącznie).
+     * @param dateTo   Data końcowa (włącznie).
+     * @return Strumień wierszy pogrupowanych według lotów, w kolejności odlotów.
+     */
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = MANIFEST_FETCH_SIZE),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")})
+    @Query(MANIFEST_SELECT
+        + "where f.departureDateTime >= :dateFrom and f.departureDateTime <= :dateTo "
+        + "order by f.departureDateTime, f.id, b.createdAt, p.id")
+    Stream<ManifestRow> streamManifests(@Param("dateFrom") OffsetDateTime dateFrom,
+                                        @Param("dateTo") OffsetDateTime dateTo);
+}
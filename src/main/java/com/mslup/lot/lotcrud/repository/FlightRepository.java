@@ -1,11 +1,223 @@
 package com.mslup.lot.lotcrud.repository;
 
+import com.mslup.lot.lotcrud.dto.FlightView;
 import com.mslup.lot.lotcrud.model.Flight;
 import com.mslup.lot.lotcrud.repository.custom.FlightRepositoryCustom;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repozytorium dla klasy Flight.
  */
 public interface FlightRepository extends JpaRepository<Flight, Long>, FlightRepositoryCustom {
+    /**
+     * Przestrzeń zapytań (query space) zapytań zmieniających liczbę miejsc.
+     * Zapytania te są natywne i oznaczone przestrzenią inną niż tablica lotów, dzięki czemu
+     * Hibernate nie czyści po nich całego regionu lotów w pamięci podręcznej drugiego poziomu;
+     * zmienione loty usuwane są z niej pojedynczo
+     * ({@link com.mslup.lot.lotcrud.cache.EntityCacheService}).
+     */
+    String SEAT_COUNT_SPACE = "flight_seat_counts";
+
+    /**
+     * Przestrzeń zapytań natywnych zapytań usuwających loty lub zmieniających wiele lotów
+     * naraz. Podobnie jak {@link #SEAT_COUNT_SPACE} nie powoduje czyszczenia całego regionu
+     * lotów w pamięci podręcznej drugiego poziomu; zmienione loty usuwane są z niej pojedynczo.
+     */
+    String FLIGHT_ROWS_SPACE = "flight_rows";
+
+    /**
+     * Rezerwuje miejsca w locie pojedynczym warunkowym zapytaniem UPDATE.
+     * Liczba miejsc jest zmniejszana tylko wtedy, gdy pozostało wystarczająco wolnych miejsc.
+     *
+     * @param flightId ID lotu.
+     * @param seats    Liczba miejsc do zarezerwowania.
+     * @return Liczba zmienionych wierszy (0, jeśli lot nie istnieje lub brak miejsc).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = SEAT_COUNT_SPACE))
+    @Query(value = "update flights set available_seats_count = available_seats_count - :seats "
+        + "where id = :flightId and available_seats_count >= :seats", nativeQuery = true)
+    int reserveSeats(@Param("flightId") long flightId, @Param("seats") int seats);
+
+    /**
+     * Zwalnia miejsca w locie pojedynczym zapytaniem UPDATE.
+     *
+     * @param flightId ID lotu.
+     * @param seats    Liczba miejsc do zwolnienia.
+     * @return Liczba zmienionych wierszy.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = SEAT_COUNT_SPACE))
+    @Query(value = "update flights set available_seats_count = available_seats_count + :seats "
+        + "where id = :flightId", nativeQuery = true)
+    int releaseSeats(@Param("flightId") long flightId, @Param("seats") int seats);
+
+    /**
+     * Zwalnia po jednym miejscu w każdym z podanych lotów pojedynczym zapytaniem UPDATE.
+     *
+     * @param flightIds ID lotów.
+     * @return Liczba zmienionych lotów.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = SEAT_COUNT_SPACE))
+    @Query(value = "update flights set available_seats_count = available_seats_count + 1 "
+        + "where id in (:flightIds)", nativeQuery = true)
+    int releaseSeatInFlights(@Param("flightIds") Collection<Long> flightIds);
+
+    /**
+     * Zmienia liczbę dostępnych miejsc w locie o podaną (dodatnią lub ujemną) wartość.
+     * Używane przy zapisie zagregowanych zmian z pamięci do bazy danych.
+     *
+     * @param flightId ID lotu.
+     * @param delta    Zmiana liczby dostępnych miejsc.
+     * @return Liczba zmienionych wierszy.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = SEAT_COUNT_SPACE))
+    @Query(value = "update flights set available_seats_count = available_seats_count + :delta "
+        + "where id = :flightId", nativeQuery = true)
+    int adjustSeats(@Param("flightId") long flightId, @Param("delta") int delta);
+
+    /**
+     * Pobiera liczbę dostępnych miejsc w locie bez wczytywania encji.
+     *
+     * @param flightId ID lotu.
+     * @return Liczba dostępnych miejsc, jeśli lot istnieje.
+     */
+    @Query("select f.availableSeatsCount from Flight f where f.id = :flightId")
+    Optional<Integer> findAvailableSeatsCount(@Param("flightId") long flightId);
+
+    /**
+     * Pobiera lot jako projekcję tylko do odczytu, bez tworzenia zarządzanej encji.
+     *
+     * @param flightId ID lotu.
+     * @return Projekcja lotu, jeśli lot istnieje.
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"))
+    @Query("select new com.mslup.lot.lotcrud.dto.FlightView(f.id, f.flightNumber, "
+        + "f.originAirport, f.destinationAirport, f.departureDateTime, f.arrivalDateTime, "
+        + "f.availableSeatsCount) "
+        + "from Flight f where f.id = :flightId")
+    Optional<FlightView> findViewById(@Param("flightId") long flightId);
+
+    /**
+     * Pobiera loty o podanych ID jako projekcje tylko do odczytu.
+     *
+     * @param flightIds ID lotów.
+     * @return Projekcje istniejących lotów (w dowolnej kolejności).
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"))
+    @Query("select new com.mslup.lot.lotcrud.dto.FlightView(f.id, f.flightNumber, "
+        + "f.originAirport, f.destinationAirport, f.departureDateTime, f.arrivalDateTime, "
+        + "f.availableSeatsCount) "
+        + "from Flight f where f.id in :flightIds")
+    List<FlightView> findViewsByIdIn(@Param("flightIds") Collection<Long> flightIds);
+
+    /**
+     * Zwraca te spośród podanych ID, które należą do istniejących lotów.
+     *
+     * @param ids ID lotów do sprawdzenia.
+     * @return Lista istniejących ID.
+     */
+    @Query("select f.id from Flight f where f.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Pobiera dni rozkładu, dla których istnieją już loty.
+     *
+     * @param scheduleId ID rozkładu.
+     * @param from       Pierwszy dzień (włącznie).
+     * @param to         Ostatni dzień (włącznie).
+     * @return Zbiór dni rozkładu.
+     */
+    @Query("select f.scheduleDate from Flight f "
+        + "where f.scheduleId = :scheduleId and f.scheduleDate between :from and :to")
+    Set<LocalDate> findScheduleDates(@Param("scheduleId") long scheduleId,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+
+    /**
+     * Pobiera loty rozkładu, które jeszcze nie odleciały.
+     *
+     * @param scheduleId ID rozkładu.
+     * @param now        Bieżąca data i godzina.
+     * @return Lista lotów w kolejności odlotów.
+     */
+    @Query("select f from Flight f where f.scheduleId = :scheduleId "
+        + "and f.departureDateTime > :now order by f.departureDateTime")
+    List<Flight> findFutureScheduleFlights(@Param("scheduleId") long scheduleId,
+                                           @Param("now") OffsetDateTime now);
+
+    /**
+     * Pobiera ID wszystkich lotów rozkładu.
+     *
+     * @param scheduleId ID rozkładu.
+     * @return Lista ID lotów.
+     */
+    @Query("select f.id from Flight f where f.scheduleId = :scheduleId")
+    List<Long> findIdsByScheduleId(@Param("scheduleId") long scheduleId);
+
+    /**
+     * Usuwa loty o podanych ID jednym zapytaniem DELETE, bez wczytywania encji.
+     * Rezerwacje i blokady miejsc usuwanych lotów usuwa baza danych (klucze obce
+     * {@code on delete cascade}).
+     *
+     * @param flightIds ID lotów.
+     * @return Liczba usuniętych lotów.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES,
+        value = FLIGHT_ROWS_SPACE))
+    @Query(value = "delete from flights where id in (:flightIds)", nativeQuery = true)
+    int deleteFlights(@Param("flightIds") Collection<Long> flightIds);
+
+    /**
+     * Odłącza loty o podanych ID od rozkładu, z którego zostały utworzone; loty pozostają
+     * w bazie jako pojedyncze loty.
+     *
+     * @param flightIds ID lotów.
+     * @return Liczba zmienionych lotów.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES,
+        value = FLIGHT_ROWS_SPACE))
+    @Query(value = "update flights set schedule_id = null, schedule_date = null, "
+        + "version = version + 1 where id in (:flightIds)", nativeQuery = true)
+    int detachFromSchedule(@Param("flightIds") Collection<Long> flightIds);
+
+    /**
+     * Zmienia liczbę dostępnych miejsc w podanych lotach o tę samą (dodatnią lub ujemną)
+     * wartość, np. po zmianie liczby miejsc w rozkładzie. Liczba miejsc nie spada poniżej 0.
+     *
+     * @param flightIds ID lotów.
+     * @param delta     Zmiana liczby dostępnych miejsc.
+     * @return Liczba zmienionych lotów.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = SEAT_COUNT_SPACE))
+    @Query(value = "update flights set available_seats_count = "
+        + "greatest(0, available_seats_count + :delta) where id in (:flightIds)",
+        nativeQuery = true)
+    int adjustSeatsInFlights(@Param("flightIds") Collection<Long> flightIds,
+                             @Param("delta") int delta);
+
+    /**
+     * Pobiera datę odlotu najwcześniejszego lotu.
+     *
+     * @return Data odlotu lub pusty wynik, jeśli nie ma żadnych lotów.
+     */
+    @Query("select min(f.departureDateTime) from Flight f")
+    Optional<OffsetDateTime> findEarliestDepartureDateTime();
 }
@@ -0,0 +1,51 @@
+package com.mslup.lot.lotcrud.repository;
+
+import com.mslup.lot.lotcrud.model.FlightSchedule;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repozytorium dla klasy FlightSchedule.
+ */
+public interface FlightScheduleRepository extends JpaRepository<FlightSchedule, Long> {
+    /**
+     * Pobiera rozkład i blokuje go do końca transakcji, dzięki czemu zmiana rozkładu
+     * i jego rozwijanie w loty nie wykonują się równocześnie.
+     *
+     * @param id ID rozkładu.
+     * @return Rozkład, jeśli istnieje.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from FlightSchedule s where s.id = :id")
+    Optional<FlightSchedule> findByIdForUpdate(@Param("id") long id);
+
+    /**
+     * Pobiera ID rozkładów, które nie zostały jeszcze rozwinięte do końca okresu obowiązywania
+     * ani do podanego dnia.
+     *
+     * @param horizonEnd Ostatni dzień, do którego rozwijane są rozkłady.
+     * @return Lista ID rozkładów.
+     */
+    @Query("select s.id from FlightSchedule s "
+        + "where s.expandedThrough < s.validTo and s.expandedThrough < :horizonEnd order by s.id")
+    List<Long> findPendingIds(@Param("horizonEnd") LocalDate horizonEnd);
+
+    /**
+     * Zapisuje postęp rozwijania rozkładu bez zmiany jego wersji.
+     *
+     * @param id              ID rozkładu.
+     * @param expandedThrough Ostatni dzień, dla którego utworzono loty.
+     * @return Liczba zmienionych wierszy.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update FlightSchedule s set s.expandedThrough = :expandedThrough where s.id = :id")
+    int updateExpandedThrough(@Param("id") long id,
+                              @Param("expandedThrough") LocalDate expandedThrough);
+}
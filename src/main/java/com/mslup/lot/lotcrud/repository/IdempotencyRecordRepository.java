@@ -0,0 +1,72 @@
+package com.mslup.lot.lotcrud.repository;
+
+import com.mslup.lot.lotcrud.model.IdempotencyRecord;
+import jakarta.persistence.QueryHint;
+import java.time.OffsetDateTime;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repozytorium dla klasy IdempotencyRecord.
+ */
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    /**
+     * Przestrzeń zapytań natywnych na tablicy kluczy idempotencji.
+     */
+    String IDEMPOTENCY_SPACE = "idempotency_keys";
+
+    /**
+     * Zajmuje klucz idempotencji, zapisując go bez odpowiedzi (status 0). Klucz zapisany
+     * wcześniej niż {@code expiredBefore} jest zajmowany ponownie. Jeśli klucz zajęła
+     * niezatwierdzona jeszcze transakcja, zapytanie czeka na jej zakończenie.
+     *
+     * @param key           Klucz idempotencji.
+     * @param fingerprint   Skrót żądania.
+     * @param createdAt     Data i godzina zajęcia klucza.
+     * @param expiredBefore Data, przed którą zapisane klucze są nieważne.
+     * @return 1, jeśli klucz został zajęty, 0, jeśli jest już zajęty.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = IDEMPOTENCY_SPACE))
+    @Query(value = "insert into idempotency_keys "
+        + "(idempotency_key, fingerprint, status, headers, body, created_at) "
+        + "values (:key, :fingerprint, 0, null, null, :createdAt) "
+        + "on conflict (idempotency_key) do update set fingerprint = excluded.fingerprint, "
+        + "status = 0, headers = null, body = null, created_at = excluded.created_at "
+        + "where idempotency_keys.created_at < :expiredBefore", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("fingerprint") String fingerprint,
+              @Param("createdAt") OffsetDateTime createdAt,
+              @Param("expiredBefore") OffsetDateTime expiredBefore);
+
+    /**
+     * Zapisuje odpowiedź dla zajętego klucza idempotencji.
+     *
+     * @param key     Klucz idempotencji.
+     * @param status  Status HTTP odpowiedzi.
+     * @param headers Odtwarzane nagłówki odpowiedzi w formacie JSON.
+     * @param body    Treść odpowiedzi w formacie JSON.
+     * @return Liczba zmienionych wierszy.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_NATIVE_SPACES, value = IDEMPOTENCY_SPACE))
+    @Query(value = "update idempotency_keys set status = :status, headers = :headers, "
+        + "body = :body where idempotency_key = :key", nativeQuery = true)
+    int complete(@Param("key") String key, @Param("status") int status,
+                 @Param("headers") String headers, @Param("body") String body);
+
+    /**
+     * Usuwa odpowiedzi zapisane przed podaną datą.
+     *
+     * @param createdBefore Data graniczna.
+     * @return Liczba usuniętych odpowiedzi.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from IdempotencyRecord r where r.createdAt < :createdBefore")
+    int deleteCreatedBefore(@Param("createdBefore") OffsetDateTime createdBefore);
+}
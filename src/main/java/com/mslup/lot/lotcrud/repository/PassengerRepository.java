@@ -1,11 +1,33 @@
 package com.mslup.lot.lotcrud.repository;
 
 import com.mslup.lot.lotcrud.model.Passenger;
+import com.mslup.lot.lotcrud.repository.custom.PassengerRepositoryCustom;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repozytorium dla klasy Passenger.
  */
-public interface PassengerRepository extends JpaRepository<Passenger, Long> {
+public interface PassengerRepository extends JpaRepository<Passenger, Long>,
+    PassengerRepositoryCustom {
 
-}
\ No newline at end of file
+    /**
+     * Zwraca te spośród podanych ID, które należą do istniejących pasażerów.
+     *
+     * @param ids ID pasażerów do sprawdzenia.
+     * @return Lista istniejących ID.
+     */
+    @Query("select p.id from Passenger p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Sprawdza, czy istnieje pasażer o podanym znormalizowanym numerze telefonu.
+     *
+     * @param phoneNumberKey Znormalizowany numer telefonu.
+     * @return {@code true}, jeśli taki pasażer istnieje.
+     */
+    boolean existsByPhoneNumberKey(String phoneNumberKey);
+}
@@ -0,0 +1,25 @@
+package com.mslup.lot.lotcrud.repository;
+
+import com.mslup.lot.lotcrud.model.SeatHold;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repozytorium dla klasy SeatHold.
+ */
+public interface SeatHoldRepository extends JpaRepository<SeatHold, UUID> {
+
+    /**
+     * Usuwa blokadę. Tylko jedna z konkurujących operacji (potwierdzenie, zwolnienie,
+     * wygaśnięcie) usunie wiersz, więc tylko ona zmienia liczbę dostępnych miejsc.
+     *
+     * @param id ID blokady.
+     * @return 1, jeśli blokada została usunięta, 0, jeśli już nie istniała.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("delete from SeatHold h where h.id = :id")
+    int deleteHold(@Param("id") UUID id);
+}
@@ -0,0 +1,11 @@
+package com.mslup.lot.lotcrud.repository;
+
+import com.mslup.lot.lotcrud.model.SeatInventoryCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repozytorium dla klasy SeatInventoryCheckpoint.
+ */
+public interface SeatInventoryCheckpointRepository
+    extends JpaRepository<SeatInventoryCheckpoint, Integer> {
+}
@@ -1,12 +1,42 @@
 package com.mslup.lot.lotcrud.repository.custom;
 
+import com.mslup.lot.lotcrud.dto.FlightView;
 import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.filter.FlightPageRequest;
 import com.mslup.lot.lotcrud.model.Flight;
+import com.mslup.lot.lotcrud.patcher.FlightPatch;
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Interfejs dla niestandardowej implementacji repozytorium lotów.
  */
 public interface FlightRepositoryCustom {
     List<Flight> filterFlights(FlightFilterCriteria criteria);
+
+    List<FlightView> filterFlights(FlightFilterCriteria criteria, FlightPageRequest page);
+
+    List<FlightView> filterFlightsWithHistory(FlightFilterCriteria criteria,
+                                              FlightPageRequest page);
+
+    List<FlightView> filterFlightViews(FlightFilterCriteria criteria, int limit);
+
+    Stream<FlightView> streamFlights(FlightFilterCriteria criteria);
+
+    Optional<Flight> patchFlight(long id, Map<String, Object> columns, Long expectedVersion);
+
+    List<Flight> patchFlights(List<FlightPatch> patches);
+
+    List<Flight> patchFlights(FlightFilterCriteria criteria, Map<String, Object> columns,
+                              Duration shift);
+
+    List<Long> deleteDepartedFlights(OffsetDateTime departedBefore, int limit);
+
+    void createArchivePartitions(int year);
+
+    List<Long> archiveDepartedFlights(OffsetDateTime departedBefore, int limit);
 }
@@ -1,15 +1,35 @@
 package com.mslup.lot.lotcrud.repository.custom;
 
+import static com.mslup.lot.lotcrud.patcher.FlightPatcher.patchedColumns;
+
+import com.mslup.lot.lotcrud.dto.FlightView;
+import com.mslup.lot.lotcrud.filter.FlightCursor;
 import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.filter.FlightPageRequest;
+import com.mslup.lot.lotcrud.model.ArchivedFlight;
 import com.mslup.lot.lotcrud.model.Flight;
+import com.mslup.lot.lotcrud.patcher.FlightPatch;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CompoundSelection;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.AvailableHints;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -18,6 +38,23 @@ import org.springframework.stereotype.Repository;
 @Repository
 @RequiredArgsConstructor
 public class FlightRepositoryCustomImpl implements FlightRepositoryCustom {
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    /**
+     * Kolumny lotu zwracane po zmianie, w kolejności pól {@link #toFlight(Object[])}.
+     */
+    private static final Map<String, Class<?>> FLIGHT_COLUMNS = PartialUpdate.columns(
+        "id", Long.class,
+        "flight_number", String.class,
+        "origin_airport", String.class,
+        "destination_airport", String.class,
+        "departure_date_time", OffsetDateTime.class,
+        "arrival_date_time", OffsetDateTime.class,
+        "available_seats_count", Integer.class,
+        "version", Long.class,
+        "schedule_id", Long.class,
+        "schedule_date", LocalDate.class);
+
     private final EntityManager em;
 
 
@@ -33,6 +70,351 @@ public class FlightRepositoryCustomImpl implements FlightRepositoryCustom {
         CriteriaQuery<Flight> cq = cb.createQuery(Flight.class);
 
         Root<Flight> flight = cq.from(Flight.class);
+        List<Predicate> predicates = predicates(cb, flight, criteria);
+
+        cq.where(predicates.toArray(new Predicate[0]));
+
+        return em.createQuery(cq).getResultList();
+    }
+
+    /**
+     * Filtruje loty na podstawie określonych kryteriów i zwraca jedną stronę wyników.
+     * Stronicowanie odbywa się kursorem (keyset) na parze (data odlotu, ID), więc koszt
+     * pobrania dowolnej strony jest taki sam jak pierwszej.
+     * Zwracany jest jeden lot więcej niż rozmiar strony, aby można było stwierdzić,
+     * czy istnieje następna strona. Wiersze są mapowane bezpośrednio na projekcję,
+     * więc nie trafiają do kontekstu persystencji.
+     *
+     * @param criteria Kryteria filtrowania lotów.
+     * @param page     Żądana strona.
+     * @return Lista co najwyżej {@code page.size() + 1} lotów spełniających podane kryteria.
+     */
+    @Override
+    public List<FlightView> filterFlights(FlightFilterCriteria criteria, FlightPageRequest page) {
+        return filterFlights(Flight.class, criteria, page);
+    }
+
+    /**
+     * Filtruje loty, łącznie z lotami przeniesionymi do archiwum ({@link ArchivedFlight}),
+     * i zwraca jedną stronę wyników. Strona pobierana jest osobno z tablicy bieżącej
+     * i z archiwum (oba zapytania korzystają z kursora), a wyniki są scalane według
+     * daty odlotu i ID.
+     *
+     * @param criteria Kryteria filtrowania lotów.
+     * @param page     Żądana strona.
+     * @return Lista co najwyżej {@code page.size() + 1} lotów spełniających podane kryteria.
+     */
+    @Override
+    public List<FlightView> filterFlightsWithHistory(FlightFilterCriteria criteria,
+                                                     FlightPageRequest page) {
+        Comparator<FlightView> order = Comparator
+            .comparing(FlightView::departureDateTime, OffsetDateTime.timeLineOrder())
+            .thenComparingLong(FlightView::id);
+        return Stream.concat(
+                filterFlights(Flight.class, criteria, page).stream(),
+                filterFlights(ArchivedFlight.class, criteria, page).stream())
+            .sorted(page.direction().isAscending() ? order : order.reversed())
+            .limit(page.size() + 1L)
+            .toList();
+    }
+
+    private List<FlightView> filterFlights(Class<?> entity, FlightFilterCriteria criteria,
+                                           FlightPageRequest page) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<FlightView> cq = cb.createQuery(FlightView.class);
+
+        Root<?> flight = cq.from(entity);
+        cq.select(view(cb, flight));
+        List<Predicate> predicates = predicates(cb, flight, criteria);
+
+        Path<OffsetDateTime> departure = flight.get("departureDateTime");
+        Path<Long> id = flight.get("id");
+        boolean ascending = page.direction().isAscending();
+        FlightCursor after = page.after();
+        if (after != null) {
+            predicates.add(cb.or(
+                ascending
+                    ? cb.greaterThan(departure, after.departureDateTime())
+                    : cb.lessThan(departure, after.departureDateTime()),
+                cb.and(
+                    cb.equal(departure, after.departureDateTime()),
+                    ascending ? cb.greaterThan(id, after.id()) : cb.lessThan(id, after.id()))));
+        }
+
+        cq.where(predicates.toArray(new Predicate[0]));
+        cq.orderBy(ascending
+            ? List.of(cb.asc(departure), cb.asc(id))
+            : List.of(cb.desc(departure), cb.desc(id)));
+
+        return em.createQuery(cq)
+            .setHint(AvailableHints.HINT_READ_ONLY, true)
+            .setMaxResults(page.size() + 1)
+            .getResultList();
+    }
+
+    /**
+     * Filtruje loty na podstawie określonych kryteriów i zwraca je jako projekcje tylko do
+     * odczytu, posortowane według daty odlotu i ID.
+     *
+     * @param criteria Kryteria filtrowania lotów.
+     * @param limit    Maksymalna liczba zwracanych lotów.
+     * @return Lista co najwyżej {@code limit} pierwszych lotów spełniających podane kryteria.
+     */
+    @Override
+    public List<FlightView> filterFlightViews(FlightFilterCriteria criteria, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<FlightView> cq = cb.createQuery(FlightView.class);
+
+        Root<Flight> flight = cq.from(Flight.class);
+        cq.select(view(cb, flight));
+        cq.where(predicates(cb, flight, criteria).toArray(new Predicate[0]));
+        cq.orderBy(cb.asc(flight.get("departureDateTime")), cb.asc(flight.get("id")));
+
+        return em.createQuery(cq)
+            .setMaxResults(limit)
+            .setHint(AvailableHints.HINT_READ_ONLY, true)
+            .getResultList();
+    }
+
+    /**
+     * Strumieniuje loty spełniające podane kryteria, posortowane według daty odlotu i ID.
+     * Wiersze są pobierane z bazy w porcjach i mapowane bezpośrednio na projekcję,
+     * więc nie trafiają do kontekstu persystencji.
+     * Strumień musi zostać zamknięty i odczytany wewnątrz transakcji.
+     *
+     * @param criteria Kryteria filtrowania lotów.
+     * @return Strumień lotów spełniających podane kryteria.
+     */
+    @Override
+    public Stream<FlightView> streamFlights(FlightFilterCriteria criteria) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<FlightView> cq = cb.createQuery(FlightView.class);
+
+        Root<Flight> flight = cq.from(Flight.class);
+        cq.select(view(cb, flight));
+        cq.where(predicates(cb, flight, criteria).toArray(new Predicate[0]));
+        cq.orderBy(cb.asc(flight.get("departureDateTime")), cb.asc(flight.get("id")));
+
+        return em.createQuery(cq)
+            .setHint(AvailableHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+            .setHint(AvailableHints.HINT_READ_ONLY, true)
+            .getResultStream();
+    }
+
+    private static CompoundSelection<FlightView> view(CriteriaBuilder cb, Root<?> flight) {
+        return cb.construct(FlightView.class,
+            flight.get("id"),
+            flight.get("flightNumber"),
+            flight.get("originAirport"),
+            flight.get("destinationAirport"),
+            flight.get("departureDateTime"),
+            flight.get("arrivalDateTime"),
+            flight.get("availableSeatsCount"));
+    }
+
+    /**
+     * Zmienia podane kolumny lotu jednym zapytaniem UPDATE, bez wczytywania encji.
+     * Encja nie trafia do kontekstu persystencji ani nie jest usuwana z pamięci podręcznej
+     * drugiego poziomu - robi to wywołujący.
+     *
+     * @param id              ID lotu.
+     * @param columns         Zmieniane kolumny i ich nowe wartości.
+     * @param expectedVersion Oczekiwana wersja lotu lub {@code null}, jeśli wersja nie jest
+     *                        sprawdzana.
+     * @return Zmieniony lot lub pusty wynik, jeśli lot nie istnieje albo ma inną wersję.
+     */
+    @Override
+    public Optional<Flight> patchFlight(long id, Map<String, Object> columns,
+                                        Long expectedVersion) {
+        return PartialUpdate.execute(em, "flights", id, columns, expectedVersion, FLIGHT_COLUMNS)
+            .map(FlightRepositoryCustomImpl::toFlight);
+    }
+
+    /**
+     * Zmienia loty zapytaniami UPDATE zmieniającymi wiele wierszy naraz (po jednym na zestaw
+     * zmienianych kolumn), bez wczytywania encji. Encje nie trafiają do kontekstu persystencji
+     * ani nie są usuwane z pamięci podręcznej drugiego poziomu - robi to wywołujący.
+     *
+     * @param patches Zmiany lotów (o różnych ID).
+     * @return Zmienione loty; pomijane są loty, które nie istnieją albo mają inną wersję.
+     */
+    @Override
+    public List<Flight> patchFlights(List<FlightPatch> patches) {
+        List<PartialUpdate.Row> rows = patches.stream()
+            .map(patch -> new PartialUpdate.Row(patch.id(), patch.expectedVersion(),
+                patchedColumns(patch.valuesToPatch())))
+            .toList();
+        return PartialUpdate.executeMany(em, "flights", rows, FLIGHT_COLUMNS).stream()
+            .map(FlightRepositoryCustomImpl::toFlight)
+            .toList();
+    }
+
+    /**
+     * Zmienia wszystkie loty spełniające kryteria filtrowania jednym zapytaniem UPDATE,
+     * bez wczytywania encji. Encje nie trafiają do kontekstu persystencji ani nie są usuwane
+     * z pamięci podręcznej drugiego poziomu - robi to wywołujący.
+     *
+     * @param criteria Kryteria filtrowania lotów.
+     * @param columns  Zmieniane kolumny i ich nowe wartości.
+     * @param shift    Przesunięcie dat odlotu i przylotu lub {@code null}.
+     * @return Zmienione loty.
+     */
+    @Override
+    public List<Flight> patchFlights(FlightFilterCriteria criteria, Map<String, Object> columns,
+                                     Duration shift) {
+        StringBuilder sql = new StringBuilder("update flights set version = version + 1");
+        columns.keySet().forEach(column ->
+            sql.append(", ").append(column).append(" = :").append(column));
+        if (shift != null) {
+            sql.append(", departure_date_time = departure_date_time"
+                    + " + make_interval(secs => :shift)")
+                .append(", arrival_date_time = arrival_date_time"
+                    + " + make_interval(secs => :shift)");
+        }
+
+        Map<String, Object> conditions = new LinkedHashMap<>();
+        List<String> where = new ArrayList<>();
+        if (criteria.originAirport != null) {
+            where.add("origin_airport = :originAirport");
+            conditions.put("originAirport", criteria.originAirport);
+        }
+        if (criteria.destinationAirport != null) {
+            where.add("destination_airport = :destinationAirport");
+            conditions.put("destinationAirport", criteria.destinationAirport);
+        }
+        if (criteria.dateFrom != null) {
+            where.add("departure_date_time >= :dateFrom");
+            conditions.put("dateFrom", criteria.dateFrom);
+        }
+        if (criteria.dateTo != null) {
+            where.add("departure_date_time <= :dateTo");
+            conditions.put("dateTo", criteria.dateTo);
+        }
+        if (criteria.seatsCountFrom != null) {
+            where.add("available_seats_count >= :seatsCountFrom");
+            conditions.put("seatsCountFrom", criteria.seatsCountFrom);
+        }
+        if (criteria.seatsCountTo != null) {
+            where.add("available_seats_count <= :seatsCountTo");
+            conditions.put("seatsCountTo", criteria.seatsCountTo);
+        }
+        if (!where.isEmpty()) {
+            sql.append(" where ").append(String.join(" and ", where));
+        }
+        sql.append(" returning ").append(String.join(", ", FLIGHT_COLUMNS.keySet()));
+
+        NativeQuery<Object[]> query =
+            PartialUpdate.query(em, sql.toString(), "flights", FLIGHT_COLUMNS);
+        columns.forEach(query::setParameter);
+        conditions.forEach(query::setParameter);
+        if (shift != null) {
+            query.setParameter("shift", shift.toNanos() / 1e9);
+        }
+        return query.getResultList().stream()
+            .map(FlightRepositoryCustomImpl::toFlight)
+            .toList();
+    }
+
+    /**
+     * Usuwa jednym zapytaniem DELETE najwyżej {@code limit} lotów, które odleciały przed podaną
+     * datą, zaczynając od najstarszych. Rezerwacje i blokady miejsc usuwanych lotów usuwa baza
+     * danych. Loty zablokowane przez inne transakcje są pomijane, zamiast na nie czekać.
+     * Usunięte loty nie są usuwane z pamięci podręcznej drugiego poziomu - robi to wywołujący.
+     *
+     * @param departedBefore Data, przed którą odleciały usuwane loty.
+     * @param limit          Maksymalna liczba usuwanych lotów.
+     * @return ID usuniętych lotów.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> deleteDepartedFlights(OffsetDateTime departedBefore, int limit) {
+        return em.createNativeQuery("delete from flights where id in ("
+                + "select id from flights where departure_date_time < :departedBefore "
+                + "order by departure_date_time, id limit :limit for update skip locked) "
+                + "returning id", Long.class)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace("flights")
+            .setParameter("departedBefore", departedBefore)
+            .setParameter("limit", limit)
+            .getResultList();
+    }
+
+    /**
+     * Tworzy (jeśli jeszcze nie istnieją) partycje archiwum lotów i rezerwacji dla lotów
+     * odlatujących w podanym roku (UTC).
+     *
+     * @param year Rok.
+     */
+    @Override
+    public void createArchivePartitions(int year) {
+        String from = String.format("'%d-01-01 00:00:00+00'", year);
+        String to = String.format("'%d-01-01 00:00:00+00'", year + 1);
+        for (String table : List.of("flights_archive", "flight_passenger_archive")) {
+            em.createNativeQuery(String.format("create table if not exists %s_%d partition of %s "
+                    + "for values from (%s) to (%s)", table, year, table, from, to))
+                .executeUpdate();
+        }
+    }
+
+    /**
+     * Przenosi do archiwum najwyżej {@code limit} lotów, które odleciały przed podaną datą,
+     * razem z ich rezerwacjami, jednym zapytaniem: loty są usuwane z tablicy bieżącej, a ich
+     * wiersze i wiersze rezerwacji wstawiane do tablic archiwum. Rezerwacje i blokady miejsc
+     * w tablicach bieżących usuwa baza danych. Loty zablokowane przez inne transakcje są
+     * pomijane. Partycje archiwum dla lat przenoszonych lotów muszą istnieć
+     * ({@link #createArchivePartitions(int)}). Przeniesione loty nie są usuwane z pamięci
+     * podręcznej drugiego poziomu - robi to wywołujący.
+     *
+     * @param departedBefore Data, przed którą odleciały przenoszone loty.
+     * @param limit          Maksymalna liczba przenoszonych lotów.
+     * @return ID przeniesionych lotów.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> archiveDepartedFlights(OffsetDateTime departedBefore, int limit) {
+        return em.createNativeQuery("with moved as ("
+                + "delete from flights where id in ("
+                + "select id from flights where departure_date_time < :departedBefore "
+                + "order by departure_date_time, id limit :limit for update skip locked) "
+                + "returning id, flight_number, origin_airport, destination_airport, "
+                + "departure_date_time, arrival_date_time, available_seats_count, version, "
+                + "schedule_id, schedule_date), "
+                // Rezerwacje odczytywane są przed ich kaskadowym usunięciem (na końcu zapytania).
+                + "archived_bookings as ("
+                + "insert into flight_passenger_archive "
+                + "(flight_id, passenger_id, created_at, status, departure_date_time) "
+                + "select b.flight_id, b.passenger_id, b.created_at, b.status, "
+                + "m.departure_date_time "
+                + "from flight_passenger b join moved m on b.flight_id = m.id) "
+                + "insert into flights_archive (id, flight_number, origin_airport, "
+                + "destination_airport, departure_date_time, arrival_date_time, "
+                + "available_seats_count, version, schedule_id, schedule_date, archived_at) "
+                + "select m.*, now() from moved m returning id", Long.class)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace("flights")
+            .addSynchronizedQuerySpace("flight_passenger")
+            .setParameter("departedBefore", departedBefore)
+            .setParameter("limit", limit)
+            .getResultList();
+    }
+
+    private static Flight toFlight(Object[] row) {
+        return Flight.builder()
+            .id((Long) row[0])
+            .flightNumber((String) row[1])
+            .originAirport((String) row[2])
+            .destinationAirport((String) row[3])
+            .departureDateTime((OffsetDateTime) row[4])
+            .arrivalDateTime((OffsetDateTime) row[5])
+            .availableSeatsCount((Integer) row[6])
+            .version((Long) row[7])
+            .scheduleId((Long) row[8])
+            .scheduleDate((LocalDate) row[9])
+            .build();
+    }
+
+    private List<Predicate> predicates(CriteriaBuilder cb, Root<?> flight,
+                                       FlightFilterCriteria criteria) {
         List<Predicate> predicates = new ArrayList<>();
 
         if (criteria.originAirport != null) {
@@ -60,8 +442,6 @@ public class FlightRepositoryCustomImpl implements FlightRepositoryCustom {
                     criteria.seatsCountTo));
         }
 
-        cq.where(predicates.toArray(new Predicate[0]));
-
-        return em.createQuery(cq).getResultList();
+        return predicates;
     }
 }
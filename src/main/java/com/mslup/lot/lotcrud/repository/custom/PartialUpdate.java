@@ -0,0 +1,181 @@
+package com.mslup.lot.lotcrud.repository.custom;
+
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Zapytania UPDATE zmieniające tylko podane kolumny wierszy, z opcjonalnym sprawdzeniem
+ * wersji. Nowy stan wierszy zwracany jest klauzulą RETURNING, więc zmiana i odczyt wyniku
+ * to jedno zapytanie do bazy danych.
+ */
+final class PartialUpdate {
+    /**
+     * Maksymalna liczba wierszy w jednym zapytaniu zmieniającym wiele wierszy; ogranicza
+     * liczbę parametrów zapytania.
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    /**
+     * Zmiana jednego wiersza.
+     *
+     * @param id              ID wiersza.
+     * @param expectedVersion Oczekiwana wersja wiersza lub {@code null}, jeśli wersja nie
+     *                        jest sprawdzana.
+     * @param columns         Zmieniane kolumny i ich nowe wartości.
+     */
+    record Row(long id, Long expectedVersion, Map<String, Object> columns) {
+    }
+
+    /**
+     * Zmienia wiersz tablicy i zwiększa jego wersję.
+     *
+     * @param em              Menedżer encji.
+     * @param table           Nazwa tablicy.
+     * @param id              ID wiersza.
+     * @param columns         Zmieniane kolumny i ich nowe wartości.
+     * @param expectedVersion Oczekiwana wersja wiersza lub {@code null}, jeśli wersja nie
+     *                        jest sprawdzana.
+     * @param returning       Zwracane kolumny i ich typy.
+     * @return Wartości zwracanych kolumn (w kolejności {@code returning}) lub pusty wynik,
+     *     jeśli wiersz nie istnieje albo ma inną wersję.
+     */
+    static Optional<Object[]> execute(EntityManager em, String table, long id,
+                                      Map<String, Object> columns, Long expectedVersion,
+                                      Map<String, Class<?>> returning) {
+        StringBuilder sql = new StringBuilder("update ").append(table)
+            .append(" set version = version + 1");
+        columns.keySet().forEach(column ->
+            sql.append(", ").append(column).append(" = :").append(column));
+        sql.append(" where id = :id");
+        if (expectedVersion != null) {
+            sql.append(" and version = :version");
+        }
+        sql.append(" returning ").append(String.join(", ", returning.keySet()));
+
+        NativeQuery<Object[]> query = query(em, sql.toString(), table, returning);
+        columns.forEach(query::setParameter);
+        query.setParameter("id", id);
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        return query.getResultList().stream().findFirst();
+    }
+
+    /**
+     * Zmienia wiele wierszy tablicy i zwiększa ich wersje. Wiersze zmieniające ten sam zestaw
+     * kolumn zmieniane są jednym zapytaniem {@code UPDATE ... FROM (VALUES ...)}, więc liczba
+     * zapytań zależy od liczby różnych zestawów kolumn, a nie od liczby wierszy.
+     *
+     * @param em        Menedżer encji.
+     * @param table     Nazwa tablicy.
+     * @param rows      Zmiany wierszy (o różnych ID).
+     * @param returning Zwracane kolumny i ich typy.
+     * @return Wartości zwracanych kolumn zmienionych wierszy (w kolejności {@code returning});
+     *     wiersze, które nie istnieją albo mają inną wersję, są pomijane.
+     */
+    static List<Object[]> executeMany(EntityManager em, String table, List<Row> rows,
+                                      Map<String, Class<?>> returning) {
+        Map<List<Object>, List<Row>> groups = new LinkedHashMap<>();
+        for (Row row : rows) {
+            groups.computeIfAbsent(List.of(row.columns().keySet(), row.expectedVersion() != null),
+                group -> new ArrayList<>()).add(row);
+        }
+
+        List<Object[]> result = new ArrayList<>();
+        for (List<Row> group : groups.values()) {
+            for (int from = 0; from < group.size(); from += MAX_ROWS_PER_STATEMENT) {
+                result.addAll(executeGroup(em, table,
+                    group.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, group.size())),
+                    returning));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tworzy zapytanie zwracające podane kolumny, zsynchronizowane z tablicą (zmiany tablicy
+     * oczekujące w kontekście persystencji są zapisywane przed jego wykonaniem).
+     *
+     * @param em        Menedżer encji.
+     * @param sql       Treść zapytania.
+     * @param table     Nazwa tablicy.
+     * @param returning Zwracane kolumny i ich typy.
+     * @return Zapytanie.
+     */
+    @SuppressWarnings("unchecked")
+    static NativeQuery<Object[]> query(EntityManager em, String sql, String table,
+                                       Map<String, Class<?>> returning) {
+        NativeQuery<Object[]> query = em.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addSynchronizedQuerySpace(table);
+        returning.forEach(query::addScalar);
+        return query;
+    }
+
+    /**
+     * Tworzy uporządkowaną mapę zwracanych kolumn z par (nazwa kolumny, typ).
+     *
+     * @param namesAndTypes Na przemian nazwy kolumn i ich typy.
+     * @return Mapa nazwa kolumny → typ.
+     */
+    static Map<String, Class<?>> columns(Object... namesAndTypes) {
+        Map<String, Class<?>> columns = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndTypes.length; i += 2) {
+            columns.put((String) namesAndTypes[i], (Class<?>) namesAndTypes[i + 1]);
+        }
+        return Collections.unmodifiableMap(columns);
+    }
+
+    private static List<Object[]> executeGroup(EntityManager em, String table, List<Row> rows,
+                                               Map<String, Class<?>> returning) {
+        Set<String> columns = rows.get(0).columns().keySet();
+        boolean versioned = rows.get(0).expectedVersion() != null;
+
+        StringBuilder sql = new StringBuilder("update ").append(table)
+            .append(" t set version = t.version + 1");
+        columns.forEach(column ->
+            sql.append(", ").append(column).append(" = v.").append(column));
+        sql.append(" from (values ");
+        for (int i = 0; i < rows.size(); i++) {
+            sql.append(i == 0 ? "(" : ", (").append(":id").append(i);
+            if (versioned) {
+                sql.append(", :version").append(i);
+            }
+            for (String column : columns) {
+                sql.append(", :").append(column).append(i);
+            }
+            sql.append(')');
+        }
+        sql.append(") as v(id");
+        if (versioned) {
+            sql.append(", version");
+        }
+        columns.forEach(column -> sql.append(", ").append(column));
+        sql.append(") where t.id = v.id");
+        if (versioned) {
+            sql.append(" and t.version = v.version");
+        }
+        sql.append(" returning ").append(String.join(", ", returning.keySet().stream()
+            .map(column -> "t." + column)
+            .toList()));
+
+        NativeQuery<Object[]> query = query(em, sql.toString(), table, returning);
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            query.setParameter("id" + i, row.id());
+            if (versioned) {
+                query.setParameter("version" + i, row.expectedVersion());
+            }
+            for (Map.Entry<String, Object> column : row.columns().entrySet()) {
+                query.setParameter(column.getKey() + i, column.getValue());
+            }
+        }
+        return query.getResultList();
+    }
+}
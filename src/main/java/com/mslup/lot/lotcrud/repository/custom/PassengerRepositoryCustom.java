@@ -0,0 +1,28 @@
+package com.mslup.lot.lotcrud.repository.custom;
+
+import com.mslup.lot.lotcrud.model.Passenger;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Interfejs dla niestandardowej implementacji repozytorium pasażerów.
+ */
+public interface PassengerRepositoryCustom {
+    /**
+     * Pasażer dodany lub zmieniony przez {@link #upsertPassengers(List)}.
+     *
+     * @param id             ID pasażera.
+     * @param phoneNumberKey Znormalizowany numer telefonu pasażera.
+     * @param inserted       Czy pasażer został dodany (a nie zmieniony).
+     */
+    record UpsertedPassenger(long id, String phoneNumberKey, boolean inserted) {
+    }
+
+    Optional<Passenger> patchPassenger(long id, Map<String, Object> columns,
+                                       Long expectedVersion);
+
+    List<UpsertedPassenger> upsertPassengers(List<Passenger> passengers);
+
+    List<Long> deletePassenger(long id);
+}
@@ -0,0 +1,181 @@
+package com.mslup.lot.lotcrud.repository.custom;
+
+import com.mslup.lot.lotcrud.model.Passenger;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repozytorium implementujące niestandardowe zapytania w tablicy pasażerów.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PassengerRepositoryCustomImpl implements PassengerRepositoryCustom {
+    /**
+     * Kolumny pasażera zwracane po zmianie, w kolejności pól {@link #toPassenger(Object[])}.
+     */
+    private static final Map<String, Class<?>> PASSENGER_COLUMNS = PartialUpdate.columns(
+        "id", Long.class,
+        "first_name", String.class,
+        "last_name", String.class,
+        "phone_number", String.class,
+        "version", Long.class);
+
+    /**
+     * Kolumny zwracane przez {@link #upsertPassengers(List)}.
+     */
+    private static final Map<String, Class<?>> UPSERT_COLUMNS = PartialUpdate.columns(
+        "id", Long.class,
+        "phone_number_key", String.class,
+        "inserted", Boolean.class);
+
+    /**
+     * Maksymalna liczba pasażerów w jednym zapytaniu; ogranicza liczbę parametrów zapytania.
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final EntityManager em;
+
+    /**
+     * Zmienia podane kolumny pasażera jednym zapytaniem UPDATE, bez wczytywania encji.
+     * Encja nie trafia do kontekstu persystencji ani nie jest usuwana z pamięci podręcznej
+     * drugiego poziomu - robi to wywołujący.
+     *
+     * @param id              ID pasażera.
+     * @param columns         Zmieniane kolumny i ich nowe wartości.
+     * @param expectedVersion Oczekiwana wersja pasażera lub {@code null}, jeśli wersja nie
+     *                        jest sprawdzana.
+     * @return Zmieniony pasażer lub pusty wynik, jeśli pasażer nie istnieje albo ma inną
+     *     wersję.
+     */
+    @Override
+    public Optional<Passenger> patchPassenger(long id, Map<String, Object> columns,
+                                              Long expectedVersion) {
+        return PartialUpdate.execute(em, "passengers", id, columns, expectedVersion,
+                PASSENGER_COLUMNS)
+            .map(PassengerRepositoryCustomImpl::toPassenger);
+    }
+
+    /**
+     * Dodaje pasażerów lub, jeśli pasażer o tym samym znormalizowanym numerze telefonu już
+     * istnieje, zmienia jego dane - zapytaniami {@code INSERT ... ON CONFLICT DO UPDATE}
+     * obejmującymi wiele wierszy naraz, bez wczytywania encji. Pasażerowie, których dane się
+     * nie zmieniły, nie są zmieniani ani zwracani. Zmienieni pasażerowie nie są usuwani
+     * z pamięci podręcznej drugiego poziomu - robi to wywołujący.
+     *
+     * <p>Identyfikatory nowych pasażerów pobierane są z sekwencji pulami, tak jak robi to
+     * Hibernate dla {@link Passenger}, więc nie kolidują z identyfikatorami nadawanymi przez
+     * Hibernate.
+     *
+     * @param passengers Pasażerowie o różnych, niepustych znormalizowanych numerach telefonu.
+     * @return Dodani i zmienieni pasażerowie.
+     */
+    @Override
+    public List<UpsertedPassenger> upsertPassengers(List<Passenger> passengers) {
+        List<UpsertedPassenger> result = new ArrayList<>();
+        for (int from = 0; from < passengers.size(); from += MAX_ROWS_PER_STATEMENT) {
+            result.addAll(upsert(passengers.subList(from,
+                Math.min(from + MAX_ROWS_PER_STATEMENT, passengers.size()))));
+        }
+        return result;
+    }
+
+    /**
+     * Usuwa pasażera jednym zapytaniem, bez wczytywania encji ani jego rezerwacji.
+     * Rezerwacje pasażera usuwa baza danych (klucz obcy {@code on delete cascade}), a zapytanie
+     * zwraca ID lotów, w których były, aby wywołujący mógł zwolnić miejsca. Pasażer nie jest
+     * usuwany z pamięci podręcznej drugiego poziomu - robi to wywołujący.
+     *
+     * @param id ID pasażera.
+     * @return ID lotów, w których pasażer miał rezerwacje (pusta lista, jeśli pasażer nie
+     *     istniał).
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> deletePassenger(long id) {
+        return em.createNativeQuery("with deleted as (delete from passengers where id = :id "
+                + "returning id) select b.flight_id from flight_passenger b "
+                + "join deleted d on b.passenger_id = d.id", Long.class)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace("passengers")
+            .addSynchronizedQuerySpace("flight_passenger")
+            .setParameter("id", id)
+            .getResultList();
+    }
+
+    private List<UpsertedPassenger> upsert(List<Passenger> passengers) {
+        StringBuilder sql = new StringBuilder("insert into passengers as p (id, first_name, "
+            + "last_name, phone_number, phone_number_key, version) values ");
+        for (int i = 0; i < passengers.size(); i++) {
+            sql.append(i == 0 ? "" : ", ")
+                .append("(:id").append(i)
+                .append(", :firstName").append(i)
+                .append(", :lastName").append(i)
+                .append(", :phoneNumber").append(i)
+                .append(", :phoneNumberKey").append(i)
+                .append(", 0)");
+        }
+        sql.append(" on conflict (phone_number_key) do update set"
+            + " first_name = excluded.first_name,"
+            + " last_name = excluded.last_name,"
+            + " phone_number = excluded.phone_number,"
+            + " version = p.version + 1"
+            + " where (p.first_name, p.last_name, p.phone_number)"
+            + " is distinct from (excluded.first_name, excluded.last_name, excluded.phone_number)"
+            // xmax = 0 tylko dla wierszy dodanych przez to zapytanie.
+            + " returning p.id, p.phone_number_key, (p.xmax = 0) as inserted");
+
+        NativeQuery<Object[]> query =
+            PartialUpdate.query(em, sql.toString(), "passengers", UPSERT_COLUMNS);
+        List<Long> ids = allocateIds(passengers.size());
+        for (int i = 0; i < passengers.size(); i++) {
+            Passenger passenger = passengers.get(i);
+            query.setParameter("id" + i, ids.get(i));
+            query.setParameter("firstName" + i, passenger.getFirstName());
+            query.setParameter("lastName" + i, passenger.getLastName());
+            query.setParameter("phoneNumber" + i, passenger.getPhoneNumber());
+            query.setParameter("phoneNumberKey" + i, passenger.getPhoneNumberKey());
+        }
+        return query.getResultList().stream()
+            .map(row -> new UpsertedPassenger((Long) row[0], (String) row[1], (Boolean) row[2]))
+            .toList();
+    }
+
+    /**
+     * Pobiera z sekwencji identyfikatory pasażerów. Każda wartość sekwencji to koniec puli
+     * {@link Passenger#ID_ALLOCATION_SIZE} identyfikatorów (jak w optymalizatorze pooled).
+     */
+    private List<Long> allocateIds(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            int pools = Math.ceilDiv(count - ids.size(), Passenger.ID_ALLOCATION_SIZE);
+            List<?> lastIds = em.createNativeQuery(
+                    "select nextval('passenger_seq') from generate_series(1, :pools)")
+                .setParameter("pools", pools)
+                .getResultList();
+            for (Object lastId : lastIds) {
+                long last = ((Number) lastId).longValue();
+                for (long id = Math.max(1, last - Passenger.ID_ALLOCATION_SIZE + 1);
+                     id <= last && ids.size() < count; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static Passenger toPassenger(Object[] row) {
+        return Passenger.builder()
+            .id((Long) row[0])
+            .firstName((String) row[1])
+            .lastName((String) row[2])
+            .phoneNumber((String) row[3])
+            .version((Long) row[4])
+            .build();
+    }
+}
@@ -0,0 +1,161 @@
+package com.mslup.lot.lotcrud.schedule;
+
+import com.mslup.lot.lotcrud.dto.FlightView;
+import com.mslup.lot.lotcrud.event.FlightChangedEvent;
+import com.mslup.lot.lotcrud.event.FlightScheduleChangedEvent;
+import com.mslup.lot.lotcrud.model.Flight;
+import com.mslup.lot.lotcrud.model.FlightSchedule;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import com.mslup.lot.lotcrud.repository.FlightScheduleRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rozwija rozkłady lotów ({@link FlightSchedule}) w pojedyncze loty w tle.
+ *
+ * <p>Rozkład rozwijany jest porcjami po {@link ScheduleProperties#chunkDays()} dni, każda
+ * w osobnej transakcji, aż do końca okresu obowiązywania lub horyzontu
+ * ({@link ScheduleProperties#horizon()}). Po każdej porcji zapisywany jest ostatni rozwinięty
+ * dzień ({@link FlightSchedule#getExpandedThrough()}), więc przerwane rozwijanie jest
+ * wznawiane od miejsca, w którym się zatrzymało. Dni, dla których loty już istnieją,
+ * są pomijane, a unikalny indeks (rozkład, dzień) chroni przed duplikatami.
+ *
+ * <p>Rozwijanie uruchamiane jest po zatwierdzeniu zmiany rozkładu
+ * ({@link FlightScheduleChangedEvent}) i cyklicznie, dzięki czemu horyzont przesuwa się
+ * z upływem czasu.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScheduleExpander {
+    private final FlightScheduleRepository flightScheduleRepository;
+    private final FlightRepository flightRepository;
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduleProperties properties;
+
+    private ScheduledFuture<?> expandTask;
+
+    @PostConstruct
+    void start() {
+        if (properties.enabled()) {
+            expandTask = taskScheduler.scheduleWithFixedDelay(this::expandPending,
+                properties.expandInterval());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (expandTask != null) {
+            expandTask.cancel(false);
+        }
+    }
+
+    /**
+     * Rozwija rozkład po zatwierdzeniu jego zmiany, bez czekania na cykliczne rozwijanie.
+     *
+     * @param event Zdarzenie zmiany rozkładu.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(FlightScheduleChangedEvent event) {
+        if (properties.enabled()) {
+            taskScheduler.schedule(() -> expand(event.scheduleId()), Instant.now());
+        }
+    }
+
+    /**
+     * Rozwija wszystkie rozkłady, które nie zostały jeszcze rozwinięte do końca horyzontu.
+     */
+    void expandPending() {
+        LocalDate horizonEnd = LocalDate.now(ZoneOffset.UTC)
+            .plusDays(properties.horizon().toDays() + 1);
+        flightScheduleRepository.findPendingIds(horizonEnd).forEach(this::expand);
+    }
+
+    /**
+     * Rozwija rozkład porcjami, aż do końca okresu obowiązywania lub horyzontu.
+     * Błąd jest zapisywany w logu, a rozwijanie zostanie ponowione w kolejnym cyklu.
+     *
+     * @param scheduleId ID rozkładu.
+     */
+    public void expand(long scheduleId) {
+        try {
+            while (Boolean.TRUE.equals(transactionTemplate.execute(
+                status -> expandChunk(scheduleId)))) {
+                // kolejna porcja w osobnej transakcji
+            }
+        } catch (RuntimeException e) {
+            log.warn("Expanding flight schedule {} failed, will retry", scheduleId, e);
+        }
+    }
+
+    /**
+     * Tworzy loty rozkładu dla kolejnej porcji dni.
+     *
+     * @param scheduleId ID rozkładu.
+     * @return {@code true}, jeśli rozkład wymaga rozwinięcia kolejnej porcji.
+     */
+    private boolean expandChunk(long scheduleId) {
+        FlightSchedule schedule = flightScheduleRepository.findByIdForUpdate(scheduleId)
+            .orElse(null);
+        if (schedule == null) {
+            return false;
+        }
+
+        LocalDate today = LocalDate.now(ZoneId.of(schedule.getTimeZone()));
+        LocalDate end = min(schedule.getValidTo(),
+            today.plusDays(properties.horizon().toDays()));
+        LocalDate from = max(max(schedule.getExpandedThrough().plusDays(1),
+            schedule.getValidFrom()), today);
+        if (from.isAfter(end)) {
+            if (today.isAfter(schedule.getValidTo())
+                && schedule.getExpandedThrough().isBefore(schedule.getValidTo())) {
+                // Rozkład już nie obowiązuje - nie ma czego rozwijać.
+                flightScheduleRepository.updateExpandedThrough(scheduleId,
+                    schedule.getValidTo());
+            }
+            return false;
+        }
+        LocalDate to = min(end, from.plusDays(properties.chunkDays() - 1L));
+
+        Set<LocalDate> existingDates = flightRepository.findScheduleDates(scheduleId, from, to);
+        OffsetDateTime now = OffsetDateTime.now();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (!schedule.operatesOn(date) || existingDates.contains(date)
+                || !schedule.departureOn(date).isAfter(now)) {
+                continue;
+            }
+            Flight flight = schedule.flightOn(date);
+            em.persist(flight);
+            eventPublisher.publishEvent(
+                new FlightChangedEvent(flight.getId(), FlightView.of(flight)));
+        }
+        flightScheduleRepository.updateExpandedThrough(scheduleId, to);
+        return to.isBefore(end);
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,21 @@
+package com.mslup.lot.lotcrud.schedule;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja rozwijania rozkładów lotów (prefiks {@code lotcrud.schedules}).
+ *
+ * @param enabled        Czy rozkłady są rozwijane w tle.
+ * @param expandInterval Odstęp między sprawdzeniami, czy rozkłady wymagają rozwinięcia
+ *                       (np. o kolejny dzień horyzontu).
+ * @param horizon        Jak daleko naprzód tworzone są loty z rozkładów.
+ * @param chunkDays      Liczba dni rozkładu rozwijanych w jednej transakcji.
+ */
+@ConfigurationProperties(prefix = "lotcrud.schedules")
+public record ScheduleProperties(@DefaultValue("true") boolean enabled,
+                                 @DefaultValue("1m") Duration expandInterval,
+                                 @DefaultValue("400d") Duration horizon,
+                                 @DefaultValue("31") int chunkDays) {
+}
@@ -0,0 +1,229 @@
+package com.mslup.lot.lotcrud.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mslup.lot.lotcrud.dto.CacheStatsDto;
+import com.mslup.lot.lotcrud.dto.FlightView;
+import com.mslup.lot.lotcrud.event.FlightChangedEvent;
+import com.mslup.lot.lotcrud.event.SeatsChangedEvent;
+import com.mslup.lot.lotcrud.filter.FlightCursor;
+import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.filter.FlightPageRequest;
+import com.mslup.lot.lotcrud.filter.FlightSearchKey;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import jakarta.annotation.PostConstruct;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Pamięć podręczna wyników wyszukiwania lotów na trasie.
+ *
+ * <p>Wyniki zapamiętywane są pod kanonicznym kluczem {@link FlightSearchKey}: dla klucza
+ * przechowywane są wszystkie loty na trasie w zaokrąglonym przedziale dat, a dokładne kryteria
+ * (daty, liczba miejsc) i stronicowanie stosowane są w pamięci. Wyszukiwania w otwartym
+ * przedziale dat oraz wyniki liczące więcej niż {@link SearchCacheProperties#maxSearchFlights()}
+ * lotów obsługuje baza danych. Łączna liczba zapamiętanych lotów jest ograniczona, a o usuwaniu
+ * wyników decyduje algorytm W-TinyLFU biblioteki Caffeine.
+ *
+ * <p>Unieważnianie jest wybiórcze: zmiana lotu usuwa tylko wyniki, które go zawierają
+ * (indeks lot → wyniki), oraz wyniki dla trasy i przedziału dat, do których lot mógłby
+ * teraz należeć (indeks trasa → wyniki). Wynik wczytany równolegle z unieważnieniem nie jest
+ * zapamiętywany.
+ */
+@Component
+@RequiredArgsConstructor
+public class FlightSearchCache {
+    /**
+     * Nazwa pamięci podręcznej w statystykach.
+     */
+    public static final String NAME = "flight-search";
+
+    private final FlightRepository flightRepository;
+    private final SearchCacheProperties properties;
+
+    private final Map<Long, Set<CachedSearch>> byFlight = new ConcurrentHashMap<>();
+    private final Map<Route, Set<CachedSearch>> byRoute = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private Cache<FlightSearchKey, CachedSearch> results;
+
+    /**
+     * Zapamiętany wynik. Porównywany według tożsamości, dzięki czemu indeksy mogą bezpiecznie
+     * usuwać wpisy wyników, które zostały już zastąpione nowszymi. Wynik zbyt duży, by go
+     * zapamiętać, nie zawiera lotów, a jedynie kieruje wyszukiwania z tym kluczem do bazy danych.
+     */
+    private static final class CachedSearch {
+        private final FlightSearchKey key;
+        private final List<FlightView> flights;
+        private final boolean tooLarge;
+
+        private CachedSearch(FlightSearchKey key, List<FlightView> flights, boolean tooLarge) {
+            this.key = key;
+            this.flights = flights;
+            this.tooLarge = tooLarge;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        results = Caffeine.newBuilder()
+            .maximumWeight(properties.maxFlights())
+            .<FlightSearchKey, CachedSearch>weigher((key, search) -> search.flights.size() + 1)
+            .expireAfterWrite(properties.ttl())
+            .removalListener((key, search, cause) -> {
+                if (search != null) {
+                    unindex(search);
+                }
+            })
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Filtruje loty na podstawie kryteriów i zwraca jedną stronę wyników, tak jak
+     * {@link FlightRepository#filterFlights(FlightFilterCriteria, FlightPageRequest)}.
+     * Wyszukiwania na trasie obsługiwane są z pamięci podręcznej, pozostałe przez bazę danych.
+     *
+     * @param criteria Znormalizowane kryteria filtrowania lotów.
+     * @param page     Żądana strona.
+     * @return Lista co najwyżej {@code page.size() + 1} lotów spełniających podane kryteria.
+     */
+    public List<FlightView> filterFlights(FlightFilterCriteria criteria, FlightPageRequest page) {
+        FlightSearchKey key = properties.enabled() ? criteria.cacheKey(properties.dateBucket())
+            : null;
+        if (key == null) {
+            return flightRepository.filterFlights(criteria, page);
+        }
+
+        CachedSearch search = results.getIfPresent(key);
+        if (search == null) {
+            search = load(key);
+        }
+        if (search.tooLarge) {
+            return flightRepository.filterFlights(criteria, page);
+        }
+
+        boolean ascending = page.direction().isAscending();
+        FlightCursor after = page.after();
+        return (ascending ? search.flights : search.flights.reversed()).stream()
+            .filter(criteria::matches)
+            .filter(flight -> after == null || isAfter(flight, after, ascending))
+            .limit(page.size() + 1L)
+            .toList();
+    }
+
+    /**
+     * Pobiera statystyki pamięci podręcznej.
+     *
+     * @return Statystyki lub pusty wynik, jeśli pamięć podręczna jest wyłączona.
+     */
+    public Optional<CacheStatsDto> getStatistics() {
+        return properties.enabled() ? Optional.of(CacheStatsDto.of(NAME, results))
+            : Optional.empty();
+    }
+
+    /**
+     * Unieważnia wyniki zawierające loty, w których zmieniła się liczba miejsc.
+     *
+     * @param event Zdarzenie zmiany liczby miejsc.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsChanged(SeatsChangedEvent event) {
+        invalidations.incrementAndGet();
+        event.flightIds().forEach(this::invalidateFlight);
+    }
+
+    /**
+     * Unieważnia wyniki, które zawierały zmieniony lot lub do których lot mógłby teraz należeć.
+     *
+     * @param event Zdarzenie zmiany lotu.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        invalidations.incrementAndGet();
+        invalidateFlight(event.flightId());
+
+        FlightView current = event.current();
+        if (current != null) {
+            byRoute.getOrDefault(Route.of(current), Set.of()).stream()
+                .filter(search -> search.key.covers(current))
+                .forEach(this::invalidate);
+        }
+    }
+
+    private CachedSearch load(FlightSearchKey key) {
+        long stamp = invalidations.get();
+        List<FlightView> flights = flightRepository.filterFlightViews(key.toCriteria(),
+            properties.maxSearchFlights() + 1);
+        CachedSearch search = flights.size() > properties.maxSearchFlights()
+            ? new CachedSearch(key, List.of(), true)
+            : new CachedSearch(key, flights, false);
+
+        index(search);
+        results.put(key, search);
+        if (invalidations.get() != stamp) {
+            // Wynik mógł zostać wczytany przed zatwierdzeniem zmiany, która właśnie
+            // unieważniała pamięć podręczną, więc nie może w niej pozostać.
+            invalidate(search);
+        }
+        return search;
+    }
+
+    private void invalidateFlight(long flightId) {
+        byFlight.getOrDefault(flightId, Set.of()).forEach(this::invalidate);
+    }
+
+    private void invalidate(CachedSearch search) {
+        results.asMap().remove(search.key, search);
+        unindex(search);
+    }
+
+    private void index(CachedSearch search) {
+        add(byRoute, route(search.key), search);
+        for (FlightView flight : search.flights) {
+            add(byFlight, flight.id(), search);
+        }
+    }
+
+    private void unindex(CachedSearch search) {
+        remove(byRoute, route(search.key), search);
+        for (FlightView flight : search.flights) {
+            remove(byFlight, flight.id(), search);
+        }
+    }
+
+    private static <K> void add(Map<K, Set<CachedSearch>> index, K key, CachedSearch search) {
+        index.compute(key, (k, searches) -> {
+            Set<CachedSearch> updated = searches != null ? searches : ConcurrentHashMap.newKeySet();
+            updated.add(search);
+            return updated;
+        });
+    }
+
+    private static <K> void remove(Map<K, Set<CachedSearch>> index, K key, CachedSearch search) {
+        index.computeIfPresent(key, (k, searches) -> {
+            searches.remove(search);
+            return searches.isEmpty() ? null : searches;
+        });
+    }
+
+    private static Route route(FlightSearchKey key) {
+        return new Route(key.originAirport(), key.destinationAirport());
+    }
+
+    private static boolean isAfter(FlightView flight, FlightCursor cursor, boolean ascending) {
+        int comparison = OffsetDateTime.timeLineOrder()
+            .compare(flight.departureDateTime(), cursor.departureDateTime());
+        if (comparison == 0) {
+            comparison = Long.compare(flight.id(), cursor.id());
+        }
+        return ascending ? comparison > 0 : comparison < 0;
+    }
+}
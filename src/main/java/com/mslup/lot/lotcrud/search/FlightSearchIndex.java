@@ -0,0 +1,316 @@
+package com.mslup.lot.lotcrud.search;
+
+import com.mslup.lot.lotcrud.dto.FlightView;
+import com.mslup.lot.lotcrud.dto.SearchIndexStatsDto;
+import com.mslup.lot.lotcrud.event.FlightChangedEvent;
+import com.mslup.lot.lotcrud.event.FlightViewHolder;
+import com.mslup.lot.lotcrud.event.FlightViewRefresher;
+import com.mslup.lot.lotcrud.filter.FlightCursor;
+import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.filter.FlightPageRequest;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Indeks wyszukiwania lotów w pamięci, obejmujący wszystkie loty, które jeszcze nie odleciały.
+ *
+ * <p>Loty pogrupowane są według tras (lotnisko początkowe → docelowe), a w ramach trasy
+ * przechowywane w tablicach typów prostych posortowanych według daty odlotu
+ * ({@link RouteFlights}). Wyszukiwanie na trasie z przedziałem dat to wyszukiwanie binarne
+ * i odczyt kolejnych elementów tablic, bez zapytań do bazy danych.
+ *
+ * <p>Indeks wczytywany jest przy starcie i aktualizowany po zatwierdzeniu zmian lotów
+ * ({@link FlightChangedEvent}) i liczby miejsc ({@link FlightViewRefresher}). Loty, które
+ * odleciały, są okresowo usuwane. Zmiany zatwierdzone w trakcie wczytywania są zapamiętywane
+ * i po wczytaniu indeksu ponownie pobierane z bazy danych, bo wczytane dane mogą ich jeszcze
+ * nie zawierać. Wyszukiwania, których nie da się obsłużyć z indeksu
+ * (bez trasy lub daty początkowej albo obejmujące przeszłość), obsługuje baza danych.
+ */
+@Component
+@RequiredArgsConstructor
+public class FlightSearchIndex implements FlightViewHolder {
+    /**
+     * Szacowany rozmiar wpisu mapy ID lotu → trasa (węzeł mapy i obiekt {@code Long}).
+     */
+    private static final int FLIGHT_ENTRY_BYTES = 56;
+
+    /**
+     * Szacowany rozmiar wpisu trasy (węzeł mapy, klucz trasy i obiekt listy lotów).
+     */
+    private static final int ROUTE_ENTRY_BYTES = 160;
+
+    private final FlightRepository flightRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final TaskScheduler taskScheduler;
+    private final SearchIndexProperties properties;
+
+    private final Map<Route, RouteFlights> routes = new ConcurrentHashMap<>();
+    private final Map<Long, Route> flightRoutes = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * ID lotów zmienionych przed ustawieniem {@link #coveredFrom}, które trzeba ponownie
+     * pobrać po wczytaniu indeksu.
+     */
+    private final Set<Long> changedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Data, od której indeks zawiera wszystkie loty; {@code null}, dopóki indeks nie jest
+     * wczytany.
+     */
+    private volatile OffsetDateTime coveredFrom;
+    private ScheduledFuture<?> pruneTask;
+
+    @PostConstruct
+    void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        load();
+        pruneTask = taskScheduler.scheduleWithFixedDelay(this::prune,
+            properties.pruneInterval());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (pruneTask != null) {
+            pruneTask.cancel(false);
+        }
+    }
+
+    /**
+     * Filtruje loty na podstawie kryteriów i zwraca jedną stronę wyników, tak jak
+     * {@link FlightRepository#filterFlights(FlightFilterCriteria, FlightPageRequest)},
+     * jeśli wyszukiwanie można obsłużyć z indeksu.
+     *
+     * @param criteria Znormalizowane kryteria filtrowania lotów.
+     * @param page     Żądana strona.
+     * @return Lista co najwyżej {@code page.size() + 1} lotów lub pusty wynik, jeśli
+     *     wyszukiwanie trzeba wykonać w bazie danych.
+     */
+    public Optional<List<FlightView>> filterFlights(FlightFilterCriteria criteria,
+                                                    FlightPageRequest page) {
+        OffsetDateTime covered = coveredFrom;
+        if (covered == null || criteria.originAirport == null
+            || criteria.destinationAirport == null || criteria.dateFrom == null
+            || criteria.dateFrom.isBefore(covered)) {
+            return Optional.empty();
+        }
+
+        RouteFlights flights = routes.getOrDefault(
+            new Route(criteria.originAirport, criteria.destinationAirport), RouteFlights.EMPTY);
+        long from = RouteFlights.epochNanos(criteria.dateFrom);
+        long to = criteria.dateTo == null ? Long.MAX_VALUE
+            : RouteFlights.epochNanos(criteria.dateTo);
+        int limit = page.size() + 1;
+        FlightCursor after = page.after();
+        List<FlightView> result = new ArrayList<>(Math.min(limit, flights.size()));
+
+        if (page.direction().isAscending()) {
+            int i = flights.firstAtOrAfter(from, Long.MIN_VALUE);
+            if (after != null) {
+                i = Math.max(i, flights.firstAfter(
+                    RouteFlights.epochNanos(after.departureDateTime()), after.id()));
+            }
+            for (; i < flights.size() && flights.departure(i) <= to && result.size() < limit;
+                 i++) {
+                addIfMatches(result, flights, i, criteria);
+            }
+        } else {
+            int i = flights.firstAfter(to, Long.MAX_VALUE) - 1;
+            if (after != null) {
+                i = Math.min(i, flights.firstAtOrAfter(
+                    RouteFlights.epochNanos(after.departureDateTime()), after.id()) - 1);
+            }
+            for (; i >= 0 && flights.departure(i) >= from && result.size() < limit; i--) {
+                addIfMatches(result, flights, i, criteria);
+            }
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Pobiera statystyki indeksu.
+     *
+     * @return Statystyki lub pusty wynik, jeśli indeks jest wyłączony.
+     */
+    public Optional<SearchIndexStatsDto> getStatistics() {
+        OffsetDateTime covered = coveredFrom;
+        if (covered == null) {
+            return Optional.empty();
+        }
+        long flights = flightRoutes.size();
+        long bytes = (long) routes.size() * ROUTE_ENTRY_BYTES + flights * FLIGHT_ENTRY_BYTES
+            + routes.values().stream().mapToLong(RouteFlights::estimatedBytes).sum();
+        return Optional.of(new SearchIndexStatsDto(routes.size(), flights, covered, bytes,
+            flights == 0 ? 0 : (double) bytes / flights));
+    }
+
+    /**
+     * Aktualizuje lot w indeksie po zatwierdzeniu jego zmiany.
+     *
+     * @param event Zdarzenie zmiany lotu.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        update(event.flightId(), event.current());
+    }
+
+    /**
+     * Sprawdza, czy indeks przechowuje lot. Przed wczytaniem włączonego indeksu dotyczy
+     * to każdego lotu, aby zmiany liczby miejsc w trakcie wczytywania nie zostały pominięte.
+     *
+     * @param flightId ID lotu.
+     * @return {@code true}, jeśli indeks zawiera lot lub jest jeszcze wczytywany.
+     */
+    @Override
+    public boolean holds(long flightId) {
+        return coveredFrom != null ? flightRoutes.containsKey(flightId) : properties.enabled();
+    }
+
+    @Override
+    public void refresh(long flightId, FlightView current) {
+        update(flightId, current);
+    }
+
+    private void update(long flightId, FlightView current) {
+        if (coveredFrom != null) {
+            apply(flightId, current);
+        } else if (properties.enabled()) {
+            changedDuringLoad.add(flightId);
+            if (coveredFrom != null) {
+                // Wczytywanie zakończyło się po sprawdzeniu, więc mogło już nie zauważyć
+                // tego lotu.
+                applyChangedDuringLoad();
+            }
+        }
+    }
+
+    private void load() {
+        OffsetDateTime from = OffsetDateTime.now(ZoneOffset.UTC);
+        Map<Route, List<FlightView>> loaded = new HashMap<>();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        writeLock.lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<FlightView> flights = flightRepository.streamFlights(
+                    FlightFilterCriteria.builder().dateFrom(from).build())) {
+                    flights.forEach(flight -> loaded
+                        .computeIfAbsent(Route.of(flight), route -> new ArrayList<>())
+                        .add(flight));
+                }
+            });
+            loaded.forEach((route, flights) -> {
+                routes.put(route, RouteFlights.of(flights));
+                flights.forEach(flight -> flightRoutes.put(flight.id(), route));
+            });
+            coveredFrom = from;
+            applyChangedDuringLoad();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Pobiera ponownie z bazy danych loty zmienione w trakcie wczytywania indeksu. Zmiany
+     * zatwierdzone później aktualizują indeks same, po zwolnieniu blokady zapisu.
+     */
+    private void applyChangedDuringLoad() {
+        writeLock.lock();
+        try {
+            List<Long> flightIds = List.copyOf(changedDuringLoad);
+            if (flightIds.isEmpty()) {
+                return;
+            }
+            changedDuringLoad.removeAll(flightIds);
+            Map<Long, FlightView> current = new HashMap<>();
+            flightRepository.findViewsByIdIn(flightIds)
+                .forEach(flight -> current.put(flight.id(), flight));
+            flightIds.forEach(flightId -> apply(flightId, current.get(flightId)));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Usuwa z indeksu loty, które już odleciały.
+     */
+    void prune() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        long nowNanos = RouteFlights.epochNanos(now);
+        writeLock.lock();
+        try {
+            for (Route route : List.copyOf(routes.keySet())) {
+                RouteFlights flights = routes.get(route);
+                RouteFlights remaining = flights.withoutDepartedBefore(nowNanos);
+                for (int i = 0; i < flights.size() - remaining.size(); i++) {
+                    flightRoutes.remove(flights.id(i));
+                }
+                put(route, remaining);
+            }
+            coveredFrom = now;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void apply(long flightId, FlightView current) {
+        writeLock.lock();
+        try {
+            OffsetDateTime covered = coveredFrom;
+            Route oldRoute = flightRoutes.get(flightId);
+            Route newRoute = current != null && !current.departureDateTime().isBefore(covered)
+                ? Route.of(current) : null;
+
+            if (oldRoute != null && !Objects.equals(oldRoute, newRoute)) {
+                put(oldRoute, routes.get(oldRoute).without(flightId));
+                flightRoutes.remove(flightId);
+            }
+            if (newRoute != null) {
+                put(newRoute, routes.getOrDefault(newRoute, RouteFlights.EMPTY).with(current));
+                flightRoutes.put(flightId, newRoute);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void put(Route route, RouteFlights flights) {
+        if (flights.size() == 0) {
+            routes.remove(route);
+        } else {
+            routes.put(route, flights);
+        }
+    }
+
+    private static void addIfMatches(List<FlightView> result, RouteFlights flights, int index,
+                                     FlightFilterCriteria criteria) {
+        int seats = flights.seats(index);
+        if ((criteria.seatsCountFrom == null || seats >= criteria.seatsCountFrom)
+            && (criteria.seatsCountTo == null || seats <= criteria.seatsCountTo)) {
+            result.add(flights.view(index, criteria.originAirport, criteria.destinationAirport));
+        }
+    }
+}
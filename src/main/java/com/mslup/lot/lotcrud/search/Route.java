@@ -0,0 +1,16 @@
+package com.mslup.lot.lotcrud.search;
+
+import com.mslup.lot.lotcrud.dto.FlightView;
+
+/**
+ * Trasa lotu (para lotnisk).
+ *
+ * @param originAirport      Kod lotniska początkowego.
+ * @param destinationAirport Kod lotniska docelowego.
+ */
+record Route(String originAirport, String destinationAirport) {
+
+    static Route of(FlightView flight) {
+        return new Route(flight.originAirport(), flight.destinationAirport());
+    }
+}
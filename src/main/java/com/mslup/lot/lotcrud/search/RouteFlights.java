@@ -0,0 +1,231 @@
+package com.mslup.lot.lotcrud.search;
+
+import com.mslup.lot.lotcrud.dto.FlightView;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Niezmienna lista lotów na jednej trasie, posortowana według (data odlotu, ID).
+ * Dane przechowywane są w tablicach typów prostych, po jednym elemencie na lot,
+ * co pozwala wyszukiwać przedziały dat wyszukiwaniem binarnym bez tworzenia obiektów.
+ * Zmiany tworzą nową kopię listy.
+ */
+final class RouteFlights {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long NO_ARRIVAL = Long.MIN_VALUE;
+
+    /**
+     * Szacowany rozmiar jednego lotu w tablicach (bez numeru lotu): daty odlotu i przylotu
+     * z przesunięciami stref czasowych, ID, liczba miejsc i referencja do numeru lotu.
+     */
+    static final int ARRAY_BYTES_PER_FLIGHT = Long.BYTES + Integer.BYTES + Long.BYTES
+        + Integer.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    static final RouteFlights EMPTY = new RouteFlights(0);
+
+    private final long[] departures;
+    private final int[] departureOffsets;
+    private final long[] arrivals;
+    private final int[] arrivalOffsets;
+    private final long[] ids;
+    private final int[] seats;
+    private final String[] flightNumbers;
+
+    private RouteFlights(int size) {
+        this.departures = new long[size];
+        this.departureOffsets = new int[size];
+        this.arrivals = new long[size];
+        this.arrivalOffsets = new int[size];
+        this.ids = new long[size];
+        this.seats = new int[size];
+        this.flightNumbers = new String[size];
+    }
+
+    /**
+     * Tworzy listę z lotów posortowanych według (data odlotu, ID).
+     *
+     * @param flights Posortowane loty.
+     * @return Lista lotów.
+     */
+    static RouteFlights of(List<FlightView> flights) {
+        int size = flights.size();
+        RouteFlights route = new RouteFlights(size);
+        for (int i = 0; i < size; i++) {
+            route.set(i, flights.get(i));
+        }
+        return route;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long id(int index) {
+        return ids[index];
+    }
+
+    long departure(int index) {
+        return departures[index];
+    }
+
+    int seats(int index) {
+        return seats[index];
+    }
+
+    /**
+     * Szacuje rozmiar listy w pamięci.
+     *
+     * @return Szacowana liczba bajtów.
+     */
+    long estimatedBytes() {
+        long bytes = (long) size() * ARRAY_BYTES_PER_FLIGHT;
+        for (String flightNumber : flightNumbers) {
+            // Nagłówek obiektu String i tablicy bajtów (kodowanie LATIN1).
+            bytes += 40 + flightNumber.length();
+        }
+        return bytes;
+    }
+
+    FlightView view(int index, String originAirport, String destinationAirport) {
+        return new FlightView(ids[index], flightNumbers[index], originAirport,
+            destinationAirport, dateTime(departures[index], departureOffsets[index]),
+            arrivals[index] == NO_ARRIVAL ? null
+                : dateTime(arrivals[index], arrivalOffsets[index]),
+            seats[index]);
+    }
+
+    /**
+     * Zwraca indeks pierwszego lotu, który w porządku (data odlotu, ID) następuje po podanym
+     * punkcie lub jest mu równy.
+     */
+    int firstAtOrAfter(long departure, long id) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(middle, departure, id) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Zwraca indeks pierwszego lotu, który w porządku (data odlotu, ID) następuje po podanym
+     * punkcie.
+     */
+    int firstAfter(long departure, long id) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(middle, departure, id) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Zwraca kopię listy z dodanym lub zastąpionym lotem.
+     *
+     * @param flight Lot.
+     * @return Nowa lista.
+     */
+    RouteFlights with(FlightView flight) {
+        RouteFlights base = without(flight.id());
+        long departure = epochNanos(flight.departureDateTime());
+        int position = base.firstAtOrAfter(departure, flight.id());
+        RouteFlights route = new RouteFlights(base.size() + 1);
+        base.copyTo(route, 0, 0, position);
+        route.set(position, flight);
+        base.copyTo(route, position, position + 1, base.size() - position);
+        return route;
+    }
+
+    /**
+     * Zwraca kopię listy bez lotu o podanym ID.
+     *
+     * @param id ID lotu.
+     * @return Nowa lista lub ta sama, jeśli lotu nie było na liście.
+     */
+    RouteFlights without(long id) {
+        int position = -1;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                position = i;
+                break;
+            }
+        }
+        if (position < 0) {
+            return this;
+        }
+        return slice(position, position + 1);
+    }
+
+    /**
+     * Zwraca kopię listy bez lotów odlatujących przed podaną chwilą.
+     *
+     * @param departure Chwila w nanosekundach od początku epoki.
+     * @return Nowa lista lub ta sama, jeśli żaden lot nie odlatuje wcześniej.
+     */
+    RouteFlights withoutDepartedBefore(long departure) {
+        int count = firstAtOrAfter(departure, Long.MIN_VALUE);
+        return count == 0 ? this : slice(0, count);
+    }
+
+    /**
+     * Zamienia datę na liczbę nanosekund od początku epoki.
+     *
+     * @param dateTime Data.
+     * @return Liczba nanosekund od początku epoki.
+     */
+    static long epochNanos(OffsetDateTime dateTime) {
+        return dateTime.toEpochSecond() * NANOS_PER_SECOND + dateTime.getNano();
+    }
+
+    private static OffsetDateTime dateTime(long epochNanos, int offsetSeconds) {
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                Math.floorMod(epochNanos, NANOS_PER_SECOND))
+            .atOffset(ZoneOffset.ofTotalSeconds(offsetSeconds));
+    }
+
+    private RouteFlights slice(int from, int to) {
+        RouteFlights route = new RouteFlights(size() - (to - from));
+        copyTo(route, 0, 0, from);
+        copyTo(route, to, from, size() - to);
+        return route;
+    }
+
+    private int compare(int index, long departure, long id) {
+        int comparison = Long.compare(departures[index], departure);
+        return comparison != 0 ? comparison : Long.compare(ids[index], id);
+    }
+
+    private void set(int index, FlightView flight) {
+        departures[index] = epochNanos(flight.departureDateTime());
+        departureOffsets[index] = flight.departureDateTime().getOffset().getTotalSeconds();
+        OffsetDateTime arrival = flight.arrivalDateTime();
+        arrivals[index] = arrival == null ? NO_ARRIVAL : epochNanos(arrival);
+        arrivalOffsets[index] = arrival == null ? 0 : arrival.getOffset().getTotalSeconds();
+        ids[index] = flight.id();
+        seats[index] = flight.availableSeatsCount();
+        flightNumbers[index] = flight.flightNumber();
+    }
+
+    private void copyTo(RouteFlights target, int from, int to, int length) {
+        System.arraycopy(departures, from, target.departures, to, length);
+        System.arraycopy(departureOffsets, from, target.departureOffsets, to, length);
+        System.arraycopy(arrivals, from, target.arrivals, to, length);
+        System.arraycopy(arrivalOffsets, from, target.arrivalOffsets, to, length);
+        System.arraycopy(ids, from, target.ids, to, length);
+        System.arraycopy(seats, from, target.seats, to, length);
+        System.arraycopy(flightNumbers, from, target.flightNumbers, to, length);
+    }
+}
@@ -0,0 +1,24 @@
+package com.mslup.lot.lotcrud.search;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja pamięci podręcznej wyników wyszukiwania lotów
+ * (prefiks {@code lotcrud.search-cache}).
+ *
+ * @param enabled          Czy pamięć podręczna jest włączona.
+ * @param maxFlights       Maksymalna łączna liczba lotów we wszystkich zapamiętanych wynikach.
+ * @param maxSearchFlights Maksymalna liczba lotów w jednym wyniku; większe wyniki nie są
+ *                         zapamiętywane, a wyszukiwania z ich kluczem obsługuje baza danych.
+ * @param ttl              Czas przechowywania wyniku od jego zapisania.
+ * @param dateBucket       Szerokość przedziału, do którego zaokrąglane są daty w kluczu.
+ */
+@ConfigurationProperties(prefix = "lotcrud.search-cache")
+public record SearchCacheProperties(@DefaultValue("false") boolean enabled,
+                                    @DefaultValue("100000") long maxFlights,
+                                    @DefaultValue("1000") int maxSearchFlights,
+                                    @DefaultValue("5m") Duration ttl,
+                                    @DefaultValue("1d") Duration dateBucket) {
+}
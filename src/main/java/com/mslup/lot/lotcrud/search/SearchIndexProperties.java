@@ -0,0 +1,16 @@
+package com.mslup.lot.lotcrud.search;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja indeksu wyszukiwania lotów w pamięci (prefiks {@code lotcrud.search-index}).
+ *
+ * @param enabled       Czy indeks jest włączony.
+ * @param pruneInterval Odstęp między usuwaniem z indeksu lotów, które już odleciały.
+ */
+@ConfigurationProperties(prefix = "lotcrud.search-index")
+public record SearchIndexProperties(@DefaultValue("false") boolean enabled,
+                                    @DefaultValue("1h") Duration pruneInterval) {
+}
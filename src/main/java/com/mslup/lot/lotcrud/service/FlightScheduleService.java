@@ -0,0 +1,257 @@
+package com.mslup.lot.lotcrud.service;
+
+import static com.mslup.lot.lotcrud.patcher.FlightPatcher.patchedColumns;
+
+import com.mslup.lot.lotcrud.cache.EntityCacheService;
+import com.mslup.lot.lotcrud.dto.FlightScheduleDto;
+import com.mslup.lot.lotcrud.event.FlightChangedEvent;
+import com.mslup.lot.lotcrud.event.FlightScheduleChangedEvent;
+import com.mslup.lot.lotcrud.exception.FlightScheduleNotFoundException;
+import com.mslup.lot.lotcrud.exception.ResourceException;
+import com.mslup.lot.lotcrud.exception.VersionMismatchException;
+import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.inventory.SeatInventory;
+import com.mslup.lot.lotcrud.model.Flight;
+import com.mslup.lot.lotcrud.model.FlightSchedule;
+import com.mslup.lot.lotcrud.patcher.FlightPatch;
+import com.mslup.lot.lotcrud.repository.BookingRepository;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import com.mslup.lot.lotcrud.repository.FlightScheduleRepository;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Serwis obsługujący rozkłady lotów.
+ *
+ * <p>Loty z rozkładu tworzy w tle {@link com.mslup.lot.lotcrud.schedule.ScheduleExpander}.
+ * Zmiana rozkładu dotyczy tylko lotów, które jeszcze nie odleciały, i tylko tych, których
+ * dane faktycznie się zmieniają: loty w dniach, w których rozkład już nie obowiązuje, są
+ * usuwane (a jeśli mają rezerwacje - odłączane od rozkładu), pozostałe zmieniane są grupowo
+ * tylko w zmienionych kolumnach, a loty w nowych dniach tworzy ponowne rozwinięcie rozkładu.
+ */
+@Service
+@RequiredArgsConstructor
+public class FlightScheduleService {
+    private final FlightScheduleRepository flightScheduleRepository;
+    private final FlightRepository flightRepository;
+    private final BookingRepository bookingRepository;
+    private final SeatInventory seatInventory;
+    private final EntityCacheService entityCacheService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Zapisuje nowy rozkład. Loty z rozkładu są tworzone w tle po zatwierdzeniu transakcji.
+     *
+     * @param dto Dane rozkładu.
+     * @return Zapisany rozkład.
+     * @throws ResourceException Jeśli strefa czasowa jest nieznana lub okres obowiązywania
+     *                           kończy się przed początkiem.
+     */
+    @Transactional
+    public FlightSchedule saveSchedule(FlightScheduleDto dto) {
+        FlightSchedule schedule = new FlightSchedule();
+        apply(schedule, dto);
+        schedule.setExpandedThrough(schedule.getValidFrom().minusDays(1));
+        FlightSchedule savedSchedule = flightScheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new FlightScheduleChangedEvent(savedSchedule.getId()));
+        return savedSchedule;
+    }
+
+    /**
+     * Znajduje rozkład o podanym ID.
+     *
+     * @param id ID rozkładu.
+     * @return Rozkład o podanym ID.
+     * @throws FlightScheduleNotFoundException Jeśli rozkład o podanym ID nie istnieje.
+     */
+    @Transactional(readOnly = true)
+    public FlightSchedule findSchedule(long id) throws FlightScheduleNotFoundException {
+        return flightScheduleRepository.findById(id)
+            .orElseThrow(() -> new FlightScheduleNotFoundException(id));
+    }
+
+    /**
+     * Pobiera wszystkie rozkłady.
+     *
+     * @return Lista rozkładów.
+     */
+    @Transactional(readOnly = true)
+    public List<FlightSchedule> getSchedules() {
+        return flightScheduleRepository.findAll();
+    }
+
+    /**
+     * Zmienia rozkład i loty z niego utworzone, które jeszcze nie odleciały.
+     * Zmiana liczby miejsc w rozkładzie zmienia liczbę dostępnych miejsc lotów o tę samą
+     * wartość, więc istniejące rezerwacje pozostają uwzględnione.
+     *
+     * @param id              ID rozkładu.
+     * @param dto             Nowe dane rozkładu.
+     * @param expectedVersion Oczekiwana wersja rozkładu lub {@code null}, jeśli wersja nie
+     *                        jest sprawdzana.
+     * @return Zmieniony rozkład.
+     * @throws FlightScheduleNotFoundException Jeśli rozkład o podanym ID nie istnieje.
+     * @throws VersionMismatchException        Jeśli rozkład ma inną wersję niż oczekiwana.
+     * @throws ResourceException               Jeśli nowe dane rozkładu są niepoprawne.
+     */
+    @Transactional
+    public FlightSchedule updateSchedule(long id, FlightScheduleDto dto, Long expectedVersion)
+        throws FlightScheduleNotFoundException, VersionMismatchException {
+        FlightSchedule schedule = flightScheduleRepository.findByIdForUpdate(id)
+            .orElseThrow(() -> new FlightScheduleNotFoundException(id));
+        if (expectedVersion != null && schedule.getVersion() != expectedVersion) {
+            throw new VersionMismatchException("Flight schedule", id, expectedVersion);
+        }
+
+        int seatsDelta = dto.availableSeatsCount() - schedule.getAvailableSeatsCount();
+        apply(schedule, dto);
+
+        List<Flight> futureFlights =
+            flightRepository.findFutureScheduleFlights(id, OffsetDateTime.now());
+        List<Long> removedIds = new ArrayList<>();
+        List<Long> keptIds = new ArrayList<>();
+        List<FlightPatch> patches = new ArrayList<>();
+        for (Flight flight : futureFlights) {
+            if (!schedule.operatesOn(flight.getScheduleDate())) {
+                removedIds.add(flight.getId());
+                continue;
+            }
+            keptIds.add(flight.getId());
+            Flight valuesToPatch = changedValues(flight, schedule);
+            if (!patchedColumns(valuesToPatch).isEmpty()) {
+                patches.add(new FlightPatch(flight.getId(), null, valuesToPatch));
+            }
+        }
+
+        Set<Long> changedIds = new HashSet<>();
+        removeFlights(removedIds);
+        flightRepository.patchFlights(patches).forEach(flight -> changedIds.add(flight.getId()));
+        if (seatsDelta != 0 && !keptIds.isEmpty()) {
+            flightRepository.adjustSeatsInFlights(keptIds, seatsDelta);
+            keptIds.forEach(seatInventory::evict);
+            changedIds.addAll(keptIds);
+        }
+        entityCacheService.evictFlights(changedIds);
+        if (!changedIds.isEmpty()) {
+            flightRepository.findViewsByIdIn(changedIds).forEach(view ->
+                eventPublisher.publishEvent(new FlightChangedEvent(view.id(), view)));
+        }
+
+        // Dni, w których loty jeszcze nie istnieją, zostaną rozwinięte ponownie.
+        LocalDate yesterday = LocalDate.now(ZoneId.of(schedule.getTimeZone())).minusDays(1);
+        if (schedule.getExpandedThrough().isAfter(yesterday)) {
+            schedule.setExpandedThrough(yesterday);
+        }
+        FlightSchedule savedSchedule = flightScheduleRepository.saveAndFlush(schedule);
+        eventPublisher.publishEvent(new FlightScheduleChangedEvent(id));
+        return savedSchedule;
+    }
+
+    /**
+     * Usuwa rozkład razem z jego lotami, które jeszcze nie odleciały. Loty, które mają
+     * rezerwacje, oraz loty, które już odleciały, pozostają jako pojedyncze loty.
+     * Jeżeli rozkład nie istnieje, nic się nie dzieje.
+     *
+     * @param id ID rozkładu.
+     */
+    @Transactional
+    public void deleteSchedule(long id) {
+        if (flightScheduleRepository.findByIdForUpdate(id).isEmpty()) {
+            return;
+        }
+        removeFlights(flightRepository.findFutureScheduleFlights(id, OffsetDateTime.now())
+            .stream()
+            .map(Flight::getId)
+            .toList());
+        List<Long> remainingIds = flightRepository.findIdsByScheduleId(id);
+        if (!remainingIds.isEmpty()) {
+            flightRepository.detachFromSchedule(remainingIds);
+            entityCacheService.evictFlights(remainingIds);
+        }
+        flightScheduleRepository.deleteById(id);
+    }
+
+    /**
+     * Usuwa loty jednym zapytaniem; loty z rezerwacjami są tylko odłączane od rozkładu.
+     */
+    private void removeFlights(List<Long> flightIds) {
+        if (flightIds.isEmpty()) {
+            return;
+        }
+        Set<Long> bookedIds = new HashSet<>(bookingRepository.findBookedFlightIds(flightIds));
+        List<Long> deletedIds = flightIds.stream().filter(id -> !bookedIds.contains(id)).toList();
+        if (!deletedIds.isEmpty()) {
+            flightRepository.deleteFlights(deletedIds);
+            entityCacheService.evictFlights(deletedIds);
+            deletedIds.forEach(flightId -> {
+                seatInventory.evict(flightId);
+                eventPublisher.publishEvent(FlightChangedEvent.deleted(flightId));
+            });
+        }
+        if (!bookedIds.isEmpty()) {
+            flightRepository.detachFromSchedule(bookedIds);
+            entityCacheService.evictFlights(bookedIds);
+        }
+    }
+
+    /**
+     * Wyznacza wartości lotu, które różnią się od wartości wynikających z rozkładu.
+     * Liczba miejsc nie jest porównywana - zmieniana jest osobno, o różnicę.
+     */
+    private static Flight changedValues(Flight flight, FlightSchedule schedule) {
+        LocalDate date = flight.getScheduleDate();
+        OffsetDateTime departure = schedule.departureOn(date);
+        OffsetDateTime arrival = schedule.arrivalOn(date);
+        return Flight.builder()
+            .flightNumber(changed(flight.getFlightNumber(), schedule.getFlightNumber()))
+            .originAirport(changed(flight.getOriginAirport(), schedule.getOriginAirport()))
+            .destinationAirport(
+                changed(flight.getDestinationAirport(), schedule.getDestinationAirport()))
+            .departureDateTime(flight.getDepartureDateTime().isEqual(departure) ? null : departure)
+            .arrivalDateTime(arrival == null || flight.getArrivalDateTime() != null
+                && flight.getArrivalDateTime().isEqual(arrival) ? null : arrival)
+            .availableSeatsCount(-1)
+            .build();
+    }
+
+    private static String changed(String current, String updated) {
+        return Objects.equals(current, updated) ? null : updated;
+    }
+
+    private static void apply(FlightSchedule schedule, FlightScheduleDto dto) {
+        try {
+            ZoneId.of(dto.timeZone());
+        } catch (DateTimeException e) {
+            throw new ResourceException(HttpStatus.BAD_REQUEST,
+                String.format("Unknown time zone: %s", dto.timeZone()));
+        }
+        if (dto.validTo().isBefore(dto.validFrom())) {
+            throw new ResourceException(HttpStatus.BAD_REQUEST,
+                "Valid to date cannot be before valid from date");
+        }
+
+        schedule.setFlightNumber(dto.flightNumber());
+        schedule.setOriginAirport(FlightFilterCriteria.normalizeAirportCode(dto.originAirport()));
+        schedule.setDestinationAirport(
+            FlightFilterCriteria.normalizeAirportCode(dto.destinationAirport()));
+        schedule.setDaysOfWeek(dto.daysOfWeek());
+        schedule.setDepartureTime(dto.departureTime());
+        schedule.setBlockTimeMinutes(dto.blockTimeMinutes());
+        schedule.setTimeZone(dto.timeZone());
+        schedule.setValidFrom(dto.validFrom());
+        schedule.setValidTo(dto.validTo());
+        schedule.setAvailableSeatsCount(dto.availableSeatsCount());
+    }
+}
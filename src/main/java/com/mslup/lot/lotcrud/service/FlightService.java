@@ -1,19 +1,47 @@
 package com.mslup.lot.lotcrud.service;
 
-import static com.mslup.lot.lotcrud.patcher.FlightPatcher.applyPatchToFlight;
+import static com.mslup.lot.lotcrud.patcher.FlightPatcher.patchedColumns;
 
+import com.mslup.lot.lotcrud.cache.EntityCacheService;
+import com.mslup.lot.lotcrud.dto.BookingBatchResultDto;
+import com.mslup.lot.lotcrud.dto.CursorPageDto;
+import com.mslup.lot.lotcrud.dto.FlightBatchPatchResultDto;
+import com.mslup.lot.lotcrud.dto.FlightPatchResultDto;
+import com.mslup.lot.lotcrud.dto.FlightView;
+import com.mslup.lot.lotcrud.event.FlightChangedEvent;
 import com.mslup.lot.lotcrud.exception.FlightNotFoundException;
 import com.mslup.lot.lotcrud.exception.NoAvailableSeatsException;
 import com.mslup.lot.lotcrud.exception.PassengerNotFoundException;
+import com.mslup.lot.lotcrud.exception.ResourceException;
+import com.mslup.lot.lotcrud.exception.VersionMismatchException;
+import com.mslup.lot.lotcrud.filter.FlightCursor;
 import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.filter.FlightPageRequest;
+import com.mslup.lot.lotcrud.inventory.SeatInventory;
 import com.mslup.lot.lotcrud.model.Flight;
 import com.mslup.lot.lotcrud.model.Passenger;
+import com.mslup.lot.lotcrud.patcher.FlightPatch;
+import com.mslup.lot.lotcrud.repository.BookingRepository;
 import com.mslup.lot.lotcrud.repository.FlightRepository;
 import com.mslup.lot.lotcrud.repository.PassengerRepository;
-import jakarta.transaction.Transactional;
+import com.mslup.lot.lotcrud.search.FlightSearchCache;
+import com.mslup.lot.lotcrud.search.FlightSearchIndex;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Serwis obsługujący operacje na lotach.
@@ -23,6 +51,12 @@ import org.springframework.stereotype.Service;
 public class FlightService {
     private final FlightRepository flightRepository;
     private final PassengerRepository passengerRepository;
+    private final BookingRepository bookingRepository;
+    private final SeatInventory seatInventory;
+    private final EntityCacheService entityCacheService;
+    private final FlightSearchIndex flightSearchIndex;
+    private final FlightSearchCache flightSearchCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Zapisuje lot w bazie.
@@ -31,7 +65,10 @@ public class FlightService {
      * @return Zapisany lot.
      */
     public Flight saveFlight(Flight flight) {
-        return flightRepository.save(flight);
+        Flight savedFlight = flightRepository.save(flight);
+        eventPublisher.publishEvent(
+            new FlightChangedEvent(savedFlight.getId(), FlightView.of(savedFlight)));
+        return savedFlight;
     }
 
     /**
@@ -45,11 +82,25 @@ public class FlightService {
         return flightRepository.findById(id).orElseThrow(() -> new FlightNotFoundException(id));
     }
 
+    /**
+     * Znajduje lot o podanym ID i zwraca go jako projekcję tylko do odczytu.
+     * W odróżnieniu od {@link #findFlight(long)} nie tworzy zarządzanej encji.
+     *
+     * @param id ID lotu do znalezienia.
+     * @return Projekcja lotu o podanym ID, jeśli istnieje.
+     * @throws FlightNotFoundException Jeśli lot o podanym ID nie zostanie znaleziony.
+     */
+    @Transactional(readOnly = true)
+    public FlightView findFlightView(long id) throws FlightNotFoundException {
+        return flightRepository.findViewById(id).orElseThrow(() -> new FlightNotFoundException(id));
+    }
+
     /**
      * Pobiera wszystkie loty.
      *
      * @return Lista wszystkich lotów.
      */
+    @Transactional(readOnly = true)
     public List<Flight> getFlights() {
         return flightRepository.findAll();
     }
@@ -60,10 +111,56 @@ public class FlightService {
      * @param criteria Kryteria filtrowania lotów.
      * @return Lista lotów spełniających podane kryteria.
      */
+    @Transactional(readOnly = true)
     public List<Flight> getFlights(FlightFilterCriteria criteria) {
         return flightRepository.filterFlights(criteria);
     }
 
+    /**
+     * Pobiera jedną stronę lotów spełniających kryteria filtrowania.
+     * Loty zwracane są jako projekcje tylko do odczytu. Kody lotnisk w kryteriach są
+     * normalizowane, a wyszukiwania na trasie mogą być obsłużone z {@link FlightSearchIndex}
+     * lub {@link FlightSearchCache}.
+     *
+     * @param criteria Kryteria filtrowania lotów.
+     * @param page     Żądana strona.
+     * @return Strona lotów wraz z kursorem następnej strony.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<FlightView> getFlights(FlightFilterCriteria criteria,
+                                                FlightPageRequest page) {
+        return getFlights(criteria, page, false);
+    }
+
+    /**
+     * Pobiera jedną stronę lotów spełniających kryteria filtrowania, opcjonalnie łącznie
+     * z lotami przeniesionymi do archiwum
+     * ({@link com.mslup.lot.lotcrud.archive.FlightArchiver}). Wyszukiwania z historią
+     * obsługuje zawsze baza danych.
+     *
+     * @param criteria       Kryteria filtrowania lotów.
+     * @param page           Żądana strona.
+     * @param includeHistory Czy uwzględnić loty z archiwum.
+     * @return Strona lotów wraz z kursorem następnej strony.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<FlightView> getFlights(FlightFilterCriteria criteria,
+                                                FlightPageRequest page, boolean includeHistory) {
+        FlightFilterCriteria normalized = criteria.normalized();
+        List<FlightView> flights = includeHistory
+            ? flightRepository.filterFlightsWithHistory(normalized, page)
+            : flightSearchIndex.filterFlights(normalized, page)
+                .orElseGet(() -> flightSearchCache.filterFlights(normalized, page));
+        if (flights.size() <= page.size()) {
+            return new CursorPageDto<>(flights, null);
+        }
+
+        List<FlightView> items = flights.subList(0, page.size());
+        FlightView last = items.get(items.size() - 1);
+        return new CursorPageDto<>(List.copyOf(items),
+            new FlightCursor(last.departureDateTime(), last.id()).encode());
+    }
+
     /**
      * Aktualizuje dane lotu na podstawie podanego ID i wartości do zaktualizowania.
      *
@@ -73,20 +170,151 @@ public class FlightService {
      * @throws FlightNotFoundException Jeśli lot o podanym ID nie zostanie znaleziony.
      */
     public Flight patchFlight(long id, Flight valuesToPatch) throws FlightNotFoundException {
-        Flight flight = findFlight(id);
+        return patchFlight(id, valuesToPatch, null);
+    }
+
+    /**
+     * Aktualizuje dane lotu na podstawie podanego ID i wartości do zaktualizowania,
+     * jeśli lot ma oczekiwaną wersję. Zmieniane są tylko podane kolumny, jednym zapytaniem
+     * UPDATE zwracającym nowy stan lotu, bez wczytywania encji.
+     *
+     * @param id              ID lotu do zaktualizowania.
+     * @param valuesToPatch   Wartości do zaktualizowania.
+     * @param expectedVersion Oczekiwana wersja lotu lub {@code null}, jeśli wersja nie jest
+     *                        sprawdzana.
+     * @return Zaktualizowany lot.
+     * @throws FlightNotFoundException  Jeśli lot o podanym ID nie zostanie znaleziony.
+     * @throws VersionMismatchException Jeśli lot ma inną wersję niż oczekiwana.
+     */
+    @Transactional
+    public Flight patchFlight(long id, Flight valuesToPatch, Long expectedVersion)
+        throws FlightNotFoundException, VersionMismatchException {
+        Flight patchedFlight = flightRepository
+            .patchFlight(id, patchedColumns(valuesToPatch), expectedVersion)
+            .orElseThrow(() -> flightRepository.existsById(id)
+                ? new VersionMismatchException("Flight", id, expectedVersion)
+                : new FlightNotFoundException(id));
 
-        Flight patchedFlight = applyPatchToFlight(flight, valuesToPatch);
-        flightRepository.save(patchedFlight);
+        entityCacheService.evictFlight(id);
+        if (valuesToPatch.getAvailableSeatsCount() != -1) {
+            seatInventory.evict(id);
+        }
+        eventPublisher.publishEvent(new FlightChangedEvent(id, FlightView.of(patchedFlight)));
         return patchedFlight;
     }
 
+    /**
+     * Aktualizuje grupę lotów w ramach jednej transakcji. Zmiany o tym samym zestawie
+     * zmienianych pól wykonywane są jednym zapytaniem UPDATE, bez wczytywania encji.
+     * Loty, które nie istnieją albo mają inną wersję niż oczekiwana, nie są zmieniane,
+     * a ich wynik jest zwracany zamiast przerywania całej operacji.
+     *
+     * @param patches Zmiany lotów.
+     * @return Wyniki zmian poszczególnych lotów (w kolejności zmian) i czas wykonania.
+     * @throws ResourceException Jeśli ten sam lot występuje w grupie więcej niż raz.
+     */
+    @Transactional
+    public FlightBatchPatchResultDto patchFlights(List<FlightPatch> patches) {
+        long start = System.nanoTime();
+        Set<Long> ids = new HashSet<>();
+        for (FlightPatch patch : patches) {
+            if (!ids.add(patch.id())) {
+                throw new ResourceException(HttpStatus.BAD_REQUEST,
+                    String.format("Flight with id %d occurs more than once", patch.id()));
+            }
+        }
+
+        Map<Long, Flight> patchedFlights = flightRepository.patchFlights(patches).stream()
+            .collect(Collectors.toMap(Flight::getId, Function.identity()));
+        ids.removeAll(patchedFlights.keySet());
+        Set<Long> existingIds = ids.isEmpty()
+            ? Set.of() : new HashSet<>(flightRepository.findExistingIds(ids));
+
+        List<FlightPatchResultDto> results = new ArrayList<>(patches.size());
+        Set<Long> seatsChanged = new HashSet<>();
+        for (FlightPatch patch : patches) {
+            Flight patchedFlight = patchedFlights.get(patch.id());
+            if (patchedFlight == null) {
+                results.add(new FlightPatchResultDto(patch.id(), existingIds.contains(patch.id())
+                    ? FlightPatchResultDto.Status.VERSION_MISMATCH
+                    : FlightPatchResultDto.Status.NOT_FOUND, null));
+                continue;
+            }
+            results.add(new FlightPatchResultDto(patch.id(),
+                FlightPatchResultDto.Status.UPDATED, patchedFlight.getVersion()));
+            if (patch.valuesToPatch().getAvailableSeatsCount() != -1) {
+                seatsChanged.add(patch.id());
+            }
+        }
+
+        flightsPatched(patchedFlights.values(), seatsChanged);
+        return new FlightBatchPatchResultDto(results, patchedFlights.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Aktualizuje wszystkie loty spełniające kryteria filtrowania jednym zapytaniem UPDATE,
+     * np. przesuwa wszystkie odloty z lotniska w przedziale czasu o podany czas.
+     * Kryteria muszą zawierać zakres dat odlotu, aby pomyłka w kryteriach nie zmieniła
+     * całego rozkładu.
+     *
+     * @param criteria      Kryteria filtrowania lotów.
+     * @param valuesToPatch Wartości do zaktualizowania.
+     * @param shift         Przesunięcie dat odlotu i przylotu lub {@code null}.
+     * @return Wyniki zmian poszczególnych lotów i czas wykonania.
+     * @throws ResourceException Jeśli kryteria nie zawierają zakresu dat odlotu albo
+     *                           przesunięcie podano razem z nową datą odlotu lub przylotu.
+     */
+    @Transactional
+    public FlightBatchPatchResultDto patchFlights(FlightFilterCriteria criteria,
+                                                  Flight valuesToPatch, Duration shift) {
+        if (criteria.dateFrom == null || criteria.dateTo == null) {
+            throw new ResourceException(HttpStatus.BAD_REQUEST,
+                "Both dateFrom and dateTo are required to change flights by criteria");
+        }
+        if (shift != null && (valuesToPatch.getDepartureDateTime() != null
+            || valuesToPatch.getArrivalDateTime() != null)) {
+            throw new ResourceException(HttpStatus.BAD_REQUEST,
+                "Shift cannot be combined with a new departure or arrival date");
+        }
+
+        long start = System.nanoTime();
+        List<Flight> patchedFlights = flightRepository.patchFlights(criteria,
+            patchedColumns(valuesToPatch), shift);
+        List<FlightPatchResultDto> results = patchedFlights.stream()
+            .map(flight -> new FlightPatchResultDto(flight.getId(),
+                FlightPatchResultDto.Status.UPDATED, flight.getVersion()))
+            .toList();
+
+        flightsPatched(patchedFlights, valuesToPatch.getAvailableSeatsCount() != -1
+            ? patchedFlights.stream().map(Flight::getId).collect(Collectors.toSet())
+            : Set.of());
+        return new FlightBatchPatchResultDto(results, patchedFlights.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void flightsPatched(Collection<Flight> patchedFlights, Set<Long> seatsChanged) {
+        entityCacheService.evictFlights(patchedFlights.stream().map(Flight::getId).toList());
+        seatsChanged.forEach(seatInventory::evict);
+        patchedFlights.forEach(flight -> eventPublisher.publishEvent(
+            new FlightChangedEvent(flight.getId(), FlightView.of(flight))));
+    }
+
     /**
      * Usuwa lot o podanym ID. Jeżeli taki lot nie istnieje, nic się nie dzieje.
+     * Lot usuwany jest jednym zapytaniem DELETE, bez wczytywania encji; jego rezerwacje
+     * i blokady miejsc usuwa baza danych, niezależnie od ich liczby.
      *
      * @param id ID lotu do usunięcia.
      */
+    @Transactional
     public void deleteFlight(long id) {
-        flightRepository.deleteById(id);
+        if (flightRepository.deleteFlights(List.of(id)) == 0) {
+            return;
+        }
+        entityCacheService.evictFlight(id);
+        seatInventory.evict(id);
+        eventPublisher.publishEvent(FlightChangedEvent.deleted(id));
     }
 
     /**
@@ -96,36 +324,119 @@ public class FlightService {
      * @return Lista pasażerów przypisanych do lotu.
      * @throws FlightNotFoundException Jeśli lot o podanym ID nie zostanie znaleziony.
      */
+    @Transactional(readOnly = true)
     public List<Passenger> getPassengers(long flightId) throws FlightNotFoundException {
-        return flightRepository.findById(flightId)
-            .map(value -> value.getPassengers().stream().toList())
-            .orElseThrow(() -> new FlightNotFoundException(flightId));
+        if (!flightRepository.existsById(flightId)) {
+            throw new FlightNotFoundException(flightId);
+        }
+        return bookingRepository.findPassengersByFlightId(flightId);
     }
 
     /**
      * Dodaje pasażera do lotu o podanym ID.
+     * Rezerwacja wykonywana jest bez wczytywania lotu ani pasażera:
+     * dodawany jest pojedynczy wiersz {@link com.mslup.lot.lotcrud.model.Booking}
+     * (chroniony kluczem głównym), a miejsce rezerwowane jest warunkowym zapytaniem UPDATE.
+     * Jeśli pasażer jest już przypisany do lotu, nic się nie dzieje.
      *
      * @param flightId    ID lotu.
      * @param passengerId ID pasażera.
      * @throws FlightNotFoundException    Jeśli lot o podanym ID nie zostanie znaleziony.
      * @throws PassengerNotFoundException Jeśli pasażer o podanym ID nie zostanie znaleziony.
+     * @throws NoAvailableSeatsException  Jeśli lot nie ma dostępnych miejsc do zarezerwowania.
      */
     @Transactional
     public void addPassenger(long flightId, long passengerId)
         throws FlightNotFoundException, PassengerNotFoundException, NoAvailableSeatsException {
-        Flight flight = flightRepository.findById(flightId)
-            .orElseThrow(() -> new FlightNotFoundException(flightId));
-        Passenger passenger = passengerRepository.findById(passengerId)
-            .orElseThrow(() -> new PassengerNotFoundException(passengerId));
+        if (!flightRepository.existsById(flightId)) {
+            throw new FlightNotFoundException(flightId);
+        }
+        if (!passengerRepository.existsById(passengerId)) {
+            throw new PassengerNotFoundException(passengerId);
+        }
+
+        if (bookingRepository.insertBooking(flightId, passengerId) == 0) {
+            return;
+        }
+        if (!seatInventory.reserve(flightId, 1)) {
+            throw new NoAvailableSeatsException(flightId);
+        }
+    }
+
+    /**
+     * Dodaje grupę pasażerów do lotu o podanym ID w ramach jednej transakcji.
+     * Nowi pasażerowie są zapisywani w bazie, rezerwacje dodawane są jednym zapytaniem,
+     * a miejsca rezerwowane jedną operacją w {@link SeatInventory}. Jeśli którakolwiek część
+     * operacji się nie powiedzie, żadna rezerwacja nie zostanie dodana.
+     *
+     * @param flightId      ID lotu.
+     * @param passengerIds  ID istniejących pasażerów.
+     * @param newPassengers Nowi pasażerowie do zapisania i dodania do lotu.
+     * @return Wynik grupowej rezerwacji.
+     * @throws FlightNotFoundException    Jeśli lot o podanym ID nie zostanie znaleziony.
+     * @throws PassengerNotFoundException Jeśli któryś z pasażerów nie zostanie znaleziony.
+     * @throws NoAvailableSeatsException  Jeśli lot nie ma wystarczającej liczby wolnych miejsc.
+     */
+    @Transactional
+    public BookingBatchResultDto addPassengers(long flightId, Collection<Long> passengerIds,
+                                               List<Passenger> newPassengers)
+        throws FlightNotFoundException, PassengerNotFoundException, NoAvailableSeatsException {
+        return bookPassengers(flightId, passengerIds, newPassengers, 0);
+    }
 
-        flight.addPassenger(passenger);
-        passenger.getBookings().add(flight);
-        flightRepository.save(flight);
-        passengerRepository.save(passenger);
+    /**
+     * Dodaje grupę pasażerów do lotu, wykorzystując wcześniej zablokowane miejsca.
+     * Jeśli pasażerów jest mniej niż zablokowanych miejsc, nadmiarowe miejsca wracają do puli;
+     * jeśli więcej, brakujące miejsca są rezerwowane.
+     *
+     * @param flightId      ID lotu.
+     * @param heldSeats     Liczba miejsc zablokowanych wcześniej dla tej grupy.
+     * @param passengerIds  ID istniejących pasażerów.
+     * @param newPassengers Nowi pasażerowie do zapisania i dodania do lotu.
+     * @return Wynik grupowej rezerwacji.
+     * @throws FlightNotFoundException    Jeśli lot o podanym ID nie zostanie znaleziony.
+     * @throws PassengerNotFoundException Jeśli któryś z pasażerów nie zostanie znaleziony.
+     * @throws NoAvailableSeatsException  Jeśli lot nie ma wystarczającej liczby wolnych miejsc.
+     */
+    @Transactional
+    public BookingBatchResultDto addHeldPassengers(long flightId, int heldSeats,
+                                                   Collection<Long> passengerIds,
+                                                   List<Passenger> newPassengers)
+        throws FlightNotFoundException, PassengerNotFoundException, NoAvailableSeatsException {
+        return bookPassengers(flightId, passengerIds, newPassengers, heldSeats);
+    }
+
+    private BookingBatchResultDto bookPassengers(long flightId, Collection<Long> passengerIds,
+                                                 List<Passenger> newPassengers, int heldSeats) {
+        if (!flightRepository.existsById(flightId)) {
+            throw new FlightNotFoundException(flightId);
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(passengerIds);
+        if (!ids.isEmpty()) {
+            Set<Long> existingIds = new HashSet<>(passengerRepository.findExistingIds(ids));
+            for (Long id : ids) {
+                if (!existingIds.contains(id)) {
+                    throw new PassengerNotFoundException(id);
+                }
+            }
+        }
+        passengerRepository.saveAll(newPassengers).forEach(passenger -> ids.add(passenger.getId()));
+
+        int booked = ids.isEmpty() ? 0 : bookingRepository.insertBookings(flightId, ids);
+        int seatsToReserve = booked - heldSeats;
+        if (seatsToReserve > 0 && !seatInventory.reserve(flightId, seatsToReserve)) {
+            throw new NoAvailableSeatsException(flightId);
+        }
+        if (seatsToReserve < 0) {
+            seatInventory.release(flightId, -seatsToReserve);
+        }
+        return new BookingBatchResultDto(flightId, List.copyOf(ids), booked);
     }
 
     /**
      * Usuwa pasażera o podanym ID z lotu o podanym ID.
+     * Miejsce zwalniane jest tylko wtedy, gdy rezerwacja faktycznie istniała.
      *
      * @param flightId    ID lotu.
      * @param passengerId ID pasażera.
@@ -136,15 +447,15 @@ public class FlightService {
     public void deletePassenger(long flightId, long passengerId)
         throws FlightNotFoundException,
         PassengerNotFoundException {
-        Flight flight = flightRepository.findById(flightId)
-            .orElseThrow(() -> new FlightNotFoundException(flightId));
-        Passenger passenger = passengerRepository.findById(passengerId)
-            .orElseThrow(() -> new PassengerNotFoundException(passengerId));
-
-        flight.deletePassenger(passenger);
-        passenger.getBookings().remove(flight);
+        if (!flightRepository.existsById(flightId)) {
+            throw new FlightNotFoundException(flightId);
+        }
+        if (!passengerRepository.existsById(passengerId)) {
+            throw new PassengerNotFoundException(passengerId);
+        }
 
-        flightRepository.save(flight);
-        passengerRepository.save(passenger);
+        if (bookingRepository.deleteBooking(flightId, passengerId) == 1) {
+            seatInventory.release(flightId, 1);
+        }
     }
 }
@@ -1,13 +1,20 @@
 package com.mslup.lot.lotcrud.service;
 
-import static com.mslup.lot.lotcrud.patcher.PassengerPatcher.applyPatchToPassenger;
+import static com.mslup.lot.lotcrud.patcher.PassengerPatcher.patchedColumns;
 
+import com.mslup.lot.lotcrud.cache.EntityCacheService;
 import com.mslup.lot.lotcrud.exception.PassengerNotFoundException;
+import com.mslup.lot.lotcrud.exception.PhoneNumberTakenException;
+import com.mslup.lot.lotcrud.exception.VersionMismatchException;
+import com.mslup.lot.lotcrud.inventory.SeatInventory;
+import com.mslup.lot.lotcrud.model.Flight;
 import com.mslup.lot.lotcrud.model.Passenger;
+import com.mslup.lot.lotcrud.repository.BookingRepository;
 import com.mslup.lot.lotcrud.repository.PassengerRepository;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Serwis obsługujący operacje na pasażerach.
@@ -16,6 +23,9 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class PassengerService {
     private final PassengerRepository passengerRepository;
+    private final BookingRepository bookingRepository;
+    private final SeatInventory seatInventory;
+    private final EntityCacheService entityCacheService;
 
     /**
      * Pobiera wszystkich pasażerów.
@@ -37,13 +47,33 @@ public class PassengerService {
             .orElseThrow(() -> new PassengerNotFoundException(id));
     }
 
+    /**
+     * Pobiera loty, na które pasażer o podanym ID dokonał rezerwacji.
+     *
+     * @param passengerId ID pasażera.
+     * @return Lista lotów pasażera.
+     * @throws PassengerNotFoundException Jeśli pasażer o podanym ID nie zostanie znaleziony.
+     */
+    public List<Flight> getFlights(long passengerId) throws PassengerNotFoundException {
+        if (!passengerRepository.existsById(passengerId)) {
+            throw new PassengerNotFoundException(passengerId);
+        }
+        return bookingRepository.findFlightsByPassengerId(passengerId);
+    }
+
     /**
      * Zapisuje pasażera w bazie.
      *
      * @param passenger Pasażer do zapisania.
      * @return Zapisany pasażer.
+     * @throws PhoneNumberTakenException Jeśli istnieje już pasażer o tym samym
+     *                                   (znormalizowanym) numerze telefonu.
      */
-    public Passenger savePassenger(Passenger passenger) {
+    public Passenger savePassenger(Passenger passenger) throws PhoneNumberTakenException {
+        String phoneNumberKey = Passenger.normalizePhoneNumber(passenger.getPhoneNumber());
+        if (phoneNumberKey != null && passengerRepository.existsByPhoneNumberKey(phoneNumberKey)) {
+            throw new PhoneNumberTakenException(passenger.getPhoneNumber());
+        }
         return passengerRepository.save(passenger);
     }
 
@@ -58,19 +88,45 @@ public class PassengerService {
      */
     public Passenger patchPassenger(long id, Passenger valuesToPatch)
         throws PassengerNotFoundException {
-        Passenger passenger = findPassenger(id);
+        return patchPassenger(id, valuesToPatch, null);
+    }
+
+    /**
+     * Aktualizuje dane pasażera na podstawie podanego ID i wartości do zaktualizowania,
+     * jeśli pasażer ma oczekiwaną wersję. Zmieniane są tylko podane kolumny, jednym zapytaniem
+     * UPDATE zwracającym nowy stan pasażera, bez wczytywania encji.
+     *
+     * @param id              ID pasażera do zaktualizowania.
+     * @param valuesToPatch   Wartości do zaktualizowania.
+     * @param expectedVersion Oczekiwana wersja pasażera lub {@code null}, jeśli wersja nie
+     *                        jest sprawdzana.
+     * @return Zaktualizowany pasażer.
+     * @throws PassengerNotFoundException Jeśli pasażer o podanym ID nie zostanie znaleziony.
+     * @throws VersionMismatchException   Jeśli pasażer ma inną wersję niż oczekiwana.
+     */
+    @Transactional
+    public Passenger patchPassenger(long id, Passenger valuesToPatch, Long expectedVersion)
+        throws PassengerNotFoundException, VersionMismatchException {
+        Passenger patchedPassenger = passengerRepository
+            .patchPassenger(id, patchedColumns(valuesToPatch), expectedVersion)
+            .orElseThrow(() -> passengerRepository.existsById(id)
+                ? new VersionMismatchException("Passenger", id, expectedVersion)
+                : new PassengerNotFoundException(id));
 
-        Passenger patchedPassenger = applyPatchToPassenger(passenger, valuesToPatch);
-        passengerRepository.save(patchedPassenger);
+        entityCacheService.evictPassenger(id);
         return patchedPassenger;
     }
 
     /**
      * Usuwa pasażera o podanym ID.  Jeżeli taki pasażer nie istnieje, nic się nie dzieje.
+     * Miejsca zarezerwowane przez pasażera są zwalniane, a jego rezerwacje usuwane.
+     * Pasażer i jego rezerwacje usuwani są jednym zapytaniem, niezależnie od liczby rezerwacji.
      *
      * @param id ID pasażera do usunięcia.
      */
+    @Transactional
     public void deletePassenger(long id) {
-        passengerRepository.deleteById(id);
+        seatInventory.release(passengerRepository.deletePassenger(id));
+        entityCacheService.evictPassenger(id);
     }
 }
\ No newline at end of file
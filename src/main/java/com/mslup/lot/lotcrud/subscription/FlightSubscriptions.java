@@ -0,0 +1,242 @@
+package com.mslup.lot.lotcrud.subscription;
+
+import com.mslup.lot.lotcrud.dto.FlightView;
+import com.mslup.lot.lotcrud.event.FlightChangedEvent;
+import com.mslup.lot.lotcrud.event.SeatsChangedEvent;
+import com.mslup.lot.lotcrud.exception.FlightNotFoundException;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Subskrypcje zmian lotów (liczby wolnych miejsc i rozkładu) wysyłane jako zdarzenia SSE.
+ *
+ * <p>Zmiany zatwierdzone w bazie danych ({@link SeatsChangedEvent}, {@link FlightChangedEvent})
+ * tylko oznaczają lot jako zmieniony. Co {@link SubscriptionProperties#coalesceInterval()}
+ * zmienione loty są pobierane jednym zapytaniem i wysyłane subskrybentom, więc seria
+ * rezerwacji w tym czasie daje jedno powiadomienie z ostatnim stanem lotu.
+ *
+ * <p>Otwarta subskrypcja nie zajmuje wątku; powiadomienia wysyłane są na wątkach wirtualnych,
+ * po jednym zadaniu na subskrybenta, więc wolny klient nie opóźnia pozostałych.
+ * Subskrybenci trasy dostają powiadomienia o lotach, które w chwili wysyłki są na tej trasie.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FlightSubscriptions {
+    private final FlightRepository flightRepository;
+    private final TaskScheduler taskScheduler;
+    private final SubscriptionProperties properties;
+
+    private final Map<Long, Set<Subscriber>> flightSubscribers = new ConcurrentHashMap<>();
+    private final Map<RouteKey, Set<Subscriber>> routeSubscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Loty zmienione od ostatniego powiadomienia.
+     */
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+
+    /**
+     * Trasa subskrypcji.
+     *
+     * @param originAirport      Kod lotniska początkowego.
+     * @param destinationAirport Kod lotniska docelowego.
+     */
+    private record RouteKey(String originAirport, String destinationAirport) {
+
+        static RouteKey of(FlightView flight) {
+            return new RouteKey(flight.originAirport(), flight.destinationAirport());
+        }
+    }
+
+    /**
+     * Subskrybent; zdarzenia wysyłane są do niego pojedynczo, w kolejności powiadomień.
+     */
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private Runnable unsubscribe;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void send(List<Set<DataWithMediaType>> events) {
+            lock.lock();
+            try {
+                for (Set<DataWithMediaType> event : events) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Połączenie zostało zamknięte; kontener zakończy żądanie.
+                unsubscribe.run();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        tasks.add(taskScheduler.scheduleWithFixedDelay(this::flush,
+            properties.coalesceInterval()));
+        tasks.add(taskScheduler.scheduleWithFixedDelay(this::heartbeat,
+            properties.heartbeatInterval()));
+    }
+
+    @PreDestroy
+    void stop() {
+        tasks.forEach(task -> task.cancel(false));
+        senders.shutdownNow();
+    }
+
+    /**
+     * Subskrybuje zmiany lotu. Pierwsze zdarzenie zawiera aktualny stan lotu.
+     *
+     * @param flightId ID lotu.
+     * @return Strumień zdarzeń SSE.
+     * @throws FlightNotFoundException Jeśli lot o podanym ID nie został znaleziony.
+     */
+    public SseEmitter subscribeFlight(long flightId) throws FlightNotFoundException {
+        FlightView flight = flightRepository.findViewById(flightId)
+            .orElseThrow(() -> new FlightNotFoundException(flightId));
+        Subscriber subscriber = subscribe(flightSubscribers, flightId);
+        subscriber.send(List.of(flightEvent(flight)));
+        return subscriber.emitter;
+    }
+
+    /**
+     * Subskrybuje zmiany lotów na trasie.
+     *
+     * @param originAirport      Znormalizowany kod lotniska początkowego.
+     * @param destinationAirport Znormalizowany kod lotniska docelowego.
+     * @return Strumień zdarzeń SSE.
+     */
+    public SseEmitter subscribeRoute(String originAirport, String destinationAirport) {
+        return subscribe(routeSubscribers, new RouteKey(originAirport, destinationAirport))
+            .emitter;
+    }
+
+    /**
+     * Oznacza loty jako zmienione po zatwierdzeniu zmiany liczby miejsc.
+     *
+     * @param event Zdarzenie zmiany liczby miejsc.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsChanged(SeatsChangedEvent event) {
+        event.flightIds().forEach(this::markChanged);
+    }
+
+    /**
+     * Oznacza lot jako zmieniony po zatwierdzeniu jego zmiany.
+     *
+     * @param event Zdarzenie zmiany lotu.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFlightChanged(FlightChangedEvent event) {
+        markChanged(event.flightId());
+    }
+
+    private void markChanged(long flightId) {
+        if (flightSubscribers.containsKey(flightId) || !routeSubscribers.isEmpty()) {
+            changed.add(flightId);
+        }
+    }
+
+    /**
+     * Wysyła subskrybentom aktualny stan lotów zmienionych od ostatniego powiadomienia.
+     */
+    void flush() {
+        List<Long> flightIds = new ArrayList<>();
+        for (Iterator<Long> iterator = changed.iterator(); iterator.hasNext(); ) {
+            flightIds.add(iterator.next());
+            iterator.remove();
+        }
+        if (flightIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<Long, FlightView> flights = flightRepository.findViewsByIdIn(flightIds).stream()
+                .collect(Collectors.toMap(FlightView::id, Function.identity()));
+            Map<Subscriber, List<Set<DataWithMediaType>>> events = new HashMap<>();
+            for (Long flightId : flightIds) {
+                FlightView flight = flights.get(flightId);
+                Set<DataWithMediaType> event = flight != null ? flightEvent(flight)
+                    : SseEmitter.event().name("deleted").data(flightId).build();
+                addEvent(events, flightSubscribers.get(flightId), event);
+                if (flight != null) {
+                    addEvent(events, routeSubscribers.get(RouteKey.of(flight)), event);
+                }
+            }
+            events.forEach((subscriber, subscriberEvents) ->
+                senders.execute(() -> subscriber.send(subscriberEvents)));
+        } catch (RuntimeException e) {
+            changed.addAll(flightIds);
+            log.warn("Sending flight updates failed, retrying in the next cycle", e);
+        }
+    }
+
+    private void heartbeat() {
+        List<Set<DataWithMediaType>> events = List.of(SseEmitter.event().comment("").build());
+        Set<Subscriber> subscribers = new HashSet<>();
+        flightSubscribers.values().forEach(subscribers::addAll);
+        routeSubscribers.values().forEach(subscribers::addAll);
+        subscribers.forEach(subscriber -> senders.execute(() -> subscriber.send(events)));
+    }
+
+    private <K> Subscriber subscribe(Map<K, Set<Subscriber>> subscribers, K key) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(properties.timeout().toMillis()));
+        subscriber.unsubscribe = () -> subscribers.computeIfPresent(key, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        subscriber.emitter.onCompletion(subscriber.unsubscribe);
+        subscriber.emitter.onTimeout(subscriber.unsubscribe);
+        subscriber.emitter.onError(e -> subscriber.unsubscribe.run());
+
+        subscribers.compute(key, (k, set) -> {
+            Set<Subscriber> result = set != null ? set : ConcurrentHashMap.newKeySet();
+            result.add(subscriber);
+            return result;
+        });
+        return subscriber;
+    }
+
+    private static void addEvent(Map<Subscriber, List<Set<DataWithMediaType>>> events,
+                                 Set<Subscriber> subscribers,
+                                 Set<DataWithMediaType> event) {
+        if (subscribers != null) {
+            subscribers.forEach(subscriber ->
+                events.computeIfAbsent(subscriber, s -> new ArrayList<>()).add(event));
+        }
+    }
+
+    private static Set<DataWithMediaType> flightEvent(FlightView flight) {
+        return SseEmitter.event().name("flight").data(flight).build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.mslup.lot.lotcrud.subscription;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Konfiguracja subskrypcji zmian lotów (prefiks {@code lotcrud.subscriptions}).
+ *
+ * @param coalesceInterval  Odstęp między powiadomieniami; wszystkie zmiany lotu w tym czasie
+ *                          są łączone w jedno powiadomienie.
+ * @param timeout           Czas, po którym subskrypcja jest zamykana (klient może ją odnowić).
+ * @param heartbeatInterval Odstęp między pustymi komunikatami, które wykrywają zamknięte
+ *                          połączenia.
+ */
+@ConfigurationProperties(prefix = "lotcrud.subscriptions")
+public record SubscriptionProperties(@DefaultValue("1s") Duration coalesceInterval,
+                                     @DefaultValue("30m") Duration timeout,
+                                     @DefaultValue("30s") Duration heartbeatInterval) {
+}
@@ -0,0 +1,4 @@
+-- Nagłówki odpowiedzi (Location, ETag) odtwarzane razem z odpowiedzią na ponowione żądanie
+-- z tym samym kluczem idempotencji.
+
+alter table idempotency_keys add column headers text;
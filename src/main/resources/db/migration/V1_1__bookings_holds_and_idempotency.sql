@@ -0,0 +1,58 @@
+-- Rezerwacje z datą i statusem, blokady miejsc, punkt kontrolny liczników w pamięci
+-- i klucze idempotencji. Wykonywane także na bazach oznaczonych wersją 1.
+
+alter table flight_passenger
+    add column created_at timestamp with time zone not null default now(),
+    add column status     varchar(255)             not null default 'CONFIRMED';
+alter table flight_passenger
+    alter column created_at drop default,
+    alter column status drop default;
+
+-- Klucze obce tworzone przez Hibernate nie usuwały rezerwacji razem z lotem lub pasażerem;
+-- ich nazwy są generowane, dlatego usuwane są według tablicy.
+do $$
+declare
+    fk_name text;
+begin
+    for fk_name in
+        select conname from pg_constraint
+        where conrelid = 'flight_passenger'::regclass and contype = 'f'
+    loop
+        execute format('alter table flight_passenger drop constraint %I', fk_name);
+    end loop;
+end $$;
+
+alter table flight_passenger
+    add constraint fk_flight_passenger_flight
+        foreign key (flight_id) references flights (id) on delete cascade,
+    add constraint fk_flight_passenger_passenger
+        foreign key (passenger_id) references passengers (id) on delete cascade;
+
+create index idx_flight_passenger_passenger_id on flight_passenger (passenger_id);
+
+create table seat_holds (
+    id         uuid                     not null,
+    flight_id  bigint                   not null,
+    seats      integer                  not null,
+    expires_at timestamp with time zone not null,
+    primary key (id),
+    constraint fk_seat_holds_flight
+        foreign key (flight_id) references flights (id) on delete cascade
+);
+
+create table seat_inventory_checkpoint (
+    id            integer not null,
+    last_sequence bigint  not null,
+    primary key (id)
+);
+
+create table idempotency_keys (
+    idempotency_key varchar(255)             not null,
+    fingerprint     varchar(255)             not null,
+    status          integer                  not null,
+    body            text,
+    created_at      timestamp with time zone not null,
+    primary key (idempotency_key)
+);
+
+create index idx_idempotency_keys_created_at on idempotency_keys (created_at);
@@ -0,0 +1,36 @@
+-- Schemat bazowy, odpowiadający schematowi tworzonemu wcześniej przez ddl-auto=update.
+-- Istniejące bazy oznaczane są tą wersją (spring.flyway.baseline-on-migrate), więc każda
+-- późniejsza zmiana schematu musi być osobną migracją.
+
+create sequence flight_seq start with 1 increment by 50;
+create sequence passenger_seq start with 1 increment by 50;
+
+create table flights (
+    id                    bigint                   not null,
+    flight_number         varchar(255)             not null,
+    origin_airport        varchar(255)             not null,
+    destination_airport   varchar(255)             not null,
+    departure_date_time   timestamp with time zone not null,
+    available_seats_count integer                  not null,
+    primary key (id)
+);
+
+create table passengers (
+    id           bigint       not null,
+    first_name   varchar(255) not null,
+    last_name    varchar(255) not null,
+    phone_number varchar(255) not null,
+    primary key (id)
+);
+
+create table flight_passenger (
+    flight_id    bigint not null,
+    passenger_id bigint not null,
+    primary key (flight_id, passenger_id)
+);
+
+-- Nazwy kluczy obcych nadane przez Hibernate.
+alter table flight_passenger
+    add constraint fk8vxkymscw5vs7v8korwkc0dig foreign key (flight_id) references flights;
+alter table flight_passenger
+    add constraint fk9aii2jboynr527khfoxos9pnt foreign key (passenger_id) references passengers;
@@ -0,0 +1,22 @@
+-- Indeksy dla filtrowania lotów (FlightRepositoryCustomImpl) i zapytań o rezerwacje.
+
+-- Trasa z przedziałem dat odlotu: równość na lotniskach, zakres na dacie.
+create index if not exists idx_flights_route_departure
+    on flights (origin_airport, destination_airport, departure_date_time);
+
+-- Filtrowanie po liczbie wolnych miejsc.
+create index if not exists idx_flights_available_seats_count
+    on flights (available_seats_count);
+
+-- Stronicowanie kursorem po (data odlotu, ID) i filtrowanie po samym przedziale dat.
+create index if not exists idx_flights_departure_id
+    on flights (departure_date_time, id);
+
+-- Lista pasażerów lotu w kolejności rezerwacji. Wyszukiwanie po flight_id obsługuje też
+-- klucz główny (flight_id, passenger_id), a po passenger_id indeks z wersji 1.
+create index if not exists idx_flight_passenger_flight_created
+    on flight_passenger (flight_id, created_at);
+
+-- Blokady miejsc lotu (również kaskadowe usuwanie przy usuwaniu lotu).
+create index if not exists idx_seat_holds_flight_id
+    on seat_holds (flight_id);
@@ -0,0 +1,3 @@
+-- Opcjonalna data przylotu, potrzebna do wyszukiwania połączeń z przesiadkami.
+
+alter table flights add column arrival_date_time timestamp with time zone;
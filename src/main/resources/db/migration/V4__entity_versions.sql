@@ -0,0 +1,4 @@
+-- Wersje lotów i pasażerów do optymistycznej kontroli współbieżności przy zmianach (PATCH).
+
+alter table flights add column version bigint not null default 0;
+alter table passengers add column version bigint not null default 0;
@@ -0,0 +1,3 @@
+-- Identyfikatory lotów przydzielane pulami po 500 (allocationSize w encji Flight),
+-- aby import wielu lotów rzadko odpytywał sekwencję.
+alter sequence flight_seq increment by 500;
@@ -0,0 +1,22 @@
+-- Znormalizowany numer telefonu (tylko cyfry i początkowy "+") jednoznacznie identyfikuje
+-- pasażera; według niego import pasażerów łączy dane z istniejącymi pasażerami.
+-- Jeśli kilku istniejących pasażerów ma ten sam numer, klucz dostaje tylko najstarszy z nich.
+
+alter table passengers add column phone_number_key varchar(255);
+
+update passengers p
+set phone_number_key = k.phone_number_key
+from (select id,
+             phone_number_key,
+             row_number() over (partition by phone_number_key order by id) as position
+      from (select id,
+                   nullif(case when btrim(phone_number) like '+%' then '+' else '' end
+                              || regexp_replace(phone_number, '[^0-9]', '', 'g'),
+                          case when btrim(phone_number) like '+%' then '+' else '' end)
+                       as phone_number_key
+            from passengers) normalized
+      where phone_number_key is not null) k
+where p.id = k.id
+  and k.position = 1;
+
+create unique index uq_passengers_phone_number_key on passengers (phone_number_key);
@@ -0,0 +1,31 @@
+-- Rozkłady cykliczne (np. LO281 WAW-JFK codziennie o 10:05 przez cały sezon) i powiązanie
+-- lotów z rozkładem, z którego zostały utworzone. Dzień rozkładu jednoznacznie wyznacza lot,
+-- więc ponowne rozwinięcie rozkładu nie tworzy duplikatów.
+
+create sequence flight_schedule_seq start with 1 increment by 50;
+
+create table flight_schedules (
+    id                    bigint       not null,
+    flight_number         varchar(255) not null,
+    origin_airport        varchar(255) not null,
+    destination_airport   varchar(255) not null,
+    days_of_week          varchar(7)   not null,
+    departure_time        time         not null,
+    block_time_minutes    integer,
+    time_zone             varchar(255) not null,
+    valid_from            date         not null,
+    valid_to              date         not null,
+    available_seats_count integer      not null,
+    expanded_through      date         not null,
+    version               bigint       not null default 0,
+    primary key (id)
+);
+
+create index idx_flight_schedules_expanded_through on flight_schedules (expanded_through);
+
+alter table flights add column schedule_id bigint;
+alter table flights add column schedule_date date;
+alter table flights add constraint fk_flights_schedule
+    foreign key (schedule_id) references flight_schedules (id) on delete set null;
+
+create unique index uq_flights_schedule_date on flights (schedule_id, schedule_date);
@@ -0,0 +1,37 @@
+-- Archiwum lotów, które odleciały, i ich rezerwacji, podzielone na partycje według daty
+-- odlotu (po jednej na rok). Partycje tworzy zadanie archiwizacji (FlightArchiver) przed
+-- przeniesieniem lotów z danego roku. Tablice bieżące (flights, flight_passenger) pozostają
+-- niepartycjonowane, bo klucz główny tablicy partycjonowanej musi zawierać klucz partycji,
+-- a rezerwacje i blokady miejsc odwołują się do lotu kluczem obcym na samym id.
+
+create table flights_archive (
+    id                    bigint                   not null,
+    flight_number         varchar(255)             not null,
+    origin_airport        varchar(255)             not null,
+    destination_airport   varchar(255)             not null,
+    departure_date_time   timestamp with time zone not null,
+    arrival_date_time     timestamp with time zone,
+    available_seats_count integer                  not null,
+    version               bigint                   not null,
+    schedule_id           bigint,
+    schedule_date         date,
+    archived_at           timestamp with time zone not null,
+    primary key (id, departure_date_time)
+) partition by range (departure_date_time);
+
+create index idx_flights_archive_route_departure
+    on flights_archive (origin_airport, destination_airport, departure_date_time);
+create index idx_flights_archive_departure_id
+    on flights_archive (departure_date_time, id);
+
+create table flight_passenger_archive (
+    flight_id           bigint                   not null,
+    passenger_id        bigint                   not null,
+    created_at          timestamp with time zone not null,
+    status              varchar(255)             not null,
+    departure_date_time timestamp with time zone not null,
+    primary key (flight_id, passenger_id, departure_date_time)
+) partition by range (departure_date_time);
+
+create index idx_flight_passenger_archive_passenger_id
+    on flight_passenger_archive (passenger_id);
@@ -0,0 +1,23 @@
+-- Kody lotnisk zapisywane są znormalizowane (bez białych znaków na początku i końcu, wielkimi
+-- literami), tak jak kody w kryteriach wyszukiwania (FlightFilterCriteria.normalizeAirportCode).
+-- Wcześniej zapisane kody pisane małymi literami byłyby niewidoczne dla wyszukiwania.
+
+update flights
+set origin_airport      = upper(btrim(origin_airport, E' \t\r\n')),
+    destination_airport = upper(btrim(destination_airport, E' \t\r\n')),
+    version             = version + 1
+where origin_airport <> upper(btrim(origin_airport, E' \t\r\n'))
+   or destination_airport <> upper(btrim(destination_airport, E' \t\r\n'));
+
+update flights_archive
+set origin_airport      = upper(btrim(origin_airport, E' \t\r\n')),
+    destination_airport = upper(btrim(destination_airport, E' \t\r\n'))
+where origin_airport <> upper(btrim(origin_airport, E' \t\r\n'))
+   or destination_airport <> upper(btrim(destination_airport, E' \t\r\n'));
+
+update flight_schedules
+set origin_airport      = upper(btrim(origin_airport, E' \t\r\n')),
+    destination_airport = upper(btrim(destination_airport, E' \t\r\n')),
+    version             = version + 1
+where origin_airport <> upper(btrim(origin_airport, E' \t\r\n'))
+   or destination_airport <> upper(btrim(destination_airport, E' \t\r\n'));
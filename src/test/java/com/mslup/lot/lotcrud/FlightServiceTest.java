@@ -3,25 +3,109 @@ package com.mslup.lot.lotcrud;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mslup.lot.lotcrud.archive.FlightArchiver;
+import com.mslup.lot.lotcrud.cache.EntityCacheConfiguration;
+import com.mslup.lot.lotcrud.cache.EntityCacheService;
+import com.mslup.lot.lotcrud.controller.AirportBoardController;
+import com.mslup.lot.lotcrud.controller.FlightSubscriptionController;
+import com.mslup.lot.lotcrud.controller.ItineraryController;
+import com.mslup.lot.lotcrud.dto.BookingBatchResultDto;
+import com.mslup.lot.lotcrud.dto.CacheStatsDto;
+import com.mslup.lot.lotcrud.dto.CursorPageDto;
+import com.mslup.lot.lotcrud.dto.FlightBatchPatchResultDto;
+import com.mslup.lot.lotcrud.dto.FlightImportResultDto;
+import com.mslup.lot.lotcrud.dto.FlightPatchResultDto;
+import com.mslup.lot.lotcrud.dto.FlightPurgeResultDto;
+import com.mslup.lot.lotcrud.dto.FlightScheduleDto;
+import com.mslup.lot.lotcrud.dto.FlightView;
+import com.mslup.lot.lotcrud.dto.ImportErrorDto;
+import com.mslup.lot.lotcrud.dto.ManifestRow;
+import com.mslup.lot.lotcrud.dto.SeatHoldDto;
+import com.mslup.lot.lotcrud.event.SeatsChangedEvent;
 import com.mslup.lot.lotcrud.exception.FlightNotFoundException;
+import com.mslup.lot.lotcrud.exception.IdempotencyKeyReusedException;
+import com.mslup.lot.lotcrud.exception.NoAvailableSeatsException;
 import com.mslup.lot.lotcrud.exception.PassengerNotFoundException;
+import com.mslup.lot.lotcrud.exception.ResourceException;
+import com.mslup.lot.lotcrud.exception.SeatHoldNotFoundException;
+import com.mslup.lot.lotcrud.exception.VersionMismatchException;
+import com.mslup.lot.lotcrud.export.ExportFormat;
+import com.mslup.lot.lotcrud.export.FlightExportService;
+import com.mslup.lot.lotcrud.filter.FlightCursor;
 import com.mslup.lot.lotcrud.filter.FlightFilterCriteria;
+import com.mslup.lot.lotcrud.filter.FlightPageRequest;
+import com.mslup.lot.lotcrud.hold.SeatHoldService;
+import com.mslup.lot.lotcrud.idempotency.IdempotencyProperties;
+import com.mslup.lot.lotcrud.idempotency.IdempotencyService;
+import com.mslup.lot.lotcrud.importer.FlightImportService;
+import com.mslup.lot.lotcrud.inventory.InMemorySeatInventory;
+import com.mslup.lot.lotcrud.inventory.InventoryMode;
+import com.mslup.lot.lotcrud.inventory.InventoryProperties;
+import com.mslup.lot.lotcrud.maintenance.FlightPurgeService;
 import com.mslup.lot.lotcrud.model.Flight;
+import com.mslup.lot.lotcrud.model.FlightSchedule;
 import com.mslup.lot.lotcrud.model.Passenger;
+import com.mslup.lot.lotcrud.patcher.FlightPatch;
+import com.mslup.lot.lotcrud.repository.FlightRepository;
+import com.mslup.lot.lotcrud.repository.IdempotencyRecordRepository;
+import com.mslup.lot.lotcrud.repository.SeatInventoryCheckpointRepository;
+import com.mslup.lot.lotcrud.search.FlightSearchIndex;
+import com.mslup.lot.lotcrud.schedule.ScheduleExpander;
+import com.mslup.lot.lotcrud.service.FlightScheduleService;
 import com.mslup.lot.lotcrud.service.FlightService;
 import com.mslup.lot.lotcrud.service.PassengerService;
+import com.mslup.lot.lotcrud.subscription.SubscriptionProperties;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.OffsetDateTime;
-import java.util.HashSet;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.test.annotation.Commit;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @SpringBootTest
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -30,6 +114,56 @@ public class FlightServiceTest extends LotCrudApplicationTests {
     private FlightService flightService;
     @Autowired
     private PassengerService passengerService;
+    @Autowired
+    private FlightImportService flightImportService;
+    @Autowired
+    private FlightScheduleService flightScheduleService;
+    @Autowired
+    private ScheduleExpander scheduleExpander;
+    @Autowired
+    private FlightPurgeService flightPurgeService;
+    @Autowired
+    private FlightArchiver flightArchiver;
+    @Autowired
+    private FlightExportService flightExportService;
+    @Autowired
+    private EntityCacheService entityCacheService;
+    @Autowired
+    private SeatHoldService seatHoldService;
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Autowired
+    private IdempotencyProperties idempotencyProperties;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private FlightRepository flightRepository;
+    @Autowired
+    private SeatInventoryCheckpointRepository checkpointRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private TaskScheduler taskScheduler;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ItineraryController itineraryController;
+    @Autowired
+    private FlightSearchIndex flightSearchIndex;
+    @Autowired
+    private AirportBoardController airportBoardController;
+    @Autowired
+    private FlightSubscriptionController flightSubscriptionController;
+    @Autowired
+    private SubscriptionProperties subscriptionProperties;
+    @TempDir
+    private Path journalDirectory;
 
     @Test
     @Order(1)
@@ -58,7 +192,6 @@ public class FlightServiceTest extends LotCrudApplicationTests {
             .destinationAirport("LAX")
             .departureDateTime(OffsetDateTime.parse("2024-04-24T10:00:00+01:00"))
             .availableSeatsCount(150)
-            .passengers(new HashSet<>())
             .build());
         flightService.saveFlight(Flight.builder()
             .flightNumber("FL91011")
@@ -66,7 +199,6 @@ public class FlightServiceTest extends LotCrudApplicationTests {
             .destinationAirport("JFK")
             .departureDateTime(OffsetDateTime.parse("2024-04-25T22:00:00+04:00"))
             .availableSeatsCount(300)
-            .passengers(new HashSet<>())
             .build());
         flightService.saveFlight(Flight.builder()
             .flightNumber("FL1213")
@@ -74,7 +206,6 @@ public class FlightServiceTest extends LotCrudApplicationTests {
             .destinationAirport("LAX")
             .departureDateTime(OffsetDateTime.parse("2024-04-26T09:00:00-07:00"))
             .availableSeatsCount(180)
-            .passengers(new HashSet<>())
             .build());
         flightService.saveFlight(Flight.builder()
             .flightNumber("FL1415")
@@ -82,7 +213,6 @@ public class FlightServiceTest extends LotCrudApplicationTests {
             .destinationAirport("MIA")
             .departureDateTime(OffsetDateTime.parse("2024-04-27T14:00:00-04:00"))
             .availableSeatsCount(220)
-            .passengers(new HashSet<>())
             .build());
         flightService.saveFlight(Flight.builder()
             .flightNumber("FL1617")
@@ -90,7 +220,6 @@ public class FlightServiceTest extends LotCrudApplicationTests {
             .destinationAirport("LAX")
             .departureDateTime(OffsetDateTime.parse("2024-04-28T21:00:00+09:00"))
             .availableSeatsCount(250)
-            .passengers(new HashSet<>())
             .build());
         flightService.saveFlight(Flight.builder()
             .flightNumber("FL1819")
@@ -98,7 +227,6 @@ public class FlightServiceTest extends LotCrudApplicationTests {
             .destinationAirport("JFK")
             .departureDateTime(OffsetDateTime.parse("2024-04-29T11:00:00+01:00"))
             .availableSeatsCount(300)
-            .passengers(new HashSet<>())
             .build());
         flightService.saveFlight(Flight.builder()
             .flightNumber("FL2021")
@@ -106,10 +234,21 @@ public class FlightServiceTest extends LotCrudApplicationTests {
             .destinationAirport("CAI")
             .departureDateTime(OffsetDateTime.parse("2024-04-30T17:00:00+03:00"))
             .availableSeatsCount(350)
-            .passengers(new HashSet<>())
             .build());
     }
 
+    private static Flight flight(String flightNumber, String originAirport,
+                                 String destinationAirport, String departureDateTime,
+                                 int availableSeatsCount) {
+        return Flight.builder()
+            .flightNumber(flightNumber)
+            .originAirport(originAirport)
+            .destinationAirport(destinationAirport)
+            .departureDateTime(OffsetDateTime.parse(departureDateTime))
+            .availableSeatsCount(availableSeatsCount)
+            .build();
+    }
+
     @Test
     @Order(2)
     public void givenFlightList_whenGetAllFlights_thenAllFlightsAreReturned() {
@@ -233,7 +372,7 @@ public class FlightServiceTest extends LotCrudApplicationTests {
         passengerService.savePassenger(Passenger.builder()
             .firstName("John")
             .lastName("Doe")
-            .phoneNumber("123-456-7890")
+            .phoneNumber("123-456-7891")
             .build());
 
         // When
@@ -242,10 +381,10 @@ public class FlightServiceTest extends LotCrudApplicationTests {
         // Then
         Flight flightAfter = flightService.findFlight(1);
         assertThat(flightAfter.getAvailableSeatsCount()).isEqualTo(seatsCount - 1);
-        assertThat(flightAfter.getPassengers()).extracting(Passenger::getId).contains(1L);
-        Passenger passenger = passengerService.findPassenger(1);
-        assertThat(passenger.getBookings().size()).isEqualTo(1);
-        assertThat(passenger.getBookings()).extracting(Flight::getId).contains(1L);
+        assertThat(flightService.getPassengers(1)).extracting(Passenger::getId).contains(1L);
+        List<Flight> bookings = passengerService.getFlights(1);
+        assertThat(bookings.size()).isEqualTo(1);
+        assertThat(bookings).extracting(Flight::getId).contains(1L);
     }
 
     @Test
@@ -268,11 +407,1059 @@ public class FlightServiceTest extends LotCrudApplicationTests {
         // Then
         Flight flightAfter = flightService.findFlight(1);
         assertThat(flightAfter.getAvailableSeatsCount()).isEqualTo(seatsCount + 1);
-        assertThat(flightAfter.getPassengers().size()).isEqualTo(0);
-        Passenger passenger = passengerService.findPassenger(1);
-        assertThat(passenger.getBookings().size()).isEqualTo(0);
+        assertThat(flightService.getPassengers(1).size()).isEqualTo(0);
+        assertThat(passengerService.getFlights(1).size()).isEqualTo(0);
 
         passengerService.deletePassenger(1L);
     }
 
+    @Test
+    @Order(10)
+    public void givenFullFlight_whenAddPassenger_thenNoAvailableSeats() {
+        // Given
+        Flight flight = flightService.saveFlight(Flight.builder()
+            .flightNumber("FL2223")
+            .originAirport("WAW")
+            .destinationAirport("JFK")
+            .departureDateTime(OffsetDateTime.parse("2024-05-01T10:00:00+02:00"))
+            .availableSeatsCount(1)
+            .build());
+        Passenger first = passengerService.savePassenger(Passenger.builder()
+            .firstName("Anna")
+            .lastName("Nowak")
+            .phoneNumber("+48222333444")
+            .build());
+        Passenger second = passengerService.savePassenger(Passenger.builder()
+            .firstName("Piotr")
+            .lastName("Wiśniewski")
+            .phoneNumber("+48333444555")
+            .build());
+
+        // When
+        flightService.addPassenger(flight.getId(), first.getId());
+        flightService.addPassenger(flight.getId(), first.getId());
+
+        // Then
+        assertThrows(NoAvailableSeatsException.class,
+            () -> flightService.addPassenger(flight.getId(), second.getId()));
+        assertThat(flightService.findFlight(flight.getId()).getAvailableSeatsCount()).isEqualTo(0);
+        assertThat(flightService.getPassengers(flight.getId()))
+            .extracting(Passenger::getId).containsExactly(first.getId());
+    }
+
+    @Test
+    @Order(11)
+    public void givenGroup_whenAddPassengers_thenAllOrNothingIsBooked() {
+        // Given
+        Flight flight = flightService.saveFlight(Flight.builder()
+            .flightNumber("FL2425")
+            .originAirport("WAW")
+            .destinationAirport("CDG")
+            .departureDateTime(OffsetDateTime.parse("2024-05-02T08:00:00+02:00"))
+            .availableSeatsCount(3)
+            .build());
+        Passenger existing = passengerService.savePassenger(Passenger.builder()
+            .firstName("Ewa")
+            .lastName("Kamińska")
+            .phoneNumber("+48444555666")
+            .build());
+        List<Passenger> group = List.of(
+            Passenger.builder().firstName("Jan").lastName("Lewandowski")
+                .phoneNumber("+48555666777").build(),
+            Passenger.builder().firstName("Maria").lastName("Zielińska")
+                .phoneNumber("+48666777888").build());
+
+        // When
+        BookingBatchResultDto result =
+            flightService.addPassengers(flight.getId(), List.of(existing.getId()), group);
+
+        // Then
+        assertThat(result.bookedCount()).isEqualTo(3);
+        assertThat(flightService.findFlight(flight.getId()).getAvailableSeatsCount()).isEqualTo(0);
+        assertThat(flightService.getPassengers(flight.getId()))
+            .extracting(Passenger::getId)
+            .containsExactlyInAnyOrderElementsOf(result.passengerIds());
+
+        int passengersCount = passengerService.getPassengers().size();
+        assertThrows(NoAvailableSeatsException.class,
+            () -> flightService.addPassengers(flight.getId(), List.of(),
+                List.of(Passenger.builder().firstName("Adam").lastName("Wójcik")
+                    .phoneNumber("+48777888999").build())));
+        assertThat(passengerService.getPassengers().size()).isEqualTo(passengersCount);
+    }
+
+    @Test
+    @Order(12)
+    public void givenFlights_whenGetFlightsPaged_thenPagesCoverAllFlightsInOrder() {
+        // Given
+        FlightFilterCriteria criteria = FlightFilterCriteria.builder().build();
+        List<Long> expectedIds = flightService.getFlights().stream()
+            .sorted(Comparator.comparing(Flight::getDepartureDateTime)
+                .thenComparing(Flight::getId))
+            .map(Flight::getId)
+            .toList();
+
+        // When
+        List<Long> pagedIds = new ArrayList<>();
+        FlightCursor cursor = null;
+        do {
+            CursorPageDto<FlightView> page = flightService.getFlights(criteria,
+                new FlightPageRequest(cursor, 2, Sort.Direction.ASC));
+            assertThat(page.items().size()).isLessThanOrEqualTo(2);
+            page.items().forEach(flight -> pagedIds.add(flight.id()));
+            cursor = page.nextCursor() == null ? null : FlightCursor.decode(page.nextCursor());
+        } while (cursor != null);
+
+        // Then
+        assertThat(pagedIds).containsExactlyElementsOf(expectedIds);
+        assertThat(flightService.findFlightView(expectedIds.get(0)).id())
+            .isEqualTo(expectedIds.get(0));
+    }
+
+    @Test
+    @Order(13)
+    public void givenFlight_whenPatchWithVersion_thenOnlyCurrentVersionApplies() {
+        // Given
+        long id = flightService.getFlights().get(0).getId();
+        long version = flightService.findFlight(id).getVersion();
+
+        // When
+        Flight patchedFlight = flightService.patchFlight(id,
+            Flight.builder().flightNumber("LO100").availableSeatsCount(-1).build(), version);
+
+        // Then
+        assertThat(patchedFlight.getVersion()).isEqualTo(version + 1);
+        assertThat(flightService.findFlight(id).getFlightNumber()).isEqualTo("LO100");
+        assertThrows(VersionMismatchException.class,
+            () -> flightService.patchFlight(id,
+                Flight.builder().flightNumber("LO200").availableSeatsCount(-1).build(),
+                version));
+        assertThat(flightService.findFlight(id).getFlightNumber()).isEqualTo("LO100");
+    }
+
+    @Test
+    @Order(14)
+    public void givenFlights_whenBatchPatch_thenResultsReportedPerItem() {
+        // Given
+        Flight flight = flightService.getFlights().get(0);
+        long missingId = flightService.getFlights().stream()
+            .mapToLong(Flight::getId).max().orElse(0) + 1;
+
+        // When
+        FlightBatchPatchResultDto result = flightService.patchFlights(List.of(
+            new FlightPatch(flight.getId(), flight.getVersion(),
+                Flight.builder().flightNumber("LO300").availableSeatsCount(-1).build()),
+            new FlightPatch(missingId, null,
+                Flight.builder().flightNumber("LO400").availableSeatsCount(-1).build())));
+
+        // Then
+        assertThat(result.updatedCount()).isEqualTo(1);
+        assertThat(result.results()).extracting(FlightPatchResultDto::status).containsExactly(
+            FlightPatchResultDto.Status.UPDATED, FlightPatchResultDto.Status.NOT_FOUND);
+        assertThat(flightService.findFlight(flight.getId()).getFlightNumber())
+            .isEqualTo("LO300");
+    }
+
+    @Test
+    @Order(15)
+    public void givenCsvWithInvalidRow_whenImport_thenValidRowsImportedAndErrorReported()
+        throws IOException {
+        // Given
+        int flightsCount = flightService.getFlights().size();
+        String csv = """
+            flightNumber,originAirport,destinationAirport,departureDateTime,availableSeatsCount
+            LO500,waw,KRK,2030-01-01T10:00:00Z,100
+            LO501,WAW,,2030-01-01T12:00:00Z,100
+            LO502,KRK,WAW,2030-01-01T14:00:00Z,5
+            "LO503",KRK,GDN,2030-01-01T16:00:00Z,120
+            """;
+
+        // When
+        FlightImportResultDto result = flightImportService.importFlights(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ExportFormat.CSV);
+
+        // Then
+        assertThat(result.importedCount()).isEqualTo(2);
+        assertThat(result.failedCount()).isEqualTo(2);
+        assertThat(result.errors()).extracting(ImportErrorDto::line).containsExactly(3L, 4L);
+        assertThat(flightService.getFlights()).hasSize(flightsCount + 2)
+            .anyMatch(flight -> flight.getFlightNumber().equals("LO500")
+                && flight.getOriginAirport().equals("WAW"));
+    }
+
+    @Test
+    @Order(16)
+    public void givenSchedule_whenExpandedAndChanged_thenOnlyAffectedFlightsChanged() {
+        // Given
+        LocalDate validFrom = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+        FlightScheduleDto dto = new FlightScheduleDto("LO281", "waw", "JFK", "1234567",
+            LocalTime.of(10, 5), 540, "Europe/Warsaw", validFrom, validFrom.plusDays(13), 200);
+        FlightSchedule schedule = flightScheduleService.saveSchedule(dto);
+
+        // When
+        scheduleExpander.expand(schedule.getId());
+
+        // Then
+        List<Flight> flights = scheduleFlights(schedule.getId());
+        assertThat(flights).hasSize(14).allMatch(flight -> flight.getOriginAirport().equals("WAW")
+            && flight.getAvailableSeatsCount() == 200);
+        Flight untouched = flights.stream()
+            .filter(flight -> flight.getScheduleDate().getDayOfWeek() == DayOfWeek.MONDAY)
+            .findFirst().orElseThrow();
+
+        // When
+        FlightSchedule updated = flightScheduleService.updateSchedule(schedule.getId(),
+            new FlightScheduleDto("LO281", "WAW", "JFK", "1.3.5..", LocalTime.of(10, 5), 540,
+                "Europe/Warsaw", validFrom, validFrom.plusDays(13), 180),
+            schedule.getVersion());
+        scheduleExpander.expand(schedule.getId());
+
+        // Then
+        assertThat(updated.getVersion()).isEqualTo(schedule.getVersion() + 1);
+        assertThat(scheduleFlights(schedule.getId())).hasSize(6)
+            .allMatch(flight -> updated.operatesOn(flight.getScheduleDate())
+                && flight.getAvailableSeatsCount() == 180);
+        assertThat(flightService.findFlight(untouched.getId()).getDepartureDateTime())
+            .isEqualTo(untouched.getDepartureDateTime());
+    }
+
+    @Test
+    @Order(17)
+    public void givenDepartedFlights_whenPurge_thenFlightsAndBookingsDeleted() {
+        // Given
+        int flightsCount = flightService.getFlights().size();
+        List<Flight> departed = new ArrayList<>();
+        for (int day = 1; day <= 3; day++) {
+            departed.add(flightService.saveFlight(Flight.builder()
+                .flightNumber("LO90" + day)
+                .originAirport("WAW")
+                .destinationAirport("GDN")
+                .departureDateTime(OffsetDateTime.parse("2019-06-0" + day + "T08:00:00Z"))
+                .availableSeatsCount(100)
+                .build()));
+        }
+        Passenger passenger = passengerService.savePassenger(Passenger.builder()
+            .firstName("Jan")
+            .lastName("Kowalski")
+            .phoneNumber("+48888999000")
+            .build());
+        flightService.addPassenger(departed.get(0).getId(), passenger.getId());
+
+        // When
+        FlightPurgeResultDto result =
+            flightPurgeService.purgeDepartedFlights(OffsetDateTime.parse("2020-01-01T00:00:00Z"));
+
+        // Then
+        assertThat(result.deletedCount()).isEqualTo(3);
+        assertThat(flightService.getFlights()).hasSize(flightsCount);
+        assertThat(passengerService.getFlights(passenger.getId())).isEmpty();
+        assertThrows(ResourceException.class, () -> flightPurgeService.purgeDepartedFlights(
+            OffsetDateTime.now().plusDays(1)));
+    }
+
+    @Test
+    @Order(18)
+    public void givenDepartedFlight_whenArchived_thenFoundOnlyWithHistory() {
+        // Given
+        Flight flight = flightService.saveFlight(Flight.builder()
+            .flightNumber("LO3901")
+            .originAirport("KTW")
+            .destinationAirport("RZE")
+            .departureDateTime(OffsetDateTime.parse("2018-03-01T07:00:00Z"))
+            .availableSeatsCount(100)
+            .build());
+        FlightFilterCriteria criteria = FlightFilterCriteria.builder()
+            .originAirport("KTW")
+            .destinationAirport("RZE")
+            .build();
+        FlightPageRequest page = new FlightPageRequest(null, 10, Sort.Direction.ASC);
+
+        // When
+        int archivedCount = flightArchiver.archiveDepartedFlights();
+
+        // Then
+        assertThat(archivedCount).isPositive();
+        assertThrows(FlightNotFoundException.class, () -> flightService.findFlight(flight.getId()));
+        assertThat(flightService.getFlights(criteria, page).items()).isEmpty();
+        assertThat(flightService.getFlights(criteria, page, true).items())
+            .extracting(FlightView::id).containsExactly(flight.getId());
+    }
+
+    @Test
+    @Order(19)
+    public void givenMemoryInventory_whenTransactionsRolledBack_thenSeatsUnchanged()
+        throws IOException {
+        // Given
+        long id = flightService.saveFlight(flight("LO4001", "WAW", "SZZ",
+            "2031-02-01T06:00:00Z", 3)).getId();
+        InMemorySeatInventory inventory = memoryInventory(journalDirectory, transactionTemplate);
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(inventory.reserve(id, 2)).isTrue();
+            assertThat(inventory.reserve(id, 2)).isFalse();
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            inventory.release(id, 1);
+            status.setRollbackOnly();
+        });
+
+        // Then
+        transactionTemplate.executeWithoutResult(
+            status -> assertThat(inventory.reserve(id, 3)).isTrue());
+        assertThat(inventory.reserve(id, 1)).isFalse();
+        inventory.stop();
+        assertThat(flightService.findFlight(id).getAvailableSeatsCount()).isZero();
+    }
+
+    @Test
+    @Order(20)
+    public void givenMemoryInventory_whenFlushedAndEvicted_thenCounterReloaded()
+        throws IOException {
+        // Given
+        long id = flightService.saveFlight(flight("LO4002", "WAW", "SZZ",
+            "2031-02-01T06:00:00Z", 5)).getId();
+        InMemorySeatInventory inventory = memoryInventory(journalDirectory, transactionTemplate);
+        transactionTemplate.executeWithoutResult(
+            status -> assertThat(inventory.reserve(id, 2)).isTrue());
+        assertThat(flightService.findFlight(id).getAvailableSeatsCount()).isEqualTo(5);
+
+        // When
+        inventory.flush();
+        assertThat(flightService.findFlight(id).getAvailableSeatsCount()).isEqualTo(3);
+        transactionTemplate.executeWithoutResult(status -> {
+            flightRepository.adjustSeats(id, 7);
+            inventory.evict(id);
+            // Rezerwacja w innym wątku wczytuje licznik przed zatwierdzeniem zmiany.
+            assertThat(CompletableFuture.supplyAsync(() -> inventory.reserve(id, 1)).join())
+                .isTrue();
+        });
+
+        // Then
+        assertThat(inventory.reserve(id, 9)).isTrue();
+        assertThat(inventory.reserve(id, 1)).isFalse();
+        inventory.stop();
+        assertThat(flightService.findFlight(id).getAvailableSeatsCount()).isZero();
+    }
+
+    @Test
+    @Order(21)
+    public void givenJournalWrittenBeforeCrash_whenRestarted_thenCommittedChangesReplayed()
+        throws IOException {
+        // Given
+        long id = flightService.saveFlight(flight("LO4003", "WAW", "SZZ",
+            "2031-02-01T06:00:00Z", 5)).getId();
+        InMemorySeatInventory crashed = memoryInventory(journalDirectory, transactionTemplate);
+        transactionTemplate.executeWithoutResult(
+            status -> assertThat(crashed.reserve(id, 2)).isTrue());
+        TransactionTemplate separateTransaction = new TransactionTemplate(transactionManager);
+        separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // When
+        List<InMemorySeatInventory> restarted = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(crashed.reserve(id, 1)).isTrue();
+            // Awaria przed zatwierdzeniem transakcji: dziennik odtwarza nowa instancja.
+            restarted.add(memoryInventory(journalDirectory, separateTransaction));
+            status.setRollbackOnly();
+        });
+
+        // Then
+        InMemorySeatInventory inventory = restarted.get(0);
+        assertThat(flightService.findFlight(id).getAvailableSeatsCount()).isEqualTo(3);
+        assertThat(inventory.reserve(id, 3)).isTrue();
+        assertThat(inventory.reserve(id, 1)).isFalse();
+        inventory.stop();
+        assertThat(flightService.findFlight(id).getAvailableSeatsCount()).isZero();
+    }
+
+    @Test
+    @Order(22)
+    public void givenHolds_whenConfirmedWithOtherGroupSize_thenSeatsAdjusted() {
+        // Given
+        long id = flightService.saveFlight(flight("LO4101", "WAW", "WRO",
+            "2031-03-01T06:00:00Z", 5)).getId();
+        Passenger existing = passengerService.savePassenger(Passenger.builder()
+            .firstName("Zofia")
+            .lastName("Dąbrowska")
+            .phoneNumber("+48100200301")
+            .build());
+        SeatHoldDto larger = seatHoldService.createHold(id, 3, null);
+        SeatHoldDto smaller = seatHoldService.createHold(id, 1, Duration.ofDays(1));
+        assertThat(flightService.findFlight(id).getAvailableSeatsCount()).isEqualTo(1);
+        assertThat(smaller.expiresAt()).isBefore(OffsetDateTime.now().plusHours(1));
+        assertThrows(NoAvailableSeatsException.class,
+            () -> seatHoldService.createHold(id, 2, null));
+
+        // When
+        BookingBatchResultDto fewer = seatHoldService.confirmHold(id, larger.id(),
+            List.of(existing.getId()), List.of(Passenger.builder().firstName("Kamil")
+                .lastName("Pawlak").phoneNumber("+48100200302").build()));
+        BookingBatchResultDto more = seatHoldService.confirmHold(id, smaller.id(), List.of(),
+            List.of(Passenger.builder().firstName("Ola").lastName("Sikora")
+                    .phoneNumber("+48100200303").build(),
+                Passenger.builder().firstName("Igor").lastName("Sikora")
+                    .phoneNumber("+48100200304").build()));
+
+        // Then
+        assertThat(fewer.bookedCount()).isEqualTo(2);
+        assertThat(more.bookedCount()).isEqualTo(2);
+        assertThat(flightService.findFlight(id).getAvailableSeatsCount()).isEqualTo(1);
+        assertThat(flightService.getPassengers(id)).hasSize(4);
+        assertThrows(SeatHoldNotFoundException.class, () -> seatHoldService.confirmHold(id,
+            larger.id(), List.of(existing.getId()), List.of()));
+    }
+
+    @Test
+    @Order(23)
+    public void givenHolds_whenReleasedOrExpired_thenSeatsReturned() throws InterruptedException {
+        // Given
+        long id = flightService.saveFlight(flight("LO4102", "WAW", "WRO",
+            "2031-03-01T06:00:00Z", 4)).getId();
+        SeatHoldDto released = seatHoldService.createHold(id, 2, null);
+        SeatHoldDto expiring = seatHoldService.createHold(id, 1, Duration.ofMillis(1));
+        assertThat(flightService.findFlight(id).getAvailableSeatsCount()).isEqualTo(1);
+
+        // When
+        seatHoldService.releaseHold(id, released.id());
+        Thread.sleep(10);
+        seatHoldService.releaseExpiredHolds();
+
+        // Then
+        assertThat(flightService.findFlight(id).getAvailableSeatsCount()).isEqualTo(4);
+        assertThrows(SeatHoldNotFoundException.class,
+            () -> seatHoldService.releaseHold(id, released.id()));
+        assertThrows(SeatHoldNotFoundException.class,
+            () -> seatHoldService.confirmHold(id, expiring.id(), List.of(), List.of()));
+        seatHoldService.releaseExpiredHolds();
+        assertThat(flightService.findFlight(id).getAvailableSeatsCount()).isEqualTo(4);
+    }
+
+    @Test
+    @Order(24)
+    public void givenIdempotencyKey_whenRepeated_thenResponseReplayed() {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+        Supplier<ResponseEntity<Flight>> action = () -> {
+            executions.incrementAndGet();
+            Flight savedFlight = flightService.saveFlight(flight("LO4201", "WAW", "POZ",
+                "2031-04-01T06:00:00Z", 100));
+            return ResponseEntity.ok()
+                .location(URI.create("/flights/" + savedFlight.getId()))
+                .eTag(Long.toString(savedFlight.getVersion()))
+                .body(savedFlight);
+        };
+        ResponseEntity<Flight> first = idempotencyService.execute("flight-4201",
+            "POST /flights LO4201", Flight.class, action);
+
+        // When
+        ResponseEntity<Flight> repeated = idempotencyService.execute("flight-4201",
+            "POST /flights LO4201", Flight.class, action);
+        IdempotencyService restarted = idempotencyService();
+        ResponseEntity<Flight> afterRestart = restarted.execute("flight-4201",
+            "POST /flights LO4201", Flight.class, action);
+        restarted.stop();
+
+        // Then
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(repeated.getBody().getId()).isEqualTo(first.getBody().getId());
+        assertThat(afterRestart.getStatusCode()).isEqualTo(first.getStatusCode());
+        assertThat(afterRestart.getBody().getId()).isEqualTo(first.getBody().getId());
+        for (ResponseEntity<Flight> replayed : List.of(repeated, afterRestart)) {
+            assertThat(replayed.getHeaders().getLocation())
+                .isEqualTo(first.getHeaders().getLocation());
+            assertThat(replayed.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+        }
+    }
+
+    @Test
+    @Order(25)
+    public void givenUsedIdempotencyKey_whenOtherRequest_thenUnprocessable() {
+        // Given
+        idempotencyService.execute("flight-4202", "POST /flights LO4202", Flight.class,
+            () -> ResponseEntity.ok(flightService.saveFlight(flight("LO4202", "WAW", "POZ",
+                "2031-04-01T06:00:00Z", 100))));
+        int flightsCount = flightService.getFlights().size();
+        Supplier<ResponseEntity<Flight>> otherAction =
+            () -> ResponseEntity.ok(flightService.saveFlight(flight("LO4203", "WAW", "POZ",
+                "2031-04-01T06:00:00Z", 100)));
+
+        // When
+        IdempotencyKeyReusedException reused = assertThrows(IdempotencyKeyReusedException.class,
+            () -> idempotencyService.execute("flight-4202", "POST /flights LO4203",
+                Flight.class, otherAction));
+        IdempotencyService restarted = idempotencyService();
+        IdempotencyKeyReusedException reusedAfterRestart =
+            assertThrows(IdempotencyKeyReusedException.class,
+                () -> restarted.execute("flight-4202", "POST /flights LO4203", Flight.class,
+                    otherAction));
+        restarted.stop();
+
+        // Then
+        assertThat(reused.getHttpStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(reusedAfterRestart.getHttpStatus()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(flightService.getFlights()).hasSize(flightsCount);
+    }
+
+    @Test
+    @Order(26)
+    public void givenRequestInProgress_whenRepeatedConcurrently_thenExecutedOnce()
+        throws InterruptedException {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        Supplier<ResponseEntity<Flight>> action = () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                proceed.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return ResponseEntity.ok(flightService.saveFlight(flight("LO4204", "WAW", "POZ",
+                "2031-04-01T06:00:00Z", 100)));
+        };
+        IdempotencyService otherInstance = idempotencyService();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        // When
+        CompletableFuture<ResponseEntity<Flight>> first = CompletableFuture.supplyAsync(
+            () -> idempotencyService.execute("flight-4204", "POST /flights LO4204",
+                Flight.class, action), executor);
+        started.await();
+        CompletableFuture<ResponseEntity<Flight>> sameInstance = CompletableFuture.supplyAsync(
+            () -> idempotencyService.execute("flight-4204", "POST /flights LO4204",
+                Flight.class, action), executor);
+        CompletableFuture<ResponseEntity<Flight>> otherInstanceResponse =
+            CompletableFuture.supplyAsync(() -> otherInstance.execute("flight-4204",
+                "POST /flights LO4204", Flight.class, action), executor);
+        Thread.sleep(200);
+        assertThat(sameInstance).isNotDone();
+        assertThat(otherInstanceResponse).isNotDone();
+        proceed.countDown();
+
+        // Then
+        long id = first.join().getBody().getId();
+        assertThat(sameInstance.join().getBody().getId()).isEqualTo(id);
+        assertThat(otherInstanceResponse.join().getBody().getId()).isEqualTo(id);
+        assertThat(executions.get()).isEqualTo(1);
+        executor.shutdown();
+        otherInstance.stop();
+    }
+
+    @Test
+    @Order(27)
+    public void givenFlights_whenExported_thenEachFlightWrittenAsOneLine() throws IOException {
+        // Given
+        List<Long> flightIds = new ArrayList<>();
+        for (int day = 1; day <= 3; day++) {
+            flightIds.add(flightService.saveFlight(Flight.builder()
+                .flightNumber("LO70" + day)
+                .originAirport("WAW")
+                .destinationAirport("BZG")
+                .departureDateTime(OffsetDateTime.parse("2031-05-0" + day + "T06:00:00Z"))
+                .availableSeatsCount(100)
+                .build()).getId());
+        }
+        FlightFilterCriteria criteria = FlightFilterCriteria.builder()
+            .originAirport("WAW")
+            .destinationAirport("BZG")
+            .build();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+
+        // When
+        flightExportService.exportFlights(criteria, ExportFormat.NDJSON).writeTo(ndjson);
+        flightExportService.exportFlights(criteria, ExportFormat.CSV).writeTo(csv);
+
+        // Then
+        List<Long> ndjsonIds = new ArrayList<>();
+        for (String line : ndjson.toString(StandardCharsets.UTF_8).lines().toList()) {
+            ndjsonIds.add(objectMapper.readValue(line, FlightView.class).id());
+        }
+        assertThat(ndjsonIds).containsExactlyInAnyOrderElementsOf(flightIds);
+
+        List<String> csvLines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(csvLines.get(0)).isEqualTo("id,flightNumber,originAirport,"
+            + "destinationAirport,departureDateTime,arrivalDateTime,availableSeatsCount");
+        assertThat(csvLines.subList(1, csvLines.size()))
+            .extracting(line -> Long.parseLong(line.substring(0, line.indexOf(','))))
+            .containsExactlyInAnyOrderElementsOf(flightIds);
+    }
+
+    @Test
+    @Order(28)
+    public void givenBookedFlight_whenManifestExported_thenPassengersListedInBookingOrder()
+        throws IOException {
+        // Given
+        Flight flight = flightService.saveFlight(Flight.builder()
+            .flightNumber("LO711")
+            .originAirport("WAW")
+            .destinationAirport("IEG")
+            .departureDateTime(OffsetDateTime.parse("2031-06-01T06:00:00Z"))
+            .availableSeatsCount(100)
+            .build());
+        for (String lastName : List.of("Lis", "Wilk")) {
+            Passenger passenger = passengerService.savePassenger(Passenger.builder()
+                .firstName("Anna")
+                .lastName(lastName)
+                .phoneNumber(lastName.equals("Lis") ? "+48100200401" : "+48100200402")
+                .build());
+            flightService.addPassenger(flight.getId(), passenger.getId());
+        }
+        ByteArrayOutputStream manifest = new ByteArrayOutputStream();
+        ByteArrayOutputStream manifests = new ByteArrayOutputStream();
+
+        // When
+        flightExportService.exportManifest(flight.getId(), ExportFormat.CSV).writeTo(manifest);
+        flightExportService.exportManifests(OffsetDateTime.parse("2031-06-01T00:00:00Z"),
+            OffsetDateTime.parse("2031-06-01T23:59:59Z"), ExportFormat.NDJSON).writeTo(manifests);
+
+        // Then
+        List<String> csvLines = manifest.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(csvLines).hasSize(3);
+        assertThat(csvLines.get(0)).startsWith("flightId,flightNumber,");
+        assertThat(csvLines.get(1)).contains(",Anna,Lis,");
+        assertThat(csvLines.get(2)).contains(",Anna,Wilk,");
+
+        List<String> lastNames = new ArrayList<>();
+        for (String line : manifests.toString(StandardCharsets.UTF_8).lines().toList()) {
+            lastNames.add(objectMapper.readValue(line, ManifestRow.class).lastName());
+        }
+        assertThat(lastNames).containsExactly("Lis", "Wilk");
+        assertThrows(FlightNotFoundException.class,
+            () -> flightExportService.exportManifest(-1, ExportFormat.CSV));
+    }
+
+    @Test
+    @Order(29)
+    public void givenCachedFlight_whenSeatsBooked_thenCurrentSeatsRead() {
+        // Given
+        Flight flight = flightService.saveFlight(Flight.builder()
+            .flightNumber("LO721")
+            .originAirport("WAW")
+            .destinationAirport("SZY")
+            .departureDateTime(OffsetDateTime.parse("2031-07-01T06:00:00Z"))
+            .availableSeatsCount(10)
+            .build());
+        Passenger passenger = passengerService.savePassenger(Passenger.builder()
+            .firstName("Piotr")
+            .lastName("Sowa")
+            .phoneNumber("+48100200501")
+            .build());
+        flightService.findFlight(flight.getId());
+        long hits = flightCacheStats().hits();
+        flightService.findFlight(flight.getId());
+        assertThat(flightCacheStats().hits()).isGreaterThan(hits);
+
+        // When
+        flightService.addPassenger(flight.getId(), passenger.getId());
+
+        // Then
+        assertThat(flightService.findFlight(flight.getId()).getAvailableSeatsCount())
+            .isEqualTo(9);
+    }
+
+    @Test
+    @Order(30)
+    public void givenSearchIndex_whenFiltered_thenSamePagesAsDatabase() {
+        // Given
+        for (int i = 0; i < 6; i++) {
+            flightService.saveFlight(Flight.builder()
+                .flightNumber("LO73" + i)
+                .originAirport("WAW")
+                .destinationAirport("OSR")
+                .departureDateTime(OffsetDateTime.parse("2031-08-01T06:00:00Z")
+                    .plusHours(i / 2 * 3))
+                .availableSeatsCount(20 * i)
+                .build());
+        }
+        List<FlightFilterCriteria> searches = List.of(
+            FlightFilterCriteria.builder()
+                .originAirport("WAW")
+                .destinationAirport("OSR")
+                .dateFrom(OffsetDateTime.parse("2031-08-01T00:00:00Z"))
+                .build(),
+            FlightFilterCriteria.builder()
+                .originAirport("WAW")
+                .destinationAirport("OSR")
+                .dateFrom(OffsetDateTime.parse("2031-08-01T06:00:00Z"))
+                .dateTo(OffsetDateTime.parse("2031-08-01T09:00:00Z"))
+                .seatsCountFrom(30)
+                .build());
+
+        // When / Then
+        for (FlightFilterCriteria criteria : searches) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                FlightCursor after = null;
+                List<FlightView> fromDatabase;
+                do {
+                    FlightPageRequest page = new FlightPageRequest(after, 2, direction);
+                    fromDatabase = flightRepository.filterFlights(criteria, page);
+                    assertThat(flightSearchIndex.filterFlights(criteria, page).orElseThrow())
+                        .extracting(FlightView::id)
+                        .containsExactlyElementsOf(fromDatabase.stream()
+                            .map(FlightView::id)
+                            .toList());
+                    if (fromDatabase.size() > 2) {
+                        FlightView last = fromDatabase.get(1);
+                        after = new FlightCursor(last.departureDateTime(), last.id());
+                    }
+                } while (fromDatabase.size() > 2);
+            }
+        }
+    }
+
+    @Test
+    @Order(31)
+    public void givenBoard_whenRequestedWithETag_thenNotModifiedUntilSeatsChange()
+        throws Exception {
+        // Given
+        Flight flight = flightService.saveFlight(Flight.builder()
+            .flightNumber("LO741")
+            .originAirport("RDO")
+            .destinationAirport("WAW")
+            .departureDateTime(OffsetDateTime.parse("2031-09-01T06:00:00Z"))
+            .availableSeatsCount(50)
+            .build());
+        Passenger passenger = passengerService.savePassenger(Passenger.builder()
+            .firstName("Ewa")
+            .lastName("Kruk")
+            .phoneNumber("+48100200601")
+            .build());
+        MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(airportBoardController)
+            .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+            .build();
+
+        // When / Then
+        MvcResult first = mockMvc.perform(get("/airports/rdo/departures"))
+            .andExpect(status().isOk())
+            .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+        assertThat(first.getResponse().getContentAsString()).contains("LO741");
+
+        mockMvc.perform(get("/airports/rdo/departures")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        flightService.addPassenger(flight.getId(), passenger.getId());
+        MvcResult changed = mockMvc.perform(get("/airports/rdo/departures")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andReturn();
+        assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+    }
+
+    @Test
+    @Order(32)
+    public void givenSubscriber_whenSeveralBookingsBeforeFlush_thenOneUpdateSent()
+        throws Exception {
+        // Given
+        Flight flight = flightService.saveFlight(flight("LO751", "WAW", "LUZ",
+            "2031-10-01T06:00:00Z", 50));
+        List<Long> passengerIds = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            passengerIds.add(passengerService.savePassenger(Passenger.builder()
+                .firstName("Jan")
+                .lastName("Subskrybent")
+                .phoneNumber("+4810020070" + i)
+                .build()).getId());
+        }
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(flightSubscriptionController).build();
+        MvcResult stream = mockMvc.perform(get("/flights/{id}/updates", flight.getId()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        flightService.addPassenger(flight.getId(), passengerIds.get(0));
+        // Powiadomienie zostało właśnie wysłane, więc kolejne nastąpi najwcześniej
+        // po upływie coalesceInterval.
+        awaitUpdate(stream, 49);
+
+        // When
+        flightService.addPassenger(flight.getId(), passengerIds.get(1));
+        flightService.addPassenger(flight.getId(), passengerIds.get(2));
+
+        // Then
+        awaitUpdate(stream, 47);
+        Thread.sleep(subscriptionProperties.coalesceInterval().plusMillis(500).toMillis());
+        String events = stream.getResponse().getContentAsString();
+        assertThat(events.split("event:flight", -1)).hasSize(4);
+        assertThat(events).contains("\"availableSeatsCount\":50")
+            .doesNotContain("\"availableSeatsCount\":48");
+    }
+
+    @Test
+    @Order(33)
+    public void givenCleanRestart_whenCrashedAfterReservation_thenReservationReplayed()
+        throws IOException {
+        // Given
+        long id = flightService.saveFlight(flight("LO4004", "WAW", "SZZ",
+            "2031-02-01T06:00:00Z", 5)).getId();
+        memoryInventory(journalDirectory, transactionTemplate).stop();
+        InMemorySeatInventory crashed = memoryInventory(journalDirectory, transactionTemplate);
+
+        // When
+        assertThat(crashed.reserve(id, 2)).isTrue();
+        // Awaria bez zamknięcia: dziennik odtwarza nowa instancja.
+        InMemorySeatInventory inventory = memoryInventory(journalDirectory, transactionTemplate);
+
+        // Then
+        assertThat(flightService.findFlight(id).getAvailableSeatsCount()).isEqualTo(3);
+        assertThat(inventory.reserve(id, 3)).isTrue();
+        assertThat(inventory.reserve(id, 1)).isFalse();
+        inventory.stop();
+    }
+
+    @Test
+    @Order(34)
+    public void givenCachedSearches_whenFlightBookedOrMoved_thenOnlyAffectedSearchesReloaded() {
+        // Given
+        long booked = flightService.saveFlight(flight("LO761", "GDN", "WAW",
+            "2021-01-10T06:00:00Z", 10)).getId();
+        long untouched = flightService.saveFlight(flight("LO762", "GDN", "KRK",
+            "2021-01-10T06:00:00Z", 10)).getId();
+        long staying = flightService.saveFlight(flight("LO763", "GDN", "LCJ",
+            "2021-01-10T06:00:00Z", 10)).getId();
+        long moved = flightService.saveFlight(flight("LO764", "GDN", "BZG",
+            "2021-01-10T09:00:00Z", 10)).getId();
+        Passenger passenger = passengerService.savePassenger(Passenger.builder()
+            .firstName("Marek")
+            .lastName("Szpak")
+            .phoneNumber("+48100200801")
+            .build());
+        for (String destination : List.of("WAW", "KRK", "LCJ")) {
+            assertThat(searchRoute("GDN", destination, "2021-01-10")).hasSize(1);
+        }
+        // Zmiana z pominięciem aplikacji: widoczna dopiero po wczytaniu wyniku z bazy.
+        updateSeats(untouched, 5);
+
+        // When
+        flightService.addPassenger(booked, passenger.getId());
+        flightService.patchFlight(moved, Flight.builder()
+            .destinationAirport("LCJ")
+            .availableSeatsCount(-1)
+            .build());
+
+        // Then
+        assertThat(searchRoute("GDN", "WAW", "2021-01-10"))
+            .extracting(FlightView::availableSeatsCount).containsExactly(9);
+        assertThat(searchRoute("GDN", "KRK", "2021-01-10"))
+            .extracting(FlightView::availableSeatsCount).containsExactly(10);
+        assertThat(searchRoute("GDN", "LCJ", "2021-01-10"))
+            .extracting(FlightView::id).containsExactly(staying, moved);
+    }
+
+    @Test
+    @Order(35)
+    public void givenSearchLoading_whenSeatsChangedMeanwhile_thenResultNotCached()
+        throws InterruptedException {
+        // Given
+        long id = flightService.saveFlight(flight("LO771", "GDN", "RZE",
+            "2021-01-11T06:00:00Z", 10)).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> lock = CompletableFuture.runAsync(
+            () -> transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("lock table flights in access exclusive mode");
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }), executor);
+        locked.await();
+
+        // When
+        CompletableFuture<List<FlightView>> loading = CompletableFuture.supplyAsync(
+            () -> searchRoute("GDN", "RZE", "2021-01-11"), executor);
+        while (jdbcTemplate.queryForObject("select count(*) from pg_locks where not granted",
+            Integer.class) == 0) {
+            Thread.sleep(10);
+        }
+        eventPublisher.publishEvent(new SeatsChangedEvent(Set.of(id)));
+        release.countDown();
+        lock.join();
+
+        // Then
+        assertThat(loading.join()).extracting(FlightView::availableSeatsCount)
+            .containsExactly(10);
+        updateSeats(id, 8);
+        assertThat(searchRoute("GDN", "RZE", "2021-01-11"))
+            .extracting(FlightView::availableSeatsCount).containsExactly(8);
+        updateSeats(id, 7);
+        assertThat(searchRoute("GDN", "RZE", "2021-01-11"))
+            .extracting(FlightView::availableSeatsCount).containsExactly(8);
+        executor.shutdown();
+    }
+
+    @Test
+    @Order(36)
+    public void givenSearchOverSizeBound_whenSearched_thenResultNotCached() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        for (int hour = 0; hour < 6; hour++) {
+            ids.add(flightService.saveFlight(flight("LO78" + hour, "GDN", "KTW",
+                "2021-01-12T0" + hour + ":00:00Z", 10)).getId());
+        }
+        assertThat(searchRoute("GDN", "KTW", "2021-01-12")).hasSize(6);
+
+        // When
+        updateSeats(ids.get(0), 3);
+
+        // Then
+        assertThat(searchRoute("GDN", "KTW", "2021-01-12"))
+            .extracting(FlightView::availableSeatsCount).startsWith(3, 10);
+    }
+
+    @Test
+    @Order(37)
+    public void givenConnectingFlights_whenSearched_thenConnectionsRespectMinimumTime() {
+        // Given
+        long first = saveLeg("LO791", "BER", "CPH", "2032-01-10T06:00:00Z", 10);
+        long shortConnection = saveLeg("LO792", "CPH", "OSL", "2032-01-10T07:30:00Z", 10);
+        long connection = saveLeg("LO793", "CPH", "OSL", "2032-01-10T08:00:00Z", 10);
+        long secondConnection = saveLeg("LO794", "OSL", "TRD", "2032-01-10T10:00:00Z", 10);
+        long lateConnection = saveLeg("LO795", "CPH", "TRD", "2032-01-10T12:00:00Z", 10);
+
+        // When / Then
+        assertThat(itineraries("BER", "OSL", "2032-01-10", 1, Duration.ofMinutes(45)))
+            .containsExactly(List.of(first, connection));
+        assertThat(itineraries("BER", "OSL", "2032-01-10", 1, Duration.ofMinutes(15)))
+            .containsExactly(List.of(first, shortConnection), List.of(first, connection));
+        assertThat(itineraries("BER", "TRD", "2032-01-10", 1, Duration.ofMinutes(45)))
+            .containsExactly(List.of(first, lateConnection));
+        assertThat(itineraries("BER", "TRD", "2032-01-10", 2, Duration.ofMinutes(45)))
+            .containsExactly(List.of(first, connection, secondConnection),
+                List.of(first, lateConnection));
+    }
+
+    @Test
+    @Order(38)
+    public void givenFullFlight_whenSearched_thenNoConnectionThroughIt() {
+        // Given
+        long first = saveLeg("LO796", "BER", "CPH", "2032-02-10T06:00:00Z", 10);
+        saveLeg("LO797", "CPH", "OSL", "2032-02-10T08:00:00Z", 0);
+        long lastSeat = saveLeg("LO798", "CPH", "OSL", "2032-02-10T10:00:00Z", 1);
+        Passenger passenger = passengerService.savePassenger(Passenger.builder()
+            .firstName("Olga")
+            .lastName("Czapla")
+            .phoneNumber("+48100200802")
+            .build());
+        assertThat(itineraries("BER", "OSL", "2032-02-10", 1, Duration.ofMinutes(45)))
+            .containsExactly(List.of(first, lastSeat));
+
+        // When
+        flightService.addPassenger(lastSeat, passenger.getId());
+
+        // Then
+        assertThat(itineraries("BER", "OSL", "2032-02-10", 1, Duration.ofMinutes(45)))
+            .isEmpty();
+    }
+
+    @Test
+    @Order(39)
+    public void givenFlightChanged_whenSearched_thenGraphUpdated() {
+        // Given
+        long first = saveLeg("LO799", "BER", "CPH", "2032-03-10T06:00:00Z", 10);
+        long connection = saveLeg("LO800", "CPH", "OSL", "2032-03-10T12:00:00Z", 10);
+        assertThat(itineraries("BER", "OSL", "2032-03-10", 1, Duration.ofMinutes(45)))
+            .containsExactly(List.of(first, connection));
+
+        // When
+        flightService.patchFlight(connection, Flight.builder()
+            .departureDateTime(OffsetDateTime.parse("2032-03-10T07:30:00Z"))
+            .arrivalDateTime(OffsetDateTime.parse("2032-03-10T08:30:00Z"))
+            .availableSeatsCount(-1)
+            .build());
+        long direct = saveLeg("LO801", "BER", "OSL", "2032-03-10T09:00:00Z", 10);
+
+        // Then
+        assertThat(itineraries("BER", "OSL", "2032-03-10", 1, Duration.ofMinutes(45)))
+            .containsExactly(List.of(direct));
+        flightService.deleteFlight(direct);
+        assertThat(itineraries("BER", "OSL", "2032-03-10", 1, Duration.ofMinutes(45)))
+            .isEmpty();
+    }
+
+    private CacheStatsDto flightCacheStats() {
+        return entityCacheService.getStatistics().stream()
+            .filter(stats -> stats.region().equals(EntityCacheConfiguration.FLIGHT_REGION))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private List<FlightView> searchRoute(String originAirport, String destinationAirport,
+                                         String date) {
+        OffsetDateTime dateFrom = OffsetDateTime.parse(date + "T00:00:00Z");
+        FlightFilterCriteria criteria = FlightFilterCriteria.builder()
+            .originAirport(originAirport)
+            .destinationAirport(destinationAirport)
+            .dateFrom(dateFrom)
+            .dateTo(dateFrom.plusDays(1).minusSeconds(1))
+            .build();
+        return flightService.getFlights(criteria,
+            new FlightPageRequest(null, 10, Sort.Direction.ASC)).items();
+    }
+
+    private void updateSeats(long flightId, int availableSeatsCount) {
+        assertThat(jdbcTemplate.update("update flights set available_seats_count = ? where id = ?",
+            availableSeatsCount, flightId)).isEqualTo(1);
+    }
+
+    private long saveLeg(String flightNumber, String originAirport, String destinationAirport,
+                         String departureDateTime, int availableSeatsCount) {
+        Flight leg = flight(flightNumber, originAirport, destinationAirport, departureDateTime,
+            availableSeatsCount);
+        leg.setArrivalDateTime(leg.getDepartureDateTime().plusHours(1));
+        return flightService.saveFlight(leg).getId();
+    }
+
+    private List<List<Long>> itineraries(String originAirport, String destinationAirport,
+                                         String date, int maxStops, Duration minConnection) {
+        OffsetDateTime dateFrom = OffsetDateTime.parse(date + "T00:00:00Z");
+        return itineraryController.searchItineraries(originAirport, destinationAirport,
+                dateFrom, dateFrom.plusDays(1), maxStops, minConnection, 1, 10)
+            .getBody().stream()
+            .map(itinerary -> itinerary.legs().stream().map(FlightView::id).toList())
+            .toList();
+    }
+
+    private void awaitUpdate(MvcResult stream, int availableSeatsCount) throws Exception {
+        String update = "\"availableSeatsCount\":" + availableSeatsCount;
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!stream.getResponse().getContentAsString().contains(update)) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private IdempotencyService idempotencyService() {
+        IdempotencyService service = new IdempotencyService(idempotencyRecordRepository,
+            objectMapper, taskScheduler, transactionTemplate, idempotencyProperties);
+        service.start();
+        return service;
+    }
+
+    private InMemorySeatInventory memoryInventory(Path directory, TransactionTemplate template) {
+        InMemorySeatInventory inventory = new InMemorySeatInventory(flightRepository,
+            eventPublisher, checkpointRepository, template, taskScheduler,
+            new InventoryProperties(InventoryMode.MEMORY, Duration.ofHours(1), directory, false));
+        try {
+            inventory.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return inventory;
+    }
+
+    private List<Flight> scheduleFlights(long scheduleId) {
+        return flightService.getFlights().stream()
+            .filter(flight -> Long.valueOf(scheduleId).equals(flight.getScheduleId()))
+            .toList();
+    }
 }
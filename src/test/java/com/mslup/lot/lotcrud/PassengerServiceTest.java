@@ -4,9 +4,15 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import com.mslup.lot.lotcrud.dto.PassengerImportResultDto;
 import com.mslup.lot.lotcrud.exception.PassengerNotFoundException;
+import com.mslup.lot.lotcrud.export.ExportFormat;
+import com.mslup.lot.lotcrud.importer.PassengerImportService;
 import com.mslup.lot.lotcrud.model.Passenger;
 import com.mslup.lot.lotcrud.service.PassengerService;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -19,6 +25,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 public class PassengerServiceTest extends LotCrudApplicationTests {
     @Autowired
     private PassengerService passengerService;
+    @Autowired
+    private PassengerImportService passengerImportService;
 
     public void prepareData() {
         passengerService.savePassenger(Passenger.builder()
@@ -94,4 +102,31 @@ public class PassengerServiceTest extends LotCrudApplicationTests {
         assertThat(newPassengersCount).isEqualTo(passengersCount - 1);
         assertThrows(PassengerNotFoundException.class, () -> passengerService.findPassenger(2));
     }
+
+    @Test
+    @Order(4)
+    public void givenExistingPhoneNumber_whenImport_thenPassengerUpdated() throws IOException {
+        // Given
+        int passengersCount = passengerService.getPassengers().size();
+        String ndjson = """
+            {"firstName":"Jan","lastName":"Nowak","phoneNumber":"+48 111 222 333"}
+            {"firstName":"Ewa","lastName":"Mazur","phoneNumber":"+48999000111"}
+            {"firstName":"E","lastName":"Mazur","phoneNumber":"+48999000222"}
+            """;
+
+        // When
+        PassengerImportResultDto result = passengerImportService.importPassengers(
+            new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+            ExportFormat.NDJSON);
+
+        // Then
+        assertThat(result.insertedCount()).isEqualTo(1);
+        assertThat(result.updatedCount()).isEqualTo(1);
+        assertThat(result.rejectedCount()).isEqualTo(1);
+        assertThat(passengerService.getPassengers().size()).isEqualTo(passengersCount + 1);
+        assertThat(passengerService.getPassengers().stream()
+            .filter(passenger -> passenger.getPhoneNumber().equals("+48 111 222 333"))
+            .map(Passenger::getLastName)
+            .findFirst()).contains("Nowak");
+    }
 }